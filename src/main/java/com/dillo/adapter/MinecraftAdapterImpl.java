@@ -35,6 +35,8 @@ import net.minecraft.util.BlockPos;
 import net.minecraft.util.MouseHelper;
 import net.minecraft.util.Vec3;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import org.lwjgl.input.Mouse;
 
 public class MinecraftAdapterImpl implements MinecraftAdapter {
@@ -299,6 +301,28 @@ public class MinecraftAdapterImpl implements MinecraftAdapter {
     return getWorld().getChunkFromChunkCoords(chunkX, chunkZ).isLoaded();
   }
 
+  @Override
+  public boolean copyChunkBlockIds(int chunkX, int chunkZ, short[][] sections) {
+    final Chunk chunk = getWorld().getChunkFromChunkCoords(chunkX, chunkZ);
+    if (!chunk.isLoaded()) {
+      return false;
+    }
+    final ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+    for (int i = 0; i < sections.length && i < storage.length; i++) {
+      if (storage[i] == null || storage[i].isEmpty()) {
+        continue;
+      }
+      // block state ids, the block id is in the upper bits
+      final char[] states = storage[i].getData();
+      final short[] ids = new short[states.length];
+      for (int j = 0; j < states.length; j++) {
+        ids[j] = (short) (states[j] >> 4);
+      }
+      sections[i] = ids;
+    }
+    return true;
+  }
+
   @Override
   public int getItemIdFromBlock(final BlockWrapper block) {
     final Item itemFromBlock = Item.getItemFromBlock(blocks.get(block.getName()));
@@ -42,10 +42,10 @@ import com.dillo.main.route.MobKiller.MobKillerMain;
 import com.dillo.main.route.Nuker.NukerMain;
 import com.dillo.main.route.PlaceBlocks.PlaceCobbleModule;
 import com.dillo.main.route.RouteDeletr.RouteDeletrMain;
+import com.dillo.main.route.RouteChecker.RouteVisibility;
 import com.dillo.main.route.ViewClearLines.ViewClearLines;
 import com.dillo.main.teleport.TeleportMovePlayer.MoveToVertex;
 import com.dillo.main.teleport.utils.*;
-import com.dillo.main.utils.looks.DriveLook;
 import com.dillo.main.utils.looks.LookAt;
 import com.dillo.main.utils.looks.YawLook;
 import com.dillo.pathfinding.Brigeros.DestroyBlock;
@@ -63,17 +63,15 @@ import com.dillo.pathfinding.stevebot.core.pathfinding.actions.ActionUtils;
 import com.dillo.pathfinding.stevebot.core.player.*;
 import com.dillo.pathfinding.stevebot.core.rendering.Renderer;
 import com.dillo.remote.*;
+import com.dillo.utils.AimSolver;
 import com.dillo.utils.GetConfigFolder;
 import com.dillo.utils.renderUtils.renderModules.*;
+import com.dillo.utils.scheduler.ActionSequencer;
+import com.dillo.utils.scheduler.TaskScheduler;
 import gg.essential.api.EssentialAPI;
 import gg.essential.api.commands.Command;
 import java.io.File;
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import net.minecraft.client.settings.KeyBinding;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.common.MinecraftForge;
@@ -107,6 +105,8 @@ public class armadillomacro {
   public static Renderer renderer;
   public static PathHandler pathHandler;
   public static RouteDeletrMain destroyer = new RouteDeletrMain();
+  public static final TaskScheduler scheduler = new TaskScheduler("MiningInTwo Scheduler");
+  public static final ActionSequencer sequencer = new ActionSequencer();
 
   public static MoveToVertex vertexMover = new MoveToVertex();
 
@@ -142,6 +142,7 @@ public class armadillomacro {
       new ImportFromClipboard(),
       new DeleteRoute(),
       new ImportFromWeb(),
+      new ExportRoute(),
       new RouteChecker(),
       new AddStucture(),
       new RemoveStructure(),
@@ -162,9 +163,14 @@ public class armadillomacro {
       new GemESP(),
       new WalkToBlockWithBaritone(),
       new StartAutoSetupWithBaritone(),
+      new RecordBenchmarkSlice(),
+      new SchedulerStats(),
       new RouteDestroyr(destroyer)
     );
 
+    PlaceCobbleModule placeCobbleModule = new PlaceCobbleModule();
+    SetupMain setupMain = new SetupMain();
+
     registerEvents(
       new LookAt(),
       new ArmadilloMain(),
@@ -209,10 +215,9 @@ public class armadillomacro {
       new CheckFile(),
       new YawLook(),
       new PassReNew(),
-      new DriveLook(),
       new TeleportToBlock(),
-      new PlaceCobbleModule(),
-      new SetupMain(),
+      placeCobbleModule,
+      setupMain,
       destroyer,
       vertexMover,
       mobKiller,
@@ -221,9 +226,19 @@ public class armadillomacro {
       new RegistersStevebot(),
       new PlayerLocChangeTrigger(),
       new com.dillo.main.teleport.utils.Test(),
-      new NewSpinDrive()
+      new NewSpinDrive(),
+      new PacketRegistry(),
+      sequencer
     );
 
+    scheduler.runEvery("PlaceCobble", 50, true, placeCobbleModule::onUpdate);
+    scheduler.runEvery("AutoSetup", 50, true, setupMain::onUpdate);
+
+    AimSolver.registerPackets();
+    RouteVisibility.registerPackets();
+    NukerMain.registerPackets();
+    RegistersStevebot.registerPackets();
+
     registerKeybinds(keybinds);
     makeAcusation(new File(GetConfigFolder.getMcDir() + "/MiningInTwo/chatAnswers.json"));
 
@@ -291,27 +306,13 @@ public class armadillomacro {
     // path handler
     pathHandler = new PathHandler(minecraftAdapter, renderer);
     EssentialAPI.getCommandRegistry().registerCommand(new WalkToCustom(new StevebotApi(pathHandler)));
+    EssentialAPI.getCommandRegistry().registerCommand(new PathBenchmark(minecraftAdapter));
+    EssentialAPI.getCommandRegistry().registerCommand(new EventStats(eventManager));
   }
 
   @Mod.EventHandler
   public void postFMLInitialization(FMLPostInitializationEvent event) {
-    LocalDateTime now = LocalDateTime.now();
-    Duration initialDelay = Duration.between(now, now);
-    long initialDelaySeconds = initialDelay.getSeconds();
-
-    ScheduledExecutorService threadPool = Executors.newScheduledThreadPool(1);
-    threadPool.scheduleAtFixedRate(
-      () -> MinecraftForge.EVENT_BUS.post(new SecondEvent()),
-      initialDelaySeconds,
-      1,
-      TimeUnit.SECONDS
-    );
-    threadPool.scheduleAtFixedRate(
-      () -> MinecraftForge.EVENT_BUS.post(new MillisecondEvent()),
-      initialDelaySeconds,
-      1,
-      TimeUnit.MILLISECONDS
-    );
+    scheduler.runEvery("SecondEvent", 1000, false, () -> MinecraftForge.EVENT_BUS.post(new SecondEvent()));
 
     eventProducer.onPostInit();
     itemLibrary.insertBlocks(blockLibrary.getAllBlocks());
@@ -418,6 +419,7 @@ public class armadillomacro {
 
     @Override
     public void onEvent(RenderWorldLastEvent event) {
+      if (renderer == null || !renderer.hasVisibleRenderables()) return;
       try {
         renderer.onEventRender(PlayerUtils.getPlayerPosition());
       } catch (NullPointerException e) {}
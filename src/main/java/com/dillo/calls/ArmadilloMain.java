@@ -1,19 +1,17 @@
 package com.dillo.calls;
 
-import static com.dillo.calls.CurrentState.NEXTBLOCKSTAGE2;
-import static com.dillo.calls.CurrentState.SPINDRIVE;
-import static com.dillo.main.failsafes.AnswerPPL.answerAccusation;
-import static com.dillo.main.macro.main.NewSpinDrive.startAgain;
-import static com.dillo.main.teleport.macro.SmartTP.TPToNext;
-import static com.dillo.main.teleport.utils.TeleportToBlock.tpStageWalk;
-import static com.dillo.main.utils.CenterPlayer.centerStage2;
+import static com.dillo.calls.CurrentState.*;
 
+import com.dillo.calls.StateMachine.Phase;
+import com.dillo.main.failsafes.AnswerPPL;
 import com.dillo.main.files.localizedData.currentRoute;
 import com.dillo.main.macro.main.GetOffArmadillo;
 import com.dillo.main.macro.main.NewSpinDrive;
 import com.dillo.main.macro.main.StateDillo;
+import com.dillo.main.teleport.macro.SmartTP;
 import com.dillo.main.teleport.macro.TeleportToNextBlock;
 import com.dillo.main.teleport.utils.TeleportToBlock;
+import com.dillo.main.utils.CenterPlayer;
 import com.dillo.pathfinding.Brigeros.BlockNode;
 import com.dillo.pathfinding.Brigeros.PathFinderV2;
 import com.dillo.pathfinding.Brigeros.WalkOnPath;
@@ -29,75 +27,79 @@ public class ArmadilloMain {
 
   public static int newDilloCounter = 0;
 
+  /**
+   * What the macro does in each state and which states it goes on to. Every cycle runs teleport -> ARMADILLO -> drive
+   * -> teleport to the next block, see {@link MacroTelemetry}.
+   */
+  public static final StateMachine STATES = new StateMachine()
+    .on(STARTMACRO, Phase.OTHER, StartMacro::startMacro, ARMADILLO)
+    .on(STARTCHECKDILLO, Phase.TELEPORT, ArmadilloMain::getOffDillo, NEXTBLOCKSTAGE2)
+    .on(
+      NEXTBLOCKSTAGE2,
+      Phase.TELEPORT,
+      TeleportToNextBlock::teleportToNextBlockStage2,
+      TPSTAGE2,
+      TPSTAGEWALK,
+      SMARTTP,
+      ARMADILLO
+    )
+    .on(TPSTAGEWALK, Phase.TELEPORT, TeleportToBlock::tpStageWalk, TPSTAGE2)
+    .on(TPSTAGE2, Phase.TELEPORT, TeleportToBlock::teleportStage2, TPSTAGE3)
+    .on(TPSTAGE3, Phase.TELEPORT, TeleportToBlock::teleportStage3, ARMADILLO, SMARTTP, TPSTAGE2, TPSTAGEWALK)
+    .on(SMARTTP, Phase.TELEPORT, SmartTP::TPToNext, TPSTAGE2, TPSTAGEWALK)
+    .on(CENTERSTAGE2, Phase.TELEPORT, CenterPlayer::centerStage2, ARMADILLO)
+    .on(
+      ARMADILLO,
+      Phase.DRIVE,
+      StateDillo::stateDillo,
+      STATEDILLONOGETTINGON,
+      ROUTEOBSTRUCTEDCLEAR,
+      STARTCHECKDILLO,
+      NEXTBLOCKSTAGE2
+    )
+    .on(
+      STATEDILLONOGETTINGON,
+      Phase.DRIVE,
+      StateDillo::stateDilloNoGettingOn,
+      SPINDRIVE,
+      STARTCHECKDILLO,
+      NEXTBLOCKSTAGE2
+    )
+    .on(SPINDRIVE, Phase.DRIVE, NewSpinDrive::newSpinDrive, STATEDILLONOGETTINGON, STARTCHECKDILLO, NEXTBLOCKSTAGE2)
+    .on(STARTAGAINDRIVE, Phase.DRIVE, () -> ArmadilloStates.setState(SPINDRIVE), SPINDRIVE)
+    .on(
+      RESTARTDRIVEWAIT,
+      Phase.DRIVE,
+      NewSpinDrive::startAgain,
+      STATEDILLONOGETTINGON,
+      STARTCHECKDILLO,
+      NEXTBLOCKSTAGE2
+    )
+    .passive(ROUTEOBSTRUCTEDCLEAR, Phase.DRIVE)
+    .on(STARTWALKINGPATH, Phase.WALK, WalkOnPath::startWalkingPath, RESTARTPATHFINDER, RESUMEWALKING)
+    .on(RESTARTPATHFINDER, Phase.WALK, ArmadilloMain::restartPathfinder, STARTWALKINGPATH)
+    .on(
+      RESUMEWALKING,
+      Phase.WALK,
+      () -> WalkOnPath.walkOnPath(WalkOnPath.blockRoute),
+      RESTARTPATHFINDER,
+      STARTWALKINGPATH
+    )
+    // failsafes put back whatever state they interrupted
+    .on(ANSWER_ACCUSATION, Phase.FAILSAFE, AnswerPPL::answerAccusation, CurrentState.values())
+    .passive(PLAYER_DETECTION, Phase.FAILSAFE, CurrentState.values())
+    .passive(REFUELING, Phase.FAILSAFE, ARMADILLO)
+    .passive(RETELEPORTING, Phase.TELEPORT);
+
   @SubscribeEvent
   public void onTick(TickEvent.ClientTickEvent event) {
     if (event.phase == TickEvent.Phase.END) {
+      MacroTelemetry.onTick();
       try {
         if (ArmadilloStates.isOnline()) {
-          if (ArmadilloStates.currentState != null) {
-            switch (ArmadilloStates.currentState) {
-              case TPSTAGEWALK:
-                tpStageWalk();
-                return;
-              case CENTERSTAGE2:
-                centerStage2();
-                return;
-              case ARMADILLO:
-                StateDillo.stateDillo();
-                return;
-              case SPINDRIVE:
-                NewSpinDrive.newSpinDrive();
-                return;
-              case TPSTAGE2:
-                TeleportToBlock.teleportStage2();
-                return;
-              case TPSTAGE3:
-                TeleportToBlock.teleportStage3();
-                return;
-              case STARTWALKINGPATH:
-                WalkOnPath.startWalkingPath();
-                return;
-              case STARTCHECKDILLO:
-                GetOffArmadillo.getOffArmadillo(NEXTBLOCKSTAGE2, currentRoute.currentBlock.getY(), 500, false);
-                return;
-              case RESTARTPATHFINDER:
-                ArmadilloStates.currentState = null;
-                BlockPos playerPos = new BlockPos(ids.mc.thePlayer.posX, ids.mc.thePlayer.posY, ids.mc.thePlayer.posZ);
-                PathFinderV2.restartFinder(
-                  new BlockNode(
-                    playerPos,
-                    DistanceFromTo.distanceFromTo(PathFinderV2.lastFinalDestination.blockPos(), playerPos),
-                    0.0,
-                    null
-                  )
-                );
-                return;
-              case RESUMEWALKING:
-                ArmadilloStates.currentState = null;
-                WalkOnPath.walkOnPath(WalkOnPath.blockRoute);
-                return;
-              case NEXTBLOCKSTAGE2:
-                TeleportToNextBlock.teleportToNextBlockStage2();
-                return;
-              case STARTMACRO:
-                StartMacro.startMacro();
-                return;
-              case STARTAGAINDRIVE:
-                ArmadilloStates.currentState = SPINDRIVE;
-                return;
-              case ANSWER_ACCUSATION:
-                answerAccusation();
-                return;
-              case SMARTTP:
-                TPToNext();
-                return;
-              case STATEDILLONOGETTINGON:
-                StateDillo.stateDilloNoGettingOn();
-                return;
-              case RESTARTDRIVEWAIT:
-                startAgain();
-                return;
-            }
+          CurrentState state = ArmadilloStates.getState();
+          if (state != null) {
+            STATES.dispatch(state);
           }
         }
       } catch (NullPointerException e) {
@@ -105,4 +107,20 @@ public class ArmadilloMain {
       }
     }
   }
+
+  private static void getOffDillo() {
+    GetOffArmadillo.getOffArmadillo(NEXTBLOCKSTAGE2, currentRoute.currentBlock.getY(), 500, false);
+  }
+
+  private static void restartPathfinder() {
+    BlockPos playerPos = new BlockPos(ids.mc.thePlayer.posX, ids.mc.thePlayer.posY, ids.mc.thePlayer.posZ);
+    PathFinderV2.restartFinder(
+      new BlockNode(
+        playerPos,
+        DistanceFromTo.distanceFromTo(PathFinderV2.lastFinalDestination.blockPos(), playerPos),
+        0.0,
+        null
+      )
+    );
+  }
 }
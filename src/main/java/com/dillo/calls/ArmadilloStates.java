@@ -1,13 +1,49 @@
 package com.dillo.calls;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class ArmadilloStates {
 
   public static boolean spinDrive = false;
   public static boolean teleporting = false;
-  public static CurrentState currentState = null;
+  // read from any thread without locking, changed under the class lock so transitions are recorded in order
+  private static final AtomicReference<CurrentState> currentState = new AtomicReference<>(null);
   public static KillSwitch offlineState = KillSwitch.OFFLINE;
 
   public static boolean isOnline() {
     return offlineState != KillSwitch.OFFLINE;
   }
+
+  public static CurrentState getState() {
+    return currentState.get();
+  }
+
+  /**
+   * Hands the macro over to the state, the dispatcher in {@link ArmadilloMain} runs its handler on the next tick. Null
+   * while a handler is busy with something that sets the next state once it is done.
+   */
+  public static synchronized void setState(CurrentState state) {
+    CurrentState previous = currentState.getAndSet(state);
+    MacroTelemetry.onTransition(previous, state);
+  }
+
+  /**
+   * Clears the state and returns the one it replaced in one step, for pausing the macro and restoring it afterwards.
+   */
+  public static synchronized CurrentState takeState() {
+    CurrentState previous = currentState.getAndSet(null);
+    MacroTelemetry.onTransition(previous, null);
+    return previous;
+  }
+
+  /**
+   * Sets the state only if it still is the expected one, so two callers can not both take over the same state.
+   *
+   * @return true, if the state was changed
+   */
+  public static synchronized boolean changeState(CurrentState expected, CurrentState state) {
+    if (!currentState.compareAndSet(expected, state)) return false;
+    MacroTelemetry.onTransition(expected, state);
+    return true;
+  }
 }
@@ -0,0 +1,258 @@
+package com.dillo.calls;
+
+import com.dillo.armadillomacro;
+import com.dillo.calls.StateMachine.Phase;
+import com.dillo.config.config;
+import com.dillo.utils.GetConfigFolder;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Watches the state changes of the macro: how long it stays in every state, how long a mining cycle takes and when it
+ * gets stuck.
+ *
+ * Time spent in a state lasts until the next state that is not null, the null a handler sets while it is busy counts
+ * to the state it was started from. A cycle starts when the macro gets on the armadillo, its drive ends with the first
+ * teleport state and it ends when the macro gets on the armadillo again at the next block. Getting on again without a
+ * teleport in between, e.g. after refueling, is still the same drive.
+ *
+ * Cycles and stalls are appended to MiningInTwo/telemetry/cycles.csv, which is rolled over to cycles.1.csv once it
+ * gets too big.
+ */
+public class MacroTelemetry {
+
+  private static final long STALL_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final long MAX_CSV_BYTES = 1024 * 1024;
+  private static final long[] BUCKET_MILLIS = { 250, 500, 1000, 1500, 2000, 3000, 4000, 6000, 8000, 12000, 20000 };
+
+  private static final File csvFile = new File(GetConfigFolder.getMcDir() + "/MiningInTwo/telemetry/cycles.csv");
+  private static final File rolledCsvFile = new File(
+    GetConfigFolder.getMcDir() + "/MiningInTwo/telemetry/cycles.1.csv"
+  );
+  // the csv is written on its own thread, so slow file access never delays the scheduler or the client thread
+  private static final ExecutorService csvWriter = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "TelemetryCsv");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+  private static final String version = armadillomacro.class.getAnnotation(Mod.class).version();
+
+  /**
+   * Durations counted into fixed buckets, percentiles are the upper bound of the bucket they fall into.
+   */
+  public static class Histogram {
+
+    private final long[] counts = new long[BUCKET_MILLIS.length + 1];
+    private long count = 0;
+    private long totalMillis = 0;
+    private long maxMillis = 0;
+
+    private void record(long millis) {
+      int bucket = 0;
+      while (bucket < BUCKET_MILLIS.length && millis > BUCKET_MILLIS[bucket]) {
+        bucket++;
+      }
+      counts[bucket]++;
+      count++;
+      totalMillis += millis;
+      maxMillis = Math.max(maxMillis, millis);
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public double getAvgMillis() {
+      return count == 0 ? 0 : (double) totalMillis / count;
+    }
+
+    /**
+     * @param fraction between 0 and 1, e.g. 0.9 for the 90th percentile
+     */
+    public long getPercentileMillis(double fraction) {
+      if (count == 0) return 0;
+      long rank = (long) Math.ceil(fraction * count);
+      long seen = 0;
+      for (int bucket = 0; bucket < BUCKET_MILLIS.length; bucket++) {
+        seen += counts[bucket];
+        if (seen >= rank) return BUCKET_MILLIS[bucket];
+      }
+      return maxMillis;
+    }
+  }
+
+  private static final Histogram cycles = new Histogram();
+  private static final Histogram drives = new Histogram();
+  private static final Histogram teleports = new Histogram();
+  // total nanos and number of visits by state
+  private static final Map<CurrentState, long[]> dwell = new EnumMap<>(CurrentState.class);
+
+  private static CurrentState lastState = null;
+  private static long lastStateNanos = 0;
+  private static long lastTransitionNanos = System.nanoTime();
+  private static long cycleStartNanos = -1;
+  private static long driveEndNanos = -1;
+  private static boolean stalled = false;
+  private static long transitions = 0;
+  private static long unexpected = 0;
+  private static long stalls = 0;
+
+  /**
+   * Called by {@link ArmadilloStates} for every change of the state, in the order they happened.
+   */
+  static synchronized void onTransition(CurrentState from, CurrentState to) {
+    long now = System.nanoTime();
+    lastTransitionNanos = now;
+    stalled = false;
+    if (to == null || to == lastState) return;
+
+    transitions++;
+    if (!ArmadilloMain.STATES.isExpected(lastState, to)) unexpected++;
+    leaveState(now);
+    lastState = to;
+    lastStateNanos = now;
+
+    if (to == CurrentState.ARMADILLO) {
+      if (cycleStartNanos >= 0 && driveEndNanos >= 0) {
+        long cycleMillis = TimeUnit.NANOSECONDS.toMillis(now - cycleStartNanos);
+        long driveMillis = TimeUnit.NANOSECONDS.toMillis(driveEndNanos - cycleStartNanos);
+        long teleportMillis = TimeUnit.NANOSECONDS.toMillis(now - driveEndNanos);
+        cycles.record(cycleMillis);
+        drives.record(driveMillis);
+        teleports.record(teleportMillis);
+        writeCsv("cycle", to, cycleMillis, driveMillis, teleportMillis);
+      }
+      if (cycleStartNanos < 0 || driveEndNanos >= 0) {
+        cycleStartNanos = now;
+        driveEndNanos = -1;
+      }
+    } else if (cycleStartNanos >= 0 && driveEndNanos < 0 && ArmadilloMain.STATES.getPhase(to) == Phase.TELEPORT) {
+      driveEndNanos = now;
+    }
+  }
+
+  /**
+   * Called every client tick. Drops the running cycle while the macro is offline and counts a stall once it stays in
+   * the same state for too long while online.
+   */
+  static synchronized void onTick() {
+    long now = System.nanoTime();
+    if (!ArmadilloStates.isOnline()) {
+      leaveState(now);
+      lastState = null;
+      cycleStartNanos = -1;
+      driveEndNanos = -1;
+      lastTransitionNanos = now;
+      stalled = false;
+      return;
+    }
+
+    if (!stalled && now - lastTransitionNanos > STALL_NANOS) {
+      stalled = true;
+      stalls++;
+      CurrentState state = ArmadilloStates.getState();
+      writeCsv("stall", state != null ? state : lastState, 0, 0, 0);
+    }
+  }
+
+  /**
+   * @return the lines of the telemetry overlay
+   */
+  public static synchronized List<String> getOverlayLines() {
+    List<String> lines = new ArrayList<>();
+    lines.add(
+      String.format(
+        Locale.ROOT,
+        "Cycles: %d, avg %.1fs, p50 %.1fs, p90 %.1fs",
+        cycles.getCount(),
+        cycles.getAvgMillis() / 1000,
+        cycles.getPercentileMillis(0.5) / 1000.0,
+        cycles.getPercentileMillis(0.9) / 1000.0
+      )
+    );
+    lines.add(
+      String.format(
+        Locale.ROOT,
+        "Drive avg %.1fs, teleport avg %.1fs",
+        drives.getAvgMillis() / 1000,
+        teleports.getAvgMillis() / 1000
+      )
+    );
+    lines.add("Stalls: " + stalls + ", unexpected transitions: " + unexpected + "/" + transitions);
+
+    CurrentState top = null;
+    long topNanos = 0;
+    long totalNanos = 0;
+    for (Map.Entry<CurrentState, long[]> entry : dwell.entrySet()) {
+      totalNanos += entry.getValue()[0];
+      if (entry.getValue()[0] > topNanos) {
+        top = entry.getKey();
+        topNanos = entry.getValue()[0];
+      }
+    }
+    if (top != null) {
+      lines.add(
+        String.format(
+          Locale.ROOT,
+          "Most time in %s: %.0f%%, avg %.1fs",
+          top,
+          100.0 * topNanos / totalNanos,
+          topNanos / 1e9 / dwell.get(top)[1]
+        )
+      );
+    }
+    return lines;
+  }
+
+  private static void leaveState(long now) {
+    if (lastState == null) return;
+    long[] stateDwell = dwell.computeIfAbsent(lastState, state -> new long[2]);
+    stateDwell[0] += now - lastStateNanos;
+    stateDwell[1]++;
+  }
+
+  private static void writeCsv(String event, CurrentState state, long cycleMillis, long driveMillis, long tpMillis) {
+    if (!config.telemetryCsv) return;
+    String line = String.format(
+      Locale.ROOT,
+      "%d,%s,%s,%s,%d,%d,%d%n",
+      System.currentTimeMillis(),
+      version,
+      event,
+      state,
+      cycleMillis,
+      driveMillis,
+      tpMillis
+    );
+    csvWriter.execute(() -> appendToCsv(line));
+  }
+
+  private static void appendToCsv(String line) {
+    if (!csvFile.getParentFile().exists()) csvFile.getParentFile().mkdirs();
+    if (csvFile.length() > MAX_CSV_BYTES) {
+      rolledCsvFile.delete();
+      csvFile.renameTo(rolledCsvFile);
+    }
+    boolean writeHeader = !csvFile.exists();
+
+    try (FileWriter writer = new FileWriter(csvFile, true)) {
+      if (writeHeader) {
+        writer.write("time,version,event,state,cycleMs,driveMs,teleportMs\n");
+      }
+      writer.write(line);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
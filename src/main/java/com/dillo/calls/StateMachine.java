@@ -0,0 +1,82 @@
+package com.dillo.calls;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+/**
+ * The table {@link ArmadilloMain} dispatches the macro with: for every {@link CurrentState} the handler that runs when
+ * the macro is in it, the part of the mining cycle it belongs to and the states it hands over to.
+ *
+ * The listed next states document the normal flow and are checked by {@link MacroTelemetry}, which counts every other
+ * transition as unexpected instead of refusing it: failsafes and the remote control can take over from any state and
+ * restore it afterwards. Passing through null, which handlers set while they are busy, is always allowed.
+ */
+public class StateMachine {
+
+  public enum Phase {
+    TELEPORT,
+    DRIVE,
+    WALK,
+    FAILSAFE,
+    OTHER,
+  }
+
+  private static class Entry {
+
+    private final Phase phase;
+    private final Runnable handler;
+    private final EnumSet<CurrentState> next;
+
+    Entry(Phase phase, Runnable handler, EnumSet<CurrentState> next) {
+      this.phase = phase;
+      this.handler = handler;
+      this.next = next;
+    }
+  }
+
+  private final EnumMap<CurrentState, Entry> table = new EnumMap<>(CurrentState.class);
+
+  /**
+   * Registers a state the dispatcher runs a handler for.
+   */
+  public StateMachine on(CurrentState state, Phase phase, Runnable handler, CurrentState... next) {
+    EnumSet<CurrentState> nextStates = EnumSet.noneOf(CurrentState.class);
+    for (CurrentState nextState : next) {
+      nextStates.add(nextState);
+    }
+    table.put(state, new Entry(phase, handler, nextStates));
+    return this;
+  }
+
+  /**
+   * Registers a state that is handled outside of the dispatcher, e.g. by its own tick or chat listener.
+   */
+  public StateMachine passive(CurrentState state, Phase phase, CurrentState... next) {
+    return on(state, phase, null, next);
+  }
+
+  /**
+   * Takes the state over from {@link ArmadilloStates} and runs its handler. Does nothing if another thread changed
+   * the state in the meantime or the state has no handler.
+   */
+  public void dispatch(CurrentState state) {
+    Entry entry = table.get(state);
+    if (entry == null || entry.handler == null) return;
+    if (!ArmadilloStates.changeState(state, null)) return;
+    entry.handler.run();
+  }
+
+  public Phase getPhase(CurrentState state) {
+    Entry entry = state == null ? null : table.get(state);
+    return entry == null ? Phase.OTHER : entry.phase;
+  }
+
+  /**
+   * @return true, if from lists to as one of its next states, or either of them is null or not in the table
+   */
+  public boolean isExpected(CurrentState from, CurrentState to) {
+    if (from == null || to == null) return true;
+    Entry entry = table.get(from);
+    return entry == null || entry.next.contains(to);
+  }
+}
@@ -50,6 +50,7 @@ public class MainHelp extends Command {
     SendChat.chat(
       "/importFromWeb <link> <name of new route> -> WARNING! WORKS WITH ONLY PASTERBIN.COM. Does the same thing as /importRoute but from website."
     );
+    SendChat.chat("/exportRoute -> writes the selected route to <name>.json in the MiningInTwo folder.");
     SendChat.chat("+++++++++++++++++++++");
     SendChat.chat("                                  ");
     SendChat.chat("+++++ RouteClear +++++");
@@ -1,7 +1,7 @@
 package com.dillo.commands;
 
 import com.dillo.main.files.localizedData.currentRoute;
-import com.dillo.main.files.readwrite.ReWriteFile;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.prefix;
@@ -23,7 +23,7 @@ public class InsertInMiddle extends Command {
       if (!currentRoute.currentRoute.contains(blockUnder)) {
         if (ids.mc.theWorld.getBlockState(blockUnder).getBlock() == Blocks.cobblestone) {
           currentRoute.currentRoute.add(number - 1, blockUnder);
-          ReWriteFile.reWriteFile(currentRoute.currentRouteFile);
+          RouteStore.pointInserted(currentRoute.currentRouteFile, number - 1, blockUnder);
         } else {
           SendChat.chat(prefix.prefix + "Stand on a cobble block in order to insert it!");
         }
@@ -1,7 +1,7 @@
 package com.dillo.commands;
 
 import com.dillo.main.files.localizedData.currentRoute;
-import com.dillo.main.files.readwrite.ReWriteFile;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.chatUtils.SendChat;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.prefix;
@@ -24,7 +24,7 @@ public class ReplaceBlockRoute extends Command {
       if (ids.mc.theWorld.getBlockState(newBlock).getBlock() == Blocks.cobblestone) {
         if (!currentRoute.currentRoute.contains(newBlock)) {
           currentRoute.currentRoute.set(number - 1, newBlock);
-          ReWriteFile.reWriteFile(currentRoute.currentRouteFile);
+          RouteStore.pointReplaced(currentRoute.currentRouteFile, number - 1, newBlock);
           SendChat.chat(prefix.prefix + "Block replaced!");
         } else {
           SendChat.chat(prefix.prefix + "You have already added this point to your route!");
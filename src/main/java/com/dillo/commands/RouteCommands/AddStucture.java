@@ -1,7 +1,7 @@
 package com.dillo.commands.RouteCommands;
 
 import com.dillo.main.files.localizedData.currentRoute;
-import com.dillo.main.files.readwrite.ReWriteFile;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.random.ids;
 import gg.essential.api.commands.Command;
 import gg.essential.api.commands.DefaultHandler;
@@ -18,6 +18,6 @@ public class AddStucture extends Command {
     BlockPos block = new BlockPos(ids.mc.thePlayer.posX, ids.mc.thePlayer.posY, ids.mc.thePlayer.posZ);
     currentRoute.strucList.add(block);
     //SendChat.chat(currentRoute.strucList.size() + "SO");
-    ReWriteFile.reWriteFile(currentRoute.currentRouteFile);
+    RouteStore.structureAdded(currentRoute.currentRouteFile, block);
   }
 }
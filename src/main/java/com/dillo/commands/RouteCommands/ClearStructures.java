@@ -1,7 +1,7 @@
 package com.dillo.commands.RouteCommands;
 
 import com.dillo.main.files.localizedData.currentRoute;
-import com.dillo.main.files.readwrite.ReWriteFile;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.prefix;
 import gg.essential.api.commands.Command;
@@ -17,7 +17,7 @@ public class ClearStructures extends Command {
   public void handle() {
     if (currentRoute.strucList.size() > 0) {
       currentRoute.strucList.clear();
-      ReWriteFile.reWriteFile(currentRoute.currentRouteFile);
+      RouteStore.structuresCleared(currentRoute.currentRouteFile);
     } else {
       SendChat.chat(prefix.prefix + "The route that you selected does not have any structures!");
     }
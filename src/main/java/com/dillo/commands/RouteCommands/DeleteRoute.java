@@ -1,6 +1,7 @@
 package com.dillo.commands.RouteCommands;
 
 import com.dillo.main.files.localizedData.currentRoute;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.prefix;
 import gg.essential.api.commands.Command;
@@ -15,7 +16,7 @@ public class DeleteRoute extends Command {
   @DefaultHandler
   public void handle() {
     if (currentRoute.currentRouteFile != null) {
-      currentRoute.currentRouteFile.delete();
+      RouteStore.delete(currentRoute.currentRouteFile);
       currentRoute.currentRoute.clear();
       currentRoute.strucList.clear();
       currentRoute.currentRouteFile = null;
@@ -0,0 +1,27 @@
+package com.dillo.commands.RouteCommands;
+
+import com.dillo.main.files.localizedData.currentRoute;
+import com.dillo.main.files.readwrite.RouteStore;
+import com.dillo.utils.previous.chatUtils.SendChat;
+import com.dillo.utils.previous.random.prefix;
+import gg.essential.api.commands.Command;
+import gg.essential.api.commands.DefaultHandler;
+import java.io.File;
+
+public class ExportRoute extends Command {
+
+  public ExportRoute() {
+    super("exportRoute");
+  }
+
+  @DefaultHandler
+  public void handle() {
+    if (currentRoute.currentRouteFile != null) {
+      File jsonFile = RouteStore.jsonFile(currentRoute.currentRouteFile);
+      RouteStore.exportJson(jsonFile, currentRoute.currentRoute, currentRoute.strucList);
+      SendChat.chat(prefix.prefix + "Route exported to " + jsonFile.getName() + "!");
+    } else {
+      SendChat.chat(prefix.prefix + "No route selected :/. Select it then run command again.");
+    }
+  }
+}
@@ -4,8 +4,7 @@ import static com.dillo.commands.RouteCommands.ImportFromWeb.decodeWaypointData;
 import static com.dillo.commands.RouteCommands.ImportFromWeb.writeFileList;
 
 import com.dillo.main.files.localizedData.currentRoute;
-import com.dillo.main.files.readwrite.WriteFile;
-import com.dillo.utils.GetConfigFolder;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.prefix;
 import com.google.gson.Gson;
@@ -18,7 +17,6 @@ import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 import net.minecraft.util.BlockPos;
 import org.apache.commons.codec.binary.Base64;
@@ -59,8 +57,9 @@ public class ImportFromClipboard extends Command {
           int y = jsonObject.get("y").getAsInt();
           int z = jsonObject.get("z").getAsInt();
 
-          WriteFile.writeFile(endFile, new BlockPos(x, y, z));
+          currentRoute.currentRoute.add(new BlockPos(x, y, z));
         }
+        RouteStore.save(endFile, currentRoute.currentRoute, currentRoute.strucList);
 
         SendChat.chat(prefix.prefix + "Added route! (name -> " + currentRoute.currentRouteSelected + ")");
       }
@@ -87,17 +86,7 @@ public class ImportFromClipboard extends Command {
   }
 
   public static File createFile(String name) {
-    File newRoute = null;
-
-    if (name.contains(".json")) newRoute =
-      new File(GetConfigFolder.getMcDir() + "/MiningInTwo/" + name); else newRoute =
-      new File(GetConfigFolder.getMcDir() + "/MiningInTwo/" + name + ".json");
-
-    try {
-      newRoute.createNewFile();
-    } catch (IOException e) {}
-
-    return newRoute;
+    return RouteStore.routeFile(name);
   }
 
   public static String getClipboardContents() {
@@ -1,14 +1,12 @@
 package com.dillo.commands.RouteCommands;
 
-import static com.dillo.main.files.readwrite.WriteFile.gson;
-
 import com.dillo.main.files.localizedData.currentRoute;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.prefix;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
 import gg.essential.api.commands.Command;
 import gg.essential.api.commands.DefaultHandler;
 import java.io.*;
@@ -73,48 +71,13 @@ public class ImportFromWeb extends Command {
   public static void writeFileList(List<BlockPos> list, File fileName) {
     switchFiles(fileName);
     currentRoute.currentRoute = list;
-    JsonArray arr = new JsonArray();
-
-    for (BlockPos routeBlock : currentRoute.currentRoute) {
-      JsonObject newJson = new JsonObject();
-      newJson.add("x", new JsonPrimitive(routeBlock.getX()));
-      newJson.add("y", new JsonPrimitive(routeBlock.getY()));
-      newJson.add("z", new JsonPrimitive(routeBlock.getZ()));
-      arr.add(newJson);
-    }
-
-    JsonArray strucArr = new JsonArray();
-    if (currentRoute.strucList.size() > 0) {
-      for (BlockPos blockPos : currentRoute.strucList) {
-        JsonObject newJson = new JsonObject();
-        newJson.add("x", new JsonPrimitive(blockPos.getX()));
-        newJson.add("y", new JsonPrimitive(blockPos.getY()));
-        newJson.add("z", new JsonPrimitive(blockPos.getZ()));
-        strucArr.add(newJson);
-      }
-    } else {
-      strucArr.add(null);
-    }
-
-    JsonObject newJson = new JsonObject();
-    newJson.add("route", arr);
-    newJson.add("structures", strucArr);
-
-    String json = gson.toJson(newJson);
-
-    try {
-      FileWriter writer = new FileWriter(currentRoute.currentRouteFile);
-      writer.write(json);
-      writer.close();
-    } catch (Exception e) {
-      System.out.println("HHHHHHHHt");
-    }
+    RouteStore.save(currentRoute.currentRouteFile, currentRoute.currentRoute, currentRoute.strucList);
   }
 
   private static void switchFiles(File fileName) {
     currentRoute.currentRoute.clear();
     currentRoute.currentRouteFile = fileName;
-    currentRoute.currentRouteSelected = fileName.getName();
+    currentRoute.currentRouteSelected = RouteStore.routeName(fileName);
     currentRoute.currentBlock = null;
   }
 
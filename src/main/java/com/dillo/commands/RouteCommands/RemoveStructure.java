@@ -1,7 +1,7 @@
 package com.dillo.commands.RouteCommands;
 
 import com.dillo.main.files.localizedData.currentRoute;
-import com.dillo.main.files.readwrite.ReWriteFile;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.prefix;
 import gg.essential.api.commands.Command;
@@ -17,7 +17,7 @@ public class RemoveStructure extends Command {
   public void handle(int point) {
     if (currentRoute.strucList.size() < point + 1) {
       currentRoute.strucList.remove(point + 1);
-      ReWriteFile.reWriteFile(currentRoute.currentRouteFile);
+      RouteStore.structureRemoved(currentRoute.currentRouteFile, point + 1);
       SendChat.chat(prefix.prefix + "Removed structure.");
     } else {
       SendChat.chat(prefix.prefix + "Please provide a valid point.");
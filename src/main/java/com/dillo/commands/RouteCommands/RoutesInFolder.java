@@ -1,10 +1,9 @@
 package com.dillo.commands.RouteCommands;
 
-import com.dillo.utils.GetConfigFolder;
+import com.dillo.main.files.readwrite.RouteStore;
 import com.dillo.utils.previous.SendChat;
 import gg.essential.api.commands.Command;
 import gg.essential.api.commands.DefaultHandler;
-import java.io.File;
 
 public class RoutesInFolder extends Command {
 
@@ -19,17 +18,8 @@ public class RoutesInFolder extends Command {
   }
 
   public static void getAllRoutes() {
-    File folder = new File(GetConfigFolder.getMcDir() + "/MiningInTwo");
-
-    if (folder.isDirectory()) {
-      File[] files = folder.listFiles();
-      if (files != null) {
-        for (File file : files) {
-          if (file.isFile()) {
-            SendChat.chat(file.getName().replace("..json", ""));
-          }
-        }
-      }
+    for (String name : RouteStore.listRoutes()) {
+      SendChat.chat(name);
     }
   }
 }
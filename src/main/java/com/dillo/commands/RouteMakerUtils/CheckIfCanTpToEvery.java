@@ -3,11 +3,11 @@ package com.dillo.commands.RouteMakerUtils;
 import static com.dillo.utils.RayTracingUtils.adjustLook;
 
 import com.dillo.main.files.localizedData.currentRoute;
+import com.dillo.main.route.RouteChecker.RouteVisibility;
 import com.dillo.utils.previous.chatUtils.SendChat;
 import com.dillo.utils.previous.random.prefix;
 import gg.essential.api.commands.Command;
 import gg.essential.api.commands.DefaultHandler;
-import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.Vec3;
 
@@ -25,6 +25,7 @@ public class CheckIfCanTpToEvery extends Command {
     }
 
     boolean send = true;
+    RouteVisibility.Matrix matrix = RouteVisibility.get(RouteVisibility.Profile.TELEPORT);
 
     for (int i = 0; i < currentRoute.currentRoute.size(); i++) {
       int second = i + 1;
@@ -33,28 +34,7 @@ public class CheckIfCanTpToEvery extends Command {
         second = 0;
       }
 
-      BlockPos block1 = currentRoute.currentRoute.get(i);
-      BlockPos block2 = currentRoute.currentRoute.get(second);
-
-      Vec3 nextBlockPos = adjustLook(
-        new Vec3(block1.getX(), block1.getY() + 1, block1.getZ()),
-        block2,
-        new net.minecraft.block.Block[] {
-          Blocks.stone,
-          Blocks.coal_ore,
-          Blocks.emerald_ore,
-          Blocks.diamond_ore,
-          Blocks.gold_ore,
-          Blocks.iron_ore,
-          Blocks.lapis_ore,
-          Blocks.lit_redstone_ore,
-          Blocks.redstone_ore,
-          Blocks.air,
-        },
-        true
-      );
-
-      if (nextBlockPos == null) {
+      if (!canTp(matrix, i, second)) {
         send = false;
         SendChat.chat(prefix.prefix + "Can't tp to one or more blocks! (" + (int) (i + 1) + ")");
       }
@@ -62,4 +42,18 @@ public class CheckIfCanTpToEvery extends Command {
 
     if (send) SendChat.chat(prefix.prefix + "It appears that you can tp to every block!");
   }
+
+  private static boolean canTp(RouteVisibility.Matrix matrix, int from, int to) {
+    if (matrix != null && matrix.isComputed(from, to)) return matrix.canTp(from, to);
+
+    BlockPos block1 = currentRoute.currentRoute.get(from);
+    BlockPos block2 = currentRoute.currentRoute.get(to);
+    Vec3 nextBlockPos = adjustLook(
+      new Vec3(block1.getX(), block1.getY() + 1, block1.getZ()),
+      block2,
+      RouteVisibility.MINEABLE,
+      true
+    );
+    return nextBlockPos != null;
+  }
 }
@@ -0,0 +1,31 @@
+package com.dillo.commands.UtilCommands;
+
+import com.dillo.events.EventManager;
+import com.dillo.events.EventManagerImpl;
+import com.dillo.events.PacketRegistry;
+import com.dillo.utils.previous.SendChat;
+import com.dillo.utils.previous.random.prefix;
+import gg.essential.api.commands.Command;
+import gg.essential.api.commands.DefaultHandler;
+
+public class EventStats extends Command {
+
+  private final EventManager eventManager;
+
+  public EventStats(EventManager eventManager) {
+    super("eventStats");
+    this.eventManager = eventManager;
+  }
+
+  @DefaultHandler
+  public void handle() {
+    if (eventManager instanceof EventManagerImpl) {
+      for (EventManagerImpl.Registration registration : ((EventManagerImpl) eventManager).getRegistrations()) {
+        SendChat.chat(prefix.prefix + registration);
+      }
+    }
+    for (PacketRegistry.Subscription subscription : PacketRegistry.getSubscriptions()) {
+      SendChat.chat(prefix.prefix + subscription);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.dillo.commands.UtilCommands;
+
+import com.dillo.pathfinding.benchmark.PathfindingBenchmark;
+import com.dillo.pathfinding.benchmark.VoxelSlice;
+import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
+import com.dillo.utils.previous.SendChat;
+import com.dillo.utils.previous.random.prefix;
+import gg.essential.api.commands.Command;
+import gg.essential.api.commands.DefaultHandler;
+import java.io.File;
+import java.io.IOException;
+import net.minecraft.util.BlockPos;
+
+public class PathBenchmark extends Command {
+
+  private static final int WARMUP = 2;
+  private static final int ITERATIONS = 5;
+
+  private final MinecraftAdapter minecraftAdapter;
+  private volatile boolean running = false;
+
+  public PathBenchmark(MinecraftAdapter minecraftAdapter) {
+    super("pathBench");
+    this.minecraftAdapter = minecraftAdapter;
+  }
+
+  /**
+   * /pathBench live x y z searches the loaded world from the player, /pathBench name x y z searches
+   * a slice saved with /recordSlice from the position it was recorded at.
+   */
+  @DefaultHandler
+  public void handle(String scenario, int x, int y, int z) {
+    if (running) {
+      SendChat.chat(prefix.prefix + "A benchmark is already running.");
+      return;
+    }
+
+    VoxelSlice slice = null;
+    if (!scenario.equalsIgnoreCase("live")) {
+      File file = VoxelSlice.fileFor(scenario);
+      if (!file.exists()) {
+        SendChat.chat(prefix.prefix + "No slice named " + scenario + ". Record one with /recordSlice.");
+        return;
+      }
+      try {
+        slice = VoxelSlice.load(file);
+      } catch (IOException e) {
+        SendChat.chat(prefix.prefix + "Could not load slice: " + e.getMessage());
+        return;
+      }
+    }
+
+    PathfindingBenchmark benchmark = new PathfindingBenchmark(
+      minecraftAdapter,
+      scenario,
+      slice,
+      new BlockPos(x, y, z),
+      WARMUP,
+      ITERATIONS
+    );
+
+    running = true;
+    SendChat.chat(prefix.prefix + "Benchmarking pathfinders...");
+    Thread thread = new Thread(
+      () -> {
+        try {
+          for (PathfindingBenchmark.Result result : benchmark.run()) {
+            SendChat.chat(prefix.prefix + result);
+          }
+        } finally {
+          running = false;
+        }
+      },
+      "PathBenchmark"
+    );
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
@@ -0,0 +1,33 @@
+package com.dillo.commands.UtilCommands;
+
+import com.dillo.pathfinding.benchmark.VoxelSlice;
+import com.dillo.utils.previous.SendChat;
+import com.dillo.utils.previous.random.ids;
+import com.dillo.utils.previous.random.prefix;
+import gg.essential.api.commands.Command;
+import gg.essential.api.commands.DefaultHandler;
+import java.io.IOException;
+import net.minecraft.util.BlockPos;
+
+public class RecordBenchmarkSlice extends Command {
+
+  private static final int MAX_RADIUS = 96;
+
+  public RecordBenchmarkSlice() {
+    super("recordSlice");
+  }
+
+  @DefaultHandler
+  public void handle(String name, int radius) {
+    radius = Math.max(1, Math.min(MAX_RADIUS, radius));
+    BlockPos start = new BlockPos(ids.mc.thePlayer.posX, ids.mc.thePlayer.posY, ids.mc.thePlayer.posZ);
+    VoxelSlice slice = VoxelSlice.record(ids.mc.theWorld, start, radius, radius / 2);
+
+    try {
+      slice.save(VoxelSlice.fileFor(name));
+      SendChat.chat(prefix.prefix + "Recorded " + slice.getVolume() + " blocks as " + name + ".");
+    } catch (IOException e) {
+      SendChat.chat(prefix.prefix + "Could not save slice: " + e.getMessage());
+    }
+  }
+}
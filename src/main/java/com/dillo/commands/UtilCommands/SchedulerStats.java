@@ -0,0 +1,35 @@
+package com.dillo.commands.UtilCommands;
+
+import static com.dillo.armadillomacro.scheduler;
+import static com.dillo.armadillomacro.sequencer;
+
+import com.dillo.utils.previous.SendChat;
+import com.dillo.utils.previous.random.prefix;
+import com.dillo.utils.scheduler.ActionSequencer;
+import com.dillo.utils.scheduler.ScheduledTask;
+import gg.essential.api.commands.Command;
+import gg.essential.api.commands.DefaultHandler;
+import java.util.List;
+
+public class SchedulerStats extends Command {
+
+  public SchedulerStats() {
+    super("schedulerStats");
+  }
+
+  @DefaultHandler
+  public void handle() {
+    List<ScheduledTask> tasks = scheduler.getTasks();
+    if (tasks.isEmpty()) {
+      SendChat.chat(prefix.prefix + "No tasks scheduled.");
+    }
+    for (ScheduledTask task : tasks) {
+      SendChat.chat(prefix.prefix + task);
+    }
+
+    SendChat.chat(prefix.prefix + sequencer.getRunningCount() + " action sequences running.");
+    for (ActionSequencer.StageStats stage : sequencer.getStats()) {
+      SendChat.chat(prefix.prefix + stage);
+    }
+  }
+}
@@ -136,6 +136,16 @@ public class config extends Vigilant {
   )
   public static boolean isAbleToTeleportChecks = false;
 
+  @Property(
+    type = PropertyType.SLIDER,
+    name = "Route Tp Check Neighborhood",
+    description = "How many of the following route points are checked for tp from every point. 0 checks every pair (slow on long routes).",
+    category = "Route Utils",
+    min = 0,
+    max = 20
+  )
+  public static int routeVisibilityNeighborhood = 1;
+
   @Property(
     type = PropertyType.SWITCH,
     name = "Fail CheckRoute Route Points Display",
@@ -250,6 +260,22 @@ public class config extends Vigilant {
   )
   public static boolean currentActionOverlay = true;
 
+  @Property(
+    type = PropertyType.SWITCH,
+    name = "Macro Telemetry Overlay",
+    description = "Shows how long mining cycles take, how often the macro got stuck and where it spends its time",
+    category = "Fun"
+  )
+  public static boolean telemetryOverlay = false;
+
+  @Property(
+    type = PropertyType.SWITCH,
+    name = "Macro Telemetry CSV",
+    description = "Writes every mining cycle and stall to MiningInTwo/telemetry/cycles.csv",
+    category = "Fun"
+  )
+  public static boolean telemetryCsv = true;
+
   @Property(type = PropertyType.SWITCH, name = "Debug text", description = "Will show debug text.", category = "Fun")
   public static boolean debugText = false;
 
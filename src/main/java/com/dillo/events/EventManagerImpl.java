@@ -1,43 +1,139 @@
 package com.dillo.events;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import net.minecraftforge.fml.common.eventhandler.Event;
 
+/**
+ * Keeps the listeners in a map from event class to an array of listeners. Adding or removing a listener copies the map
+ * and publishes the copy, so dispatching an event is a single lookup without any locking. A listener removed while an
+ * event is dispatched still receives that event, it is gone for the next one.
+ */
 public class EventManagerImpl implements EventManager {
 
-  private final List<EventListener> listeners = new ArrayList<>();
-  private final List<EventListener> listenersToRemove = new ArrayList<>();
+  private static final Registration[] NONE = new Registration[0];
+
+  private final Object writeLock = new Object();
+  private volatile Map<Class<?>, Registration[]> listeners = Collections.emptyMap();
+
+  /**
+   * A registered listener with the time spent in it.
+   */
+  public static class Registration {
+
+    private final EventListener listener;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    Registration(EventListener listener) {
+      this.listener = listener;
+    }
+
+    void dispatch(Event event) {
+      final long start = System.nanoTime();
+      try {
+        listener.onEvent(event);
+      } finally {
+        final long nanos = System.nanoTime() - start;
+        calls.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+      }
+    }
+
+    public EventListener getListener() {
+      return listener;
+    }
+
+    public long getCalls() {
+      return calls.sum();
+    }
+
+    public double getAvgMillis() {
+      final long n = calls.sum();
+      return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    public double getMaxMillis() {
+      return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "%s: %d calls, %.4fms avg (%.3fms max)",
+        listener.getEventClass().getSimpleName(),
+        getCalls(),
+        getAvgMillis(),
+        getMaxMillis()
+      );
+    }
+  }
 
   @Override
   public void addListener(EventListener listener) {
-    synchronized (listeners) {
-      listeners.add(listener);
+    synchronized (writeLock) {
+      final Map<Class<?>, Registration[]> copy = new HashMap<>(listeners);
+      final Registration[] current = copy.getOrDefault(listener.getEventClass(), NONE);
+      final Registration[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = new Registration(listener);
+      copy.put(listener.getEventClass(), updated);
+      listeners = copy;
     }
   }
 
   @Override
   public void removeListener(EventListener listener) {
-    synchronized (listenersToRemove) {
-      listenersToRemove.add(listener);
+    synchronized (writeLock) {
+      final Registration[] current = listeners.get(listener.getEventClass());
+      if (current == null) {
+        return;
+      }
+      final List<Registration> remaining = new ArrayList<>(current.length);
+      for (Registration registration : current) {
+        if (registration.listener != listener) {
+          remaining.add(registration);
+        }
+      }
+      if (remaining.size() == current.length) {
+        return;
+      }
+      final Map<Class<?>, Registration[]> copy = new HashMap<>(listeners);
+      if (remaining.isEmpty()) {
+        copy.remove(listener.getEventClass());
+      } else {
+        copy.put(listener.getEventClass(), remaining.toArray(NONE));
+      }
+      listeners = copy;
     }
   }
 
   @Override
   public void event(Event event) {
-    final Class classEvent = event.getClass();
-    synchronized (listeners) {
-      synchronized (listenersToRemove) {
-        listeners.removeAll(listenersToRemove);
-        listenersToRemove.clear();
-      }
-      for (int i = 0; i < listeners.size(); i++) {
-        final EventListener listener = listeners.get(i);
-        final Class classListener = listener.getEventClass();
-        if (classEvent == classListener) {
-          listener.onEvent(event);
-        }
-      }
+    final Registration[] registrations = listeners.get(event.getClass());
+    if (registrations == null) {
+      return;
+    }
+    for (Registration registration : registrations) {
+      registration.dispatch(event);
+    }
+  }
+
+  /**
+   * @return all registered listeners with their dispatch timing
+   */
+  public List<Registration> getRegistrations() {
+    final List<Registration> registrations = new ArrayList<>();
+    for (Registration[] forClass : listeners.values()) {
+      Collections.addAll(registrations, forClass);
     }
+    return registrations;
   }
 }
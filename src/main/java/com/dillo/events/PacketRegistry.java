@@ -0,0 +1,196 @@
+package com.dillo.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.network.Packet;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+/**
+ * Hands inbound packets to the modules that subscribed to their exact class. Packets are received on the netty thread;
+ * a packet nobody subscribed to costs one map lookup. Subscribers that need the world or the player ask for the client
+ * thread, their packets are queued and handled at the start of the next frame or tick.
+ *
+ * The instance has to be registered on the forge event bus for the client thread queue to be drained.
+ */
+public class PacketRegistry {
+
+  private static final Subscription[] NONE = new Subscription[0];
+  private static final Object writeLock = new Object();
+  private static volatile Map<Class<?>, Subscription[]> subscriptions = Collections.emptyMap();
+  private static final ConcurrentLinkedQueue<Queued> clientQueue = new ConcurrentLinkedQueue<>();
+
+  public interface PacketHandler<P extends Packet<?>> {
+    void onPacket(P packet);
+  }
+
+  /**
+   * A subscription to one packet class with the number of packets handled and the time spent handling them.
+   */
+  public static class Subscription {
+
+    private final Class<?> packetClass;
+    private final PacketHandler handler;
+    private final boolean clientThread;
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile boolean active = true;
+
+    Subscription(Class<?> packetClass, PacketHandler handler, boolean clientThread) {
+      this.packetClass = packetClass;
+      this.handler = handler;
+      this.clientThread = clientThread;
+    }
+
+    void handle(Packet<?> packet) {
+      final long start = System.nanoTime();
+      try {
+        handler.onPacket(packet);
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+      } finally {
+        final long nanos = System.nanoTime() - start;
+        packets.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+      }
+    }
+
+    public Class<?> getPacketClass() {
+      return packetClass;
+    }
+
+    public long getPackets() {
+      return packets.sum();
+    }
+
+    public double getAvgMillis() {
+      final long n = packets.sum();
+      return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    public double getMaxMillis() {
+      return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "%s%s: %d packets, %.4fms avg (%.3fms max)",
+        packetClass.getSimpleName(),
+        clientThread ? " (client)" : "",
+        getPackets(),
+        getAvgMillis(),
+        getMaxMillis()
+      );
+    }
+  }
+
+  private static class Queued {
+
+    private final Subscription subscription;
+    private final Packet<?> packet;
+
+    Queued(Subscription subscription, Packet<?> packet) {
+      this.subscription = subscription;
+      this.packet = packet;
+    }
+  }
+
+  /**
+   * Subscribes the handler to packets of exactly the given class.
+   *
+   * @param clientThread true, to handle the packets on the client thread instead of the netty thread
+   */
+  public static <P extends Packet<?>> Subscription subscribe(
+    Class<P> packetClass,
+    boolean clientThread,
+    PacketHandler<? super P> handler
+  ) {
+    final Subscription subscription = new Subscription(packetClass, handler, clientThread);
+    synchronized (writeLock) {
+      final Map<Class<?>, Subscription[]> copy = new HashMap<>(subscriptions);
+      final Subscription[] current = copy.getOrDefault(packetClass, NONE);
+      final Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = subscription;
+      copy.put(packetClass, updated);
+      subscriptions = copy;
+    }
+    return subscription;
+  }
+
+  public static void unsubscribe(Subscription subscription) {
+    subscription.active = false;
+    synchronized (writeLock) {
+      final Subscription[] current = subscriptions.get(subscription.packetClass);
+      if (current == null) {
+        return;
+      }
+      final List<Subscription> remaining = new ArrayList<>(Arrays.asList(current));
+      if (!remaining.remove(subscription)) {
+        return;
+      }
+      final Map<Class<?>, Subscription[]> copy = new HashMap<>(subscriptions);
+      if (remaining.isEmpty()) {
+        copy.remove(subscription.packetClass);
+      } else {
+        copy.put(subscription.packetClass, remaining.toArray(NONE));
+      }
+      subscriptions = copy;
+    }
+  }
+
+  /**
+   * Called from the netty thread for every inbound packet.
+   */
+  public static void dispatch(Packet<?> packet) {
+    final Subscription[] forClass = subscriptions.get(packet.getClass());
+    if (forClass == null) {
+      return;
+    }
+    for (Subscription subscription : forClass) {
+      if (subscription.clientThread) {
+        clientQueue.add(new Queued(subscription, packet));
+      } else {
+        subscription.handle(packet);
+      }
+    }
+  }
+
+  /**
+   * @return all subscriptions with their counters
+   */
+  public static List<Subscription> getSubscriptions() {
+    final List<Subscription> all = new ArrayList<>();
+    for (Subscription[] forClass : subscriptions.values()) {
+      Collections.addAll(all, forClass);
+    }
+    return all;
+  }
+
+  private static void drainClientQueue() {
+    Queued queued;
+    while ((queued = clientQueue.poll()) != null) {
+      // packets queued before the subscription was removed are dropped
+      if (queued.subscription.active) queued.subscription.handle(queued.packet);
+    }
+  }
+
+  @SubscribeEvent
+  public void onRenderTick(TickEvent.RenderTickEvent event) {
+    if (event.phase == TickEvent.Phase.START) drainClientQueue();
+  }
+
+  @SubscribeEvent
+  public void onClientTick(TickEvent.ClientTickEvent event) {
+    if (event.phase == TickEvent.Phase.START) drainClientQueue();
+  }
+}
@@ -40,7 +40,7 @@ public class CurTime {
           timeList.remove(0);
         }
 
-        if (ArmadilloStates.currentState == CurrentState.ARMADILLO) {
+        if (ArmadilloStates.getState() == CurrentState.ARMADILLO) {
           start = System.currentTimeMillis();
         }
 
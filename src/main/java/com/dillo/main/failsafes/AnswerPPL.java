@@ -48,8 +48,7 @@ public class AnswerPPL {
 
   private static void detectedAccusation(String message) {
     answering = true;
-    prevState = ArmadilloStates.currentState;
-    ArmadilloStates.currentState = null;
+    prevState = ArmadilloStates.takeState();
     messageThatTriggered = message;
     WaitThenCall.waitThenCall(message.length() * 200L, ANSWER_ACCUSATION);
   }
@@ -57,7 +56,7 @@ public class AnswerPPL {
   public static void answerAccusation() {
     ids.mc.thePlayer.addChatMessage(new ChatComponentText(messageThatTriggered));
     answering = false;
-    ArmadilloStates.currentState = prevState;
+    ArmadilloStates.setState(prevState);
   }
 
   public static void makeAcusation(File answersFile) {
@@ -3,6 +3,7 @@ package com.dillo.main.failsafes;
 import com.dillo.calls.ArmadilloStates;
 import com.dillo.calls.CurrentState;
 import com.dillo.calls.KillSwitch;
+import com.dillo.calls.MacroTelemetry;
 import com.dillo.config.config;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
@@ -25,8 +26,16 @@ public class OverlayMod {
       draw(overlayText, 10, 10);
     }
 
+    if (config.telemetryOverlay) {
+      int y = config.overlayY + 12;
+      for (String line : MacroTelemetry.getOverlayLines()) {
+        draw(line, config.overlayX, y);
+        y += 10;
+      }
+    }
+
     if (config.currentActionOverlay) {
-      CurrentState currState = ArmadilloStates.currentState;
+      CurrentState currState = ArmadilloStates.getState();
       KillSwitch currOnOffState = ArmadilloStates.offlineState;
 
       if (currState != null) {
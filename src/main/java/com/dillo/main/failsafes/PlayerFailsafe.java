@@ -51,10 +51,10 @@ public class PlayerFailsafe {
           }
         }
 
-        if (ArmadilloStates.currentState != PLAYER_DETECTION && playersClose.size() > 0) {
-          prevState = ArmadilloStates.currentState;
-        } else if (ArmadilloStates.currentState == PLAYER_DETECTION && playersClose.size() == 0) {
-          ArmadilloStates.currentState = prevState;
+        if (ArmadilloStates.getState() != PLAYER_DETECTION && playersClose.size() > 0) {
+          prevState = ArmadilloStates.getState();
+        } else if (ArmadilloStates.getState() == PLAYER_DETECTION && playersClose.size() == 0) {
+          ArmadilloStates.setState(prevState);
         }
       }
     }
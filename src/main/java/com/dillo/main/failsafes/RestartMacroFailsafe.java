@@ -70,7 +70,7 @@ public class RestartMacroFailsafe {
   @SubscribeEvent
   public void onClientTick(TickEvent.ClientTickEvent event) {
     if (ArmadilloStates.isOnline() && config.restartMacro) {
-      if (ArmadilloStates.currentState == null) {
+      if (ArmadilloStates.getState() == null) {
         ticks++;
       } else {
         ticks = 0;
@@ -78,7 +78,7 @@ public class RestartMacroFailsafe {
 
       if (ticks >= config.restartTrigerTime * 20) {
         ArmadilloStates.offlineState = KillSwitch.OFFLINE;
-        ArmadilloStates.currentState = null;
+        ArmadilloStates.setState(null);
         restartMacro();
       }
     }
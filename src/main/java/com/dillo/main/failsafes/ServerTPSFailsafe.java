@@ -39,8 +39,7 @@ public class ServerTPSFailsafe {
 
         if (config.tickFailsafe && ArmadilloStates.offlineState == ONLINE) {
           if (totalTPSCurrent <= config.ticksFail) {
-            previousState = ArmadilloStates.currentState;
-            ArmadilloStates.currentState = null;
+            previousState = ArmadilloStates.takeState();
           }
         }
       }
@@ -29,7 +29,7 @@ public class TooFarAwayFailsafe {
           }
 
           if (distance > 240) {
-            ArmadilloStates.currentState = null;
+            ArmadilloStates.setState(null);
             ArmadilloStates.offlineState = KillSwitch.OFFLINE;
           }
         } catch (NullPointerException e) {}
@@ -9,6 +9,6 @@ public class ClearRoute {
 
   public static void clearBlockRoute(File file) {
     currentRoute.currentRoute = new ArrayList<BlockPos>();
-    ReWriteFile.reWriteFile(currentRoute.currentRouteFile);
+    RouteStore.routeCleared(currentRoute.currentRouteFile);
   }
 }
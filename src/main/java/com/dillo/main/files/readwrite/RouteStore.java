@@ -0,0 +1,487 @@
+package com.dillo.main.files.readwrite;
+
+import static com.dillo.main.files.readwrite.WriteFile.gson;
+
+import com.dillo.main.files.localizedData.currentRoute;
+import com.dillo.utils.GetConfigFolder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import net.minecraft.util.BlockPos;
+
+/**
+ * Route files. A route is a binary snapshot, MiningInTwo/name.route, plus an append-only journal of the edits made
+ * since, name.route.journal, so adding, inserting, replacing or removing a point writes one small record instead of the
+ * whole route. The journal is folded into a new snapshot once it holds more records than the route has points.
+ *
+ * Snapshots are written to a temporary file and renamed over the old one, and a journal only applies to the snapshot
+ * whose generation it names, so a crash at any point leaves the last saved route readable. A record cut off by a crash
+ * is dropped. Routes in the old json format are still read (and saved as a snapshot the first time they are loaded),
+ * and {@link #exportJson} writes that format for sharing.
+ */
+public class RouteStore {
+
+  public static final String ROUTE_SUFFIX = ".route";
+  public static final String JSON_SUFFIX = ".json";
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String CORRUPT_SUFFIX = ".corrupt-";
+
+  private static final File folder = new File(GetConfigFolder.getMcDir() + "/MiningInTwo");
+
+  private static final int SNAPSHOT_MAGIC = 0x4D495452;
+  private static final int JOURNAL_MAGIC = 0x4D49544A;
+  private static final byte VERSION = 1;
+  // magic, version, generation
+  private static final int HEADER_BYTES = 4 + 1 + 8;
+  // op, index, x, y, z
+  private static final int RECORD_BYTES = 1 + 4 * 4;
+  private static final int POS_BYTES = 3 * 4;
+  private static final int COMPACT_MIN_RECORDS = 64;
+
+  private static final byte ADD = 1;
+  private static final byte INSERT = 2;
+  private static final byte REMOVE = 3;
+  private static final byte SET = 4;
+  private static final byte CLEAR = 5;
+  private static final byte ADD_STRUCTURE = 6;
+  private static final byte REMOVE_STRUCTURE = 7;
+  private static final byte CLEAR_STRUCTURES = 8;
+
+  /**
+   * @param name a route name, with or without .route or .json
+   */
+  public static File routeFile(String name) {
+    return new File(folder, stripSuffix(name) + ROUTE_SUFFIX);
+  }
+
+  public static String routeName(File file) {
+    return stripSuffix(file.getName());
+  }
+
+  public static boolean exists(String name) {
+    File file = routeFile(name);
+    return file.isFile() || jsonFile(file).isFile();
+  }
+
+  /**
+   * @return the names of all routes, including the ones still in the json format
+   */
+  public static List<String> listRoutes() {
+    List<String> names = new ArrayList<>();
+    File[] files = folder.listFiles();
+    if (files == null) return names;
+
+    for (File file : files) {
+      if (!file.isFile()) continue;
+      String name = file.getName();
+      if (name.endsWith(ROUTE_SUFFIX)) {
+        names.add(routeName(file));
+      } else if (name.endsWith(JSON_SUFFIX) && !routeFile(name).exists()) {
+        names.add(routeName(file));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Reads the snapshot and replays its journal into the lists, which are cleared first. A route that only exists as
+   * json is read from there and saved as a snapshot.
+   *
+   * @return false if the route could not be read, the lists are then empty. An unreadable snapshot is renamed to
+   *     name.route.corrupt-time, with its journal, so saving the empty route does not overwrite it.
+   */
+  public static boolean load(File file, List<BlockPos> route, List<BlockPos> structures) {
+    route.clear();
+    structures.clear();
+
+    if (!file.exists()) {
+      File json = jsonFile(file);
+      if (!json.isFile() || !readJson(json, route, structures)) return false;
+      save(file, route, structures);
+      return true;
+    }
+
+    try {
+      ByteBuffer snapshot = readFully(file);
+      if (!hasHeader(snapshot, SNAPSHOT_MAGIC) || !hasValidChecksum(snapshot)) {
+        throw new IOException("Corrupt route file " + file);
+      }
+      long generation = snapshot.getLong();
+      readPositions(snapshot, route);
+      readPositions(snapshot, structures);
+
+      File journal = journalFile(file);
+      if (journal.exists()) {
+        ByteBuffer records = readFully(journal);
+        if (hasHeader(records, JOURNAL_MAGIC) && records.getLong() == generation) {
+          while (records.remaining() >= RECORD_BYTES && replay(records, route, structures));
+        }
+      }
+      return true;
+    } catch (IOException | RuntimeException e) {
+      e.printStackTrace();
+      route.clear();
+      structures.clear();
+      keepCorrupt(file);
+      return false;
+    }
+  }
+
+  private static void keepCorrupt(File file) {
+    String suffix = CORRUPT_SUFFIX + System.currentTimeMillis();
+    try {
+      Files.move(file.toPath(), new File(file.getPath() + suffix).toPath());
+      File journal = journalFile(file);
+      if (journal.exists()) Files.move(journal.toPath(), new File(journal.getPath() + suffix).toPath());
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Writes a new snapshot of the whole route and starts an empty journal for it.
+   */
+  public static void save(File file, List<BlockPos> route, List<BlockPos> structures) {
+    long generation = ThreadLocalRandom.current().nextLong();
+
+    int length = HEADER_BYTES + 4 + 4 + (route.size() + structures.size()) * POS_BYTES + 8;
+    ByteBuffer snapshot = ByteBuffer.allocate(length);
+    putHeader(snapshot, SNAPSHOT_MAGIC, generation);
+    putPositions(snapshot, route);
+    putPositions(snapshot, structures);
+    CRC32 crc = new CRC32();
+    crc.update(snapshot.array(), 0, snapshot.position());
+    snapshot.putLong(crc.getValue());
+
+    ByteBuffer journal = ByteBuffer.allocate(HEADER_BYTES);
+    putHeader(journal, JOURNAL_MAGIC, generation);
+
+    File snapshotTemp = new File(file.getPath() + TEMP_SUFFIX);
+    File journalTemp = new File(journalFile(file).getPath() + TEMP_SUFFIX);
+    try {
+      writeFully(snapshotTemp, snapshot);
+      writeFully(journalTemp, journal);
+      // an old journal left next to the new snapshot names the old generation and is ignored
+      replace(snapshotTemp, file);
+      replace(journalTemp, journalFile(file));
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public static void delete(File file) {
+    file.delete();
+    journalFile(file).delete();
+    jsonFile(file).delete();
+  }
+
+  /**
+   * Writes the route in the json format, {"route":[{x,y,z}...],"structures":[...]}.
+   */
+  public static void exportJson(File jsonFile, List<BlockPos> route, List<BlockPos> structures) {
+    JsonArray strucArr = positionsToJson(structures);
+    if (strucArr.size() == 0) strucArr.add(JsonNull.INSTANCE);
+
+    JsonObject json = new JsonObject();
+    json.add("route", positionsToJson(route));
+    json.add("structures", strucArr);
+
+    File temp = new File(jsonFile.getPath() + TEMP_SUFFIX);
+    try {
+      try (FileWriter writer = new FileWriter(temp)) {
+        writer.write(gson.toJson(json));
+      }
+      replace(temp, jsonFile);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public static File jsonFile(File file) {
+    return new File(file.getParentFile(), routeName(file) + JSON_SUFFIX);
+  }
+
+  // The edits below are journaled for the selected route; file must be currentRoute.currentRouteFile and the edit must
+  // already be applied to currentRoute, which is what a compaction saves.
+
+  public static void pointAdded(File file, BlockPos pos) {
+    append(file, ADD, 0, pos);
+  }
+
+  public static void pointInserted(File file, int index, BlockPos pos) {
+    append(file, INSERT, index, pos);
+  }
+
+  public static void pointRemoved(File file, int index) {
+    append(file, REMOVE, index, null);
+  }
+
+  public static void pointReplaced(File file, int index, BlockPos pos) {
+    append(file, SET, index, pos);
+  }
+
+  public static void routeCleared(File file) {
+    append(file, CLEAR, 0, null);
+  }
+
+  public static void structureAdded(File file, BlockPos pos) {
+    append(file, ADD_STRUCTURE, 0, pos);
+  }
+
+  public static void structureRemoved(File file, int index) {
+    append(file, REMOVE_STRUCTURE, index, null);
+  }
+
+  public static void structuresCleared(File file) {
+    append(file, CLEAR_STRUCTURES, 0, null);
+  }
+
+  private static void append(File file, byte op, int index, BlockPos pos) {
+    if (file == null) return;
+
+    long records = journalRecords(file);
+    if (records < 0 || records >= Math.max(COMPACT_MIN_RECORDS, currentRoute.currentRoute.size())) {
+      save(file, currentRoute.currentRoute, currentRoute.strucList);
+      return;
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    record.put(op);
+    record.putInt(index);
+    record.putInt(pos != null ? pos.getX() : 0);
+    record.putInt(pos != null ? pos.getY() : 0);
+    record.putInt(pos != null ? pos.getZ() : 0);
+    record.flip();
+
+    try (
+      FileChannel channel = FileChannel.open(
+        journalFile(file).toPath(),
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND
+      )
+    ) {
+      while (record.hasRemaining()) channel.write(record);
+      channel.force(false);
+    } catch (IOException e) {
+      e.printStackTrace();
+      save(file, currentRoute.currentRoute, currentRoute.strucList);
+    }
+  }
+
+  /**
+   * @return the number of records in the journal of the snapshot, or -1 if there is no usable journal to append to
+   */
+  private static long journalRecords(File file) {
+    File journal = journalFile(file);
+    long length = journal.length();
+    if (!file.isFile() || length < HEADER_BYTES || (length - HEADER_BYTES) % RECORD_BYTES != 0) return -1;
+
+    try {
+      ByteBuffer snapshotHeader = readHeader(file);
+      ByteBuffer journalHeader = readHeader(journal);
+      if (!hasHeader(snapshotHeader, SNAPSHOT_MAGIC) || !hasHeader(journalHeader, JOURNAL_MAGIC)) return -1;
+      if (snapshotHeader.getLong() != journalHeader.getLong()) return -1;
+    } catch (IOException e) {
+      return -1;
+    }
+    return (length - HEADER_BYTES) / RECORD_BYTES;
+  }
+
+  /**
+   * Applies one journal record. Returns false for a record that does not fit the route, which ends the replay.
+   */
+  private static boolean replay(ByteBuffer records, List<BlockPos> route, List<BlockPos> structures) {
+    byte op = records.get();
+    int index = records.getInt();
+    BlockPos pos = new BlockPos(records.getInt(), records.getInt(), records.getInt());
+
+    switch (op) {
+      case ADD:
+        route.add(pos);
+        return true;
+      case INSERT:
+        if (index < 0 || index > route.size()) return false;
+        route.add(index, pos);
+        return true;
+      case REMOVE:
+        if (index < 0 || index >= route.size()) return false;
+        route.remove(index);
+        return true;
+      case SET:
+        if (index < 0 || index >= route.size()) return false;
+        route.set(index, pos);
+        return true;
+      case CLEAR:
+        route.clear();
+        return true;
+      case ADD_STRUCTURE:
+        structures.add(pos);
+        return true;
+      case REMOVE_STRUCTURE:
+        if (index < 0 || index >= structures.size()) return false;
+        structures.remove(index);
+        return true;
+      case CLEAR_STRUCTURES:
+        structures.clear();
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean readJson(File json, List<BlockPos> route, List<BlockPos> structures) {
+    JsonObject object;
+    try {
+      object = ReadFileContents.readFileContents(json);
+    } catch (RuntimeException e) {
+      return false;
+    }
+    // an empty file is an empty route
+    if (object == null) return true;
+
+    try {
+      for (JsonElement element : object.get("route").getAsJsonArray()) {
+        route.add(jsonToPos(element.getAsJsonObject()));
+      }
+      if (object.has("structures")) {
+        for (JsonElement element : object.get("structures").getAsJsonArray()) {
+          if (element != null && element.isJsonObject()) structures.add(jsonToPos(element.getAsJsonObject()));
+        }
+      }
+      return true;
+    } catch (RuntimeException e) {
+      route.clear();
+      structures.clear();
+      return false;
+    }
+  }
+
+  private static JsonArray positionsToJson(List<BlockPos> positions) {
+    JsonArray arr = new JsonArray();
+    for (BlockPos pos : positions) {
+      JsonObject json = new JsonObject();
+      json.add("x", new JsonPrimitive(pos.getX()));
+      json.add("y", new JsonPrimitive(pos.getY()));
+      json.add("z", new JsonPrimitive(pos.getZ()));
+      arr.add(json);
+    }
+    return arr;
+  }
+
+  private static BlockPos jsonToPos(JsonObject json) {
+    return new BlockPos(json.get("x").getAsInt(), json.get("y").getAsInt(), json.get("z").getAsInt());
+  }
+
+  private static void putHeader(ByteBuffer buffer, int magic, long generation) {
+    buffer.putInt(magic);
+    buffer.put(VERSION);
+    buffer.putLong(generation);
+  }
+
+  /**
+   * Checks the magic and version and leaves the buffer at the generation.
+   */
+  private static boolean hasHeader(ByteBuffer buffer, int magic) {
+    return buffer.remaining() >= HEADER_BYTES && buffer.getInt() == magic && buffer.get() == VERSION;
+  }
+
+  private static boolean hasValidChecksum(ByteBuffer snapshot) {
+    if (snapshot.limit() < HEADER_BYTES + 8) return false;
+    int end = snapshot.limit() - 8;
+    CRC32 crc = new CRC32();
+    crc.update(snapshot.array(), 0, end);
+    boolean valid = snapshot.getLong(end) == crc.getValue();
+    snapshot.limit(end);
+    return valid;
+  }
+
+  private static void putPositions(ByteBuffer buffer, List<BlockPos> positions) {
+    buffer.putInt(positions.size());
+    for (BlockPos pos : positions) {
+      buffer.putInt(pos.getX());
+      buffer.putInt(pos.getY());
+      buffer.putInt(pos.getZ());
+    }
+  }
+
+  private static void readPositions(ByteBuffer buffer, List<BlockPos> positions) throws IOException {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining() / POS_BYTES) throw new IOException("Bad point count " + count);
+    for (int i = 0; i < count; i++) {
+      positions.add(new BlockPos(buffer.getInt(), buffer.getInt(), buffer.getInt()));
+    }
+  }
+
+  /**
+   * Reads a whole file through a channel. Not memory mapped: a mapped file stays open until the buffer is collected,
+   * and on Windows the rename of the next save would fail while it is.
+   */
+  private static ByteBuffer readFully(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new IOException("Route file too large " + file);
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+      buffer.flip();
+      return buffer;
+    }
+  }
+
+  private static ByteBuffer readHeader(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+      buffer.flip();
+      return buffer;
+    }
+  }
+
+  private static void writeFully(File file, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    try (
+      FileChannel channel = FileChannel.open(
+        file.toPath(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING
+      )
+    ) {
+      while (buffer.hasRemaining()) channel.write(buffer);
+      channel.force(true);
+    }
+  }
+
+  private static void replace(File from, File to) throws IOException {
+    try {
+      Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static File journalFile(File file) {
+    return new File(file.getPath() + JOURNAL_SUFFIX);
+  }
+
+  private static String stripSuffix(String name) {
+    if (name.endsWith(ROUTE_SUFFIX)) return name.substring(0, name.length() - ROUTE_SUFFIX.length());
+    if (name.endsWith(JSON_SUFFIX)) return name.substring(0, name.length() - JSON_SUFFIX.length());
+    return name;
+  }
+}
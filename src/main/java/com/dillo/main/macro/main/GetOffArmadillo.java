@@ -24,7 +24,7 @@ public class GetOffArmadillo {
 
   public static void getOffArmadillo(CurrentState newState, double blockY, int amountOTicks, boolean turnOffSneak) {
     throwRod.throwRodInv();
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
     sneak = turnOffSneak;
 
     setNewState = newState;
@@ -45,7 +45,7 @@ public class GetOffArmadillo {
               if (sneak) KeyBinding.setKeyBindState(SNEAK.getKeyCode(), false);
               startOff = false;
               currTicks = 0;
-              ArmadilloStates.currentState = setNewState;
+              ArmadilloStates.setState(setNewState);
             }
           } else {
             startOff = false;
@@ -57,7 +57,7 @@ public class GetOffArmadillo {
           KeyBinding.setKeyBindState(SNEAK.getKeyCode(), false);
           startOff = false;
           currTicks = 0;
-          ArmadilloStates.currentState = null;
+          ArmadilloStates.setState(null);
         }
 
         currTicks++;
@@ -1,5 +1,6 @@
 package com.dillo.main.macro.main;
 
+import static com.dillo.armadillomacro.sequencer;
 import static com.dillo.calls.CurrentState.STATEDILLONOGETTINGON;
 import static com.dillo.config.config.attemptToClearOnSpot;
 import static com.dillo.main.macro.main.StateDillo.canDilloOn;
@@ -22,6 +23,7 @@ import com.dillo.main.utils.looks.LookYaw;
 import com.dillo.utils.previous.chatUtils.SendChat;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.prefix;
+import com.dillo.utils.scheduler.ActionSequence;
 import java.util.ArrayList;
 import java.util.List;
 import net.minecraft.client.Minecraft;
@@ -42,44 +44,37 @@ public class NewSpinDrive {
   private static boolean isDone;
 
   public static void newSpinDrive() {
-    new Thread(() -> {
-      isFirst = true;
-      isDone = false;
-      SendChat.chat(String.valueOf(System.currentTimeMillis()));
-      List<BlockPos> blocksBe4 = getBlocks();
-      if (!isClearing) upDownMovement(config.headMovement, config.headMoveUp);
-      //SendChat.chat(String.valueOf(blocksBe4.size()));
-      ArmadilloStates.currentState = null;
-
-      long speed = (long) (config.headMovement / 1.5);
-
-      addYaw(speed, 180);
-
-      try {
-        Thread.sleep(speed);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      long speed2 = config.headMovement - speed;
-
-      addYaw(speed2, config.headRotationMax - 180);
-
-      try {
-        Thread.sleep(speed2);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      KeyBinding.setKeyBindState(jump.getKeyCode(), false);
-
-      if (config.debugText) debugText(blocksBe4);
-
-      if (ArmadilloStates.isOnline()) {
-        startAgain();
-      }
-    })
-      .start();
+    isFirst = true;
+    isDone = false;
+    SendChat.chat(String.valueOf(System.currentTimeMillis()));
+    List<BlockPos> blocksBe4 = getBlocks();
+    if (!isClearing) upDownMovement(config.headMovement, config.headMoveUp);
+    //SendChat.chat(String.valueOf(blocksBe4.size()));
+    ArmadilloStates.setState(null);
+
+    long speed = (long) (config.headMovement / 1.5);
+    long speed2 = config.headMovement - speed;
+
+    sequencer.start(
+      ActionSequence
+        .named("SpinDrive")
+        .runWhile(ArmadilloStates::isOnline)
+        .onCancel(() -> KeyBinding.setKeyBindState(jump.getKeyCode(), false))
+        .then("spin", () -> addYaw(speed, 180))
+        .waitMillis(speed)
+        .then("spinRest", () -> addYaw(speed2, config.headRotationMax - 180))
+        .waitMillis(speed2)
+        .then(
+          "done",
+          () -> {
+            KeyBinding.setKeyBindState(jump.getKeyCode(), false);
+
+            if (config.debugText) debugText(blocksBe4);
+
+            startAgain();
+          }
+        )
+    );
   }
 
   @SubscribeEvent
@@ -91,18 +86,13 @@ public class NewSpinDrive {
   }
 
   private static void upDownMovement(long totalTime, float amount) {
-    new Thread(() -> {
-      addPitch(totalTime / 2, -amount);
-
-      try {
-        Thread.sleep((totalTime / 6) * 4);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      addPitch(totalTime / 6, amount - (amount / 6));
-    })
-      .start();
+    sequencer.start(
+      ActionSequence
+        .named("SpinDriveHead")
+        .then("down", () -> addPitch(totalTime / 2, -amount))
+        .waitMillis((totalTime / 6) * 4)
+        .then("up", () -> addPitch(totalTime / 6, amount - (amount / 6)))
+    );
   }
 
   public static void startAgain() {
@@ -110,11 +100,11 @@ public class NewSpinDrive {
       canDilloOn() && driveClearCount < 2 && !smartTpBlocks.contains(currentRoute.currentBlock) && attemptToClearOnSpot
     ) {
       isClear = true;
-      ArmadilloStates.currentState = STATEDILLONOGETTINGON;
+      ArmadilloStates.setState(STATEDILLONOGETTINGON);
       driveClearCount++;
     } else {
       isThrowRod = true;
-      ArmadilloStates.currentState = null;
+      ArmadilloStates.setState(null);
       SendChat.chat(prefix.prefix + "Done breaking! Moving to next vein!");
       TeleportToNextBlock.teleportToNextBlock();
       // ADD A FASTER TP TO NEXT BLOCK MODULE VIA MAKING IT DISMOUNT A BIT EARLY
@@ -2,6 +2,7 @@ package com.dillo.main.macro.main;
 
 import static com.dillo.calls.CurrentState.ROUTEOBSTRUCTEDCLEAR;
 import static com.dillo.calls.CurrentState.SPINDRIVE;
+import static com.dillo.armadillomacro.sequencer;
 import static com.dillo.config.config.fasterDillo;
 import static com.dillo.main.macro.main.NewSpinDrive.isLeft;
 import static com.dillo.main.macro.main.NewSpinDrive.newSpinDrive;
@@ -23,6 +24,7 @@ import com.dillo.utils.GetSBItems;
 import com.dillo.utils.previous.random.getItemInSlot;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.swapToSlot;
+import com.dillo.utils.scheduler.ActionSequence;
 import java.util.List;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.settings.KeyBinding;
@@ -47,17 +49,18 @@ public class StateDillo {
   private static boolean look = true;
   public static boolean isSmartTP = false;
   private static float player = 0;
+  private static int rodSlot = -1;
   boolean looking = false;
 
   public static void stateDilloNoGettingOn() {
     if (canDillo() && ArmadilloStates.isOnline()) {
-      ArmadilloStates.currentState = null;
+      ArmadilloStates.setState(null);
       NewSpinDrive.putAllTogether();
       swapToSlot.swapToSlot(GetSBItems.getDrillSlot());
-      ArmadilloStates.currentState = SPINDRIVE;
+      ArmadilloStates.setState(SPINDRIVE);
     } else {
       if (ArmadilloStates.isOnline()) {
-        ArmadilloStates.currentState = null;
+        ArmadilloStates.setState(null);
         TeleportToNextBlock.teleportToNextBlock();
       }
     }
@@ -65,67 +68,65 @@ public class StateDillo {
 
   public static void stateDillo() {
     if (canDillo() && ArmadilloStates.isOnline() && !isSmartTP) {
-      ArmadilloStates.currentState = null;
+      ArmadilloStates.setState(null);
 
-      new Thread(() -> {
-        int slot = getItemInSlot.getItemSlot(Items.fishing_rod);
-        if (slot != -1) {
-          ids.mc.thePlayer.inventory.currentItem = slot;
-        } else {
-          ArmadilloStates.currentState = null;
-          ArmadilloStates.offlineState = KillSwitch.OFFLINE;
-          return;
-        }
-
-        try {
-          Thread.sleep(100);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-
-        ids.mc.thePlayer.sendQueue.addToSendQueue(
-          new C08PacketPlayerBlockPlacement(
-            new BlockPos(-1, -1, -1),
-            255,
-            ids.mc.thePlayer.inventory.getStackInSlot(slot),
-            0,
-            0,
-            0
+      sequencer.start(
+        ActionSequence
+          .named("StateDillo")
+          .runWhile(ArmadilloStates::isOnline)
+          .thenCheck("selectRod", StateDillo::selectRod)
+          .waitMillis(100)
+          .then("throwRod", () -> useItem(rodSlot))
+          .waitMillis(50)
+          .then(
+            "selectDrill",
+            () -> {
+              swapToSlot.swapToSlot(GetSBItems.getDrillSlot());
+              NewSpinDrive.putAllTogether();
+            }
           )
-        );
-
-        try {
-          Thread.sleep(50);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-
-        swapToSlot.swapToSlot(GetSBItems.getDrillSlot());
-
-        NewSpinDrive.putAllTogether();
-
-        try {
-          Thread.sleep(config.rod_drill_switch_time);
-
-          playerYBe4 = (float) ids.mc.thePlayer.posY;
-
-          if (ArmadilloStates.isOnline()) {
-            canCheckIfOnDillo = true;
-          }
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-      })
-        .start();
+          .waitMillis(() -> config.rod_drill_switch_time)
+          .then(
+            "checkOnDillo",
+            () -> {
+              playerYBe4 = (float) ids.mc.thePlayer.posY;
+              canCheckIfOnDillo = true;
+            }
+          )
+      );
     } else {
       if (ArmadilloStates.isOnline()) {
         isThrowRod = false;
-        ArmadilloStates.currentState = null;
+        ArmadilloStates.setState(null);
         TeleportToNextBlock.teleportToNextBlock();
       }
     }
   }
 
+  private static boolean selectRod() {
+    rodSlot = getItemInSlot.getItemSlot(Items.fishing_rod);
+    if (rodSlot == -1) {
+      ArmadilloStates.setState(null);
+      ArmadilloStates.offlineState = KillSwitch.OFFLINE;
+      return false;
+    }
+    ids.mc.thePlayer.inventory.currentItem = rodSlot;
+    return true;
+  }
+
+  private static void useItem(int slot) {
+    ids.mc.thePlayer.sendQueue.addToSendQueue(
+      new C08PacketPlayerBlockPlacement(
+        new BlockPos(-1, -1, -1),
+        255,
+        ids.mc.thePlayer.inventory.getStackInSlot(slot),
+        0,
+        0,
+        0
+      )
+    );
+  }
+
   public static boolean isDilloSummoned() {
     Minecraft mc = Minecraft.getMinecraft();
     EntityPlayer player = mc.thePlayer;
@@ -218,7 +219,7 @@ public class StateDillo {
 
           if (ArmadilloStates.isOnline()) {
             if (isNoTp) {
-              ArmadilloStates.currentState = ROUTEOBSTRUCTEDCLEAR;
+              ArmadilloStates.setState(ROUTEOBSTRUCTEDCLEAR);
               isNoTp = false;
             } else {
               KeyBinding.setKeyBindState(JUMP.getKeyCode(), true);
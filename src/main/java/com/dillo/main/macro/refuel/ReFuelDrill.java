@@ -1,15 +1,16 @@
 package com.dillo.main.macro.refuel;
 
+import static com.dillo.armadillomacro.sequencer;
 import static com.dillo.calls.CurrentState.ARMADILLO;
 import static com.dillo.calls.CurrentState.REFUELING;
 import static com.dillo.utils.GetSBItems.*;
 
 import com.dillo.calls.ArmadilloStates;
 import com.dillo.calls.KillSwitch;
-import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.getItemInSlot;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.swapToSlot;
+import com.dillo.utils.scheduler.ActionSequence;
 import com.dillo.utils.throwRod;
 import java.util.List;
 import java.util.Objects;
@@ -29,108 +30,83 @@ public class ReFuelDrill {
   private static boolean start = false;
   private static boolean start1 = false;
   public static boolean isStart = false;
+  // the slot of the item the running sequence uses
+  private static int phoneSlot = -1;
+  private static boolean closedAgain = false;
 
   public static void reFuelDrill() {
     isStart = true;
+    isOpen = false;
 
     throwRod.throwRodInv();
 
-    ArmadilloStates.currentState = REFUELING;
+    ArmadilloStates.setState(REFUELING);
     ArmadilloStates.offlineState = KillSwitch.OFFLINE;
 
-    new Thread(() -> {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      start = true;
-
-      int slot = getPhoneSlot();
-
-      if (slot == -1) {
-        return;
-      }
-
-      swapToSlot.swapToSlot(slot);
-
-      try {
-        Thread.sleep(100);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      ids.mc.thePlayer.sendQueue.addToSendQueue(
-        new C08PacketPlayerBlockPlacement(
-          new BlockPos(-1, -1, -1),
-          255,
-          ids.mc.thePlayer.inventory.getStackInSlot(slot),
-          0,
-          0,
-          0
+    sequencer.start(
+      ActionSequence
+        .named("ReFuel")
+        .runWhile(ReFuelDrill::isRefueling)
+        .waitMillis(500)
+        .thenCheck(
+          "selectPhone",
+          () -> {
+            start = true;
+            phoneSlot = getPhoneSlot();
+            if (phoneSlot == -1) return false;
+
+            swapToSlot.swapToSlot(phoneSlot);
+            return true;
+          }
         )
-      );
-
-      try {
-        Thread.sleep(250);
-      } catch (InterruptedException e) {
-        SendChat.chat("!!!");
-      }
-
-      start = true;
-
-      try {
-        Thread.sleep(10000);
-      } catch (InterruptedException e) {
-        SendChat.chat("!!!");
-      }
-
-      if (!isOpen) {
-        start = false;
-      }
-    })
-      .start();
+        .waitMillis(100)
+        .then("callPhone", () -> useItem(phoneSlot))
+        .waitUntil("abiphone", () -> isOpen, 10250)
+        .then(
+          "abiphoneTimeout",
+          () -> {
+            if (!isOpen) start = false;
+          }
+        )
+    );
   }
 
   public static void stage2() {
-    new Thread(() -> {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      start = false;
-      List<Slot> chestInventory = ((GuiChest) ids.mc.currentScreen).inventorySlots.inventorySlots;
-
-      for (int i = 0; i < chestInventory.size(); i++) {
-        Slot curSlot = chestInventory.get(i);
-
-        String lowerString = curSlot.getStack().getDisplayName().toLowerCase();
-
-        if (lowerString.contains("jotraeline")) {
-          clickSlot(i, 0);
-          break;
-        }
-      }
-
-      start1 = true;
-
-      try {
-        Thread.sleep(10000);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      start1 = false;
-    })
-      .start();
+    // stop looking for the phone menu right away, it is drawn every frame until the sequence clicks
+    start = false;
+
+    sequencer.start(
+      ActionSequence
+        .named("ReFuelCall")
+        .runWhile(ReFuelDrill::isRefueling)
+        .waitMillis(500)
+        .then(
+          "callJotraeline",
+          () -> {
+            List<Slot> chestInventory = ((GuiChest) ids.mc.currentScreen).inventorySlots.inventorySlots;
+
+            for (int i = 0; i < chestInventory.size(); i++) {
+              Slot curSlot = chestInventory.get(i);
+
+              String lowerString = curSlot.getStack().getDisplayName().toLowerCase();
+
+              if (lowerString.contains("jotraeline")) {
+                clickSlot(i, 0);
+                break;
+              }
+            }
+
+            start1 = true;
+          }
+        )
+        .waitUntil("anvil", () -> !start1, 10000)
+        .then("anvilTimeout", () -> start1 = false)
+    );
   }
 
   @SubscribeEvent
   public void onBackgroundDrawn(GuiScreenEvent.BackgroundDrawnEvent event) {
-    if (ArmadilloStates.currentState == REFUELING) {
+    if (ArmadilloStates.getState() == REFUELING) {
       if (start) {
         if (getInventoryName(event.gui).toLowerCase().contains("abiphone")) {
           isOpen = true;
@@ -148,98 +124,68 @@ public class ReFuelDrill {
   }
 
   public void stage3() {
-    new Thread(() -> {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      clickSlotShift(81 + getDrillSlot(), 0);
-
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      clickSlotShift(81 + getBarrelSlot(), 0);
-
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      clickSlot(22, 0);
-
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      clickSlot(22, 0);
-
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      ids.mc.thePlayer.closeScreen();
-
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-
-      if (!Objects.equals(getInventoryName(ids.mc.currentScreen), "")) {
-        ids.mc.thePlayer.closeScreen();
-
-        try {
-          Thread.sleep(500);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
+    ActionSequence sequence = ActionSequence
+      .named("ReFuelAnvil")
+      .runWhile(ReFuelDrill::isRefueling)
+      .waitMillis(500)
+      .then("drill", () -> clickSlotShift(81 + getDrillSlot(), 0))
+      .waitMillis(500)
+      .then("fuel", () -> clickSlotShift(81 + getBarrelSlot(), 0))
+      .waitMillis(500)
+      .then("combine", () -> clickSlot(22, 0))
+      .waitMillis(500)
+      .then("takeDrill", () -> clickSlot(22, 0))
+      .waitMillis(500)
+      .then("close", () -> ids.mc.thePlayer.closeScreen())
+      .waitMillis(1000)
+      .then(
+        "closeAgain",
+        () -> {
+          closedAgain = !Objects.equals(getInventoryName(ids.mc.currentScreen), "");
+          if (closedAgain) ids.mc.thePlayer.closeScreen();
         }
-      }
-
-      if (ThrowAtEnd.isThrow) {
-        int slot = getItemInSlot.getItemSlot(Items.fishing_rod);
-
-        swapToSlot.swapToSlot(slot);
+      )
+      .waitMillis(() -> closedAgain ? 500 : 0);
+
+    if (ThrowAtEnd.isThrow) {
+      sequence
+        .then(
+          "selectRod",
+          () -> {
+            phoneSlot = getItemInSlot.getItemSlot(Items.fishing_rod);
+            swapToSlot.swapToSlot(phoneSlot);
+          }
+        )
+        .waitMillis(200)
+        .then("throwRod", () -> useItem(phoneSlot));
+    }
 
-        try {
-          Thread.sleep(200);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
+    sequencer.start(
+      sequence.then(
+        "done",
+        () -> {
+          ArmadilloStates.offlineState = KillSwitch.ONLINE;
+          ArmadilloStates.setState(ARMADILLO);
         }
+      )
+    );
+  }
 
-        ids.mc.thePlayer.sendQueue.addToSendQueue(
-          new C08PacketPlayerBlockPlacement(
-            new BlockPos(-1, -1, -1),
-            255,
-            ids.mc.thePlayer.inventory.getStackInSlot(slot),
-            0,
-            0,
-            0
-          )
-        );
-      }
+  private static boolean isRefueling() {
+    return ArmadilloStates.getState() == REFUELING;
+  }
 
-      if (ArmadilloStates.currentState == REFUELING) {
-        ArmadilloStates.offlineState = KillSwitch.ONLINE;
-        ArmadilloStates.currentState = ARMADILLO;
-      }
-    })
-      .start();
+  private static void useItem(int slot) {
+    ids.mc.thePlayer.sendQueue.addToSendQueue(
+      new C08PacketPlayerBlockPlacement(
+        new BlockPos(-1, -1, -1),
+        255,
+        ids.mc.thePlayer.inventory.getStackInSlot(slot),
+        0,
+        0,
+        0
+      )
+    );
   }
 
   public static void clickSlot(int slot, int windowAdd) {
@@ -8,7 +8,6 @@ import static com.dillo.main.route.Nuker.StartNuker.stopNuker;
 import static com.dillo.utils.BlockUtils.getBlock;
 import static com.dillo.utils.BlockUtils.makeNewBlock;
 
-import com.dillo.events.MillisecondEvent;
 import com.dillo.events.utilevents.RouteClearDoneWalking;
 import com.dillo.main.files.localizedData.currentRoute;
 import com.dillo.main.route.Nuker.NukerMain;
@@ -66,8 +65,8 @@ public class SetupMain {
     reStart();
   }
 
-  @SubscribeEvent
-  public void onMillisecond(MillisecondEvent event) {
+  // called every 50ms on the client thread, see armadillomacro.scheduler
+  public void onUpdate() {
     if (isTurnedOn) {
       isAutoSetupOn = true;
       if (usingBaritone) return;
@@ -87,7 +86,7 @@ public class SetupMain {
           usingBaritone = true;
           pauseNuker();
 
-          BlockPos block = getBaritoneWalkBlock(nuking, ids.mc.thePlayer.getPosition());
+          BlockPos block = getBaritoneWalkBlock(nuking.peek(), ids.mc.thePlayer.getPosition());
 
           if (block != null) {
             if (!main.baritoneFailBlocks.contains(block)) {
@@ -127,7 +126,7 @@ public class SetupMain {
       for (int j = -1; 0 <= j; j++) {
         for (int k = -1; 1 <= k; k++) {
           BlockPos curBlock = makeNewBlock(i, j, k, ids.mc.thePlayer.getPosition());
-          nuking.add(0, curBlock);
+          nuking.addFirst(curBlock);
         }
       }
     }
@@ -168,8 +167,8 @@ public class SetupMain {
     }
   }
 
-  BlockPos getBaritoneWalkBlock(List<BlockPos> curNukerBlocks, BlockPos lastKnownPos) {
-    BlockPos returnBlock = curNukerBlocks.get(0);
+  BlockPos getBaritoneWalkBlock(BlockPos nextNukerBlock, BlockPos lastKnownPos) {
+    BlockPos returnBlock = nextNukerBlock;
 
     if (!isCanWalkTo(returnBlock)) {
       Iterable<BlockPos> blocks = BlockPos.getAllInBox(
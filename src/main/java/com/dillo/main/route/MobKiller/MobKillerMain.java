@@ -1,5 +1,6 @@
 package com.dillo.main.route.MobKiller;
 
+import static com.dillo.armadillomacro.sequencer;
 import static com.dillo.main.route.MobKiller.Utils.*;
 import static com.dillo.main.utils.looks.LookAt.*;
 import static com.dillo.utils.GetSBItems.getCustomSlot;
@@ -11,8 +12,11 @@ import com.dillo.config.config;
 import com.dillo.events.PlayerMoveEvent;
 import com.dillo.main.utils.looks.LookAt;
 import com.dillo.utils.previous.random.ids;
+import com.dillo.utils.previous.random.swapToSlot;
 import com.dillo.utils.renderUtils.renderModules.RenderMultipleBlocksMod;
+import com.dillo.utils.scheduler.ActionSequence;
 import java.util.List;
+import java.util.function.IntSupplier;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.util.Vec3;
@@ -22,6 +26,11 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 public class MobKillerMain {
 
   boolean start;
+  // the state of the running sequence
+  private int slot = -1;
+  private int usedSlot = -1;
+  private int previousSlot = 0;
+  private float prevPitch = 0;
 
   public void killMobsAround(float range, CurrentState newState) {
     start = true;
@@ -40,117 +49,95 @@ public class MobKillerMain {
     );
 
     if (allEntities.size() < 1) {
-      ArmadilloStates.currentState = newState;
+      ArmadilloStates.setState(newState);
       return;
     }
 
     Tools tool = Utils.getConfigTool(config.killerWeapon);
 
-    new Thread(() -> {
-      switch (tool) {
-        case CUSTOM:
-          start = true;
-
-          for (int i = 0; i < allEntities.size(); i++) {
-            if (!ArmadilloStates.isOnline()) {
-              ArmadilloStates.currentState = newState;
-              return;
-            }
-
-            serverSmoothLook(LookAt.getRotation(allEntities.get(i).getPosition().add(0, 1, 0)), 200);
-
-            sleep(200);
-
-            int slot = getCustomSlot(config.customWeapon);
-
-            if (slot != -1) {
-              clickSlot(100, slot);
-
-              sleep(100);
-            } else {
-              break;
-            }
-
-            reset();
-          }
-
-          ArmadilloStates.currentState = newState;
-          return;
-        case SHORTBOW:
-        case AURORA_STAFF:
-          start = true;
-
-          RenderMultipleBlocksMod.renderMultipleBlocks(null, false);
-
-          for (Entity allEntity : allEntities) {
-            if (!ArmadilloStates.isOnline()) {
-              ArmadilloStates.currentState = newState;
-              return;
-            }
-
-            RenderMultipleBlocksMod.renderMultipleBlocks(allEntity.getPositionVector(), true);
-
-            serverSmoothLook(LookAt.getRotation(allEntity.getPosition().add(0, 1, 0)), 200);
-
-            sleep(200);
-
-            int slot = getCustomSlot(tool == Tools.AURORA_STAFF ? "runic_staff" : "shortbow");
-
-            if (slot != -1) {
-              clickSlot(100, slot);
-              sleep(100);
+    ActionSequence sequence = ActionSequence
+      .named("MobKiller")
+      .runWhile(ArmadilloStates::isOnline)
+      .onFinish(() -> ArmadilloStates.setState(newState));
+
+    switch (tool) {
+      case CUSTOM:
+        for (Entity entity : allEntities) {
+          sequence
+            .then("look", () -> serverSmoothLook(LookAt.getRotation(entity.getPosition().add(0, 1, 0)), 200))
+            .waitMillis(200)
+            .thenCheck("findWeapon", () -> (slot = getCustomSlot(config.customWeapon)) != -1);
+          useSlot(sequence, 100, () -> slot).waitMillis(100).then("reset", LookAt::reset);
+        }
+        break;
+      case SHORTBOW:
+      case AURORA_STAFF:
+        sequence.then("clearRender", () -> RenderMultipleBlocksMod.renderMultipleBlocks(null, false));
+
+        for (Entity entity : allEntities) {
+          sequence
+            .then(
+              "look",
+              () -> {
+                RenderMultipleBlocksMod.renderMultipleBlocks(entity.getPositionVector(), true);
+                serverSmoothLook(LookAt.getRotation(entity.getPosition().add(0, 1, 0)), 200);
+              }
+            )
+            .waitMillis(200)
+            .then("findWeapon", () -> slot = getCustomSlot(tool == Tools.AURORA_STAFF ? "runic_staff" : "shortbow"));
+          useSlot(sequence, 100, () -> slot)
+            .waitMillis(100)
+            .then("reset", LookAt::reset)
+            .waitMillis(tool == Tools.AURORA_STAFF ? 2000 : 200);
+        }
+        break;
+      case FIREVEIL:
+        sequence.thenCheck("findWeapon", () -> (slot = getFireVeilSlot()) != -1);
+        useSlot(sequence, 100, () -> slot).waitMillis(500);
+        useSlot(sequence, 100, () -> slot).waitMillis(100);
+        break;
+      case HYPERION:
+        sequence
+          .thenCheck("findWeapon", () -> (slot = getCustomSlot("hype")) != -1)
+          .then(
+            "lookDown",
+            () -> {
+              prevPitch = ids.mc.thePlayer.cameraPitch;
+              LookAt.smoothLook(new Rotation(0, ids.mc.thePlayer.cameraYaw), 200);
             }
+          )
+          .waitMillis(200);
+        useSlot(sequence, 100, () -> getCustomSlot("hype"))
+          .waitMillis(100)
+          .then("lookBack", () -> LookAt.smoothLook(new Rotation(prevPitch, ids.mc.thePlayer.cameraYaw), 200))
+          .waitMillis(200);
+        break;
+    }
 
-            reset();
-
-            if (tool == Tools.AURORA_STAFF) {
-              sleep(2000);
-            } else {
-              sleep(200);
-            }
-          }
-
-          ArmadilloStates.currentState = newState;
-          return;
-        case FIREVEIL:
-          int slot = getFireVeilSlot();
-
-          if (slot != -1) {
-            clickSlot(100, slot);
-
-            sleep(500);
-
-            clickSlot(100, slot);
-
-            sleep(100);
-          }
-
-          ArmadilloStates.currentState = newState;
-          return;
-        case HYPERION:
-          slot = getCustomSlot("hype");
-
-          if (slot != -1) {
-            float prev = ids.mc.thePlayer.cameraPitch;
-
-            LookAt.smoothLook(new Rotation(0, ids.mc.thePlayer.cameraYaw), 200);
-
-            sleep(200);
-
-            clickSlot(100, getCustomSlot("hype"));
-
-            sleep(100);
-
-            LookAt.smoothLook(new Rotation(prev, ids.mc.thePlayer.cameraYaw), 200);
+    sequencer.start(sequence);
+  }
 
-            sleep(200);
-          }
+  // holds the item in the slot for the delay, then uses it and swaps back. Does nothing for slot -1.
+  private ActionSequence useSlot(ActionSequence sequence, long delay, IntSupplier slot) {
+    return sequence
+      .then(
+        "useWeapon",
+        () -> {
+          usedSlot = slot.getAsInt();
+          if (usedSlot == -1) return;
+          previousSlot = ids.mc.thePlayer.inventory.currentItem;
+          swapToSlot.swapToSlot(usedSlot);
+        }
+      )
+      .waitMillis(delay)
+      .then("release", this::useAndSwapBack);
+  }
 
-          ArmadilloStates.currentState = newState;
-          return;
-      }
-    })
-      .start();
+  private void useAndSwapBack() {
+    if (usedSlot == -1) return;
+    Utils.useItem(usedSlot);
+    swapToSlot.swapToSlot(previousSlot);
+    usedSlot = -1;
   }
 
   @SubscribeEvent(priority = EventPriority.NORMAL)
@@ -158,12 +145,4 @@ public class MobKillerMain {
     if (!start) return;
     updateServerLook();
   }
-
-  private void sleep(long time) {
-    try {
-      Thread.sleep(time);
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
-  }
 }
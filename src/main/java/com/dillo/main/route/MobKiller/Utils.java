@@ -3,7 +3,6 @@ package com.dillo.main.route.MobKiller;
 import static com.dillo.utils.ScoreboardUtils.GetAllPlayersTab.getAllPlayerNamesList;
 
 import com.dillo.utils.previous.random.ids;
-import com.dillo.utils.previous.random.swapToSlot;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -29,16 +28,10 @@ public class Utils {
     return returnList;
   }
 
-  public static void clickSlot(long delay, int slot) {
-    int currentItem = ids.mc.thePlayer.inventory.currentItem;
-    swapToSlot.swapToSlot(slot);
-
-    try {
-      Thread.sleep(delay);
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
-
+  /**
+   * Uses the item in the slot, which has to be the selected one.
+   */
+  public static void useItem(int slot) {
     ids.mc.thePlayer.sendQueue.addToSendQueue(
       new C08PacketPlayerBlockPlacement(
         new BlockPos(-1, -1, -1),
@@ -49,8 +42,6 @@ public class Utils {
         0
       )
     );
-
-    swapToSlot.swapToSlot(currentItem);
   }
 
   public static Tools getConfigTool(int type) {
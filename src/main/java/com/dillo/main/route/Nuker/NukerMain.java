@@ -5,7 +5,6 @@ import static com.dillo.config.config.nukerServerRotations;
 import static com.dillo.keybinds.Keybinds.isNuking;
 import static com.dillo.main.route.Utils.GetBlocksForNuker.Blockss;
 import static com.dillo.main.route.Utils.IsAbleToMine.isAbleToMine;
-import static com.dillo.main.route.Utils.IsAbleToMine.isBlockInRoute;
 import static com.dillo.main.utils.GetMostOptimalPath.centerBlock;
 import static com.dillo.main.utils.GetMostOptimalPath.getYawNeededVec;
 import static com.dillo.main.utils.looks.LookAt.reset;
@@ -17,21 +16,26 @@ import static com.dillo.utils.renderUtils.RenderBox.drawFilledInBlock;
 
 import com.dillo.config.config;
 import com.dillo.events.PlayerMoveEvent;
+import com.dillo.events.PacketRegistry;
 import com.dillo.events.SecondEvent;
+import com.dillo.main.files.localizedData.currentRoute;
 import com.dillo.main.utils.looks.LookAt;
 import com.dillo.utils.BlockUtils;
 import com.dillo.utils.DistanceFromTo;
+import com.dillo.utils.collections.LongHashSet;
+import com.dillo.utils.collections.PackedPos;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.packets.sendStart;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.prefix;
 import com.dillo.utils.renderUtils.RenderBox;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 import net.minecraft.entity.Entity;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemStack;
+import net.minecraft.network.play.server.S22PacketMultiBlockChange;
+import net.minecraft.network.play.server.S23PacketBlockChange;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.Vec3;
@@ -42,11 +46,9 @@ import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 public class NukerMain {
 
-  public static List<BlockPos> nuking = new ArrayList<BlockPos>();
-  public static List<BlockPos> broken = new ArrayList<>();
+  public static final NukerQueue nuking = new NukerQueue();
   public static boolean startNuking = false;
   public static BlockPos curBlock = null;
-  private static int currTicks = 0;
   public static boolean isStartLook = false;
   private static boolean isAlrLooked = false;
   private static long lastTime = System.currentTimeMillis();
@@ -58,18 +60,56 @@ public class NukerMain {
   boolean renderGreen = false;
 
   public static void nukeBlocks(List<BlockPos> blocksToNuke, boolean nuke) {
-    nuking = blocksToNuke;
+    queueBlocks(blocksToNuke);
     startNuking = nuke;
     lastTime = System.currentTimeMillis();
   }
 
   public static void startAutoSetupNuker(List<BlockPos> blocksToNuke, boolean nuke) {
-    nuking = blocksToNuke;
+    queueBlocks(blocksToNuke);
     startNuking = nuke;
     lastTime = System.currentTimeMillis();
     isAutoSetup = true;
   }
 
+  /**
+   * Replaces the queue with the blocks that can be mined now. From here on the queue follows the block changes sent by
+   * the server, see {@link #registerPackets()}.
+   */
+  private static void queueBlocks(List<BlockPos> blocksToNuke) {
+    nuking.clear();
+    LongHashSet route = new LongHashSet(currentRoute.currentRoute.size());
+    for (BlockPos block : currentRoute.currentRoute) {
+      route.add(PackedPos.block(block.getX(), block.getY(), block.getZ()));
+    }
+
+    for (BlockPos block : blocksToNuke) {
+      if (isAbleToMine(block) && !route.contains(PackedPos.block(block.getX(), block.getY(), block.getZ()))) {
+        nuking.add(block);
+      }
+    }
+  }
+
+  /**
+   * Subscribes to the block change packets that keep the queue up to date.
+   */
+  public static void registerPackets() {
+    PacketRegistry.subscribe(
+      S23PacketBlockChange.class,
+      true,
+      packet -> nuking.onBlockChanged(packet.getBlockPosition(), isAbleToMine(packet.getBlockState().getBlock()))
+    );
+    PacketRegistry.subscribe(
+      S22PacketMultiBlockChange.class,
+      true,
+      packet -> {
+        for (S22PacketMultiBlockChange.BlockUpdateData data : packet.getChangedBlocks()) {
+          nuking.onBlockChanged(data.getPos(), isAbleToMine(data.getBlockState().getBlock()));
+        }
+      }
+    );
+  }
+
   public static void nukerStart() {
     nukeBlocks(Blockss, true);
   }
@@ -84,22 +124,8 @@ public class NukerMain {
 
   @SubscribeEvent
   public void onTick(TickEvent.ClientTickEvent event) {
-    if (startNuking) {
-      if (currTicks >= 30) {
-        while (broken.size() > 0) {
-          BlockPos block = broken.get(0);
-
-          if (isAbleToMine(block) && !isBlockInRoute(block)) {
-            nuking.add(0, block);
-          }
-
-          broken.remove(0);
-        }
-
-        currTicks = 0;
-      } else {
-        currTicks++;
-      }
+    if (startNuking && event.phase == TickEvent.Phase.END) {
+      nuking.onTick();
     }
   }
 
@@ -115,76 +141,52 @@ public class NukerMain {
           drawFilledInBlock(curBlock, Color.green, 0.5F, event.partialTicks);
         }
 
-        if (nuking.size() > 1) {
-          if (!nuking.get(1).equals(curBlock)) {
-            if (isAbleToMine(nuking.get(1))) {
-              RenderBox.drawBox(
-                nuking.get(1).getX(),
-                nuking.get(1).getY(),
-                nuking.get(1).getZ(),
-                Color.white,
-                0.2F,
-                event.partialTicks,
-                false
-              );
-            } else {
-              broken.add(nuking.get(1));
-              nuking.remove(1);
-            }
-          }
+        BlockPos next = nuking.peekSecond();
+        if (next != null && !next.equals(curBlock)) {
+          RenderBox.drawBox(next.getX(), next.getY(), next.getZ(), Color.white, 0.2F, event.partialTicks, false);
         }
       }
 
-      if (nuking.size() > 0) {
+      BlockPos block = nuking.peek();
+      if (block != null) {
         if (System.currentTimeMillis() >= lastTime + (1000 / config.nukerBPS)) {
           lastTime = System.currentTimeMillis();
-
-          BlockPos block = nuking.get(0);
           curBlock = block;
 
-          if (!isAbleToMine(block) || isBlockInRoute(block)) {
-            nuking.remove(block);
-            broken.add(block);
-          } else {
-            if (
-              isInFOV(block, config.nukerFOV) && isHoldingDrill() && isOnGround() && isAbleToMine(block) && isInDillo()
-            ) {
-              if (DistanceFromTo.distanceFromTo(ids.mc.thePlayer.getPosition(), block) > nukerRange) {
-                earlyCheck = true;
-                renderGreen = false;
-                return;
-              }
-
-              if (config.nukerUnObstructedChecks && !canBeBroken(block)) {
-                renderGreen = false;
-                return;
-              }
-
-              renderGreen = true;
-
-              if (isAlrLooked) {
-                isAlrLooked = false;
-                reset();
-              }
-
-              if (nukerServerRotations) {
-                isAlrLooked = true;
-                startLook(block);
-              }
-
-              sendStart.sendStartPacket(block, EnumFacing.fromAngle(ids.mc.thePlayer.rotationYaw));
-              nuking.remove(block);
-              broken.add(block);
-
-              nukesPerSecond++;
-            } else {
+          if (isInFOV(block, config.nukerFOV) && isHoldingDrill() && isOnGround() && isInDillo()) {
+            if (DistanceFromTo.distanceFromTo(ids.mc.thePlayer.getPosition(), block) > nukerRange) {
+              earlyCheck = true;
+              renderGreen = false;
+              return;
+            }
+
+            if (config.nukerUnObstructedChecks && !canBeBroken(block)) {
               renderGreen = false;
+              return;
             }
+
+            renderGreen = true;
+
+            if (isAlrLooked) {
+              isAlrLooked = false;
+              reset();
+            }
+
+            if (nukerServerRotations) {
+              isAlrLooked = true;
+              startLook(block);
+            }
+
+            sendStart.sendStartPacket(block, EnumFacing.fromAngle(ids.mc.thePlayer.rotationYaw));
+            nuking.markBroken(block);
+
+            nukesPerSecond++;
+          } else {
+            renderGreen = false;
           }
         }
-      } else {
+      } else if (nuking.isEmpty()) {
         startNuking = false;
-        NukerMain.broken.clear();
         isNuking = false;
         NukerMain.nuking.clear();
         SendChat.chat(prefix.prefix + "The route is clear!");
@@ -213,8 +215,11 @@ public class NukerMain {
   }
 
   public boolean isDone() {
+    BlockPos next = nuking.peek();
     return (
-      DistanceFromTo.distanceFromTo(nuking.get(0), ids.mc.thePlayer.getPosition()) > nukerRange && broken.size() < 1
+      next != null &&
+      DistanceFromTo.distanceFromTo(next, ids.mc.thePlayer.getPosition()) > nukerRange &&
+      nuking.getBrokenCount() < 1
     );
   }
 
@@ -0,0 +1,260 @@
+package com.dillo.main.route.Nuker;
+
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import net.minecraft.util.BlockPos;
+
+/**
+ * The blocks the nuker still has to break, the next one first. Blocks keep the order they were added in, which for
+ * the blocks of GetBlocksForNuker is route order and then distance along each segment; blocks added with
+ * {@link #addFirst} go before all others. An indexed binary heap plus a map from packed position to entry make adding,
+ * removing and re-adding a block O(log n).
+ *
+ * A block the nuker sent a dig packet for waits in {@link #markBroken} until the server changes it: to air it is done,
+ * back to a mineable block it is queued again at the front. Without an answer within {@link #BROKEN_TIMEOUT_TICKS} the
+ * block did not change and is queued again as well. Block changes also drop queued blocks that something else broke,
+ * so the queue never has to look at the world. Client thread only.
+ */
+public class NukerQueue {
+
+  public static final int BROKEN_TIMEOUT_TICKS = 15;
+
+  private static class Entry {
+
+    private final BlockPos pos;
+    private final long key;
+    private long order;
+    // -1 while not queued
+    private int heapIndex = -1;
+    // null unless waiting for the server
+    private Broken broken = null;
+
+    Entry(BlockPos pos, long key) {
+      this.pos = pos;
+      this.key = key;
+    }
+  }
+
+  private static class Broken {
+
+    private final Entry entry;
+    private final long atTick;
+
+    Broken(Entry entry, long atTick) {
+      this.entry = entry;
+      this.atTick = atTick;
+    }
+  }
+
+  private Entry[] heap = new Entry[256];
+  private int size = 0;
+  // queued and broken blocks by packed position
+  private final LongObjectHashMap<Entry> entries = new LongObjectHashMap<>(256);
+  // broken blocks, oldest first; blocks that were answered or broken again in the meantime are skipped
+  private final ArrayDeque<Broken> broken = new ArrayDeque<>();
+  private int brokenCount = 0;
+  private long nextOrder = 0;
+  private long nextFirstOrder = -1;
+  private long tick = 0;
+
+  /**
+   * Queues the block after all queued blocks. A block that is already queued or waiting keeps its place.
+   */
+  public void add(BlockPos pos) {
+    long key = PackedPos.block(pos.getX(), pos.getY(), pos.getZ());
+    if (entries.containsKey(key)) return;
+
+    Entry entry = new Entry(pos, key);
+    entries.put(key, entry);
+    entry.order = nextOrder++;
+    push(entry);
+  }
+
+  /**
+   * Queues the block before all queued blocks, or moves it there.
+   */
+  public void addFirst(BlockPos pos) {
+    long key = PackedPos.block(pos.getX(), pos.getY(), pos.getZ());
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(pos, key);
+      entries.put(key, entry);
+    } else if (entry.broken != null) {
+      entry.broken = null;
+      brokenCount--;
+    }
+    requeueFirst(entry);
+  }
+
+  /**
+   * @return the next block to break or null
+   */
+  public BlockPos peek() {
+    return size > 0 ? heap[0].pos : null;
+  }
+
+  /**
+   * @return the block after {@link #peek()} or null
+   */
+  public BlockPos peekSecond() {
+    if (size < 2) return null;
+    if (size == 2 || compare(heap[1], heap[2]) < 0) return heap[1].pos;
+    return heap[2].pos;
+  }
+
+  /**
+   * Takes the block out of the queue until the server answers the dig packet sent for it.
+   */
+  public void markBroken(BlockPos pos) {
+    Entry entry = entries.get(PackedPos.block(pos.getX(), pos.getY(), pos.getZ()));
+    if (entry == null || entry.heapIndex < 0) return;
+
+    removeAt(entry.heapIndex);
+    entry.broken = new Broken(entry, tick);
+    brokenCount++;
+    broken.add(entry.broken);
+  }
+
+  public void remove(BlockPos pos) {
+    Entry entry = entries.remove(PackedPos.block(pos.getX(), pos.getY(), pos.getZ()));
+    if (entry == null) return;
+
+    if (entry.heapIndex >= 0) {
+      removeAt(entry.heapIndex);
+    } else if (entry.broken != null) {
+      entry.broken = null;
+      brokenCount--;
+    }
+  }
+
+  /**
+   * Applies a block change sent by the server. Blocks the queue does not know are ignored.
+   *
+   * @param mineable whether the block at pos can still be mined
+   */
+  public void onBlockChanged(BlockPos pos, boolean mineable) {
+    Entry entry = entries.get(PackedPos.block(pos.getX(), pos.getY(), pos.getZ()));
+    if (entry == null) return;
+
+    if (entry.broken != null && mineable) {
+      // the server put it back
+      entry.broken = null;
+      brokenCount--;
+      requeueFirst(entry);
+    } else if (!mineable) {
+      remove(pos);
+    }
+  }
+
+  /**
+   * Queues broken blocks the server did not answer for within {@link #BROKEN_TIMEOUT_TICKS} again. Call once a tick.
+   */
+  public void onTick() {
+    tick++;
+    Broken oldest;
+    while ((oldest = broken.peek()) != null) {
+      Entry entry = oldest.entry;
+      if (entry.broken != oldest) {
+        broken.poll();
+        continue;
+      }
+      if (tick - oldest.atTick < BROKEN_TIMEOUT_TICKS) break;
+
+      broken.poll();
+      entry.broken = null;
+      brokenCount--;
+      requeueFirst(entry);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of blocks waiting for the server to answer their dig packet
+   */
+  public int getBrokenCount() {
+    return brokenCount;
+  }
+
+  /**
+   * @return whether no block is queued or waiting
+   */
+  public boolean isEmpty() {
+    return size == 0 && brokenCount == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+    entries.clear();
+    broken.clear();
+    brokenCount = 0;
+    nextOrder = 0;
+    nextFirstOrder = -1;
+  }
+
+  private void requeueFirst(Entry entry) {
+    entry.order = nextFirstOrder--;
+    if (entry.heapIndex >= 0) {
+      siftUp(entry.heapIndex);
+    } else {
+      push(entry);
+    }
+  }
+
+  private void push(Entry entry) {
+    if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+    heap[size] = entry;
+    entry.heapIndex = size;
+    siftUp(size++);
+  }
+
+  private void removeAt(int index) {
+    Entry removed = heap[index];
+    Entry last = heap[--size];
+    heap[size] = null;
+    removed.heapIndex = -1;
+    if (index == size) return;
+
+    heap[index] = last;
+    last.heapIndex = index;
+    siftUp(index);
+    siftDown(last.heapIndex);
+  }
+
+  private void siftUp(int index) {
+    Entry entry = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (compare(entry, heap[parent]) >= 0) break;
+      heap[index] = heap[parent];
+      heap[index].heapIndex = index;
+      index = parent;
+    }
+    heap[index] = entry;
+    entry.heapIndex = index;
+  }
+
+  private void siftDown(int index) {
+    Entry entry = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) child++;
+      if (compare(entry, heap[child]) <= 0) break;
+      heap[index] = heap[child];
+      heap[index].heapIndex = index;
+      index = child;
+    }
+    heap[index] = entry;
+    entry.heapIndex = index;
+  }
+
+  private static int compare(Entry a, Entry b) {
+    return Long.compare(a.order, b.order);
+  }
+}
@@ -25,7 +25,6 @@ public class StartNuker {
 
   public static void stopNuker() {
     NukerMain.startNuking = false;
-    NukerMain.broken.clear();
     isStartLook = false;
     reset();
     isNuking = false;
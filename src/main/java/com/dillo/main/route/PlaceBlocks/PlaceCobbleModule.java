@@ -6,7 +6,6 @@ import static com.dillo.main.failsafes.UsePathfinderInstead.getAdj;
 import static com.dillo.main.macro.main.StateDillo.isDilloSummoned;
 import static com.dillo.main.route.Nuker.NukerMain.*;
 
-import com.dillo.events.MillisecondEvent;
 import com.dillo.events.PlayerMoveEvent;
 import com.dillo.main.files.localizedData.currentRoute;
 import com.dillo.main.utils.looks.LookAt;
@@ -26,25 +25,17 @@ import net.minecraftforge.fml.common.gameevent.TickEvent;
 public class PlaceCobbleModule {
 
   boolean isStart = false;
-  int msCount = 0;
   Vec3 grain = null;
   boolean isPlaced = false;
   int tickCount = 0;
   List<BlockPos> placed = new ArrayList<>();
 
-  @SubscribeEvent
-  public void onMillisecond(MillisecondEvent event) {
-    if (!isNukerPlaceCobble || currentRoute.currentRoute.size() < 1/*|| !startNuking*/) {
+  // called every 50ms on the client thread, see armadillomacro.scheduler
+  public void onUpdate() {
+    if (!isNukerPlaceCobble || currentRoute.currentRoute.size() < 1 || ids.mc.thePlayer == null/*|| !startNuking*/) {
       return;
     }
 
-    if (msCount < 50) {
-      msCount++;
-      return;
-    } else {
-      msCount = 0;
-    }
-
     BlockPos closestBlock = closestBlockRoute();
 
     if (
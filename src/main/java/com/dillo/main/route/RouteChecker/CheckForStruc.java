@@ -39,14 +39,15 @@ public class CheckForStruc {
 
       if (canCheckFurther()) {
         if (isAbleToTeleportChecks) {
+          RouteVisibility.Matrix matrix = RouteVisibility.get(RouteVisibility.Profile.STRUCTURE);
+
           for (int i = 0; i < currentRoute.currentRoute.size(); i++) {
             int next = i + 1;
             if (i == currentRoute.currentRoute.size() - 1) next = 0;
 
-            boolean result = isStructurePreventingTP(
-              currentRoute.currentRoute.get(i),
-              currentRoute.currentRoute.get(next)
-            );
+            boolean result = matrix != null && matrix.isComputed(i, next)
+              ? matrix.canTp(i, next)
+              : isStructurePreventingTP(currentRoute.currentRoute.get(i), currentRoute.currentRoute.get(next));
 
             if (!result) {
               GetFailPointsList.addToFailList(currentRoute.currentRoute.get(i), i);
@@ -95,18 +96,7 @@ public class CheckForStruc {
     Vec3 pos = adjustLook(
       new Vec3(block1.getX(), block1.getY() - 1, block1.getZ()),
       block2,
-      new net.minecraft.block.Block[] {
-        Blocks.stone,
-        Blocks.coal_ore,
-        Blocks.emerald_ore,
-        Blocks.diamond_ore,
-        Blocks.gold_ore,
-        Blocks.iron_ore,
-        Blocks.lapis_ore,
-        Blocks.lit_redstone_ore,
-        Blocks.redstone_ore,
-        Blocks.air,
-      },
+      RouteVisibility.MINEABLE,
       true
     );
 
@@ -0,0 +1,516 @@
+package com.dillo.main.route.RouteChecker;
+
+import com.dillo.config.config;
+import com.dillo.events.PacketRegistry;
+import com.dillo.main.files.localizedData.currentRoute;
+import com.dillo.utils.BlockSnapshot;
+import com.dillo.utils.RayCaster;
+import com.dillo.utils.RayTracingUtils;
+import com.dillo.utils.collections.LongHashSet;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import com.dillo.utils.previous.random.ids;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.network.play.server.S22PacketMultiBlockChange;
+import net.minecraft.network.play.server.S23PacketBlockChange;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.Vec3;
+import net.minecraft.world.World;
+
+/**
+ * Which points of the current route can be teleported to from which. The pairs are checked all at once on a fork-join
+ * pool against a {@link BlockSnapshot} of the route, either every pair or every point with the next
+ * {@link config#routeVisibilityNeighborhood} points after it. Afterwards asking about a pair is an array lookup.
+ *
+ * Block changes inside the snapshot that turn a block from mineable to solid or back (received with
+ * {@link #registerPackets()}) are applied to a copy of the snapshot that shares all unchanged sections, and only the
+ * pairs whose box contains the block are checked again, in the background. The pairs are looked up by the chunk of the
+ * block. Chunks loaded inside the snapshot, another world or another route make the next
+ * {@link #get} start over.
+ *
+ * A new matrix is listed before its snapshot is captured, so changes that arrive while capturing are kept and applied
+ * to the snapshot. {@link #get} only waits for the pairs of neighbouring points, the rest are checked in the
+ * background.
+ */
+public class RouteVisibility {
+
+  /**
+   * Blocks that are mined away and do not stop a teleport.
+   */
+  public static final Block[] MINEABLE = new Block[] {
+    Blocks.stone,
+    Blocks.coal_ore,
+    Blocks.emerald_ore,
+    Blocks.diamond_ore,
+    Blocks.gold_ore,
+    Blocks.iron_ore,
+    Blocks.lapis_ore,
+    Blocks.lit_redstone_ore,
+    Blocks.redstone_ore,
+    Blocks.air,
+  };
+
+  // eyes, rays and sampled faces stay this close to the box around their two points
+  private static final int MARGIN = 3;
+  // 8M blocks are 16MB of snapshot
+  private static final long MAX_SNAPSHOT_VOLUME = 8L * 1024 * 1024;
+
+  private static final int UNKNOWN = 0;
+  private static final int VISIBLE = 1;
+  private static final int BLOCKED = 2;
+
+  private static final ForkJoinPool pool = new ForkJoinPool(
+    Math.max(1, Runtime.getRuntime().availableProcessors() - 1)
+  );
+  private static final Map<Profile, Matrix> matrices = new EnumMap<>(Profile.class);
+
+  /**
+   * Where the teleports of a check start from. All profiles treat the {@link #MINEABLE} blocks as air, except stained
+   * glass near either point.
+   */
+  public enum Profile {
+    /** From the block below the route point, see {@link CheckForStruc}. */
+    STRUCTURE(-1),
+    /** From standing on the route point. */
+    TELEPORT(1);
+
+    private final int eyeOffsetY;
+
+    Profile(int eyeOffsetY) {
+      this.eyeOffsetY = eyeOffsetY;
+    }
+  }
+
+  public static class Matrix {
+
+    private final Profile profile;
+    private final World world;
+    private final List<BlockPos> route;
+    private final int neighborhood;
+    // points each point is checked against, the pairs are (i, i + 1) .. (i, i + steps), wrapping around
+    private final int steps;
+    private final AtomicIntegerArray states;
+    private volatile boolean stale = false;
+
+    // guarded by this, the snapshot is null while it is captured
+    private BlockSnapshot snapshot = null;
+    private LongObjectHashMap<Block> pendingChanges = new LongObjectHashMap<>();
+    private final LongHashSet pendingChunks = new LongHashSet();
+    private final BitSet dirtyPairs = new BitSet();
+    private boolean updating = false;
+    // pairs by the packed chunks their box touches, null until it is built in the background
+    private LongObjectHashMap<int[]> pairsByChunk = null;
+    // changed blocks received before the pairs were indexed
+    private final LongHashSet unindexedChanges = new LongHashSet();
+
+    private Matrix(Profile profile, World world, List<BlockPos> route, int neighborhood) {
+      this.profile = profile;
+      this.world = world;
+      this.route = route;
+      this.neighborhood = neighborhood;
+      this.steps = neighborhood <= 0 ? route.size() - 1 : Math.min(neighborhood, route.size() - 1);
+      this.states = new AtomicIntegerArray(route.size() * route.size());
+    }
+
+    public int size() {
+      return route.size();
+    }
+
+    /**
+     * @return whether the pair has been checked, false for pairs outside the neighborhood
+     */
+    public boolean isComputed(int from, int to) {
+      return states.get(from * route.size() + to) != UNKNOWN;
+    }
+
+    /**
+     * @return whether route point to can be teleported to from route point from, false if the pair was not checked
+     */
+    public boolean canTp(int from, int to) {
+      return states.get(from * route.size() + to) == VISIBLE;
+    }
+
+    private int pairCount() {
+      return route.size() * steps;
+    }
+
+    private int pairFrom(int pair) {
+      return pair / steps;
+    }
+
+    private int pairTo(int pair) {
+      return (pair / steps + pair % steps + 1) % route.size();
+    }
+
+    private void computePair(int pair, BlockSnapshot blocks) {
+      int from = pairFrom(pair);
+      int to = pairTo(pair);
+      BlockPos origin = route.get(from);
+      BlockPos eyeBlock = new BlockPos(origin.getX(), origin.getY() + profile.eyeOffsetY, origin.getZ());
+      BlockPos target = route.get(to);
+
+      RayCaster caster = new RayCaster(blocks, MINEABLE, eyeBlock, target);
+      Vec3 point = RayTracingUtils.adjustLook(caster, new Vec3(eyeBlock), target);
+      states.set(from * route.size() + to, point != null ? VISIBLE : BLOCKED);
+    }
+
+    private boolean isCurrent(World world, List<BlockPos> route, int neighborhood) {
+      return !stale && this.world == world && this.neighborhood == neighborhood && this.route.equals(route);
+    }
+
+    private synchronized void onBlockChanged(int x, int y, int z, Block block) {
+      if (stale || steps == 0) return;
+      long key = PackedPos.block(x, y, z);
+      if (snapshot == null) {
+        // every pair is checked once the snapshot is there, changes outside of it are ignored by withChanges
+        pendingChanges.put(key, block);
+        return;
+      }
+      if (!snapshot.contains(x, y, z)) return;
+
+      Block previous = pendingChanges.get(key);
+      if (previous == null) previous = snapshot.getBlock(x, y, z);
+      // mining one ore into air or replacing one solid block with another changes nothing
+      if (RayTracingUtils.isContains(MINEABLE, previous) == RayTracingUtils.isContains(MINEABLE, block)) return;
+      pendingChanges.put(key, block);
+
+      if (pairsByChunk == null) {
+        unindexedChanges.add(key);
+      } else {
+        markDirty(x, y, z);
+      }
+      if (!updating && !dirtyPairs.isEmpty()) {
+        updating = true;
+        pool.execute(this::update);
+      }
+    }
+
+    private void markDirty(int x, int y, int z) {
+      int[] pairs = pairsByChunk.get(PackedPos.chunk(x >> 4, z >> 4));
+      if (pairs == null) return;
+      for (int pair : pairs) {
+        if (spans(route.get(pairFrom(pair)), route.get(pairTo(pair)), x, y, z)) {
+          dirtyPairs.set(pair);
+        }
+      }
+    }
+
+    private LongObjectHashMap<int[]> indexPairs() {
+      // counted first, then the counts are reused as the number of pairs added so far
+      LongObjectHashMap<int[]> counts = new LongObjectHashMap<>();
+      for (int pair = 0; pair < pairCount(); pair++) {
+        forEachChunk(
+          pair,
+          chunk -> {
+            int[] count = counts.get(chunk);
+            if (count == null) counts.put(chunk, count = new int[1]);
+            count[0]++;
+          }
+        );
+      }
+      LongObjectHashMap<int[]> index = new LongObjectHashMap<>(counts.size());
+      counts.forEach((chunk, count) -> {
+        index.put(chunk, new int[count[0]]);
+        count[0] = 0;
+      });
+      for (int pair = 0; pair < pairCount(); pair++) {
+        int added = pair;
+        forEachChunk(pair, chunk -> index.get(chunk)[counts.get(chunk)[0]++] = added);
+      }
+      return index;
+    }
+
+    private void forEachChunk(int pair, LongConsumer consumer) {
+      BlockPos a = route.get(pairFrom(pair));
+      BlockPos b = route.get(pairTo(pair));
+      int toX = (Math.max(a.getX(), b.getX()) + MARGIN) >> 4;
+      int toZ = (Math.max(a.getZ(), b.getZ()) + MARGIN) >> 4;
+      for (int chunkX = (Math.min(a.getX(), b.getX()) - MARGIN) >> 4; chunkX <= toX; chunkX++) {
+        for (int chunkZ = (Math.min(a.getZ(), b.getZ()) - MARGIN) >> 4; chunkZ <= toZ; chunkZ++) {
+          consumer.accept(PackedPos.chunk(chunkX, chunkZ));
+        }
+      }
+    }
+
+    /**
+     * Applies the changes that arrived while the snapshot was captured and checks the pairs of neighbouring points,
+     * then indexes the pairs and checks the others in the background. Client thread only.
+     */
+    private void start(BlockSnapshot captured) {
+      BlockSnapshot blocks;
+      synchronized (this) {
+        // a change that is already in the world is applied again, which changes nothing
+        snapshot = captured.withChanges(pendingChanges);
+        pendingChanges = new LongObjectHashMap<>();
+        pendingChunks.forEach(chunk -> {
+          if (snapshot.intersectsChunk(PackedPos.chunkX(chunk), PackedPos.chunkZ(chunk))) stale = true;
+        });
+        pendingChunks.clear();
+        blocks = snapshot;
+        updating = true;
+      }
+      if (stale || steps == 0) return;
+
+      try {
+        // the pairs the route checks ask for first, pair from * steps is (from, from + 1)
+        pool
+          .submit(() -> IntStream.range(0, route.size()).parallel().forEach(from -> computePair(from * steps, blocks)))
+          .join();
+      } catch (RuntimeException e) {
+        finishUpdate();
+        throw e;
+      }
+      pool.execute(() -> {
+        try {
+          LongObjectHashMap<int[]> index = indexPairs();
+          synchronized (this) {
+            pairsByChunk = index;
+            unindexedChanges.forEach(key ->
+              markDirty(PackedPos.blockX(key), PackedPos.blockY(key), PackedPos.blockZ(key))
+            );
+            unindexedChanges.clear();
+          }
+          IntStream
+            .range(0, pairCount())
+            .parallel()
+            .filter(pair -> pair % steps != 0)
+            .forEach(pair -> computePair(pair, blocks));
+        } finally {
+          finishUpdate();
+        }
+      });
+    }
+
+    private void update() {
+      BlockSnapshot blocks;
+      int[] pairs;
+      synchronized (this) {
+        if (stale || dirtyPairs.isEmpty()) {
+          updating = false;
+          return;
+        }
+        snapshot = snapshot.withChanges(pendingChanges);
+        pendingChanges = new LongObjectHashMap<>();
+        blocks = snapshot;
+        pairs = dirtyPairs.stream().toArray();
+        dirtyPairs.clear();
+      }
+
+      try {
+        IntStream.of(pairs).parallel().forEach(pair -> computePair(pair, blocks));
+      } finally {
+        finishUpdate();
+      }
+    }
+
+    private synchronized void finishUpdate() {
+      // blocks that changed in the meantime
+      if (!stale && !dirtyPairs.isEmpty()) {
+        pool.execute(this::update);
+      } else {
+        updating = false;
+      }
+    }
+
+    private synchronized void onChunkChanged(int chunkX, int chunkZ) {
+      if (snapshot == null) {
+        pendingChunks.add(PackedPos.chunk(chunkX, chunkZ));
+      } else if (snapshot.intersectsChunk(chunkX, chunkZ)) {
+        stale = true;
+      }
+    }
+  }
+
+  /**
+   * Subscribes to the block change and chunk packets that keep the matrices up to date.
+   */
+  public static void registerPackets() {
+    PacketRegistry.subscribe(
+      S23PacketBlockChange.class,
+      false,
+      packet -> onBlockChanged(packet.getBlockPosition(), packet.getBlockState().getBlock())
+    );
+    PacketRegistry.subscribe(
+      S22PacketMultiBlockChange.class,
+      false,
+      packet -> {
+        for (S22PacketMultiBlockChange.BlockUpdateData data : packet.getChangedBlocks()) {
+          onBlockChanged(data.getPos(), data.getBlockState().getBlock());
+        }
+      }
+    );
+    PacketRegistry.subscribe(
+      S21PacketChunkData.class,
+      false,
+      packet -> onChunkChanged(packet.getChunkX(), packet.getChunkZ())
+    );
+    PacketRegistry.subscribe(
+      S26PacketMapChunkBulk.class,
+      false,
+      packet -> {
+        for (int i = 0; i < packet.getChunkCount(); i++) {
+          onChunkChanged(packet.getChunkX(i), packet.getChunkZ(i));
+        }
+      }
+    );
+  }
+
+  /**
+   * Returns the matrix of the current route, checking it again if the route, the world or the neighborhood changed
+   * since the last call. Pairs that are not checked yet are not {@link Matrix#isComputed}. Client thread only.
+   *
+   * @return null if there is no route or it spans too large an area to copy, check the pairs one by one then
+   */
+  public static Matrix get(Profile profile) {
+    World world = ids.mc.theWorld;
+    List<BlockPos> route = currentRoute.currentRoute;
+    int neighborhood = config.routeVisibilityNeighborhood;
+    if (world == null || route.isEmpty()) return null;
+
+    synchronized (matrices) {
+      Matrix matrix = matrices.get(profile);
+      if (matrix != null && matrix.isCurrent(world, route, neighborhood)) return matrix;
+      matrices.remove(profile);
+    }
+    return compute(profile, world, new ArrayList<>(route), neighborhood);
+  }
+
+  private static Matrix compute(Profile profile, World world, List<BlockPos> route, int neighborhood) {
+    int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+    for (BlockPos pos : route) {
+      minX = Math.min(minX, pos.getX());
+      minY = Math.min(minY, pos.getY());
+      minZ = Math.min(minZ, pos.getZ());
+      maxX = Math.max(maxX, pos.getX());
+      maxY = Math.max(maxY, pos.getY());
+      maxZ = Math.max(maxZ, pos.getZ());
+    }
+    minX -= MARGIN;
+    minY -= MARGIN;
+    minZ -= MARGIN;
+    maxX += MARGIN;
+    maxY += MARGIN;
+    maxZ += MARGIN;
+    if (BlockSnapshot.volume(minX, minY, minZ, maxX, maxY, maxZ) > MAX_SNAPSHOT_VOLUME) return null;
+
+    Matrix matrix = new Matrix(profile, world, route, neighborhood);
+    synchronized (matrices) {
+      matrices.put(profile, matrix);
+    }
+    matrix.start(BlockSnapshot.capture(world, minX, minY, minZ, maxX, maxY, maxZ));
+    return matrix;
+  }
+
+  /**
+   * Finds the first pillar the player can teleport to and then from it to the target block, checking all pillars at
+   * once on a snapshot of the area. Pillars are checked one by one in the world, before this returns, if the area is
+   * too large to copy. Client thread only.
+   *
+   * @param from the position of the player's feet
+   * @return the index of the pillar or -1, completed on the pool
+   */
+  public static CompletableFuture<Integer> findHop(Vec3 from, List<BlockPos> pillars, BlockPos target) {
+    if (pillars.isEmpty()) return CompletableFuture.completedFuture(-1);
+
+    int minX = Math.min((int) Math.floor(from.xCoord), target.getX());
+    int minY = Math.min((int) Math.floor(from.yCoord), target.getY());
+    int minZ = Math.min((int) Math.floor(from.zCoord), target.getZ());
+    int maxX = Math.max((int) Math.floor(from.xCoord), target.getX());
+    int maxY = Math.max((int) Math.floor(from.yCoord), target.getY());
+    int maxZ = Math.max((int) Math.floor(from.zCoord), target.getZ());
+    for (BlockPos pos : pillars) {
+      minX = Math.min(minX, pos.getX());
+      minY = Math.min(minY, pos.getY());
+      minZ = Math.min(minZ, pos.getZ());
+      maxX = Math.max(maxX, pos.getX());
+      maxY = Math.max(maxY, pos.getY());
+      maxZ = Math.max(maxZ, pos.getZ());
+    }
+    minX -= MARGIN;
+    minY -= MARGIN;
+    minZ -= MARGIN;
+    maxX += MARGIN;
+    maxY += MARGIN;
+    maxZ += MARGIN;
+
+    Block[] air = new Block[] { Blocks.air };
+    if (BlockSnapshot.volume(minX, minY, minZ, maxX, maxY, maxZ) > MAX_SNAPSHOT_VOLUME) {
+      for (int i = 0; i < pillars.size(); i++) {
+        BlockPos pillar = pillars.get(i);
+        if (
+          RayTracingUtils.adjustLook(from, pillar, air, false) != null &&
+          RayTracingUtils.adjustLook(standingOn(pillar), target, air, false) != null
+        ) {
+          return CompletableFuture.completedFuture(i);
+        }
+      }
+      return CompletableFuture.completedFuture(-1);
+    }
+
+    BlockSnapshot snapshot = BlockSnapshot.capture(ids.mc.theWorld, minX, minY, minZ, maxX, maxY, maxZ);
+    // findFirst on an ordered stream keeps the order of the pillars and stops the checks after the first one
+    return CompletableFuture.supplyAsync(
+      () ->
+        IntStream
+          .range(0, pillars.size())
+          .parallel()
+          .filter(i -> {
+            BlockPos pillar = pillars.get(i);
+            return (
+              RayTracingUtils.adjustLook(new RayCaster(snapshot, air, null, null), from, pillar) != null &&
+              RayTracingUtils.adjustLook(new RayCaster(snapshot, air, null, null), standingOn(pillar), target) != null
+            );
+          })
+          .findFirst()
+          .orElse(-1),
+      pool
+    );
+  }
+
+  private static Vec3 standingOn(BlockPos pillar) {
+    return new Vec3(pillar.getX() + 0.5, pillar.getY() + 1, pillar.getZ() + 0.5);
+  }
+
+  private static boolean spans(BlockPos a, BlockPos b, int x, int y, int z) {
+    return (
+      x >= Math.min(a.getX(), b.getX()) - MARGIN &&
+      x <= Math.max(a.getX(), b.getX()) + MARGIN &&
+      y >= Math.min(a.getY(), b.getY()) - MARGIN &&
+      y <= Math.max(a.getY(), b.getY()) + MARGIN &&
+      z >= Math.min(a.getZ(), b.getZ()) - MARGIN &&
+      z <= Math.max(a.getZ(), b.getZ()) + MARGIN
+    );
+  }
+
+  private static void onBlockChanged(BlockPos pos, Block block) {
+    for (Matrix matrix : currentMatrices()) {
+      matrix.onBlockChanged(pos.getX(), pos.getY(), pos.getZ(), block);
+    }
+  }
+
+  private static void onChunkChanged(int chunkX, int chunkZ) {
+    for (Matrix matrix : currentMatrices()) {
+      matrix.onChunkChanged(chunkX, chunkZ);
+    }
+  }
+
+  private static List<Matrix> currentMatrices() {
+    synchronized (matrices) {
+      return new ArrayList<>(matrices.values());
+    }
+  }
+}
@@ -1,11 +1,11 @@
 package com.dillo.main.route.RouteDeletr;
 
+import static com.dillo.armadillomacro.scheduler;
 import static com.dillo.main.utils.looks.LookAt.updateServerLook;
 import static com.dillo.utils.BlockUtils.makeNewBlock;
 import static com.dillo.utils.GetSBItems.*;
 import static com.dillo.utils.keyBindings.rightClick;
 
-import com.dillo.events.MillisecondEvent;
 import com.dillo.events.PlayerMoveEvent;
 import com.dillo.main.files.localizedData.currentRoute;
 import com.dillo.main.utils.looks.LookAt;
@@ -13,6 +13,7 @@ import com.dillo.utils.DistanceFromTo;
 import com.dillo.utils.previous.packets.sendStart;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.swapToSlot;
+import com.dillo.utils.scheduler.ScheduledTask;
 import java.util.ArrayList;
 import java.util.List;
 import net.minecraft.init.Blocks;
@@ -32,18 +33,24 @@ public class RouteDeletrMain {
   boolean isServerLook = false;
   List<BlockPos> brokenWithBoom = new ArrayList<>();
 
-  public long timePoint_nextNuke = System.currentTimeMillis();
+  ScheduledTask nukeTask = null;
 
   public void startStop(RouteDeletrConfig config, boolean isStart) {
     if (isStart) {
+      if (nukeTask != null) nukeTask.cancel();
       curConf = config;
       isEnabled = true;
+      nukeTask = scheduler.runEvery("RouteDeletr", () -> 1000 / config.nukerBPS, false, this::nukeNext);
     } else {
       reset();
     }
   }
 
   void reset() {
+    if (nukeTask != null) {
+      nukeTask.cancel();
+      nukeTask = null;
+    }
     isEnabled = false;
     curConf = null;
     broken.clear();
@@ -51,7 +58,6 @@ public class RouteDeletrMain {
     resetServerBroken = 0;
     isServerLook = false;
     brokenWithBoom.clear();
-    timePoint_nextNuke = System.currentTimeMillis();
   }
 
   @SubscribeEvent
@@ -75,10 +81,9 @@ public class RouteDeletrMain {
     updateServerLook();
   }
 
-  @SubscribeEvent
-  public void onMillisecond(MillisecondEvent event) {
-    if (!isEnabled || System.currentTimeMillis() < timePoint_nextNuke) return;
-    timePoint_nextNuke = System.currentTimeMillis() + (1000 / curConf.nukerBPS);
+  // runs nukerBPS times a second on the scheduler thread while enabled
+  private void nukeNext() {
+    if (!isEnabled) return;
 
     List<BlockPos> cobbleBlocksAround = getCobbleBlocks(ids.mc.thePlayer.getPosition(), curConf.range);
 
@@ -5,13 +5,18 @@ import static com.dillo.main.route.AutoSetup.SetupMain.updateVariablesAutoSetup;
 import static com.dillo.main.route.LegitRouteClear.LegitRouteClear.startLegit;
 import static com.dillo.main.route.Nuker.NukerMain.nukerStart;
 import static com.dillo.main.route.Utils.IsAbleToMine.isAbleToMine;
-import static com.dillo.utils.BlockUtils.makeNewBlock;
 
 import com.dillo.config.config;
+import com.dillo.utils.BlockSnapshot;
 import com.dillo.utils.BlockUtils;
-import com.dillo.utils.DistanceFromTo;
+import com.dillo.utils.RayCaster;
+import com.dillo.utils.collections.LongHashSet;
+import com.dillo.utils.collections.PackedPos;
 import com.dillo.utils.previous.random.ids;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import net.minecraft.block.Block;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.Vec3;
@@ -19,82 +24,147 @@ import net.minecraft.util.Vec3;
 public class GetBlocksForNuker {
 
   public static List<BlockPos> Blockss = new ArrayList<>();
-  public static int currBlocksOfAir = 0;
   private static String call = null;
 
+  // the route columns reach 3 above the route blocks, the cylinder 1 around them
+  private static final int SNAPSHOT_MARGIN = 4;
+  private static final long MAX_SNAPSHOT_VOLUME = 8L * 1024 * 1024;
+  private static final double HALF_DIAGONAL = Math.sqrt(3) / 2;
+  private static final int SEARCH_STEPS = 40;
+  private static final double INV_PHI = (Math.sqrt(5) - 1) / 2;
+
+  /**
+   * Finds the blocks to clear between every two consecutive route blocks, all segments at once on the common fork-join
+   * pool against a snapshot of the route. {@link #Blockss} is set and the caller is notified on the client thread.
+   *
+   * A route too large to copy at once is copied segment by segment. A segment too long even for that is read from the
+   * world right away, on the client thread.
+   */
   public static void getBlocks(List<BlockPos> blocksOnRoute, String callNext) {
     call = callNext;
 
-    new Thread(() -> {
-      currBlocksOfAir = 0;
-      List<BlockPos> blocks = new ArrayList<>();
-
-      for (int i = 0; i < blocksOnRoute.size(); i++) {
-        int second = i + 1;
+    List<BlockPos> route = new ArrayList<>(blocksOnRoute);
+    // the last block connects back to the first one on routes of more than two blocks
+    int segments = route.size() > 2 ? route.size() : Math.max(0, route.size() - 1);
+
+    BlockSnapshot whole = snapshotOf(route);
+    RayCaster.BlockReader[] worlds = new RayCaster.BlockReader[segments];
+    List<List<BlockPos>> perSegment = new ArrayList<>(Collections.nCopies(segments, (List<BlockPos>) null));
+    for (int i = 0; i < segments; i++) {
+      BlockPos from = route.get(i);
+      BlockPos to = route.get((i + 1) % route.size());
+      worlds[i] = whole != null ? whole : snapshotOf(Arrays.asList(from, to));
+      if (worlds[i] == null) {
+        perSegment.set(i, getSegmentBlocks(from, to, GetBlocksForNuker::getWorldBlock));
+      }
+    }
 
-        if (i == blocksOnRoute.size() - 1 && blocksOnRoute.size() > 2) {
-          second = 0;
+    ForkJoinPool
+      .commonPool()
+      .execute(() -> {
+        IntStream
+          .range(0, segments)
+          .parallel()
+          .filter(i -> worlds[i] != null)
+          .forEach(i ->
+            perSegment.set(i, getSegmentBlocks(route.get(i), route.get((i + 1) % route.size()), worlds[i]))
+          );
+
+        List<BlockPos> blocks = new ArrayList<>();
+        for (List<BlockPos> segment : perSegment) {
+          blocks.addAll(segment);
         }
 
-        if (second < blocksOnRoute.size()) {
-          BlockPos block = blocksOnRoute.get(i);
-
-          if (!config.polarBlockDetection) {
-            if (nukerDigUnder) {
-              blocks.addAll(digHoleUnder(block));
-            }
-
-            blocks.addAll(
-              findBlocks(
-                new Vec3(block.getX() + 0.5, block.getY() + 1.64, block.getZ() + 0.5),
-                BlockUtils.fromBlockPosToVec3(blocksOnRoute.get(second)),
-                1
-              )
-            );
-          } else {
-            BlockPos secondBlock = blocksOnRoute.get(second);
-
-            blocks.addAll(
-              polarGetBlocks(
-                block.getX(),
-                block.getY(),
-                block.getZ(),
-                secondBlock.getX(),
-                secondBlock.getY(),
-                secondBlock.getZ()
-              )
-            );
-          }
-        }
-      }
+        ids.mc.addScheduledTask(() -> {
+          Blockss = blocks;
+          doneGettingBlocks();
+        });
+      });
+  }
 
-      Blockss = blocks;
+  private static List<BlockPos> getSegmentBlocks(BlockPos block, BlockPos secondBlock, RayCaster.BlockReader world) {
+    if (config.polarBlockDetection) {
+      return polarGetBlocks(
+        block.getX(),
+        block.getY(),
+        block.getZ(),
+        secondBlock.getX(),
+        secondBlock.getY(),
+        secondBlock.getZ()
+      );
+    }
 
-      doneGettingBlocks();
-    })
-      .start();
+    List<BlockPos> blocks = new ArrayList<>();
+    if (nukerDigUnder) {
+      blocks.addAll(digHoleUnder(block, world));
+    }
+    blocks.addAll(
+      findBlocks(
+        new Vec3(block.getX() + 0.5, block.getY() + 1.64, block.getZ() + 0.5),
+        BlockUtils.fromBlockPosToVec3(secondBlock),
+        1,
+        world
+      )
+    );
+    return blocks;
   }
 
-  private static List<BlockPos> digHoleUnder(BlockPos block) {
-    List<BlockPos> blocks = new ArrayList<>();
+  /**
+   * Copies the area around the blocks, so it can be read from any thread. Client thread only.
+   *
+   * @return null if there are no blocks or the area is too large to copy
+   */
+  private static BlockSnapshot snapshotOf(List<BlockPos> route) {
+    if (route.isEmpty()) {
+      return null;
+    }
+
+    int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+    for (BlockPos pos : route) {
+      minX = Math.min(minX, pos.getX());
+      minY = Math.min(minY, pos.getY());
+      minZ = Math.min(minZ, pos.getZ());
+      maxX = Math.max(maxX, pos.getX());
+      maxY = Math.max(maxY, pos.getY());
+      maxZ = Math.max(maxZ, pos.getZ());
+    }
+    minX -= SNAPSHOT_MARGIN;
+    minY -= SNAPSHOT_MARGIN;
+    minZ -= SNAPSHOT_MARGIN;
+    maxX += SNAPSHOT_MARGIN;
+    maxY += SNAPSHOT_MARGIN;
+    maxZ += SNAPSHOT_MARGIN;
+
+    if (BlockSnapshot.volume(minX, minY, minZ, maxX, maxY, maxZ) > MAX_SNAPSHOT_VOLUME) {
+      return null;
+    }
+    return BlockSnapshot.capture(ids.mc.theWorld, minX, minY, minZ, maxX, maxY, maxZ);
+  }
+
+  private static Block getWorldBlock(int x, int y, int z) {
+    return ids.mc.theWorld.getBlockState(new BlockPos(x, y, z)).getBlock();
+  }
+
+  private static List<BlockPos> digHoleUnder(BlockPos block, RayCaster.BlockReader world) {
+    long[] cells = new long[36];
+    int count = 0;
 
     for (int x = -1; x <= 1; x++) {
       for (int y = -3; y <= 0; y++) {
         for (int z = -1; z <= 1; z++) {
-          BlockPos curBlock = makeNewBlock(x, y, z, block);
+          int blockX = block.getX() + x;
+          int blockY = block.getY() + y;
+          int blockZ = block.getZ() + z;
 
-          if (isAbleToMine(curBlock)) {
-            blocks.add(curBlock);
+          if (isAbleToMine(world.getBlock(blockX, blockY, blockZ))) {
+            cells[count++] = PackedPos.block(blockX, blockY, blockZ);
           }
         }
       }
     }
 
-    blocks.sort((a, b) -> {
-      return DistanceFromTo.distanceFromTo(block, a) < DistanceFromTo.distanceFromTo(block, b) ? -1 : 1;
-    });
-
-    return blocks;
+    return sortByDistance(cells, count, block.getX(), block.getY(), block.getZ());
   }
 
   public static void doneGettingBlocks() {
@@ -107,145 +177,170 @@ public class GetBlocksForNuker {
     }
   }
 
-  public static List<BlockPos> findBlocks(Vec3 pos1, Vec3 pos2, double cylRad) {
-    List<BlockPos> finalBlockPos = new ArrayList<>();
-
-    pos2 = new Vec3(pos2.xCoord + 0.5, pos2.yCoord, pos2.zCoord + 0.5);
-
-    double dx = pos2.xCoord - pos1.xCoord;
-    double dy = pos2.yCoord - pos1.yCoord;
-    double dz = pos2.zCoord - pos1.zCoord;
-    double blockOAir = 0;
+  /**
+   * Finds every block that is not air and comes within cylRad of the segment from pos1 to the top center of the block
+   * at pos2 (a cylinder around the segment with rounded ends), plus the three blocks from pos1 and from pos2 upwards.
+   * The blocks are sorted by distance to the block at pos1.
+   */
+  public static List<BlockPos> findBlocks(Vec3 pos1, Vec3 pos2, double cylRad, RayCaster.BlockReader world) {
+    double ax = pos1.xCoord;
+    double ay = pos1.yCoord;
+    double az = pos1.zCoord;
+    double dx = pos2.xCoord + 0.5 - ax;
+    double dy = pos2.yCoord - ay;
+    double dz = pos2.zCoord + 0.5 - az;
+    double lengthSq = dx * dx + dy * dy + dz * dz;
+
+    LongHashSet found = new LongHashSet(256);
+    long[] cells = new long[256];
+    int count = 0;
+
+    int startX = floor(ax);
+    int startY = floor(ay);
+    int startZ = floor(az);
+    int endX = floor(ax + dx);
+    int endY = floor(ay + dy);
+    int endZ = floor(az + dz);
+    for (int y = 0; y <= 2; y++) {
+      long start = PackedPos.block(startX, startY + y, startZ);
+      if (found.add(start)) cells = append(cells, count++, start);
+    }
+    for (int y = 0; y <= 2; y++) {
+      long end = PackedPos.block(endX, endY + y, endZ);
+      if (found.add(end)) cells = append(cells, count++, end);
+    }
 
-    finalBlockPos.add(new BlockPos(pos1.xCoord, pos1.yCoord, pos1.zCoord));
-    finalBlockPos.add(new BlockPos(pos1.xCoord, pos1.yCoord + 1, pos1.zCoord));
-    finalBlockPos.add(new BlockPos(pos1.xCoord, pos1.yCoord + 2, pos1.zCoord));
+    // only blocks whose center is within cylRad + half a diagonal of the segment can reach it
+    double reach = cylRad + HALF_DIAGONAL;
+    double reachSq = reach * reach;
+    double radiusSq = cylRad * cylRad;
 
-    if (Math.abs(dz) < 0.000001) {
-      dz = 0.000001;
-    }
+    for (int x = floor(Math.min(ax, ax + dx) - cylRad); x <= floor(Math.max(ax, ax + dx) + cylRad); x++) {
+      for (int y = floor(Math.min(ay, ay + dy) - cylRad); y <= floor(Math.max(ay, ay + dy) + cylRad); y++) {
+        for (int z = floor(Math.min(az, az + dz) - cylRad); z <= floor(Math.max(az, az + dz) + cylRad); z++) {
+          double centerSq = segmentDistanceSq(ax, ay, az, dx, dy, dz, lengthSq, x + 0.5, y + 0.5, z + 0.5);
+          if (centerSq > reachSq) continue;
+          if (centerSq > radiusSq && boxDistanceSq(ax, ay, az, dx, dy, dz, x, y, z) > radiusSq) continue;
 
-    double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
-    double stepX = dx / length;
-    double stepY = dy / length;
-    double stepZ = dz / length;
-
-    double planeCoef = pos1.xCoord * dx + pos1.yCoord * dy + pos1.zCoord * dz;
-
-    double xN = 0;
-    double yN = 0;
-    double zN = planeCoef / dz;
-    double dxN = xN - pos1.xCoord;
-    double dyN = yN - pos1.yCoord;
-    double dzN = zN - pos1.zCoord;
-    double lenN = Math.sqrt(dxN * dxN + dyN * dyN + dzN * dzN);
-    dxN = dxN / lenN;
-    dyN = dyN / lenN;
-    dzN = dzN / lenN;
-
-    double dxM = dy * dzN - dz * dyN;
-    double dyM = dz * dxN - dx * dzN;
-    double dzM = dx * dyN - dy * dxN;
-    double cLen = Math.sqrt(dxM * dxM + dyM * dyM + dzM * dzM);
-    dxM = dxM / cLen;
-    dyM = dyM / cLen;
-    dzM = dzM / cLen;
-
-    for (int i = 0; i < length; i++) {
-      for (int degree = 0; degree < 360; degree += 10) {
-        double angle = degree * (Math.PI / 180);
-        double dxP = dxN * Math.cos(angle) + dxM * Math.sin(angle);
-        double dyP = dyN * Math.cos(angle) + dyM * Math.sin(angle);
-        double dzP = dzN * Math.cos(angle) + dzM * Math.sin(angle);
-
-        double newX = stepX * i + pos1.xCoord + dxP * cylRad;
-        double newY = stepY * i + pos1.yCoord + dyP * cylRad;
-        double newZ = stepZ * i + pos1.zCoord + dzP * cylRad;
-
-        BlockPos block = new BlockPos(newX, newY, newZ);
-
-        boolean found = false;
-
-        for (int j = 0; j < finalBlockPos.size() - 1; j++) {
-          if (
-            finalBlockPos.get(j).getX() == block.getX() &&
-            finalBlockPos.get(j).getY() == block.getY() &&
-            finalBlockPos.get(j).getZ() == block.getZ()
-          ) {
-            found = true;
-          }
-        }
+          long cell = PackedPos.block(x, y, z);
+          if (found.contains(cell)) continue;
 
-        if (!found) {
-          if (ids.mc.theWorld.getBlockState(block).getBlock() == Blocks.air) {
-            blockOAir++;
-          } else {
-            finalBlockPos.add(block);
+          if (world.getBlock(x, y, z) != Blocks.air) {
+            found.add(cell);
+            cells = append(cells, count++, cell);
           }
         }
       }
     }
 
-    finalBlockPos.add(new BlockPos(pos2.xCoord, pos2.yCoord, pos2.zCoord));
-    finalBlockPos.add(new BlockPos(pos2.xCoord, pos2.yCoord + 1, pos2.zCoord));
-    finalBlockPos.add(new BlockPos(pos2.xCoord, pos2.yCoord + 2, pos2.zCoord));
-
-    currBlocksOfAir = (int) blockOAir;
-
-    if (cylRad > 0.6) {
-      List<BlockPos> midList = findBlocks(pos1, pos2, 0.5);
+    return sortByDistance(cells, count, startX, startY, startZ);
+  }
 
-      for (BlockPos block : midList) {
-        if (!finalBlockPos.contains(block)) {
-          finalBlockPos.add(block);
-        }
-      }
-    }
+  /**
+   * @return the squared distance from the point to the segment from (ax, ay, az) along (dx, dy, dz)
+   */
+  private static double segmentDistanceSq(
+    double ax,
+    double ay,
+    double az,
+    double dx,
+    double dy,
+    double dz,
+    double lengthSq,
+    double px,
+    double py,
+    double pz
+  ) {
+    double t = lengthSq == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy + (pz - az) * dz) / lengthSq;
+    t = Math.max(0, Math.min(1, t));
+    double ex = ax + dx * t - px;
+    double ey = ay + dy * t - py;
+    double ez = az + dz * t - pz;
+    return ex * ex + ey * ey + ez * ez;
+  }
 
-    finalBlockPos.sort((a, b) -> {
-      if (
-        DistanceFromTo.distanceFromTo(a, BlockUtils.fromVec3ToBlockPos(pos1)) <
-        DistanceFromTo.distanceFromTo(b, BlockUtils.fromVec3ToBlockPos(pos1))
-      ) {
-        return -1;
-      } else if (
-        DistanceFromTo.distanceFromTo(a, BlockUtils.fromVec3ToBlockPos(pos1)) ==
-        DistanceFromTo.distanceFromTo(b, BlockUtils.fromVec3ToBlockPos(pos1))
-      ) {
-        return 0;
+  /**
+   * The squared distance between the segment and the block at (x, y, z). The distance from a point moving along the
+   * segment to the block is convex, so a golden section search over the segment finds its minimum.
+   */
+  private static double boxDistanceSq(
+    double ax,
+    double ay,
+    double az,
+    double dx,
+    double dy,
+    double dz,
+    int x,
+    int y,
+    int z
+  ) {
+    double low = 0;
+    double high = 1;
+    double t1 = high - INV_PHI * (high - low);
+    double t2 = low + INV_PHI * (high - low);
+    double f1 = pointBoxDistanceSq(ax + dx * t1, ay + dy * t1, az + dz * t1, x, y, z);
+    double f2 = pointBoxDistanceSq(ax + dx * t2, ay + dy * t2, az + dz * t2, x, y, z);
+
+    for (int i = 0; i < SEARCH_STEPS && f1 > 0 && f2 > 0; i++) {
+      if (f1 < f2) {
+        high = t2;
+        t2 = t1;
+        f2 = f1;
+        t1 = high - INV_PHI * (high - low);
+        f1 = pointBoxDistanceSq(ax + dx * t1, ay + dy * t1, az + dz * t1, x, y, z);
       } else {
-        return 1;
+        low = t1;
+        t1 = t2;
+        f1 = f2;
+        t2 = low + INV_PHI * (high - low);
+        f2 = pointBoxDistanceSq(ax + dx * t2, ay + dy * t2, az + dz * t2, x, y, z);
       }
-    });
+    }
 
-    return finalBlockPos;
+    double ends = Math.min(
+      pointBoxDistanceSq(ax, ay, az, x, y, z),
+      pointBoxDistanceSq(ax + dx, ay + dy, az + dz, x, y, z)
+    );
+    return Math.min(Math.min(f1, f2), ends);
   }
 
-  public static List<BlockPos> middle(List<BlockPos> alrAdded, Vec3 block1, Vec3 block2) {
-    List<BlockPos> finalBlockPos = new ArrayList<>();
-
-    double dx = block2.xCoord - block1.xCoord;
-    double dy = block2.yCoord - block1.yCoord;
-    double dz = block2.zCoord - block1.zCoord;
+  private static double pointBoxDistanceSq(double px, double py, double pz, int x, int y, int z) {
+    double ex = Math.max(0, Math.max(x - px, px - (x + 1)));
+    double ey = Math.max(0, Math.max(y - py, py - (y + 1)));
+    double ez = Math.max(0, Math.max(z - pz, pz - (z + 1)));
+    return ex * ex + ey * ey + ez * ez;
+  }
 
-    if (Math.abs(dz) < 0.000001) {
-      dz = 0.000001;
+  /**
+   * Sorts packed positions by their distance to (x, y, z), keeping the order of equally distant ones. The squared
+   * distance is computed once per block and sorted together with the index of the block.
+   */
+  private static List<BlockPos> sortByDistance(long[] cells, int count, int x, int y, int z) {
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      long dx = PackedPos.blockX(cells[i]) - x;
+      long dy = PackedPos.blockY(cells[i]) - y;
+      long dz = PackedPos.blockZ(cells[i]) - z;
+      keys[i] = (dx * dx + dy * dy + dz * dz) << 32 | i;
     }
+    Arrays.sort(keys);
 
-    double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
-    double stepX = dx / length;
-    double stepY = dy / length;
-    double stepZ = dz / length;
-
-    for (int i = 0; i < length; i++) {
-      BlockPos newBlock = new BlockPos(stepX * i + block1.xCoord, stepY * i + block1.yCoord, stepZ * i + block1.zCoord);
-
-      if (ids.mc.theWorld.getBlockState(newBlock).getBlock() != Blocks.air && !alrAdded.contains(newBlock)) {
-        finalBlockPos.add(newBlock);
-      }
+    List<BlockPos> sorted = new ArrayList<>(count);
+    for (long key : keys) {
+      long cell = cells[(int) key];
+      sorted.add(new BlockPos(PackedPos.blockX(cell), PackedPos.blockY(cell), PackedPos.blockZ(cell)));
     }
+    return sorted;
+  }
+
+  private static long[] append(long[] cells, int index, long cell) {
+    if (index == cells.length) cells = Arrays.copyOf(cells, cells.length * 2);
+    cells[index] = cell;
+    return cells;
+  }
 
-    return finalBlockPos;
+  private static int floor(double value) {
+    return (int) Math.floor(value);
   }
 
   public static List<BlockPos> polarGetBlocks(double x1, double y1, double z1, double x2, double y2, double z2) {
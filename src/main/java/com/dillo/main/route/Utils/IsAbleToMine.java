@@ -9,8 +9,10 @@ import net.minecraft.util.BlockPos;
 public class IsAbleToMine {
 
   public static boolean isAbleToMine(BlockPos block) {
-    Block blockType = ids.mc.theWorld.getBlockState(block).getBlock();
+    return isAbleToMine(ids.mc.theWorld.getBlockState(block).getBlock());
+  }
 
+  public static boolean isAbleToMine(Block blockType) {
     if (
       blockType == Blocks.coal_ore ||
       blockType == Blocks.lapis_ore ||
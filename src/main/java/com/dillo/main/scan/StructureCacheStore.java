@@ -0,0 +1,188 @@
+package com.dillo.main.scan;
+
+import static com.dillo.main.files.readwrite.WriteFile.gson;
+
+import com.dillo.main.files.readwrite.ReadFileContents;
+import com.dillo.utils.GetConfigFolder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.util.BlockPos;
+
+/**
+ * Keeps the structures found on a server across restarts, one small json file per server under
+ * MiningInTwo/structureCache. Only chunks inside the Crystal Hollows grid are recorded, as a
+ * 64x64 bitset.
+ *
+ * A file is only reused for the same lobby instance: the world tick counter saved with it must
+ * not have gone backwards (a fresh lobby with a recycled name starts counting from zero again),
+ * and it must be younger than MAX_AGE, after which the lobby has closed anyway.
+ */
+public class StructureCacheStore {
+
+  private static final File folder = new File(GetConfigFolder.getMcDir() + "/MiningInTwo/structureCache");
+  private static final long MAX_AGE = TimeUnit.HOURS.toMillis(8);
+  private static final int GRID_SIZE = 64;
+
+  public static void save(WorldScanner.World world, long worldTime) {
+    if (world.getServerName() == null) return;
+    if (!folder.exists()) folder.mkdirs();
+
+    BitSet chunks = new BitSet(GRID_SIZE * GRID_SIZE);
+    for (int x = 0; x < GRID_SIZE; x++) {
+      for (int z = 0; z < GRID_SIZE; z++) {
+        if (world.isChunkCached(x, z)) chunks.set(x * GRID_SIZE + z);
+      }
+    }
+    if (chunks.isEmpty()) return;
+
+    JsonObject json = new JsonObject();
+    json.add("server", new JsonPrimitive(world.getServerName()));
+    json.add("worldTime", new JsonPrimitive(worldTime));
+    json.add("savedAt", new JsonPrimitive(System.currentTimeMillis()));
+
+    JsonArray chunkArr = new JsonArray();
+    for (long word : chunks.toLongArray()) chunkArr.add(new JsonPrimitive(word));
+    json.add("chunks", chunkArr);
+
+    json.add("crystals", namedToJson(world.getCrystalWaypoints()));
+    json.add("mobSpots", namedToJson(world.getMobSpotWaypoints()));
+    json.add("grottos", positionsToJson(world.getFairyGrottos()));
+    json.add("worms", positionsToJson(world.getWormFishing()));
+    json.add("nests", positionsToJson(world.getDragonNest()));
+
+    File file = fileFor(world.getServerName());
+    File temp = new File(file.getPath() + ".tmp");
+    try {
+      try (FileWriter writer = new FileWriter(temp)) {
+        writer.write(gson.toJson(json));
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Restores a saved lobby into an empty world. Returns false if there was nothing usable.
+   */
+  public static boolean load(WorldScanner.World world, long worldTime) {
+    if (world.getServerName() == null) return false;
+    File file = fileFor(world.getServerName());
+    if (!file.exists()) return false;
+
+    BitSet chunks;
+    Map<String, BlockPos> crystals = new LinkedHashMap<>();
+    Map<String, BlockPos> mobSpots = new LinkedHashMap<>();
+    List<BlockPos> grottos = new ArrayList<>();
+    List<BlockPos> worms = new ArrayList<>();
+    List<BlockPos> nests = new ArrayList<>();
+    // read completely before anything is applied, an old or truncated file must not leave the world half restored
+    try {
+      JsonObject json = ReadFileContents.readFileContents(file);
+      if (
+        json == null ||
+        json.get("worldTime").getAsLong() > worldTime ||
+        System.currentTimeMillis() - json.get("savedAt").getAsLong() > MAX_AGE
+      ) {
+        file.delete();
+        return false;
+      }
+
+      JsonArray chunkArr = json.getAsJsonArray("chunks");
+      long[] words = new long[chunkArr.size()];
+      for (int i = 0; i < words.length; i++) words[i] = chunkArr.get(i).getAsLong();
+      chunks = BitSet.valueOf(words);
+      if (chunks.length() > GRID_SIZE * GRID_SIZE) throw new IllegalStateException("Chunks outside of the grid");
+
+      for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("crystals").entrySet()) {
+        crystals.put(entry.getKey(), toBlockPos(entry.getValue()));
+      }
+      for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("mobSpots").entrySet()) {
+        mobSpots.put(entry.getKey(), toBlockPos(entry.getValue()));
+      }
+      for (JsonElement element : json.getAsJsonArray("grottos")) grottos.add(toBlockPos(element));
+      for (JsonElement element : json.getAsJsonArray("worms")) worms.add(toBlockPos(element));
+      for (JsonElement element : json.getAsJsonArray("nests")) nests.add(toBlockPos(element));
+    } catch (RuntimeException e) {
+      // missing entries are null, entries of the wrong type throw
+      e.printStackTrace();
+      file.delete();
+      return false;
+    }
+
+    for (int i = chunks.nextSetBit(0); i >= 0; i = chunks.nextSetBit(i + 1)) {
+      world.cacheChunk(i / GRID_SIZE, i % GRID_SIZE);
+    }
+    for (Map.Entry<String, BlockPos> entry : crystals.entrySet()) {
+      world.updateCrystalWaypoints(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<String, BlockPos> entry : mobSpots.entrySet()) {
+      world.updateMobSpotWaypoints(entry.getKey(), entry.getValue());
+    }
+    for (BlockPos pos : grottos) world.updateFairyGrottos(pos);
+    for (BlockPos pos : worms) world.updateWormFishing(pos);
+    for (BlockPos pos : nests) world.updateDragonNest(pos);
+
+    return true;
+  }
+
+  /**
+   * Deletes files of lobbies that have certainly closed.
+   */
+  public static void removeExpired() {
+    File[] files = folder.listFiles();
+    if (files == null) return;
+
+    for (File file : files) {
+      if (System.currentTimeMillis() - file.lastModified() > MAX_AGE) {
+        file.delete();
+      }
+    }
+  }
+
+  private static File fileFor(String serverName) {
+    return new File(folder, serverName.replaceAll("[^A-Za-z0-9_-]", "_") + ".json");
+  }
+
+  private static JsonObject namedToJson(Map<String, BlockPos> waypoints) {
+    JsonObject obj = new JsonObject();
+    for (Map.Entry<String, BlockPos> entry : waypoints.entrySet()) {
+      obj.add(entry.getKey(), toJson(entry.getValue()));
+    }
+    return obj;
+  }
+
+  private static JsonArray positionsToJson(Map<BlockPos, Integer> waypoints) {
+    JsonArray arr = new JsonArray();
+    for (BlockPos blockPos : waypoints.keySet()) {
+      arr.add(toJson(blockPos));
+    }
+    return arr;
+  }
+
+  private static JsonArray toJson(BlockPos blockPos) {
+    JsonArray arr = new JsonArray();
+    arr.add(new JsonPrimitive(blockPos.getX()));
+    arr.add(new JsonPrimitive(blockPos.getY()));
+    arr.add(new JsonPrimitive(blockPos.getZ()));
+    return arr;
+  }
+
+  private static BlockPos toBlockPos(JsonElement element) {
+    JsonArray arr = element.getAsJsonArray();
+    return new BlockPos(arr.get(0).getAsInt(), arr.get(1).getAsInt(), arr.get(2).getAsInt());
+  }
+}
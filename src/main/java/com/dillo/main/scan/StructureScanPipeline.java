@@ -0,0 +1,130 @@
+package com.dillo.main.scan;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Moves structure detection off the client thread. Chunks are queued on load, snapshotted a few
+ * per tick while the worker pool has room, and matches are handed back to the client thread on
+ * the next tick. Results are always recorded into the world they were scanned for.
+ */
+public class StructureScanPipeline {
+
+  private static final int WORKERS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+  private static final int MAX_IN_FLIGHT = 32;
+  private static final int SNAPSHOTS_PER_TICK = 8;
+
+  private final ArrayDeque<PendingChunk> pending = new ArrayDeque<>();
+  private final ConcurrentLinkedQueue<ScanResult> results = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final ThreadPoolExecutor executor;
+
+  private static class PendingChunk {
+
+    private final Chunk chunk;
+    private final WorldScanner.World world;
+
+    PendingChunk(Chunk chunk, WorldScanner.World world) {
+      this.chunk = chunk;
+      this.world = world;
+    }
+  }
+
+  private static class ScanResult {
+
+    private final StructureScanner.Match match;
+    private final WorldScanner.World world;
+
+    ScanResult(StructureScanner.Match match, WorldScanner.World world) {
+      this.match = match;
+      this.world = world;
+    }
+  }
+
+  public StructureScanPipeline() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+      new ThreadPoolExecutor(
+        WORKERS,
+        WORKERS,
+        30,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "StructureScanner-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          thread.setPriority(Thread.MIN_PRIORITY);
+          return thread;
+        }
+      );
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Queues a chunk unless it was already scanned or queued for this world. Client thread only.
+   */
+  public void submit(Chunk chunk, WorldScanner.World world) {
+    if (world.isChunkCached(chunk)) return;
+    world.cacheChunk(chunk);
+    pending.add(new PendingChunk(chunk, world));
+  }
+
+  /**
+   * Publishes finished scans and feeds the pool from the pending queue. Client thread only.
+   */
+  public void tick() {
+    ScanResult result;
+    while ((result = results.poll()) != null) {
+      WorldScanner.recordMatch(result.match, result.world);
+    }
+
+    if (LocationUtils.currentIsland == null) return;
+    StructureScanner scanner = StructureScanner.forIsland(LocationUtils.currentIsland);
+
+    int snapshots = 0;
+    while (!pending.isEmpty() && snapshots < SNAPSHOTS_PER_TICK && inFlight.get() < MAX_IN_FLIGHT) {
+      PendingChunk next = pending.poll();
+      Chunk chunk = next.chunk;
+      char[][] sections = StructureScanner.snapshot(chunk);
+      int chunkX = chunk.xPosition;
+      int chunkZ = chunk.zPosition;
+      snapshots++;
+
+      inFlight.incrementAndGet();
+      executor.execute(() -> {
+        try {
+          StructureScanner.Match match = scanner.scan(chunkX, chunkZ, sections, next.world);
+          if (match != null) results.add(new ScanResult(match, next.world));
+        } catch (Throwable e) {
+          e.printStackTrace();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * True when every queued chunk has been scanned and its result published, i.e. the world's
+   * chunk cache only contains chunks that were really scanned.
+   */
+  public boolean isIdle() {
+    return pending.isEmpty() && inFlight.get() == 0 && results.isEmpty();
+  }
+
+  /**
+   * Drops chunks that were never snapshotted, un-marking them so they are scanned again if the
+   * same server is rejoined. Scans already running still publish into their own world.
+   */
+  public void clear() {
+    for (PendingChunk next : pending) {
+      next.world.uncacheChunk(next.chunk);
+    }
+    pending.clear();
+  }
+}
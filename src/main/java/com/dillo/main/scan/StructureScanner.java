@@ -0,0 +1,299 @@
+package com.dillo.main.scan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import kotlin.Triple;
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.PropertyEnum;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Compiled form of {@link Structure} for one island. Every structure column is turned into
+ * (block id, meta mask) pairs and indexed by the id of its bottom block, so a chunk is scanned
+ * in a single pass over the raw section data no matter how many structures exist.
+ */
+public class StructureScanner {
+
+  public static final int SCAN_HEIGHT = 170;
+
+  private static final EnumMap<LocationUtils.Island, StructureScanner> compiled = new EnumMap<>(
+    LocationUtils.Island.class
+  );
+
+  // Highest section a structure anchored below SCAN_HEIGHT can reach into.
+  public static final int SECTIONS_NEEDED = sectionsNeeded();
+
+  private final StructureMatcher[][] byFirstBlock = new StructureMatcher[4096][];
+  private final StructureMatcher[] wildcards;
+  private final boolean matchesAir;
+
+  public static class Match {
+
+    private final Structure structure;
+    private final int x;
+    private final int y;
+    private final int z;
+
+    public Match(Structure structure, int x, int y, int z) {
+      this.structure = structure;
+      this.x = x;
+      this.y = y;
+      this.z = z;
+    }
+
+    public Structure getStructure() {
+      return structure;
+    }
+
+    public BlockPos getAnchor() {
+      return new BlockPos(x, y, z);
+    }
+
+    public BlockPos getWaypoint() {
+      return new BlockPos(
+        x + structure.getXOffset(),
+        y + structure.getYOffset(),
+        z + structure.getZOffset()
+      );
+    }
+  }
+
+  private static class StructureMatcher {
+
+    private final Structure structure;
+    private final int[] blockIds;
+    private final int[] metaMasks;
+    private final Triple<Block, PropertyEnum, Comparable>[] wildcardStates;
+
+    @SuppressWarnings("unchecked")
+    StructureMatcher(Structure structure) {
+      this.structure = structure;
+      int height = structure.getStates().size();
+      this.blockIds = new int[height];
+      this.metaMasks = new int[height];
+      this.wildcardStates = new Triple[height];
+
+      for (int i = 0; i < height; i++) {
+        Triple<Block, PropertyEnum, Comparable> triple = structure.getStates().get(i);
+        if (triple.getFirst() == null) {
+          blockIds[i] = -1;
+          wildcardStates[i] = triple;
+          continue;
+        }
+        blockIds[i] = Block.getIdFromBlock(triple.getFirst());
+        metaMasks[i] = metaMask(triple, blockIds[i]);
+      }
+    }
+
+    // Bit n is set when the state stored as (id << 4 | n) satisfies the triple, resolved the
+    // same way ExtendedBlockStorage.get() resolves it (unknown states read back as air).
+    @SuppressWarnings("unchecked")
+    private static int metaMask(Triple<Block, PropertyEnum, Comparable> triple, int blockId) {
+      int mask = 0;
+      for (int meta = 0; meta < 16; meta++) {
+        IBlockState state = Block.BLOCK_STATE_IDS.getByValue(blockId << 4 | meta);
+        if (state == null) state = Blocks.air.getDefaultState();
+        if (state.getBlock() != triple.getFirst()) continue;
+        if (
+          triple.getSecond() != null && triple.getThird() != null && state.getValue(triple.getSecond()) != triple.getThird()
+        ) {
+          continue;
+        }
+        mask |= 1 << meta;
+      }
+      return mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    boolean matches(char[][] sections, int x, int y, int z) {
+      for (int i = 0; i < blockIds.length; i++) {
+        int state = stateAt(sections, x, y + i, z);
+        if (blockIds[i] == -1) {
+          Triple<Block, PropertyEnum, Comparable> triple = wildcardStates[i];
+          if (triple.getSecond() == null || triple.getThird() == null) continue;
+          IBlockState blockState = Block.BLOCK_STATE_IDS.getByValue(state);
+          if (blockState == null) blockState = Blocks.air.getDefaultState();
+          if (blockState.getValue(triple.getSecond()) != triple.getThird()) return false;
+          continue;
+        }
+        if ((state >> 4) != blockIds[i] || (metaMasks[i] >>> (state & 15) & 1) == 0) return false;
+      }
+      return true;
+    }
+  }
+
+  public static StructureScanner forIsland(LocationUtils.Island island) {
+    synchronized (compiled) {
+      return compiled.computeIfAbsent(island, StructureScanner::new);
+    }
+  }
+
+  private StructureScanner(LocationUtils.Island island) {
+    List<List<StructureMatcher>> buckets = new ArrayList<>();
+    for (int i = 0; i < byFirstBlock.length; i++) buckets.add(null);
+    List<StructureMatcher> wildcardList = new ArrayList<>();
+
+    for (Structure structure : Structure.values()) {
+      if (structure.getIsland() != island) continue;
+      StructureMatcher matcher = new StructureMatcher(structure);
+
+      if (structure.getStructureType() == StructureType.WORM_FISHING) {
+        addToBucket(buckets, Block.getIdFromBlock(Blocks.lava), matcher);
+        addToBucket(buckets, Block.getIdFromBlock(Blocks.flowing_lava), matcher);
+      } else if (matcher.blockIds.length == 0 || matcher.blockIds[0] == -1) {
+        wildcardList.add(matcher);
+      } else {
+        addToBucket(buckets, matcher.blockIds[0], matcher);
+      }
+    }
+
+    this.wildcards = wildcardList.toArray(new StructureMatcher[0]);
+
+    // Keep enum order inside every bucket so the first structure found is the same one the
+    // old per-block loop over Structure.values() would have found.
+    for (int id = 0; id < buckets.size(); id++) {
+      List<StructureMatcher> bucket = buckets.get(id);
+      if (bucket == null) continue;
+      bucket.addAll(wildcardList);
+      bucket.sort(Comparator.comparingInt(matcher -> matcher.structure.ordinal()));
+      byFirstBlock[id] = bucket.toArray(new StructureMatcher[0]);
+    }
+
+    this.matchesAir = byFirstBlock[0] != null || wildcards.length > 0;
+  }
+
+  private static void addToBucket(List<List<StructureMatcher>> buckets, int id, StructureMatcher matcher) {
+    if (buckets.get(id) == null) buckets.set(id, new ArrayList<>());
+    buckets.get(id).add(matcher);
+  }
+
+  /**
+   * Copies references to the raw block arrays of every non-empty section. Empty sections are
+   * left null and read back as air.
+   */
+  public static char[][] sectionData(Chunk chunk) {
+    ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+    char[][] sections = new char[16][];
+    for (int i = 0; i < storageArray.length && i < sections.length; i++) {
+      ExtendedBlockStorage storage = storageArray[i];
+      if (storage != null && !storage.isEmpty()) {
+        sections[i] = storage.getData();
+      }
+    }
+    return sections;
+  }
+
+  /**
+   * Private copy of the section data a scan can touch, safe to hand to another thread while the
+   * client keeps mutating the chunk.
+   */
+  public static char[][] snapshot(Chunk chunk) {
+    ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+    char[][] sections = new char[16][];
+    for (int i = 0; i < storageArray.length && i < SECTIONS_NEEDED; i++) {
+      ExtendedBlockStorage storage = storageArray[i];
+      if (storage != null && !storage.isEmpty()) {
+        sections[i] = storage.getData().clone();
+      }
+    }
+    return sections;
+  }
+
+  private static int sectionsNeeded() {
+    int tallest = 0;
+    for (Structure structure : Structure.values()) {
+      tallest = Math.max(tallest, structure.getStates().size());
+    }
+    return Math.min(16, ((SCAN_HEIGHT + tallest) >> 4) + 1);
+  }
+
+  private static int stateAt(char[][] sections, int x, int y, int z) {
+    if (y < 0 || y >> 4 >= sections.length) return 0;
+    char[] section = sections[y >> 4];
+    if (section == null) return 0;
+    return section[(y & 15) << 8 | z << 4 | x];
+  }
+
+  public Match scan(Chunk chunk, WorldScanner.World currentWorld) {
+    return scan(chunk.xPosition, chunk.zPosition, sectionData(chunk), currentWorld);
+  }
+
+  /**
+   * Walks the chunk in the same x/y/z order as the original scanner and returns the first
+   * enabled structure found, or null.
+   */
+  public Match scan(int chunkX, int chunkZ, char[][] sections, WorldScanner.World currentWorld) {
+    for (int x = 0; x < 16; x++) {
+      for (int y = 0; y < SCAN_HEIGHT; y++) {
+        if (!matchesAir && sections[y >> 4] == null) {
+          y |= 15;
+          continue;
+        }
+        for (int z = 0; z < 16; z++) {
+          int state = stateAt(sections, x, y, z);
+          StructureMatcher[] candidates = byFirstBlock[state >> 4];
+          if (candidates == null) candidates = wildcards;
+
+          for (StructureMatcher matcher : candidates) {
+            if (test(matcher, chunkX, chunkZ, sections, x, y, z, currentWorld)) {
+              return new Match(matcher.structure, chunkX * 16 + x, y, chunkZ * 16 + z);
+            }
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean test(
+    StructureMatcher matcher,
+    int chunkX,
+    int chunkZ,
+    char[][] sections,
+    int x,
+    int y,
+    int z,
+    WorldScanner.World currentWorld
+  ) {
+    Structure structure = matcher.structure;
+    int worldX = chunkX * 16 + x;
+    int worldZ = chunkZ * 16 + z;
+
+    switch (structure.getStructureType()) {
+      case CH_CRYSTALS:
+        if (!WorldScanner.worldScannerCHCrystals) return false;
+        if (currentWorld.getCrystalWaypoints().containsKey(structure.getName())) return false;
+        if (structure == Structure.BAL && y >= 80) return false;
+        break;
+      case CH_MOB_SPOTS:
+        if (!WorldScanner.worldScannerCHMobSpots) return false;
+        break;
+      case FAIRY_GROTTO:
+        if (!WorldScanner.worldScannerCHFairyGrottos) return false;
+        break;
+      case GOLDEN_DRAGON:
+        if (!WorldScanner.worldScannerCHGoldenDragonNest) return false;
+        break;
+      case WORM_FISHING:
+        if (!WorldScanner.worldScannerCHWormFishing) return false;
+        if (!((worldX >= 564 && worldZ >= 513) || (worldX >= 513 && worldZ >= 564))) return false;
+        return y > 63 && !isLava(stateAt(sections, x, y + 1, z));
+      default:
+        return false;
+    }
+
+    if (!structure.getQuarter().testPredicate(new BlockPos(worldX, y, worldZ))) return false;
+    return matcher.matches(sections, x, y, z);
+  }
+
+  private static boolean isLava(int state) {
+    int id = state >> 4;
+    return id == Block.getIdFromBlock(Blocks.lava) || id == Block.getIdFromBlock(Blocks.flowing_lava);
+  }
+}
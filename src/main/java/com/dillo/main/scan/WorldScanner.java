@@ -2,6 +2,8 @@ package com.dillo.main.scan;
 
 import com.dillo.config.config;
 import com.dillo.main.scan.Utils.*;
+import com.dillo.utils.collections.LongHashSet;
+import com.dillo.utils.collections.PackedPos;
 import com.dillo.utils.previous.random.ids;
 import java.awt.*;
 import java.util.*;
@@ -9,15 +11,8 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import kotlin.Triple;
-import net.minecraft.block.*;
-import net.minecraft.block.properties.PropertyEnum;
-import net.minecraft.block.state.IBlockState;
-import net.minecraft.crash.CrashReport;
-import net.minecraft.init.Blocks;
 import net.minecraft.util.*;
 import net.minecraft.world.chunk.Chunk;
-import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -44,7 +39,7 @@ public class WorldScanner {
     private final ConcurrentHashMap<BlockPos, Integer> fairyGrottosWaypoints;
     private final ConcurrentHashMap<BlockPos, Integer> wormFishingWaypoints;
     private final ConcurrentHashMap<BlockPos, Integer> dragonNestWaypoints;
-    private final HashSet<Integer> chunkCache;
+    private final LongHashSet chunkCache;
     private final String serverName;
 
     public World(String serverName) {
@@ -53,7 +48,7 @@ public class WorldScanner {
       this.fairyGrottosWaypoints = new ConcurrentHashMap<>();
       this.wormFishingWaypoints = new ConcurrentHashMap<>();
       this.dragonNestWaypoints = new ConcurrentHashMap<>();
-      this.chunkCache = new HashSet<>();
+      this.chunkCache = new LongHashSet(1024);
       this.serverName = serverName;
     }
 
@@ -97,12 +92,28 @@ public class WorldScanner {
       return this.dragonNestWaypoints;
     }
 
+    public String getServerName() {
+      return this.serverName;
+    }
+
     public void cacheChunk(Chunk chunk) {
-      this.chunkCache.add(chunk.xPosition * 65536 + chunk.zPosition);
+      cacheChunk(chunk.xPosition, chunk.zPosition);
     }
 
-    private boolean isChunkCached(Chunk chunk) {
-      return this.chunkCache.contains(chunk.xPosition * 65536 + chunk.zPosition);
+    public void cacheChunk(int chunkX, int chunkZ) {
+      this.chunkCache.add(PackedPos.chunk(chunkX, chunkZ));
+    }
+
+    void uncacheChunk(Chunk chunk) {
+      this.chunkCache.remove(PackedPos.chunk(chunk.xPosition, chunk.zPosition));
+    }
+
+    boolean isChunkCached(Chunk chunk) {
+      return isChunkCached(chunk.xPosition, chunk.zPosition);
+    }
+
+    boolean isChunkCached(int chunkX, int chunkZ) {
+      return this.chunkCache.contains(PackedPos.chunk(chunkX, chunkZ));
     }
   }
 
@@ -131,6 +142,9 @@ public class WorldScanner {
     }
   };
   private static long unloadedTimestamp = 0;
+  private static final StructureScanPipeline scanPipeline = new StructureScanPipeline();
+  private static final int SAVE_INTERVAL = 1200;
+  private static int ticksSinceSave = 0;
 
   @SubscribeEvent
   public void onChunkLoad(ChunkLoadEvent event) {
@@ -138,10 +152,7 @@ public class WorldScanner {
     if (cooldown != 0) return;
     World currentWorld = worlds.get(LocationUtils.serverName);
     if (currentWorld == null) return;
-    if (!currentWorld.isChunkCached(event.getChunk())) {
-      handleChunkLoad(event.getChunk(), currentWorld);
-      currentWorld.cacheChunk(event.getChunk());
-    }
+    scanPipeline.submit(event.getChunk(), currentWorld);
   }
 
   @SubscribeEvent
@@ -154,9 +165,22 @@ public class WorldScanner {
       cooldown--;
     }
     if (cooldown == 1 && !worlds.containsKey(LocationUtils.serverName)) {
-      worlds.put(LocationUtils.serverName, new World(LocationUtils.serverName));
+      World world = new World(LocationUtils.serverName);
+      StructureCacheStore.removeExpired();
+      if (StructureCacheStore.load(world, ids.mc.theWorld.getTotalWorldTime())) {
+        ModUtils.sendMessage("Restored cached structures for " + LocationUtils.serverName);
+      }
+      worlds.put(LocationUtils.serverName, world);
     }
     if (cooldown == 0) {
+      scanPipeline.tick();
+      if (++ticksSinceSave >= SAVE_INTERVAL) {
+        ticksSinceSave = 0;
+        World currentWorld = worlds.get(LocationUtils.serverName);
+        if (currentWorld != null && scanPipeline.isIdle()) {
+          StructureCacheStore.save(currentWorld, ids.mc.theWorld.getTotalWorldTime());
+        }
+      }
       if (initialScan) return;
       World currentWorld = worlds.get(LocationUtils.serverName);
       if (currentWorld == null) return;
@@ -165,8 +189,7 @@ public class WorldScanner {
       if (object instanceof List) {
         ModUtils.sendMessage("Running initial full-scan");
         for (Chunk chunk : (List<Chunk>) object) {
-          currentWorld.cacheChunk(chunk);
-          handleChunkLoad(chunk, currentWorld);
+          scanPipeline.submit(chunk, currentWorld);
         }
       }
     }
@@ -174,9 +197,17 @@ public class WorldScanner {
 
   @SubscribeEvent
   public void onWorldUnload(WorldEvent.Unload event) {
+    if (config.stuctureFinder && cooldown == 0) {
+      scanPipeline.clear();
+      World currentWorld = worlds.get(LocationUtils.serverName);
+      if (currentWorld != null && scanPipeline.isIdle()) {
+        StructureCacheStore.save(currentWorld, event.world.getTotalWorldTime());
+      }
+    }
     if (System.currentTimeMillis() - unloadedTimestamp > 2000) {
       cooldown = 80;
       initialScan = false;
+      scanPipeline.clear();
       unloadedTimestamp = System.currentTimeMillis();
     }
   }
@@ -261,120 +292,35 @@ public class WorldScanner {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static boolean scanStructure(Chunk chunk, Structure structure, int x, int y, int z) {
-    if (!structure.getQuarter().testPredicate(new BlockPos(chunk.xPosition * 16 + x, y, chunk.zPosition * 16 + z))) {
-      return false;
-    }
-
-    for (int structureY = 0; structureY < structure.getStates().size(); structureY++) {
-      Triple<Block, PropertyEnum, Comparable> triple = structure.getStates().get(structureY);
-
-      if (triple.getFirst() != null && !triple.getFirst().equals(chunk.getBlock(x, y + structureY, z))) {
-        return false;
-      }
-
-      if (
-        triple.getSecond() != null &&
-        triple.getThird() != null &&
-        getBlockState(chunk, x, y + structureY, z).getValue(triple.getSecond()) != triple.getThird()
-      ) {
-        return false;
-      }
-    }
-
-    return true;
+  public static void handleChunkLoad(Chunk chunk, World currentWorld) {
+    if (LocationUtils.currentIsland == null) return;
+    StructureScanner.Match match = StructureScanner.forIsland(LocationUtils.currentIsland).scan(chunk, currentWorld);
+    if (match != null) recordMatch(match, currentWorld);
   }
 
-  public static void handleChunkLoad(Chunk chunk, World currentWorld) {
-    for (int x = 0; x < 16; x++) {
-      for (int y = 0; y < 170; y++) {
-        for (int z = 0; z < 16; z++) {
-          for (Structure structure : Structure.values()) {
-            if (LocationUtils.currentIsland == structure.getIsland()) {
-              if (structure.getStructureType().equals(StructureType.CH_CRYSTALS) && worldScannerCHCrystals) {
-                if (!currentWorld.getCrystalWaypoints().containsKey(structure.getName())) {
-                  if (structure != Structure.BAL || y < 80) {
-                    if (scanStructure(chunk, structure, x, y, z)) {
-                      sendCoordinatesMessage(
-                        structure.getName(),
-                        chunk.xPosition * 16 + x + structure.getXOffset(),
-                        y + structure.getYOffset(),
-                        chunk.zPosition * 16 + z + structure.getZOffset()
-                      );
-                      addToSkytilsMap(
-                        structure.getName(),
-                        chunk.xPosition * 16 + x + structure.getXOffset(),
-                        y + structure.getYOffset(),
-                        chunk.zPosition * 16 + z + structure.getZOffset()
-                      );
-                      currentWorld.updateCrystalWaypoints(
-                        structure.getName(),
-                        new BlockPos(
-                          chunk.xPosition * 16 + x + structure.getXOffset(),
-                          y + structure.getYOffset(),
-                          chunk.zPosition * 16 + z + structure.getZOffset()
-                        )
-                      );
-                      return;
-                    }
-                  }
-                }
-              }
-
-              if (structure.getStructureType().equals(StructureType.CH_MOB_SPOTS) && worldScannerCHMobSpots) {
-                if (scanStructure(chunk, structure, x, y, z)) {
-                  currentWorld.updateMobSpotWaypoints(
-                    structure.getName(),
-                    new BlockPos(
-                      chunk.xPosition * 16 + x + structure.getXOffset(),
-                      y + structure.getYOffset(),
-                      chunk.zPosition * 16 + z + structure.getZOffset()
-                    )
-                  );
-                  return;
-                }
-              }
-
-              if (structure.getStructureType().equals(StructureType.FAIRY_GROTTO) && worldScannerCHFairyGrottos) {
-                if (scanStructure(chunk, structure, x, y, z)) {
-                  currentWorld.updateFairyGrottos(new BlockPos(chunk.xPosition * 16 + x, y, chunk.zPosition * 16 + z));
-                  return;
-                }
-              }
-
-              if (structure.getStructureType().equals(StructureType.WORM_FISHING) && worldScannerCHWormFishing) {
-                if (
-                  (chunk.xPosition * 16 + x >= 564 && chunk.zPosition * 16 + z >= 513) ||
-                  (chunk.xPosition * 16 + x >= 513 && chunk.zPosition * 16 + z >= 564)
-                ) {
-                  if (
-                    y > 63 &&
-                    (chunk.getBlock(x, y, z) == Blocks.lava || chunk.getBlock(x, y, z) == Blocks.flowing_lava) &&
-                    (chunk.getBlock(x, y + 1, z) != Blocks.lava && chunk.getBlock(x, y + 1, z) != Blocks.flowing_lava)
-                  ) {
-                    currentWorld.updateWormFishing(new BlockPos(chunk.xPosition * 16 + x, y, chunk.zPosition * 16 + z));
-                    return;
-                  }
-                }
-              }
-
-              if (structure.getStructureType().equals(StructureType.GOLDEN_DRAGON) && worldScannerCHGoldenDragonNest) {
-                if (scanStructure(chunk, structure, x, y, z)) {
-                  currentWorld.updateDragonNest(
-                    new BlockPos(
-                      chunk.xPosition * 16 + x + structure.getXOffset(),
-                      y + structure.getYOffset(),
-                      chunk.zPosition * 16 + z + structure.getZOffset()
-                    )
-                  );
-                  return;
-                }
-              }
-            }
-          }
-        }
-      }
+  static void recordMatch(StructureScanner.Match match, World currentWorld) {
+    Structure structure = match.getStructure();
+    switch (structure.getStructureType()) {
+      case CH_CRYSTALS:
+        // Two workers can find the same crystal structure in neighbouring chunks.
+        if (currentWorld.getCrystalWaypoints().containsKey(structure.getName())) return;
+        BlockPos waypoint = match.getWaypoint();
+        sendCoordinatesMessage(structure.getName(), waypoint.getX(), waypoint.getY(), waypoint.getZ());
+        addToSkytilsMap(structure.getName(), waypoint.getX(), waypoint.getY(), waypoint.getZ());
+        currentWorld.updateCrystalWaypoints(structure.getName(), waypoint);
+        break;
+      case CH_MOB_SPOTS:
+        currentWorld.updateMobSpotWaypoints(structure.getName(), match.getWaypoint());
+        break;
+      case FAIRY_GROTTO:
+        currentWorld.updateFairyGrottos(match.getAnchor());
+        break;
+      case WORM_FISHING:
+        currentWorld.updateWormFishing(match.getAnchor());
+        break;
+      case GOLDEN_DRAGON:
+        currentWorld.updateDragonNest(match.getWaypoint());
+        break;
     }
   }
 
@@ -420,24 +366,6 @@ public class WorldScanner {
     return Color.WHITE;
   }
 
-  private static IBlockState getBlockState(Chunk chunk, int x, int y, int z) {
-    ExtendedBlockStorage extendedblockstorage;
-    IBlockState iBlockState = Blocks.air.getDefaultState();
-    if (
-      y >= 0 &&
-      y >> 4 < chunk.getBlockStorageArray().length &&
-      (extendedblockstorage = chunk.getBlockStorageArray()[y >> 4]) != null
-    ) {
-      try {
-        iBlockState = extendedblockstorage.get(x, y & 0xF, z);
-      } catch (Throwable throwable) {
-        CrashReport crashreport = CrashReport.makeCrashReport(throwable, "Getting block");
-        throw new ReportedException(crashreport);
-      }
-    }
-    return iBlockState;
-  }
-
   private static void sendCoordinatesMessage(String name, int x, int y, int z) {
     /*if (!GumTuneClientConfig.worldScannerSendCoordsInChat) return;
         if (GumTuneClientConfig.worldScannerChatMode != 0) {
@@ -87,7 +87,7 @@ public class MoveToVertex {
     if (curTicks < amountOTicks) {
       curTicks++;
     } else {
-      ArmadilloStates.currentState = newState;
+      ArmadilloStates.setState(newState);
       reset();
     }
 
@@ -114,7 +114,7 @@ public class MoveToVertex {
           }
 
           KeybindHandler.updateKeys(false, false, false, false, false, false, false, false);
-          if (ArmadilloStates.isOnline()) ArmadilloStates.currentState = newState;
+          if (ArmadilloStates.isOnline()) ArmadilloStates.setState(newState);
         })
           .start();
       } else {
@@ -125,7 +125,7 @@ public class MoveToVertex {
             throw new RuntimeException(e);
           }
 
-          if (ArmadilloStates.isOnline()) ArmadilloStates.currentState = newState;
+          if (ArmadilloStates.isOnline()) ArmadilloStates.setState(newState);
         })
           .start();
       }
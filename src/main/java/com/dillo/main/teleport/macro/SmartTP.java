@@ -1,5 +1,6 @@
 package com.dillo.main.teleport.macro;
 
+import static com.dillo.armadillomacro.sequencer;
 import static com.dillo.calls.CurrentState.*;
 import static com.dillo.config.config.smartTpDepth;
 import static com.dillo.config.config.smartTpRange;
@@ -8,21 +9,23 @@ import static com.dillo.utils.BlockUtils.makeNewBlock;
 import static com.dillo.utils.RayTracingUtils.adjustLook;
 
 import com.dillo.config.config;
+import com.dillo.main.route.RouteChecker.RouteVisibility;
 import com.dillo.main.teleport.utils.TeleportToBlock;
 import com.dillo.utils.DistanceFromTo;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.prefix;
+import com.dillo.utils.scheduler.ActionSequence;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import net.minecraft.block.Block;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
-import net.minecraft.util.Vec3;
 
 public class SmartTP {
 
@@ -30,93 +33,97 @@ public class SmartTP {
   private static final List<BlockPos> allKnownPillars = new ArrayList<>();
   private static boolean triedAPull = false;
   private static boolean override = false;
+  private static final long SEARCH_TIMEOUT_MS = 5000;
   public static HashSet<BlockPos> smartTpBlocks = new HashSet<>();
   public static HashMap<BlockPos, BlockPos> allTpLocations = new HashMap<>();
 
   public static void smartTP(BlockPos finalBlock, boolean reTpOnFail) {
     smartTpBlocks.add(finalBlock);
 
-    new Thread(() -> {
-      BlockPos block = ids.mc.thePlayer.getPosition();
-      SmartTp smartPositions = new SmartTp(null, null);
-
-      if (override) {
-        smartPositions = getSmartBlockScanning(block, finalBlock);
-      } else {
-        triedAPull = true;
+    // the pillars are found on the client thread and checked on the pool, the teleport turns the player
+    PillarSearch search = new PillarSearch();
+    sequencer.start(
+      ActionSequence
+        .named("SmartTP")
+        .then("findTeleport", () -> startSearch(search, finalBlock))
+        .waitUntil("knownPillars", search::isDone, SEARCH_TIMEOUT_MS)
+        .then("scanPillars", () -> scanPillars(search, finalBlock))
+        .waitUntil("scannedPillars", search::isDone, SEARCH_TIMEOUT_MS)
+        .then("teleport", () -> teleport(search.getResult(), finalBlock, reTpOnFail))
+    );
+  }
 
-        if (allTpLocations.containsKey(finalBlock)) {
-          if (isCanTp(allTpLocations.get(finalBlock))) {
-            smartPositions = new SmartTp(allTpLocations.get(finalBlock), finalBlock);
-          } else {
-            smartPositions = null;
-          }
-        } else {
-          smartPositions = null;
-        }
-      }
+  /**
+   * The pillars of one smart tp that are checked off the client thread.
+   */
+  private static class PillarSearch {
 
-      if (smartPositions != null && smartPositions.block1 != null && smartPositions.block2 != null) {
-        nextBlock = smartPositions.block2;
+    private boolean scanning = false;
+    private CompletableFuture<SmartTp> future = CompletableFuture.completedFuture(null);
 
-        if (!allTpLocations.containsKey(finalBlock)) {
-          allTpLocations.put(finalBlock, smartPositions.block1);
-        }
-        override = false;
+    boolean isDone() {
+      return future.isDone();
+    }
 
-        TeleportToBlock.teleportToBlock(smartPositions.block1, config.tpHeadMoveSpeed, 0, SMARTTP);
-      } else {
-        if (triedAPull && !override) {
-          override = true;
-          smartTP(finalBlock, reTpOnFail);
-        } else {
-          triedAPull = false;
-          override = false;
-          SendChat.chat(prefix.prefix + "Found no teleport locations using smart tp!");
-          attemptedToSmartTP = true;
-          TeleportToNextBlock.teleportToNextBlock();
-        }
-      }
-    })
-      .start();
+    // null if nothing was found or the check took too long
+    SmartTp getResult() {
+      return future.getNow(null);
+    }
   }
 
-  public static SmartTp getSmartBlockScanning(BlockPos reference, BlockPos finalBlock) {
-    if (allKnownPillars.size() > 0) {
-      List<BlockPos> inRangeBlocks = getAllInRangeBlocks(allKnownPillars);
-      SmartTp returnTp = getTpableBlocks(inRangeBlocks, finalBlock);
+  private static void startSearch(PillarSearch search, BlockPos finalBlock) {
+    if (override) {
+      search.scanning = true;
+      if (allKnownPillars.size() > 0) {
+        search.future = getTpableBlocks(getAllInRangeBlocks(allKnownPillars), finalBlock);
+      }
+    } else {
+      triedAPull = true;
 
-      if (returnTp != null) return returnTp;
+      BlockPos known = allTpLocations.get(finalBlock);
+      if (known != null && isCanTp(known)) {
+        search.future = CompletableFuture.completedFuture(new SmartTp(known, finalBlock));
+      }
     }
+  }
 
-    List<BlockPos> blocks = getPilas(reference);
-    return getTpableBlocks(blocks, finalBlock);
+  private static void scanPillars(PillarSearch search, BlockPos finalBlock) {
+    if (search.scanning && search.getResult() == null) {
+      search.future = getTpableBlocks(getPilas(ids.mc.thePlayer.getPosition()), finalBlock);
+    }
   }
 
-  public static SmartTp getTpableBlocks(List<BlockPos> blocks, BlockPos finalBlock) {
-    for (BlockPos blockPos : blocks) {
-      Vec3 blockTp = adjustLook(
-        ids.mc.thePlayer.getPositionVector(),
-        blockPos,
-        new net.minecraft.block.Block[] { Blocks.air },
-        false
-      );
-
-      if (blockTp != null) {
-        Vec3 finalTp = adjustLook(
-          new Vec3(blockPos.getX() + 0.5, blockPos.getY() + 1, blockPos.getZ() + 0.5),
-          finalBlock,
-          new net.minecraft.block.Block[] { Blocks.air },
-          false
-        );
-
-        if (finalTp != null) {
-          return new SmartTp(blockPos, finalBlock);
-        }
+  private static void teleport(SmartTp smartPositions, BlockPos finalBlock, boolean reTpOnFail) {
+    if (smartPositions != null && smartPositions.block1 != null && smartPositions.block2 != null) {
+      nextBlock = smartPositions.block2;
+
+      if (!allTpLocations.containsKey(finalBlock)) {
+        allTpLocations.put(finalBlock, smartPositions.block1);
+      }
+      override = false;
+
+      TeleportToBlock.teleportToBlock(smartPositions.block1, config.tpHeadMoveSpeed, 0, SMARTTP);
+    } else {
+      if (triedAPull && !override) {
+        override = true;
+        smartTP(finalBlock, reTpOnFail);
+      } else {
+        triedAPull = false;
+        override = false;
+        SendChat.chat(prefix.prefix + "Found no teleport locations using smart tp!");
+        attemptedToSmartTP = true;
+        TeleportToNextBlock.teleportToNextBlock();
       }
     }
+  }
 
-    return null;
+  /**
+   * Client thread only, the pillars are checked on the pool.
+   */
+  public static CompletableFuture<SmartTp> getTpableBlocks(List<BlockPos> blocks, BlockPos finalBlock) {
+    return RouteVisibility
+      .findHop(ids.mc.thePlayer.getPositionVector(), blocks, finalBlock)
+      .thenApply(pillar -> pillar >= 0 ? new SmartTp(blocks.get(pillar), finalBlock) : null);
   }
 
   public static boolean isCanTp(BlockPos block) {
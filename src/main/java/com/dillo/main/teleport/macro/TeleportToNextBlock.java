@@ -49,7 +49,7 @@ public class TeleportToNextBlock {
 
       if (nextBlock == null) {
         SendChat.chat(prefix.prefix + "FAILED TO TELEPORT FOR SOME REASON! DM GODBRIGERO!");
-        ArmadilloStates.currentState = null;
+        ArmadilloStates.setState(null);
         ArmadilloStates.offlineState = ONLINE;
         return;
       }
@@ -63,9 +63,9 @@ public class TeleportToNextBlock {
           config.tpHeadMoveSpeed + RandomisationUtils.getRandomAdd(config.tpHeadMoveSpeed)
         );
 
-        ArmadilloStates.currentState = STARTCHECKDILLO;
+        ArmadilloStates.setState(STARTCHECKDILLO);
       } else {
-        ArmadilloStates.currentState = NEXTBLOCKSTAGE2;
+        ArmadilloStates.setState(NEXTBLOCKSTAGE2);
         isThrowRod = true;
       }
     }
@@ -110,7 +110,7 @@ public class TeleportToNextBlock {
       if (canDillo() && clearAttempts < 5) {
         KeyBinding.setKeyBindState(SNEAK.getKeyCode(), false);
         isClear = true;
-        ArmadilloStates.currentState = ARMADILLO;
+        ArmadilloStates.setState(ARMADILLO);
         clearAttempts++;
         LookAt.smoothLook(new LookAt.Rotation(20, curRotation()), 20);
         isClearing = true;
@@ -118,7 +118,7 @@ public class TeleportToNextBlock {
       }
 
       SendChat.chat(prefix.prefix + "Route is obstructed!");
-      ArmadilloStates.currentState = null;
+      ArmadilloStates.setState(null);
       ArmadilloStates.offlineState = KillSwitch.OFFLINE;
     }
   }
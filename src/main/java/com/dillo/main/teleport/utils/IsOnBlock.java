@@ -26,7 +26,6 @@ import com.dillo.main.teleport.Enums.FailsafesOnBlock;
 import com.dillo.main.teleport.TeleportMovePlayer.VertexGetter;
 import com.dillo.main.teleport.TeleportMovePlayer.VertexGetterConfig;
 import com.dillo.main.utils.looks.LookAt;
-import com.dillo.utils.RayTracingUtils;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.previous.random.prefix;
@@ -108,7 +107,6 @@ public class IsOnBlock {
   void doneTp() {
     totalVeinsCur++;
     reset();
-    RayTracingUtils.foundCollisions.clear();
     isThrowRod = true;
     startCheck = false;
     curReTps = 0;
@@ -139,7 +137,7 @@ public class IsOnBlock {
   }
 
   void initiateFailSafes() {
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
 
     switch (curFailsafe) {
       case FAILSAFE_TPBACKANDNEXT:
@@ -39,7 +39,7 @@ public class LookWhileGoingDown {
   public void onTick(TickEvent.ClientTickEvent event) {
     if (event.phase == TickEvent.Phase.END) {
       if (onOff && ArmadilloStates.isOnline()) {
-        if (ArmadilloStates.currentState != ARMADILLO) {
+        if (ArmadilloStates.getState() != ARMADILLO) {
           if (!config.serverRotations) {
             LookAt.smoothLook(LookAt.getRotation(blockPos), maxTimeTake);
           }
@@ -1,6 +1,5 @@
 package com.dillo.main.teleport.utils;
 
-import com.dillo.events.MillisecondEvent;
 import com.dillo.events.PlayerLocChangeEvent;
 import com.dillo.events.PlayerMoveEvent;
 import com.dillo.utils.DistanceFromTo;
@@ -41,7 +41,7 @@ public class TeleportToBlock {
 
   public static boolean teleportToBlock(BlockPos block, long time, long waitTime, CurrentState newState) {
     newStateType = newState;
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
     headMoveTime = time;
     TeleportToBlock.waitTime = waitTime;
 
@@ -100,7 +100,7 @@ public class TeleportToBlock {
   }
 
   public static void teleportStage2() {
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
 
     KeyBinding.setKeyBindState(SNEAK.getKeyCode(), true);
 
@@ -127,7 +127,7 @@ public class TeleportToBlock {
   public static void tpStageWalk() {
     KeyBinding.setKeyBindState(SNEAK.getKeyCode(), true);
 
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
     Vec3 nextBlockPos = adjustLook(
       ids.mc.thePlayer.getPositionVector(),
       nextBlock,
@@ -137,7 +137,7 @@ public class TeleportToBlock {
 
     if (nextBlockPos == null) {
       SendChat.chat(prefix.prefix + "Failed to teleport!");
-      ArmadilloStates.currentState = null;
+      ArmadilloStates.setState(null);
       ArmadilloStates.offlineState = KillSwitch.OFFLINE;
       return;
     }
@@ -147,7 +147,7 @@ public class TeleportToBlock {
   }
 
   public static void teleportStage3() {
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
     IsOnBlock.isOnBlock(checkOnBlockTime, nextBlock, newStateType);
   }
 
@@ -26,15 +26,15 @@ public class WaitThenCall {
       if (timePoint + waitTime <= System.currentTimeMillis()) {
         if (ArmadilloStates.offlineState == KillSwitch.OFFLINE) {
           startWait = false;
-          ArmadilloStates.currentState = null;
+          ArmadilloStates.setState(null);
         } else {
           startWait = false;
-          ArmadilloStates.currentState = newSetState;
+          ArmadilloStates.setState(newSetState);
         }
       } else {
         if (ArmadilloStates.offlineState == KillSwitch.OFFLINE) {
           startWait = false;
-          ArmadilloStates.currentState = null;
+          ArmadilloStates.setState(null);
         }
       }
     }
@@ -31,7 +31,7 @@ public class WalkForward {
         curTicks = 0;
         totalTicks = 0;
         start = false;
-        ArmadilloStates.currentState = stateAfter;
+        ArmadilloStates.setState(stateAfter);
         KeyBinding.setKeyBindState(FORWARD.getKeyCode(), false);
       }
     }
@@ -33,7 +33,7 @@ public class CenterPlayer {
   }
 
   public static void centerStage2() {
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
 
     KeyBinding.setKeyBindState(SNEAK.getKeyCode(), true);
 
@@ -54,7 +54,7 @@ public class CenterPlayer {
 
     KeyBinding.setKeyBindState(SNEAK.getKeyCode(), false);
 
-    ArmadilloStates.currentState = state;
+    ArmadilloStates.setState(state);
   }
 
   public static boolean canBeBroken(BlockPos block) {
@@ -1,11 +1,11 @@
 package com.dillo.main.utils.looks;
 
+import static com.dillo.armadillomacro.scheduler;
 import static com.dillo.utils.previous.random.ids.mc;
 
-import com.dillo.events.MillisecondEvent;
 import com.dillo.events.macro.OnStartJumpEvent;
+import com.dillo.utils.scheduler.ScheduledTask;
 import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 public class DriveLook {
 
@@ -19,7 +19,8 @@ public class DriveLook {
   private static boolean isDoneRotate = true;
   private static double add = 0;
   private static boolean registered;
-  long time;
+  private static long lastUpdate;
+  private static ScheduledTask rotateTask = null;
 
   public static void addYaw(long totalTime, float addYaw) {
     addAm = addYaw / totalTime;
@@ -28,6 +29,7 @@ public class DriveLook {
 
     isDoneRotate = false;
     registered = false;
+    startRotating();
   }
 
   public static void addPitch(long totalTime, float addPitch) {
@@ -35,34 +37,50 @@ public class DriveLook {
     endTimeP = System.currentTimeMillis() + totalTime;
 
     isDoneP = false;
+    startRotating();
   }
 
   public static void reset() {
     isDoneRotate = true;
   }
 
-  @SubscribeEvent
-  public void onMillisecond(MillisecondEvent event) {
+  // the task only runs while a rotation is in progress
+  private static synchronized void startRotating() {
+    if (rotateTask != null) return;
+    lastUpdate = System.currentTimeMillis();
+    rotateTask = scheduler.runEvery("DriveLook", 1, false, DriveLook::rotate);
+  }
+
+  private static synchronized void rotate() {
+    long now = System.currentTimeMillis();
+    // rotate by the time that passed, so a late run does not slow down the rotation
+    long elapsedYaw = Math.max(0, Math.min(now, endTime) - lastUpdate);
+    long elapsedPitch = Math.max(0, Math.min(now, endTimeP) - lastUpdate);
+    lastUpdate = now;
+
     if (!isDoneRotate) {
-      if (System.currentTimeMillis() <= endTime) {
-        mc.thePlayer.rotationYaw += addAm;
-        add += addAm;
-      } else {
+      mc.thePlayer.rotationYaw += addAm * elapsedYaw;
+      add += addAm * elapsedYaw;
+      if (now > endTime) {
         isDoneRotate = true;
       }
 
       if (add > 150 && !registered) {
-        MinecraftForge.EVENT_BUS.post(new OnStartJumpEvent(endTime - System.currentTimeMillis()));
+        MinecraftForge.EVENT_BUS.post(new OnStartJumpEvent(endTime - now));
         registered = true;
       }
     }
 
     if (!isDoneP) {
-      if (System.currentTimeMillis() <= endTimeP) {
-        mc.thePlayer.rotationPitch += addPi;
-      } else {
+      mc.thePlayer.rotationPitch += addPi * elapsedPitch;
+      if (now > endTimeP) {
         isDoneP = true;
       }
     }
+
+    if (isDoneRotate && isDoneP) {
+      rotateTask.cancel();
+      rotateTask = null;
+    }
   }
 }
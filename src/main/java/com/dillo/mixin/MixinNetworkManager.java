@@ -1,10 +1,9 @@
 package com.dillo.mixin;
 
-import com.dillo.events.ReceivePacketEvent;
+import com.dillo.events.PacketRegistry;
 import io.netty.channel.ChannelHandlerContext;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.Packet;
-import net.minecraftforge.common.MinecraftForge;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -15,8 +14,6 @@ public class MixinNetworkManager {
 
   @Inject(method = "channelRead0", at = @At("HEAD"))
   private void read(ChannelHandlerContext context, Packet<?> packet, CallbackInfo callback) {
-    if (packet.getClass().getSimpleName().startsWith("S")) {
-      MinecraftForge.EVENT_BUS.post(new ReceivePacketEvent(packet));
-    }
+    PacketRegistry.dispatch(packet);
   }
 }
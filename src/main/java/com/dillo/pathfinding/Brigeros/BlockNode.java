@@ -9,6 +9,8 @@ public class BlockNode {
   public double hCost = 0.0;
   public double totalCost = 0.0;
   public BlockNode parentOfBlock = null;
+  public int heapIndex = -1;
+  public boolean closed = false;
 
   public BlockNode(BlockPos pos, double g, double h, BlockNode parent) {
     blockPos = pos;
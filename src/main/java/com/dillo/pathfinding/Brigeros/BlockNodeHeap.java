@@ -0,0 +1,76 @@
+package com.dillo.pathfinding.Brigeros;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of open nodes ordered by total cost (ties broken by hCost). Every node keeps its
+ * own index in the heap, so a node whose cost improved is moved instead of added twice.
+ */
+public class BlockNodeHeap {
+
+  private BlockNode[] heap = new BlockNode[256];
+  private int size = 0;
+
+  public void addOrUpdate(BlockNode node) {
+    if (node.heapIndex >= 0) {
+      siftUp(node.heapIndex);
+      siftDown(node.heapIndex);
+      return;
+    }
+    if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+    heap[size] = node;
+    node.heapIndex = size;
+    siftUp(size++);
+  }
+
+  public BlockNode poll() {
+    if (size == 0) return null;
+    BlockNode lowest = heap[0];
+    BlockNode last = heap[--size];
+    heap[size] = null;
+    if (size > 0) {
+      heap[0] = last;
+      last.heapIndex = 0;
+      siftDown(0);
+    }
+    lowest.heapIndex = -1;
+    return lowest;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void siftUp(int index) {
+    BlockNode node = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (compare(node, heap[parent]) >= 0) break;
+      heap[index] = heap[parent];
+      heap[index].heapIndex = index;
+      index = parent;
+    }
+    heap[index] = node;
+    node.heapIndex = index;
+  }
+
+  private void siftDown(int index) {
+    BlockNode node = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) child++;
+      if (compare(node, heap[child]) <= 0) break;
+      heap[index] = heap[child];
+      heap[index].heapIndex = index;
+      index = child;
+    }
+    heap[index] = node;
+    node.heapIndex = index;
+  }
+
+  private static int compare(BlockNode a, BlockNode b) {
+    int result = Double.compare(a.totalCost, b.totalCost);
+    return result != 0 ? result : Double.compare(a.hCost, b.hCost);
+  }
+}
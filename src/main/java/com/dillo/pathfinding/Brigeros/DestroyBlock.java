@@ -46,7 +46,7 @@ public class DestroyBlock {
               blocks.remove(0);
             } else {
               state = false;
-              ArmadilloStates.currentState = newDilloState;
+              ArmadilloStates.setState(newDilloState);
             }
           }
         }
@@ -63,7 +63,7 @@ public class DestroyBlock {
             blocks.remove(0);
           } else {
             state = false;
-            ArmadilloStates.currentState = newDilloState;
+            ArmadilloStates.setState(newDilloState);
           }
         }
       }
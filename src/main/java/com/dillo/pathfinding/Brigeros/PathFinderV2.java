@@ -1,16 +1,15 @@
 package com.dillo.pathfinding.Brigeros;
 
-import static java.lang.Float.isInfinite;
-
 import com.dillo.calls.ArmadilloStates;
 import com.dillo.calls.KillSwitch;
 import com.dillo.utils.DistanceFromTo;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
 import com.dillo.utils.previous.SendChat;
 import com.dillo.utils.previous.random.ids;
 import com.dillo.utils.renderUtils.renderModules.RenderMultipleBlocksMod;
 import com.dillo.utils.renderUtils.renderModules.RenderMultipleLines;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import net.minecraft.block.Block;
 import net.minecraft.init.Blocks;
@@ -21,171 +20,190 @@ public class PathFinderV2 {
 
   public static double fallY = 0.0;
   public static BlockNode lastFinalDestination = null;
+  public static int lastExpanded = 0;
 
-  public static List<BlockPos> pathFinder(BlockNode endPoint, BlockNode startPoint) {
-    double depth = 0;
-    lastFinalDestination = endPoint;
+  /**
+   * Where a search reads its blocks from. The default is the loaded world.
+   */
+  public interface BlockSource {
+    Block getBlock(int x, int y, int z);
+  }
 
-    List<BlockNode> openSet = new ArrayList<BlockNode>();
-    HashSet<BlockPos> closedSet = new HashSet<BlockPos>();
-    BlockNode previousNode = null;
-    openSet.add(startPoint);
-
-    while (depth < 100000 && openSet.size() > 0) {
-      //hCost ====> distance from end node.
-      //gCost ====> distance from start node.
-      //fCost ====> gCost + hCost.
-
-      // MAKE ORDERED SET!
-      BlockNode node = openSet.get(0);
-      for (BlockNode blockNode : openSet) {
-        if (blockNode.totalCost() <= node.totalCost() && blockNode.hCost() < node.hCost()) {
-          if (!closedSet.contains(blockNode.blockPos())) {
-            node = blockNode;
-          }
+  private static final BlockSource LOADED_WORLD = (x, y, z) ->
+    ids.mc.theWorld.getBlockState(new BlockPos(x, y, z)).getBlock();
+
+  // Offsets of the 26 neighbours and the step cost to each of them.
+  private static final int[][] NEIGHBOURS = new int[26][];
+  private static final double[] NEIGHBOUR_DISTANCE = new double[26];
+
+  static {
+    int n = 0;
+    for (int i = -1; i <= 1; i++) {
+      for (int j = -1; j <= 1; j++) {
+        for (int k = -1; k <= 1; k++) {
+          if (i == 0 && j == 0 && k == 0) continue;
+          NEIGHBOURS[n] = new int[] { i, k, j };
+          NEIGHBOUR_DISTANCE[n] = Math.sqrt(i * i + j * j + k * k);
+          n++;
         }
       }
+    }
+  }
+
+  /**
+   * Block lookups of one search. Every position is read from the world at most once.
+   */
+  private static class WorldBlocks {
+
+    private final LongObjectHashMap<Block> blocks = new LongObjectHashMap<>(4096);
+    private final BlockSource source;
+
+    WorldBlocks(BlockSource source) {
+      this.source = source;
+    }
+
+    Block at(int x, int y, int z) {
+      long key = PackedPos.block(x, y, z);
+      Block block = blocks.get(key);
+      if (block == null) {
+        block = source.getBlock(x, y, z);
+        blocks.put(key, block);
+      }
+      return block;
+    }
 
-      openSet.remove(node);
-      closedSet.add(node.blockPos());
+    boolean isAir(int x, int y, int z) {
+      return at(x, y, z) == Blocks.air;
+    }
+  }
+
+  public static List<BlockPos> pathFinder(BlockNode endPoint, BlockNode startPoint) {
+    lastFinalDestination = endPoint;
+    return pathFinder(endPoint, startPoint, LOADED_WORLD);
+  }
+
+  public static List<BlockPos> pathFinder(BlockNode endPoint, BlockNode startPoint, BlockSource source) {
+    int depth = 0;
+
+    //hCost ====> distance from end node.
+    //gCost ====> distance from start node.
+    //fCost ====> gCost + hCost.
+    BlockPos end = endPoint.blockPos();
+    WorldBlocks blocks = new WorldBlocks(source);
+    LongObjectHashMap<BlockNode> nodes = new LongObjectHashMap<>(4096);
+    BlockNodeHeap openSet = new BlockNodeHeap();
+
+    startPoint.parentOfBlock = null;
+    startPoint.hCost = DistanceFromTo.distanceFromTo(startPoint.blockPos(), end);
+    startPoint.totalCost = startPoint.gCost + startPoint.hCost;
+    startPoint.heapIndex = -1;
+    startPoint.closed = false;
+    nodes.put(toKey(startPoint.blockPos()), startPoint);
+    openSet.addOrUpdate(startPoint);
+
+    while (depth < 100000 && !openSet.isEmpty()) {
+      BlockNode node = openSet.poll();
+      node.closed = true;
 
       if (node.equals(endPoint)) {
-        endPoint.parentOfBlock = previousNode;
+        endPoint.parentOfBlock = node.getParent();
+        lastExpanded = depth;
         return retracePath(startPoint, endPoint);
       }
 
-      List<BlockNode> children = getChildren(node, endPoint.blockPos());
+      BlockPos pos = node.blockPos();
+      for (int n = 0; n < NEIGHBOURS.length; n++) {
+        int x = pos.getX() + NEIGHBOURS[n][0];
+        int y = pos.getY() + NEIGHBOURS[n][1];
+        int z = pos.getZ() + NEIGHBOURS[n][2];
+
+        Block blockType = blocks.at(x, y, z);
+        if (
+          blockType == Blocks.lava ||
+          blockType == Blocks.gravel ||
+          blockType == Blocks.sand ||
+          blockType == Blocks.bedrock
+        ) {
+          continue;
+        }
 
-      for (BlockNode child : children) {
-        if (closedSet.contains(child.blockPos())) {
+        long key = PackedPos.block(x, y, z);
+        BlockNode child = nodes.get(key);
+        if (child != null && child.closed) {
           continue;
         }
 
-        if (!canJump(child) && !canBeWalkedOn(child) && !canFall(child) && !canBreakBlock(child.blockPos())) {
+        int parentY = pos.getY();
+        if (
+          !canJump(blocks, parentY, x, y, z) &&
+          !canBeWalkedOn(blocks, parentY, x, y, z) &&
+          !canFall(blocks, parentY, x, y, z) &&
+          !canBreakBlock(blocks, x, y, z)
+        ) {
           continue;
         }
 
-        double newCostToNeighbour = node.gCost() + DistanceFromTo.distanceFromTo(node.blockPos(), child.blockPos());
-        if (newCostToNeighbour < child.gCost() || !openSet.contains(child)) {
+        double newCostToNeighbour = node.gCost() + NEIGHBOUR_DISTANCE[n];
+        if (child == null) {
+          BlockPos childPos = new BlockPos(x, y, z);
+          child = new BlockNode(childPos, newCostToNeighbour, DistanceFromTo.distanceFromTo(childPos, end), node);
+          nodes.put(key, child);
+          openSet.addOrUpdate(child);
+        } else if (newCostToNeighbour < child.gCost()) {
           child.gCost = newCostToNeighbour;
-          //child.gCost = DistanceFromTo.distanceFromTo(child.blockPos(), endPoint.blockPos());
           child.totalCost = child.gCost + child.hCost;
           child.parentOfBlock = node;
-
-          if (!openSet.contains(child)) {
-            openSet.add(child);
-          }
+          openSet.addOrUpdate(child);
         }
       }
 
-      previousNode = node;
       depth++;
     }
 
+    lastExpanded = depth;
     return null;
   }
 
-  public static boolean isOnCorner(BlockPos parent, BlockPos child) {
-    if (
-      DistanceFromTo.distanceFromTo(new BlockPos(1, 1, 1), new BlockPos(1, 1, 2)) <
-      DistanceFromTo.distanceFromTo(parent, child)
-    ) {
-      return true;
-    }
-
-    return false;
+  private static long toKey(BlockPos pos) {
+    return PackedPos.block(pos.getX(), pos.getY(), pos.getZ());
   }
 
-  public static boolean canBeWalkedOn(BlockNode block) {
-    BlockPos parentBlockPos = block.getParent().blockPos();
-    BlockPos childBlockPos = block.blockPos();
-
-    Block childBlockAboveType = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() + 1, childBlockPos.getZ()))
-      .getBlock();
-    Block childBlockType = ids.mc.theWorld.getBlockState(childBlockPos).getBlock();
-    Block childBlockUnderType = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() - 1, childBlockPos.getZ()))
-      .getBlock();
-
-    if (
-      Math.abs(parentBlockPos.getY() - childBlockPos.getY()) < 0.00001 &&
-      childBlockType == Blocks.air &&
-      childBlockUnderType != Blocks.air &&
-      childBlockAboveType == Blocks.air
-    ) {
-      return true;
-    }
-
-    return false;
+  private static boolean canBeWalkedOn(WorldBlocks blocks, int parentY, int x, int y, int z) {
+    return parentY == y && blocks.isAir(x, y, z) && !blocks.isAir(x, y - 1, z) && blocks.isAir(x, y + 1, z);
   }
 
-  public static boolean canJump(BlockNode block) {
-    BlockPos parentBlockPos = block.getParent().blockPos();
-    BlockPos childBlockPos = block.blockPos();
-
-    Block childBlockAboveType = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() + 1, childBlockPos.getZ()))
-      .getBlock();
-    Block childBlockType = ids.mc.theWorld.getBlockState(childBlockPos).getBlock();
-    Block childBlockUnderType = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() - 1, childBlockPos.getZ()))
-      .getBlock();
-    Block childBlockAbove2Type = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() + 2, childBlockPos.getZ()))
-      .getBlock();
-
-    if (
-      Math.abs(childBlockPos.getY() - parentBlockPos.getY()) <= 1 &&
-      childBlockType == Blocks.air &&
-      childBlockAboveType == Blocks.air &&
-      childBlockUnderType != Blocks.air &&
-      childBlockAbove2Type == Blocks.air
-    ) {
-      //RenderMultipleBlocksMod.renderMultipleBlocks(new Vec3(block.getX(), block.getY(), block.getZ()), true);
-      return true;
-    }
-
-    return false;
+  private static boolean canJump(WorldBlocks blocks, int parentY, int x, int y, int z) {
+    return (
+      Math.abs(y - parentY) <= 1 &&
+      blocks.isAir(x, y, z) &&
+      blocks.isAir(x, y + 1, z) &&
+      !blocks.isAir(x, y - 1, z) &&
+      blocks.isAir(x, y + 2, z)
+    );
   }
 
-  public static boolean canFall(BlockNode block) {
-    BlockPos parentBlockPos = block.getParent().blockPos();
-    BlockPos childBlockPos = block.blockPos();
-
-    Block childBlockType = ids.mc.theWorld.getBlockState(childBlockPos).getBlock();
-    Block childAboveBlockType = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() + 1, childBlockPos.getZ()))
-      .getBlock();
-    Block childAbove2BlocksType = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() + 2, childBlockPos.getZ()))
-      .getBlock();
-    int childParentDrop = Math.abs(parentBlockPos.getY() - childBlockPos.getY());
-    Block childBlockBelow = ids.mc.theWorld
-      .getBlockState(new BlockPos(childBlockPos.getX(), childBlockPos.getY() - childParentDrop, childBlockPos.getZ()))
-      .getBlock();
+  private static boolean canFall(WorldBlocks blocks, int parentY, int x, int y, int z) {
+    int childParentDrop = Math.abs(parentY - y);
 
     if (
       childParentDrop >= 1 &&
-      childBlockType == Blocks.air &&
-      childAboveBlockType == Blocks.air &&
       childParentDrop <= 4 &&
-      childBlockBelow != Blocks.air &&
-      childAbove2BlocksType == Blocks.air
+      blocks.isAir(x, y, z) &&
+      blocks.isAir(x, y + 1, z) &&
+      !blocks.isAir(x, y - childParentDrop, z) &&
+      blocks.isAir(x, y + 2, z)
     ) {
-      RenderMultipleBlocksMod.renderMultipleBlocks(
-        new Vec3(childBlockPos.getX(), childBlockPos.getY(), childBlockPos.getZ()),
-        true
-      );
+      if (blocks.source == LOADED_WORLD) {
+        RenderMultipleBlocksMod.renderMultipleBlocks(new Vec3(x, y, z), true);
+      }
       return true;
     }
 
     return false;
   }
 
-  public static boolean canBreakBlock(BlockPos block) {
-    //Block parentType = ids.mc.theWorld.getBlockState(parentBlockPos).getBlock();
-    Block childType = ids.mc.theWorld.getBlockState(block).getBlock();
+  private static boolean canBreakBlock(WorldBlocks blocks, int x, int y, int z) {
+    Block childType = blocks.at(x, y, z);
 
     return childType != Blocks.bedrock && childType != Blocks.air;
   }
@@ -242,94 +260,4 @@ public class PathFinderV2 {
 
     return initList;
   }
-
-  public static List<BlockNode> getChildren(BlockNode parent, BlockPos destination) {
-    List<BlockNode> children = new ArrayList<BlockNode>();
-
-    for (int i = -1; i <= 1; i++) {
-      for (int j = -1; j <= 1; j++) {
-        for (int k = -1; k <= 1; k++) {
-          BlockPos block = new BlockPos(
-            parent.blockPos().getX() + i,
-            parent.blockPos().getY() + k,
-            parent.blockPos().getZ() + j
-          );
-          BlockNode child = new BlockNode(block, getGCost(parent, block), getHCost(block, destination), parent);
-
-          Block blockType = ids.mc.theWorld.getBlockState(block).getBlock();
-
-          if (!parent.equals(child)) {
-            if (block.getY() > parent.blockPos().getY()) {
-              child.totalCost -= 5;
-            }
-
-            if (parent.blockPos().getY() > block.getY()) {
-              child.totalCost += 5;
-            }
-
-            if (blockType == Blocks.water) {
-              child.totalCost += 5;
-            }
-
-            if (blockType != Blocks.air && !canJump(child)) {
-              float blockHardness = ids.mc.theWorld
-                .getBlockState(block)
-                .getBlock()
-                .getBlockHardness(ids.mc.theWorld, block);
-
-              if (!isInfinite(blockHardness)) {
-                if (isOnCorner(parent.blockPos(), block)) {
-                  if (isInMiddle(block, parent.blockPos())) {
-                    if (
-                      ids.mc.theWorld
-                        .getBlockState(new BlockPos(block.getX(), block.getY() + 1, block.getZ()))
-                        .getBlock() ==
-                      Blocks.air
-                    ) {
-                      blockHardness *= 3;
-                    } else {
-                      blockHardness *= 4;
-                    }
-                  } else {
-                    blockHardness *= 4;
-                  }
-                }
-
-                child.totalCost += blockHardness;
-                //SendChat.chat(String.valueOf(child.totalCost));
-              }
-            }
-
-            if (
-              blockType != Blocks.lava &&
-              blockType != Blocks.gravel &&
-              blockType != Blocks.sand &&
-              blockType != Blocks.bedrock
-            ) children.add(child);
-          }
-        }
-      }
-    }
-
-    return children;
-  }
-
-  public static boolean isInMiddle(BlockPos child, BlockPos parent) {
-    if (
-      DistanceFromTo.distanceFromTo(new BlockPos(child.getX(), child.getY() - 1, child.getZ()), parent) >
-      DistanceFromTo.distanceFromTo(child, parent)
-    ) {
-      return true;
-    }
-
-    return false;
-  }
-
-  public static double getGCost(BlockNode parent, BlockPos childPos) {
-    return (parent.gCost() + DistanceFromTo.distanceFromTo(parent.blockPos(), childPos));
-  }
-
-  public static double getHCost(BlockPos childPos, BlockPos destinationPos) {
-    return DistanceFromTo.distanceFromTo(childPos, destinationPos);
-  }
 }
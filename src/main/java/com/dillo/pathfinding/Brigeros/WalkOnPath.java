@@ -71,7 +71,7 @@ public class WalkOnPath {
   }
 
   public static void startWalkingPath() {
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
 
     if (nextBlock != null) {
       startWalking = true;
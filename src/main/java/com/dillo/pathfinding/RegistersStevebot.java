@@ -2,15 +2,99 @@ package com.dillo.pathfinding;
 
 import static com.dillo.armadillomacro.*;
 
+import com.dillo.events.PacketRegistry;
 import com.dillo.pathfinding.stevebot.core.player.PlayerUtils;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.network.play.server.S22PacketMultiBlockChange;
+import net.minecraft.network.play.server.S23PacketBlockChange;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
+import net.minecraft.util.BlockPos;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 public class RegistersStevebot {
 
+  /**
+   * Keeps the block cache and the copies background searches read in sync with the blocks and chunks the server sends.
+   * The copies take block changes straight from the netty thread, with the new state from the packet, so a search
+   * started before the client applied a change still sees it.
+   */
+  public static void registerPackets() {
+    PacketRegistry.subscribe(
+      S23PacketBlockChange.class,
+      false,
+      packet -> onSnapshotBlockChanged(packet.getBlockPosition(), packet.getBlockState())
+    );
+    PacketRegistry.subscribe(
+      S22PacketMultiBlockChange.class,
+      false,
+      packet -> {
+        for (S22PacketMultiBlockChange.BlockUpdateData data : packet.getChangedBlocks()) {
+          onSnapshotBlockChanged(data.getPos(), data.getBlockState());
+        }
+      }
+    );
+    PacketRegistry.subscribe(
+      S23PacketBlockChange.class,
+      true,
+      packet -> onCacheBlockChanged(packet.getBlockPosition())
+    );
+    PacketRegistry.subscribe(
+      S22PacketMultiBlockChange.class,
+      true,
+      packet -> {
+        for (S22PacketMultiBlockChange.BlockUpdateData data : packet.getChangedBlocks()) {
+          onCacheBlockChanged(data.getPos());
+        }
+      }
+    );
+    PacketRegistry.subscribe(
+      S21PacketChunkData.class,
+      true,
+      packet -> onChunkChanged(packet.getChunkX(), packet.getChunkZ())
+    );
+    PacketRegistry.subscribe(
+      S26PacketMapChunkBulk.class,
+      true,
+      packet -> {
+        for (int i = 0; i < packet.getChunkCount(); i++) {
+          onChunkChanged(packet.getChunkX(i), packet.getChunkZ(i));
+        }
+      }
+    );
+  }
+
+  private static void onSnapshotBlockChanged(BlockPos pos, IBlockState state) {
+    if (blockProvider == null) return;
+    final int id = Block.getIdFromBlock(state.getBlock());
+    blockProvider.getSnapshots().onBlockChanged(pos.getX(), pos.getY(), pos.getZ(), id);
+  }
+
+  private static void onCacheBlockChanged(BlockPos pos) {
+    if (blockProvider == null) return;
+    blockProvider.getBlockCache().onEventBlockChanged(pos.getX(), pos.getY(), pos.getZ());
+  }
+
+  private static void onChunkChanged(int chunkX, int chunkZ) {
+    if (blockProvider == null) return;
+    blockProvider.getSnapshots().onChunkChanged(chunkX, chunkZ);
+    blockProvider.getBlockCache().onEventChunkChanged(chunkX, chunkZ);
+  }
+
+  @SubscribeEvent
+  public void onWorldChange(WorldEvent.Load event) {
+    if (blockProvider == null) return;
+    // chunks of the new world that are never sent would otherwise keep the blocks of the old one
+    blockProvider.getSnapshots().clear();
+    blockProvider.getBlockCache().clear();
+  }
+
   @SubscribeEvent
   public void onTick(TickEvent.ClientTickEvent event) {
     playerInput.onEventPlayerTick();
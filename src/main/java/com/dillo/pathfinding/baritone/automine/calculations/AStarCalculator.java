@@ -7,26 +7,35 @@ import com.dillo.pathfinding.baritone.automine.logging.Logger;
 import com.dillo.pathfinding.baritone.automine.movement.Moves;
 import com.dillo.pathfinding.baritone.automine.structures.BlockNode;
 import com.dillo.pathfinding.baritone.automine.structures.BlockType;
+import com.dillo.pathfinding.baritone.automine.structures.GridEnvironment;
 import com.dillo.pathfinding.baritone.automine.structures.Node;
+import com.dillo.pathfinding.baritone.automine.structures.NodeHeap;
 import com.dillo.pathfinding.baritone.automine.utils.AngleUtils;
 import com.dillo.pathfinding.baritone.automine.utils.BlockUtils.BlockUtils;
 import com.dillo.pathfinding.baritone.automine.utils.Utils.MathUtils;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.PriorityQueue;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
 import lombok.Getter;
 import net.minecraft.client.Minecraft;
 import net.minecraft.util.BlockPos;
-import org.joml.Vector3i;
 
 public class AStarCalculator {
 
   Minecraft mc = Minecraft.getMinecraft();
 
-  ConcurrentHashMap<Vector3i, Node> nodes = new ConcurrentHashMap<>();
+  GridEnvironment<Node> nodes = new GridEnvironment<>(4096);
 
-  PriorityQueue<Node> openNodes = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fCost));
+  NodeHeap openNodes = new NodeHeap();
+
+  // the blocks of the running search, read once from the world
+  BlockColumnCache world;
+
+  // the targets of the running search without a path yet
+  HashSet<BlockPos> remainingTargets = new HashSet<>();
 
   @Getter
   private int step;
@@ -48,50 +57,98 @@ public class AStarCalculator {
     PathFinderBehaviour pathFinderBehaviour,
     PathMode mode,
     int stepLimit
+  ) {
+    LinkedList<LinkedList<BlockNode>> paths = calculatePaths(
+      startingPos,
+      Collections.singletonList(endingBlock),
+      pathFinderBehaviour,
+      mode,
+      stepLimit,
+      null
+    );
+    return paths.isEmpty() ? new LinkedList<>() : paths.getFirst();
+  }
+
+  /**
+   * Finds paths to several targets with a single search. The search expands from the start towards the closest of the
+   * targets not reached yet, and every target it reaches on the way gets its path, so targets close to each other share
+   * the work instead of each expanding the same nodes again.
+   *
+   * Targets that can be mined from where the player stands are returned without searching in MINE mode, like
+   * {@link #calculatePath} does for a single one. With a path cost, a target that is too far away to beat the cheapest
+   * path found so far is dropped, and the search stops once no target is left. The bound relies on the cost charging at
+   * least 1 for each block of a path with 3 or more blocks: each move changes every coordinate by at most one and adds
+   * at least one block, so a path to a target takes at least as many blocks as the largest coordinate difference.
+   *
+   * @param pathCost the cost of the blocks of a path without the trailing marker, lower is better. Null to find paths
+   *                 to all reachable targets.
+   * @return the paths in the order the targets were reached. If a chunk that is not loaded was hit before any target
+   * was reached, the path to where the search stopped.
+   */
+  public LinkedList<LinkedList<BlockNode>> calculatePaths(
+    BlockPos startingPos,
+    Collection<BlockPos> targets,
+    PathFinderBehaviour pathFinderBehaviour,
+    PathMode mode,
+    int stepLimit,
+    ToDoubleFunction<List<BlockNode>> pathCost
   ) {
     this.pathFinderBehaviour = pathFinderBehaviour;
     this.mode = mode;
 
     nodes.clear();
     openNodes.clear();
+    remainingTargets.clear();
+    world = new BlockColumnCache(mc.theWorld);
 
     step = 0;
 
+    LinkedList<LinkedList<BlockNode>> paths = new LinkedList<>();
+
     // sanity check if we are at the destination already
-    if (BlockUtils.canMineBlock(endingBlock) && this.mode == PathMode.MINE) {
-      step++;
-      LinkedList<BlockNode> blockNodes = new LinkedList<>();
+    if (this.mode == PathMode.MINE) {
+      for (BlockPos target : targets) {
+        if (BlockUtils.canMineBlock(target)) {
+          step++;
+          LinkedList<BlockNode> blockNodes = new LinkedList<>();
 
-      blockNodes.add(new BlockNode(endingBlock, BlockType.MINE));
+          blockNodes.add(new BlockNode(target, BlockType.MINE));
 
-      return blockNodes;
+          paths.add(blockNodes);
+        }
+      }
+      if (!paths.isEmpty()) return paths;
     }
 
-    Vector3i currentGridPos = new Vector3i(0, (int) mc.thePlayer.posY, 0);
+    remainingTargets.addAll(targets);
+    if (remainingTargets.isEmpty()) return paths;
+    double bestCost = Double.POSITIVE_INFINITY;
 
-    instantiateAnyNode(currentGridPos, new Node(startingPos));
-    Node startNode = nodes.get(currentGridPos);
+    Node startNode = getNode(startingPos.getX(), startingPos.getY(), startingPos.getZ());
     Node currentNode;
 
-    openNodes.add(startNode);
+    setCost(startNode, 0, getHeuristic(startNode.pos));
+    openNodes.addOrUpdate(startNode);
 
     while (!openNodes.isEmpty()) {
       currentNode = openNodes.poll();
 
       if (currentNode != null) {
         // reconstruct path
-        if (currentNode.pos.equals(endingBlock)) {
-          return trackBackPath(true, currentNode, startNode);
-        }
+        if (remainingTargets.remove(currentNode.pos)) {
+          LinkedList<BlockNode> path = trackBackPath(true, currentNode, startNode);
+          paths.add(path);
 
-        openNodes.remove(currentNode);
+          if (pathCost != null) {
+            bestCost = Math.min(bestCost, pathCost.applyAsDouble(path.subList(0, path.size() - 1)));
+            dropUnreachableTargets(startNode.pos, bestCost);
+          }
+          if (remainingTargets.isEmpty()) {
+            return paths;
+          }
+        }
 
         //KeybindHandler.debugBlockRenderer.renderMap.put(currentNode.blockPos, Color.ORANGE);
-        if (currentNode.parentNode != null) {
-          currentGridPos.x = currentNode.pos.getX() - startNode.pos.getX();
-          currentGridPos.y = currentNode.pos.getY();
-          currentGridPos.z = currentNode.pos.getZ() - startNode.pos.getZ();
-        }
 
         // stop if we went over iteration limit
         step++;
@@ -100,28 +157,38 @@ public class AStarCalculator {
         }
 
         for (Moves move : Moves.values()) {
-          Vector3i pos = currentGridPos.add(move.dx, move.dy, move.dz, new Vector3i());
-          instantiateNode(pos, startNode);
           try {
-            checkNode(move, nodes.get(pos), currentNode, endingBlock);
+            checkNode(move, currentNode.x + move.dx, currentNode.y + move.dy, currentNode.z + move.dz, currentNode);
           } catch (ChunkLoadException e) {
-            return trackBackPath(false, currentNode, startNode);
+            if (paths.isEmpty()) paths.add(trackBackPath(false, currentNode, startNode));
+            return paths;
           }
         }
       }
     }
 
-    // pathfinding failed so return empty list
-    return new LinkedList<>();
+    // targets that were not reached have no path
+    return paths;
   }
 
-  private void checkNode(Moves move, Node searchNode, Node currentNode, BlockPos endingBlockPos)
-    throws ChunkLoadException {
-    if (!mc.theWorld.getChunkFromBlockCoords(searchNode.pos).isLoaded()) {
+  // drops the targets every path to which costs at least as much as the cheapest path found, see calculatePaths
+  private void dropUnreachableTargets(BlockPos startingPos, double bestCost) {
+    remainingTargets.removeIf(target -> {
+      int minBlocks = Math.max(
+        Math.abs(target.getX() - startingPos.getX()),
+        Math.max(Math.abs(target.getY() - startingPos.getY()), Math.abs(target.getZ() - startingPos.getZ()))
+      );
+      return minBlocks >= 3 && minBlocks >= bestCost;
+    });
+  }
+
+  // the node is only created once the move turns out to be possible
+  private void checkNode(Moves move, int x, int y, int z, Node currentNode) throws ChunkLoadException {
+    if (!world.isLoaded(x, z)) {
       throw new ChunkLoadException();
     }
 
-    if (BlockUtils.isPassable(searchNode.pos.down())) {
+    if (isPassable(x, y - 1, z)) {
       return;
     }
 
@@ -133,21 +200,21 @@ public class AStarCalculator {
         case ASCEND_SOUTH:
         case ASCEND_WEST:
           if (
-            pathFinderBehaviour.getForbiddenMiningBlocks().contains(BlockUtils.getBlock(currentNode.pos.up(2)))
+            pathFinderBehaviour
+              .getForbiddenMiningBlocks()
+              .contains(world.getBlock(currentNode.x, currentNode.y + 2, currentNode.z))
           ) return;
           break;
         case DESCEND_EAST:
         case DESCEND_NORTH:
         case DESCEND_SOUTH:
         case DESCEND_WEST:
-          if (
-            pathFinderBehaviour.getForbiddenMiningBlocks().contains(BlockUtils.getBlock(searchNode.pos.up(2)))
-          ) return;
+          if (pathFinderBehaviour.getForbiddenMiningBlocks().contains(world.getBlock(x, y + 2, z))) return;
           break;
       }
       if (
-        pathFinderBehaviour.getForbiddenMiningBlocks().contains(BlockUtils.getBlock(searchNode.pos)) ||
-        pathFinderBehaviour.getForbiddenMiningBlocks().contains(BlockUtils.getBlock(searchNode.pos.up()))
+        pathFinderBehaviour.getForbiddenMiningBlocks().contains(world.getBlock(x, y, z)) ||
+        pathFinderBehaviour.getForbiddenMiningBlocks().contains(world.getBlock(x, y + 1, z))
       ) return;
     }
 
@@ -158,19 +225,21 @@ public class AStarCalculator {
         case ASCEND_SOUTH:
         case ASCEND_WEST:
           if (
-            !pathFinderBehaviour.getAllowedMiningBlocks().contains(BlockUtils.getBlock(currentNode.pos.up(2)))
+            !pathFinderBehaviour
+              .getAllowedMiningBlocks()
+              .contains(world.getBlock(currentNode.x, currentNode.y + 2, currentNode.z))
           ) return;
           break;
         case DESCEND_EAST:
         case DESCEND_NORTH:
         case DESCEND_SOUTH:
         case DESCEND_WEST:
-          if (!pathFinderBehaviour.getAllowedMiningBlocks().contains(BlockUtils.getBlock(searchNode.pos.up(2)))) return;
+          if (!pathFinderBehaviour.getAllowedMiningBlocks().contains(world.getBlock(x, y + 2, z))) return;
           break;
       }
       if (
-        !pathFinderBehaviour.getAllowedMiningBlocks().contains(BlockUtils.getBlock(searchNode.pos)) ||
-        !pathFinderBehaviour.getAllowedMiningBlocks().contains(BlockUtils.getBlock(searchNode.pos.up()))
+        !pathFinderBehaviour.getAllowedMiningBlocks().contains(world.getBlock(x, y, z)) ||
+        !pathFinderBehaviour.getAllowedMiningBlocks().contains(world.getBlock(x, y + 1, z))
       ) return;
     }
 
@@ -179,44 +248,48 @@ public class AStarCalculator {
       case DIAGONAL_NORTHWEST:
       case DIAGONAL_SOUTHEAST:
       case DIAGONAL_SOUTHWEST:
-        BlockPos block3 = new BlockPos(searchNode.pos.getX(), searchNode.pos.getY(), currentNode.pos.getZ());
-        BlockPos block4 = new BlockPos(currentNode.pos.getX(), searchNode.pos.getY(), searchNode.pos.getZ());
+        // both blocks cut across have to fit the player too
         if (
-          !BlockUtils.fitsPlayer(searchNode.pos.down()) ||
-          !BlockUtils.fitsPlayer(currentNode.pos.down()) ||
-          !BlockUtils.fitsPlayer(block3.down()) ||
-          !BlockUtils.fitsPlayer(block4.down())
+          !fitsPlayer(x, y - 1, z) ||
+          !fitsPlayer(currentNode.x, currentNode.y - 1, currentNode.z) ||
+          !fitsPlayer(x, y - 1, currentNode.z) ||
+          !fitsPlayer(currentNode.x, y - 1, z)
         ) {
           return;
         }
         break;
       case DOWN:
-        if (BlockUtils.isPassable(searchNode.pos)) {
+        if (isPassable(x, y, z)) {
           return;
         }
         break;
     }
 
-    double gCost = getMoveCost(move, searchNode.pos) + currentNode.gCost;
+    double gCost = getMoveCost(move, x, y, z) + currentNode.gCost;
+    Node searchNode = getNode(x, y, z);
 
     if (searchNode.gCost == -1 || gCost < searchNode.gCost) {
       searchNode.parentNode = currentNode;
-      setCost(searchNode, gCost, getHeuristic(searchNode.pos, endingBlockPos));
-      if (!openNodes.contains(searchNode)) {
-        openNodes.add(searchNode);
-      } else {
-        openNodes.remove(searchNode);
-        openNodes.add(searchNode);
-      }
+      setCost(searchNode, gCost, getHeuristic(searchNode.pos));
+      openNodes.addOrUpdate(searchNode);
+    }
+  }
+
+  private Node getNode(int x, int y, int z) {
+    Node node = nodes.get(x, y, z);
+    if (node == null) {
+      node = new Node(x, y, z);
+      nodes.set(x, y, z, node);
     }
+    return node;
   }
 
-  private void instantiateNode(Vector3i in, Node startNode) {
-    instantiateAnyNode(in, new Node(startNode.pos.add(in.x, in.y - startNode.pos.getY(), in.z)));
+  private boolean isPassable(int x, int y, int z) {
+    return BlockUtils.isPassable(world.getBlock(x, y, z));
   }
 
-  private void instantiateAnyNode(Vector3i in, Node node) {
-    nodes.computeIfAbsent(in, k -> node);
+  private boolean fitsPlayer(int x, int y, int z) {
+    return BlockUtils.canWalkOn(world.getBlock(x, y, z)) && isPassable(x, y + 1, z) && isPassable(x, y + 2, z);
   }
 
   // structure -> Actual blocks [][]...[][][] + [] last one which tells if the path is complete
@@ -307,15 +380,20 @@ public class AStarCalculator {
     node.fCost = gCost + hCost;
   }
 
-  private double getMoveCost(Moves move, BlockPos blockPos) {
-    return move.cost + (BlockUtils.isPassable(blockPos) ? 0 : 0.5f);
+  private double getMoveCost(Moves move, int x, int y, int z) {
+    return move.cost + (isPassable(x, y, z) ? 0 : 0.5f);
   }
 
   private BlockType getBlockType(BlockPos blockToSearch) {
     return BlockUtils.isPassable(blockToSearch) ? BlockType.WALK : BlockType.MINE;
   }
 
-  private double getHeuristic(BlockPos start, BlockPos goal) {
-    return MathUtils.getBlockDistanceBetweenTwoBlock(start, goal);
+  // the distance to the closest target not reached yet
+  private double getHeuristic(BlockPos start) {
+    int heuristic = Integer.MAX_VALUE;
+    for (BlockPos goal : remainingTargets) {
+      heuristic = Math.min(heuristic, MathUtils.getBlockDistanceBetweenTwoBlock(start, goal));
+    }
+    return heuristic;
   }
 }
@@ -136,18 +136,27 @@ public class AStarPathFinder {
 
   private LinkedList<LinkedList<BlockNode>> getPossiblePaths(List<BlockPos> targetBlocks) {
     LinkedList<LinkedList<BlockNode>> possiblePaths = new LinkedList<>();
-    int limit = 3000;
-    for (BlockPos targetBlock : targetBlocks) {
-      LinkedList<BlockNode> path = pathFinderBehaviour.isStaticMode()
-        ? calculator.calculateStaticPath(targetBlock)
-        : calculator.calculatePath(BlockUtils.getPlayerLoc(), targetBlock, pathFinderBehaviour, mode, limit);
+    if (pathFinderBehaviour.isStaticMode()) {
+      for (BlockPos targetBlock : targetBlocks) {
+        LinkedList<BlockNode> path = calculator.calculateStaticPath(targetBlock);
+        if (!path.isEmpty()) possiblePaths.add(path);
+      }
+      return possiblePaths;
+    }
 
-      if (!path.isEmpty()) {
-        if (path.getLast().getPos() == null) path.removeLast(); // remove last dummy blockNode as it is useless for find(BLock)
+    // one search for all targets, it stops once no target left can beat the cheapest path found
+    LinkedList<LinkedList<BlockNode>> paths = calculator.calculatePaths(
+      BlockUtils.getPlayerLoc(),
+      targetBlocks,
+      pathFinderBehaviour,
+      mode,
+      3000,
+      this::calculatePathCost
+    );
+    for (LinkedList<BlockNode> path : paths) {
+      if (path.getLast().getPos() == null) path.removeLast(); // remove last dummy blockNode as it is useless for find(BLock)
 
-        possiblePaths.add(path);
-        limit = calculator.getStep();
-      }
+      if (!path.isEmpty()) possiblePaths.add(path);
     }
     return possiblePaths;
   }
@@ -0,0 +1,77 @@
+package com.dillo.pathfinding.baritone.automine.calculations;
+
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * The blocks a single search looked at, by column. A search checks the same few blocks below and above every node for
+ * each of its neighbours, so each block is read from its chunk once and then taken from the column array, without
+ * going through the world or allocating a BlockPos. Blocks that change during the search are not seen, which is fine
+ * for the short time a search runs; create a new cache for every search.
+ */
+public class BlockColumnCache {
+
+  private static final int HEIGHT = 256;
+
+  private final World world;
+  // chunks and columns by packed x/z, chunk coordinates for chunks and block coordinates for columns
+  private final LongObjectHashMap<Chunk> chunks = new LongObjectHashMap<>(64);
+  private final LongObjectHashMap<Block[]> columns = new LongObjectHashMap<>(1024);
+  // neighbouring checks mostly hit the same column
+  private long lastColumnKey;
+  private Block[] lastColumn = null;
+
+  public BlockColumnCache(World world) {
+    this.world = world;
+  }
+
+  /**
+   * @return true, if the chunk of the column is loaded
+   */
+  public boolean isLoaded(int x, int z) {
+    return getChunk(x >> 4, z >> 4).isLoaded();
+  }
+
+  /**
+   * @return the block at the given position, air outside of the world height
+   */
+  public Block getBlock(int x, int y, int z) {
+    if (y < 0 || y >= HEIGHT) return Blocks.air;
+
+    Block[] column = getColumn(x, z);
+    Block block = column[y];
+    if (block == null) {
+      block = getChunk(x >> 4, z >> 4).getBlock(x & 15, y, z & 15);
+      column[y] = block;
+    }
+    return block;
+  }
+
+  private Block[] getColumn(int x, int z) {
+    long key = PackedPos.chunk(x, z);
+    if (lastColumn != null && lastColumnKey == key) return lastColumn;
+
+    Block[] column = columns.get(key);
+    if (column == null) {
+      column = new Block[HEIGHT];
+      columns.put(key, column);
+    }
+    lastColumnKey = key;
+    lastColumn = column;
+    return column;
+  }
+
+  private Chunk getChunk(int chunkX, int chunkZ) {
+    long key = PackedPos.chunk(chunkX, chunkZ);
+    Chunk chunk = chunks.get(key);
+    if (chunk == null) {
+      chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+      chunks.put(key, chunk);
+    }
+    return chunk;
+  }
+}
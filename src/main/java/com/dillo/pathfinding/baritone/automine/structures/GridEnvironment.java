@@ -1,19 +1,38 @@
 package com.dillo.pathfinding.baritone.automine.structures;
 
-import org.apache.commons.collections4.map.LinkedMap;
-//import org.apache.commons.collections4.map.LinkedMap;
-import org.apache.commons.collections4.map.MultiKeyMap;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
 
+/**
+ * Values by block position, stored under the packed position in a primitive long map so lookups neither box the
+ * coordinates nor allocate a key. Setting null removes the value.
+ */
 public class GridEnvironment<T> {
 
-  MultiKeyMap<Integer, T> parameters = MultiKeyMap.multiKeyMap(new LinkedMap<>());
+  LongObjectHashMap<T> parameters;
+
+  public GridEnvironment() {
+    this(16);
+  }
+
+  public GridEnvironment(int expectedSize) {
+    parameters = new LongObjectHashMap<>(expectedSize);
+  }
 
   public void set(int x, int y, int z, T parameter) {
-    parameters.put(x, y, z, parameter);
+    if (parameter == null) {
+      parameters.remove(PackedPos.block(x, y, z));
+    } else {
+      parameters.put(PackedPos.block(x, y, z), parameter);
+    }
   }
 
   public T get(int x, int y, int z) {
-    return parameters.get(x, y, z);
+    return parameters.get(PackedPos.block(x, y, z));
+  }
+
+  public int size() {
+    return parameters.size();
   }
 
   public void clear() {
@@ -4,14 +4,23 @@ import net.minecraft.util.BlockPos;
 
 public class Node {
 
-  public Node(BlockPos pos) {
-    this.pos = pos;
+  public Node(int x, int y, int z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.pos = new BlockPos(x, y, z);
   }
 
-  public BlockPos pos;
+  public final int x;
+  public final int y;
+  public final int z;
+  public final BlockPos pos;
 
   public double hCost;
   public double gCost = -1;
   public double fCost;
   public Node parentNode;
+
+  // the index in the NodeHeap holding this node, -1 while not in one
+  int heapIndex = -1;
 }
@@ -0,0 +1,95 @@
+package com.dillo.pathfinding.baritone.automine.structures;
+
+import java.util.Arrays;
+
+/**
+ * The open nodes of a search, the one with the lowest fCost first. Every node knows its index in the binary heap, so
+ * checking whether a node is open and moving it after its cost dropped take O(1) and O(log n) instead of the linear
+ * scans of a PriorityQueue. A node can only be in one heap at a time.
+ */
+public class NodeHeap {
+
+  private Node[] heap = new Node[1024];
+  private int size = 0;
+
+  /**
+   * Adds the node, or moves it to its place if it is open already and its fCost changed.
+   */
+  public void addOrUpdate(Node node) {
+    if (node.heapIndex >= 0) {
+      siftUp(node.heapIndex);
+      siftDown(node.heapIndex);
+      return;
+    }
+    if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+    heap[size] = node;
+    node.heapIndex = size;
+    siftUp(size++);
+  }
+
+  /**
+   * @return the open node with the lowest fCost or null
+   */
+  public Node poll() {
+    if (size == 0) return null;
+
+    Node first = heap[0];
+    Node last = heap[--size];
+    heap[size] = null;
+    first.heapIndex = -1;
+    if (size > 0) {
+      heap[0] = last;
+      last.heapIndex = 0;
+      siftDown(0);
+    }
+    return first;
+  }
+
+  public boolean contains(Node node) {
+    return node.heapIndex >= 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      heap[i].heapIndex = -1;
+    }
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+  }
+
+  private void siftUp(int index) {
+    Node node = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (node.fCost >= heap[parent].fCost) break;
+      heap[index] = heap[parent];
+      heap[index].heapIndex = index;
+      index = parent;
+    }
+    heap[index] = node;
+    node.heapIndex = index;
+  }
+
+  private void siftDown(int index) {
+    Node node = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      if (child + 1 < size && heap[child + 1].fCost < heap[child].fCost) child++;
+      if (node.fCost <= heap[child].fCost) break;
+      heap[index] = heap[child];
+      heap[index].heapIndex = index;
+      index = child;
+    }
+    heap[index] = node;
+    node.heapIndex = index;
+  }
+}
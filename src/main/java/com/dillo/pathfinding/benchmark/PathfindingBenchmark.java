@@ -0,0 +1,311 @@
+package com.dillo.pathfinding.benchmark;
+
+import com.dillo.pathfinding.Brigeros.BlockNode;
+import com.dillo.pathfinding.Brigeros.PathFinderV2;
+import com.dillo.pathfinding.baritone.automine.calculations.AStarCalculator;
+import com.dillo.pathfinding.baritone.automine.calculations.behaviour.PathFinderBehaviour;
+import com.dillo.pathfinding.baritone.automine.calculations.behaviour.PathMode;
+import com.dillo.pathfinding.baritone.automine.structures.BlockType;
+import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockProvider;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockUtils;
+import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
+import com.dillo.pathfinding.stevebot.core.misc.Config;
+import com.dillo.pathfinding.stevebot.core.pathfinding.Pathfinding;
+import com.dillo.pathfinding.stevebot.core.pathfinding.PathfindingResult;
+import com.dillo.pathfinding.stevebot.core.pathfinding.goal.ExactGoal;
+import com.dillo.utils.DistanceFromTo;
+import com.dillo.utils.GetConfigFolder;
+import com.dillo.utils.previous.random.ids;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.util.BlockPos;
+
+/**
+ * Runs the three pathfinders on the same start and goal and measures nodes expanded, wall time,
+ * bytes allocated by the searching thread and the cost of the path found. Each engine gets a few
+ * warmup runs before it is measured. Costs are in each engine's own unit, so compare them between
+ * runs of the same engine, not across engines.
+ *
+ * With a {@link VoxelSlice} the searches read the recorded blocks instead of the world, which makes
+ * runs repeatable across sessions. The baritone calculator reads the world and the player directly,
+ * so it is only run on the loaded world.
+ */
+public class PathfindingBenchmark {
+
+  private static final File resultsFile = new File(GetConfigFolder.getMcDir() + "/MiningInTwo/benchmarks/results.csv");
+  private static final int BARITONE_STEP_LIMIT = 20000;
+
+  public enum Engine {
+    STEVEBOT,
+    BARITONE,
+    BRIGEROS,
+  }
+
+  public static class Result {
+
+    public final Engine engine;
+    public boolean supported = true;
+    public String error = null;
+    public int runs = 0;
+    public boolean found = false;
+    public long nodes = 0;
+    public double cost = 0;
+    public int length = 0;
+    public long totalNanos = 0;
+    public long minNanos = Long.MAX_VALUE;
+    public long allocatedBytes = 0;
+
+    Result(Engine engine) {
+      this.engine = engine;
+    }
+
+    public double avgMillis() {
+      return runs == 0 ? 0 : totalNanos / 1e6 / runs;
+    }
+
+    public double minMillis() {
+      return runs == 0 ? 0 : minNanos / 1e6;
+    }
+
+    public long allocatedPerRun() {
+      return runs == 0 || allocatedBytes < 0 ? -1 : allocatedBytes / runs;
+    }
+
+    @Override
+    public String toString() {
+      if (!supported) return engine + ": skipped (reads the loaded world only)";
+      if (error != null) return engine + ": failed (" + error + ")";
+      return String.format(
+        "%s: %s, %d nodes, %.2fms avg (%.2fms min), %s/run, cost %.2f, %d blocks",
+        engine,
+        found ? "found" : "no path",
+        nodes,
+        avgMillis(),
+        minMillis(),
+        allocatedPerRun() < 0 ? "n/a" : String.format("%.1fKB", allocatedPerRun() / 1024.0),
+        cost,
+        length
+      );
+    }
+  }
+
+  private static class Sample {
+
+    private boolean found;
+    private long nodes;
+    private double cost;
+    private int length;
+  }
+
+  private final String scenario;
+  private final VoxelSlice slice;
+  private final BlockPos start;
+  private final BlockPos goal;
+  private final int warmup;
+  private final int iterations;
+
+  private final Pathfinding stevebot;
+  private final BlockProvider stevebotBlocks;
+
+  /**
+   * @param slice the recorded blocks to search or null to search the loaded world from the player position
+   */
+  public PathfindingBenchmark(
+    MinecraftAdapter minecraftAdapter,
+    String scenario,
+    VoxelSlice slice,
+    BlockPos goal,
+    int warmup,
+    int iterations
+  ) {
+    this.scenario = scenario;
+    this.slice = slice;
+    this.start =
+      slice != null
+        ? slice.getStart()
+        : new BlockPos(ids.mc.thePlayer.posX, ids.mc.thePlayer.posY, ids.mc.thePlayer.posZ);
+    this.goal = goal;
+    this.warmup = warmup;
+    this.iterations = iterations;
+
+    if (slice != null) {
+      MinecraftAdapter recorded = new RecordedWorldAdapter(minecraftAdapter, slice);
+      this.stevebot = new Pathfinding(recorded);
+      this.stevebotBlocks = new BlockProvider(recorded, BlockUtils.getBlockLibrary());
+    } else {
+      this.stevebot = new Pathfinding(minecraftAdapter);
+      this.stevebotBlocks = BlockUtils.getBlockProvider().createView();
+    }
+  }
+
+  /**
+   * Runs every engine. Blocks for as long as the searches take, so call it off the client thread.
+   */
+  public List<Result> run() {
+    List<Result> results = new ArrayList<>();
+    for (Engine engine : Engine.values()) {
+      results.add(run(engine));
+    }
+    appendToCsv(results);
+    return results;
+  }
+
+  private Result run(Engine engine) {
+    Result result = new Result(engine);
+    if (engine == Engine.BARITONE && slice != null) {
+      result.supported = false;
+      return result;
+    }
+
+    for (int i = 0; i < warmup + iterations; i++) {
+      long allocatedBefore = allocatedBytes();
+      long timeStart = System.nanoTime();
+      Sample sample;
+      try {
+        sample = search(engine);
+      } catch (RuntimeException e) {
+        result.error = e.toString();
+        return result;
+      }
+      long nanos = System.nanoTime() - timeStart;
+      long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+
+      if (i < warmup) continue;
+
+      result.runs++;
+      result.totalNanos += nanos;
+      result.minNanos = Math.min(result.minNanos, nanos);
+      result.allocatedBytes = allocated < 0 || result.allocatedBytes < 0 ? -1 : result.allocatedBytes + allocated;
+      result.found = sample.found;
+      result.nodes = sample.nodes;
+      result.cost = sample.cost;
+      result.length = sample.length;
+    }
+    return result;
+  }
+
+  private Sample search(Engine engine) {
+    switch (engine) {
+      case STEVEBOT:
+        return searchStevebot();
+      case BARITONE:
+        return searchBaritone();
+      default:
+        return searchBrigeros();
+    }
+  }
+
+  private Sample searchStevebot() {
+    PathfindingResult pathfindingResult;
+    BlockUtils.setThreadBlockProvider(stevebotBlocks);
+    try {
+      pathfindingResult =
+        stevebot.calculatePath(
+          new BaseBlockPos(start.getX(), start.getY(), start.getZ()),
+          new ExactGoal(new BaseBlockPos(goal.getX(), goal.getY(), goal.getZ())),
+          (long) (Config.getPathfindingTimeout() * 1000)
+        );
+    } finally {
+      BlockUtils.setThreadBlockProvider(null);
+    }
+
+    Sample sample = new Sample();
+    sample.found = pathfindingResult.finalPath.reachedGoal();
+    sample.nodes = pathfindingResult.nodesProcessed;
+    sample.cost = pathfindingResult.finalPath.getCost();
+    sample.length = pathfindingResult.finalPath.getNodes().size();
+    return sample;
+  }
+
+  private Sample searchBaritone() {
+    AStarCalculator calculator = new AStarCalculator();
+    LinkedList<com.dillo.pathfinding.baritone.automine.structures.BlockNode> path = calculator.calculatePath(
+      start,
+      goal,
+      new PathFinderBehaviour(null, null, 256, 0, 0, false),
+      PathMode.GOTO,
+      BARITONE_STEP_LIMIT
+    );
+
+    Sample sample = new Sample();
+    sample.found = !path.isEmpty() && path.getLast().isFullPath();
+    sample.nodes = calculator.getStep();
+    for (com.dillo.pathfinding.baritone.automine.structures.BlockNode node : path) {
+      if (node.getPos() == null) continue;
+      sample.cost += node.getType() == BlockType.WALK ? 1 : 1.5;
+      sample.length++;
+    }
+    return sample;
+  }
+
+  private Sample searchBrigeros() {
+    PathFinderV2.BlockSource source = slice != null
+      ? slice::getBlock
+      : (x, y, z) -> ids.mc.theWorld.getBlockState(new BlockPos(x, y, z)).getBlock();
+    List<BlockPos> path = PathFinderV2.pathFinder(
+      new BlockNode(goal, 0.0, 0.0, null),
+      new BlockNode(start, 0.0, DistanceFromTo.distanceFromTo(start, goal), null),
+      source
+    );
+
+    Sample sample = new Sample();
+    sample.found = path != null;
+    sample.nodes = PathFinderV2.lastExpanded;
+    if (path != null) {
+      BlockPos previous = start;
+      for (BlockPos pos : path) {
+        sample.cost += DistanceFromTo.distanceFromTo(previous, pos);
+        previous = pos;
+      }
+      sample.length = path.size();
+    }
+    return sample;
+  }
+
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  private void appendToCsv(List<Result> results) {
+    boolean writeHeader = !resultsFile.exists();
+    if (!resultsFile.getParentFile().exists()) resultsFile.getParentFile().mkdirs();
+
+    try (FileWriter writer = new FileWriter(resultsFile, true)) {
+      if (writeHeader) {
+        writer.write("time,scenario,engine,found,nodes,avgMs,minMs,allocatedBytesPerRun,cost,length\n");
+      }
+      for (Result result : results) {
+        if (!result.supported || result.error != null) continue;
+        writer.write(
+          String.format(
+            Locale.ROOT,
+            "%d,%s,%s,%b,%d,%.3f,%.3f,%d,%.3f,%d%n",
+            System.currentTimeMillis(),
+            scenario,
+            result.engine,
+            result.found,
+            result.nodes,
+            result.avgMillis(),
+            result.minMillis(),
+            result.allocatedPerRun(),
+            result.cost,
+            result.length
+          )
+        );
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package com.dillo.pathfinding.benchmark;
+
+import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockWrapper;
+import com.dillo.pathfinding.stevebot.core.data.items.wrapper.ItemBlockWrapper;
+import com.dillo.pathfinding.stevebot.core.data.items.wrapper.ItemStackWrapper;
+import com.dillo.pathfinding.stevebot.core.data.items.wrapper.ItemWrapper;
+import com.dillo.pathfinding.stevebot.core.math.vectors.vec2.Vector2d;
+import com.dillo.pathfinding.stevebot.core.math.vectors.vec3.Vector3d;
+import com.dillo.pathfinding.stevebot.core.minecraft.InputBinding;
+import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
+import com.dillo.pathfinding.stevebot.core.minecraft.MouseChangeInterceptor;
+import com.dillo.pathfinding.stevebot.core.player.PlayerInputConfig;
+import java.util.List;
+
+/**
+ * Lets stevebot search a recorded {@link VoxelSlice} instead of the loaded world. Block reads come
+ * from the slice (every chunk counts as loaded, doors as closed); everything about the player, its
+ * inventory and the block/item registries is forwarded to the real adapter.
+ */
+public class RecordedWorldAdapter implements MinecraftAdapter {
+
+  private final MinecraftAdapter base;
+  private final VoxelSlice slice;
+
+  public RecordedWorldAdapter(MinecraftAdapter base, VoxelSlice slice) {
+    this.base = base;
+    this.slice = slice;
+  }
+
+  @Override
+  public boolean hasPlayer() {
+    return base.hasPlayer();
+  }
+
+  @Override
+  public boolean isPlayerCreativeMode() {
+    return base.isPlayerCreativeMode();
+  }
+
+  @Override
+  public Vector3d getPlayerHeadPosition() {
+    return base.getPlayerHeadPosition();
+  }
+
+  @Override
+  public Vector2d getPlayerHeadPositionXZ() {
+    return base.getPlayerHeadPositionXZ();
+  }
+
+  @Override
+  public BaseBlockPos getPlayerBlockPosition() {
+    return base.getPlayerBlockPosition();
+  }
+
+  @Override
+  public Vector3d getPlayerPosition() {
+    return base.getPlayerPosition();
+  }
+
+  @Override
+  public Vector3d getPlayerMotion() {
+    return base.getPlayerMotion();
+  }
+
+  @Override
+  public float getPlayerRotationYaw() {
+    return base.getPlayerRotationYaw();
+  }
+
+  @Override
+  public float getPlayerRotationPitch() {
+    return base.getPlayerRotationPitch();
+  }
+
+  @Override
+  public void setPlayerRotation(float yaw, float pitch) {
+    base.setPlayerRotation(yaw, pitch);
+  }
+
+  @Override
+  public void setCameraRotation(float yaw, float pitch) {
+    base.setCameraRotation(yaw, pitch);
+  }
+
+  @Override
+  public Vector3d getLookDir() {
+    return base.getLookDir();
+  }
+
+  @Override
+  public void setMouseChangeInterceptor(MouseChangeInterceptor interceptor) {
+    base.setMouseChangeInterceptor(interceptor);
+  }
+
+  @Override
+  public float getMouseSensitivity() {
+    return base.getMouseSensitivity();
+  }
+
+  @Override
+  public double getMouseDX() {
+    return base.getMouseDX();
+  }
+
+  @Override
+  public double getMouseDY() {
+    return base.getMouseDY();
+  }
+
+  @Override
+  public void setInput(int keyCode, boolean down) {
+    base.setInput(keyCode, down);
+  }
+
+  @Override
+  public void setPlayerSprinting(boolean sprint) {
+    base.setPlayerSprinting(sprint);
+  }
+
+  @Override
+  public InputBinding getKeyBinding(PlayerInputConfig.InputType inputType) {
+    return base.getKeyBinding(inputType);
+  }
+
+  @Override
+  public boolean isPlayerOnGround() {
+    return base.isPlayerOnGround();
+  }
+
+  @Override
+  public float getPlayerHealth() {
+    return base.getPlayerHealth();
+  }
+
+  @Override
+  public void sendMessage(String msg) {
+    base.sendMessage(msg);
+  }
+
+  @Override
+  public List<ItemStackWrapper> getHotbarItems() {
+    return base.getHotbarItems();
+  }
+
+  @Override
+  public void selectHotbarSlot(int slot) {
+    base.selectHotbarSlot(slot);
+  }
+
+  @Override
+  public List<BlockWrapper> getBlocks() {
+    return base.getBlocks();
+  }
+
+  @Override
+  public List<ItemWrapper> getItems() {
+    return base.getItems();
+  }
+
+  @Override
+  public int getBlockId(BaseBlockPos pos) {
+    return slice.getBlockId(pos.getX(), pos.getY(), pos.getZ());
+  }
+
+  @Override
+  public boolean isChunkLoaded(int chunkX, int chunkZ) {
+    return true;
+  }
+
+  @Override
+  public boolean copyChunkBlockIds(int chunkX, int chunkZ, short[][] sections) {
+    for (int section = 0; section < sections.length; section++) {
+      final short[] ids = new short[4096];
+      boolean empty = true;
+      for (int i = 0; i < ids.length; i++) {
+        final int x = (chunkX << 4) | (i & 15);
+        final int z = (chunkZ << 4) | ((i >> 4) & 15);
+        ids[i] = (short) slice.getBlockId(x, (section << 4) | (i >> 8), z);
+        empty &= ids[i] == 0;
+      }
+      sections[section] = empty ? null : ids;
+    }
+    return true;
+  }
+
+  @Override
+  public int getItemIdFromBlock(BlockWrapper block) {
+    return base.getItemIdFromBlock(block);
+  }
+
+  @Override
+  public int getBlockIdFromItem(ItemBlockWrapper item) {
+    return base.getBlockIdFromItem(item);
+  }
+
+  @Override
+  public String getBlockFacing(BaseBlockPos position) {
+    return null;
+  }
+
+  @Override
+  public boolean isDoorOpen(BaseBlockPos position) {
+    return false;
+  }
+
+  @Override
+  public boolean isBlockPassable(BlockWrapper block, BaseBlockPos pos) {
+    return base.isBlockPassable(block, pos);
+  }
+
+  @Override
+  public float getBreakDuration(ItemWrapper item, BlockWrapper block) {
+    return base.getBreakDuration(item, block);
+  }
+}
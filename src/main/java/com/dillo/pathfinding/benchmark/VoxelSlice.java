@@ -0,0 +1,159 @@
+package com.dillo.pathfinding.benchmark;
+
+import com.dillo.utils.GetConfigFolder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * A box of block states copied out of the world, e.g. a Crystal Hollows cave, together with the
+ * position the player stood on when it was recorded. Saved gzipped under MiningInTwo/benchmarks so
+ * pathfinders can be compared on the exact same blocks later. Everything outside the box reads as
+ * bedrock, which walls the searches in.
+ */
+public class VoxelSlice {
+
+  private static final File folder = new File(GetConfigFolder.getMcDir() + "/MiningInTwo/benchmarks");
+  private static final int MAGIC = 0x56534c43; // "VSLC"
+  private static final int VERSION = 1;
+  private static final int OUTSIDE = Block.getIdFromBlock(Blocks.bedrock) << 4;
+
+  private final BlockPos origin;
+  private final int sizeX;
+  private final int sizeY;
+  private final int sizeZ;
+  private final BlockPos start;
+  // State ids as stored in chunk sections (id << 4 | meta), indexed (y * sizeZ + z) * sizeX + x.
+  private final char[] states;
+
+  private VoxelSlice(BlockPos origin, int sizeX, int sizeY, int sizeZ, BlockPos start, char[] states) {
+    this.origin = origin;
+    this.sizeX = sizeX;
+    this.sizeY = sizeY;
+    this.sizeZ = sizeZ;
+    this.start = start;
+    this.states = states;
+  }
+
+  /**
+   * Copies the blocks within the given radii around start. Client thread only.
+   */
+  public static VoxelSlice record(World world, BlockPos start, int radiusXZ, int radiusY) {
+    BlockPos origin = new BlockPos(
+      start.getX() - radiusXZ,
+      Math.max(0, start.getY() - radiusY),
+      start.getZ() - radiusXZ
+    );
+    int sizeX = radiusXZ * 2 + 1;
+    int sizeZ = radiusXZ * 2 + 1;
+    int sizeY = Math.min(256, start.getY() + radiusY + 1) - origin.getY();
+
+    char[] states = new char[sizeX * sizeY * sizeZ];
+    int i = 0;
+    for (int y = 0; y < sizeY; y++) {
+      for (int z = 0; z < sizeZ; z++) {
+        for (int x = 0; x < sizeX; x++) {
+          IBlockState state = world.getBlockState(origin.add(x, y, z));
+          states[i++] = (char) Block.BLOCK_STATE_IDS.get(state);
+        }
+      }
+    }
+    return new VoxelSlice(origin, sizeX, sizeY, sizeZ, start, states);
+  }
+
+  public static File fileFor(String name) {
+    return new File(folder, name.replaceAll("[^A-Za-z0-9_-]", "_") + ".slice");
+  }
+
+  public void save(File file) throws IOException {
+    if (!folder.exists()) folder.mkdirs();
+
+    try (
+      DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file)))
+      )
+    ) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writePos(out, origin);
+      out.writeInt(sizeX);
+      out.writeInt(sizeY);
+      out.writeInt(sizeZ);
+      writePos(out, start);
+      for (char state : states) out.writeChar(state);
+    }
+  }
+
+  public static VoxelSlice load(File file) throws IOException {
+    try (
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))
+    ) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a voxel slice: " + file.getName());
+      }
+      BlockPos origin = readPos(in);
+      int sizeX = in.readInt();
+      int sizeY = in.readInt();
+      int sizeZ = in.readInt();
+      BlockPos start = readPos(in);
+      char[] states = new char[sizeX * sizeY * sizeZ];
+      for (int i = 0; i < states.length; i++) states[i] = in.readChar();
+      return new VoxelSlice(origin, sizeX, sizeY, sizeZ, start, states);
+    }
+  }
+
+  private static void writePos(DataOutputStream out, BlockPos pos) throws IOException {
+    out.writeInt(pos.getX());
+    out.writeInt(pos.getY());
+    out.writeInt(pos.getZ());
+  }
+
+  private static BlockPos readPos(DataInputStream in) throws IOException {
+    return new BlockPos(in.readInt(), in.readInt(), in.readInt());
+  }
+
+  public boolean contains(int x, int y, int z) {
+    x -= origin.getX();
+    y -= origin.getY();
+    z -= origin.getZ();
+    return x >= 0 && y >= 0 && z >= 0 && x < sizeX && y < sizeY && z < sizeZ;
+  }
+
+  public int getStateId(int x, int y, int z) {
+    if (!contains(x, y, z)) return OUTSIDE;
+    return states[((y - origin.getY()) * sizeZ + (z - origin.getZ())) * sizeX + (x - origin.getX())];
+  }
+
+  public int getBlockId(int x, int y, int z) {
+    return getStateId(x, y, z) >> 4;
+  }
+
+  public IBlockState getBlockState(int x, int y, int z) {
+    IBlockState state = Block.BLOCK_STATE_IDS.getByValue(getStateId(x, y, z));
+    return state != null ? state : Blocks.air.getDefaultState();
+  }
+
+  public Block getBlock(int x, int y, int z) {
+    return getBlockState(x, y, z).getBlock();
+  }
+
+  public BlockPos getStart() {
+    return start;
+  }
+
+  public int getVolume() {
+    return states.length;
+  }
+}
@@ -1,7 +1,9 @@
 package com.dillo.pathfinding.stevebot.core;
 
 import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockProvider;
 import com.dillo.pathfinding.stevebot.core.data.blocks.BlockUtils;
+import com.dillo.pathfinding.stevebot.core.data.blocks.ChunkCache;
 import com.dillo.pathfinding.stevebot.core.math.vectors.vec3.Vector3d;
 import com.dillo.pathfinding.stevebot.core.misc.Config;
 import com.dillo.pathfinding.stevebot.core.misc.StevebotLog;
@@ -145,6 +147,37 @@ public class StevebotApi {
     Config.setShowChunkCache(show);
   }
 
+  /**
+   * @param budgetMB the amount of memory the chunk-cache may use in megabytes
+   */
+  public void setChunkCacheBudget(int budgetMB) {
+    Config.setChunkCacheBudgetMB(budgetMB);
+    printChunkCacheUsage();
+  }
+
+  /**
+   * print how much memory the chunk-cache uses compared to its budget
+   */
+  public void printChunkCacheUsage() {
+    final ChunkCache chunkCache = BlockUtils.getBlockProvider().getBlockCache().getChunkCache();
+    StevebotLog.log(
+      "Chunk cache: " +
+      chunkCache.size() +
+      " chunks, " +
+      chunkCache.getMemoryUsage() / (1024 * 1024) +
+      "MB of " +
+      Config.getChunkCacheBudgetMB() +
+      "MB"
+    );
+  }
+
+  /**
+   * @param pipelining whether to calculate the next path segment while the current one is followed
+   */
+  public void setPathPipelining(boolean pipelining) {
+    Config.setPathPipelining(pipelining);
+  }
+
   /**
    * @param show whether to render the node-cache data
    */
@@ -179,7 +212,11 @@ public class StevebotApi {
    * clear node cache
    */
   public void clearNodeCache() {
-    BlockUtils.getBlockProvider().getBlockCache().clear();
+    final BlockProvider provider = BlockUtils.getBlockProvider();
+    provider.getBlockCache().clear();
+    if (provider.getSnapshots() != null) {
+      provider.getSnapshots().clear();
+    }
     StevebotLog.log("Cache cleared.");
   }
 
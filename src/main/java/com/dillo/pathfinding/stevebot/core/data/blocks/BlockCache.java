@@ -2,12 +2,15 @@ package com.dillo.pathfinding.stevebot.core.data.blocks;
 
 import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
 import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class BlockCache {
 
   private final MinecraftAdapter minecraftAdapter;
   private final ChunkCache chunkCache = new ChunkCache();
   private final BlockProvider blockProvider;
+  private final List<BlockChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
   /**
    * @param minecraftAdapter the adapter for accessing minecraft
@@ -27,6 +30,7 @@ public class BlockCache {
    */
   public void onEventBlockBreak(int posX, int posY, int posZ) {
     invalidateBlock(posX, posY, posZ);
+    notifyChangeListeners(posX, posY, posZ);
   }
 
   /**
@@ -38,6 +42,51 @@ public class BlockCache {
    */
   public void onEventBlockPlace(int posX, int posY, int posZ) {
     invalidateBlock(posX, posY, posZ);
+    notifyChangeListeners(posX, posY, posZ);
+  }
+
+  /**
+   * Handles a block changed by the server
+   *
+   * @param posX the x-position of the changed block
+   * @param posY the y-position of the changed block
+   * @param posZ the z-position of the changed block
+   */
+  public void onEventBlockChanged(int posX, int posY, int posZ) {
+    invalidateBlock(posX, posY, posZ);
+    notifyChangeListeners(posX, posY, posZ);
+  }
+
+  /**
+   * Handles a chunk column sent by the server, which replaces every cached block in it
+   *
+   * @param chunkX the x-position of the chunk
+   * @param chunkZ the z-position of the chunk
+   */
+  public void onEventChunkChanged(int chunkX, int chunkZ) {
+    for (int chunkY = 0; chunkY < WorldSnapshots.SECTIONS; chunkY++) {
+      chunkCache.deleteCachedChunk(new ChunkCache.ChunkPos(chunkX, chunkY, chunkZ));
+    }
+  }
+
+  /**
+   * @param listener the listener to be notified whenever a block is broken or placed
+   */
+  public void addChangeListener(BlockChangeListener listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * @param listener the listener to remove
+   */
+  public void removeChangeListener(BlockChangeListener listener) {
+    changeListeners.remove(listener);
+  }
+
+  private void notifyChangeListeners(int posX, int posY, int posZ) {
+    for (BlockChangeListener listener : changeListeners) {
+      listener.onBlockChanged(posX, posY, posZ);
+    }
   }
 
   /**
@@ -0,0 +1,12 @@
+package com.dillo.pathfinding.stevebot.core.data.blocks;
+
+public interface BlockChangeListener {
+  /**
+   * Called when a block in the world was broken or placed.
+   *
+   * @param posX the x-position of the changed block
+   * @param posY the y-position of the changed block
+   * @param posZ the z-position of the changed block
+   */
+  void onBlockChanged(int posX, int posY, int posZ);
+}
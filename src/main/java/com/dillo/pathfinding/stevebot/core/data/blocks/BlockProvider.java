@@ -6,6 +6,7 @@ import com.dillo.pathfinding.stevebot.core.data.modification.BlockBreakModificat
 import com.dillo.pathfinding.stevebot.core.data.modification.BlockPlaceModification;
 import com.dillo.pathfinding.stevebot.core.data.modification.Modification;
 import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
+import com.dillo.pathfinding.stevebot.core.misc.Config;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,6 +15,10 @@ public class BlockProvider {
   private final MinecraftAdapter minecraftAdapter;
   private final BlockCache cache;
   private final BlockLibrary library;
+  // the copies of the world views are created from, null for views
+  private final WorldSnapshots snapshots;
+  // the copy a view reads, null unless this is a view
+  private final WorldSnapshot snapshot;
 
   private final Map<BaseBlockPos, Modification> blockModifications = new HashMap<>();
 
@@ -24,6 +29,16 @@ public class BlockProvider {
     this.minecraftAdapter = minecraftAdapter;
     this.library = library;
     this.cache = new BlockCache(minecraftAdapter, this);
+    this.snapshots = new WorldSnapshots(minecraftAdapter);
+    this.snapshot = null;
+  }
+
+  private BlockProvider(MinecraftAdapter minecraftAdapter, BlockLibrary library, WorldSnapshot snapshot) {
+    this.minecraftAdapter = minecraftAdapter;
+    this.library = library;
+    this.cache = new BlockCache(minecraftAdapter, this);
+    this.snapshots = null;
+    this.snapshot = snapshot;
   }
 
   /**
@@ -31,6 +46,9 @@ public class BlockProvider {
    * @return true, if the given position is in a loaded chunk.
    */
   public boolean isLoaded(BaseBlockPos pos) {
+    if (snapshot != null) {
+      return snapshot.isLoaded(pos.getX() >> 4, pos.getZ() >> 4);
+    }
     return minecraftAdapter.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4);
   }
 
@@ -59,7 +77,7 @@ public class BlockProvider {
         return placeModification.getBlock();
       }
     }
-    return library.getBlockById(cache.getBlockIdAt(x, y, z));
+    return library.getBlockById(snapshot != null ? snapshot.getBlockId(x, y, z) : cache.getBlockIdAt(x, y, z));
   }
 
   /**
@@ -87,7 +105,7 @@ public class BlockProvider {
         return placeModification.getBlock().getId();
       }
     }
-    return cache.getBlockIdAt(x, y, z);
+    return snapshot != null ? snapshot.getBlockId(x, y, z) : cache.getBlockIdAt(x, y, z);
   }
 
   private final FastBlockPos tempKey = new FastBlockPos();
@@ -142,6 +160,48 @@ public class BlockProvider {
     blockModifications.clear();
   }
 
+  /**
+   * Brings the copies of the chunks around the player up to date (see {@link WorldSnapshots#refresh}) and creates a
+   * view of them. Client thread only.
+   *
+   * @return the new view
+   */
+  public BlockProvider createView() {
+    if (snapshots == null) {
+      return createView(snapshot);
+    }
+    if (minecraftAdapter.hasPlayer()) {
+      final BaseBlockPos playerPos = minecraftAdapter.getPlayerBlockPosition();
+      snapshots.refresh(playerPos.getX() >> 4, playerPos.getZ() >> 4, Config.getSnapshotRadius());
+    }
+    return createView(snapshots.snapshot());
+  }
+
+  /**
+   * Creates a provider that reads the given immutable copy of the world and keeps its own block changes. The view never
+   * touches the live world, so it can be used by a single background thread while the client changes the world.
+   *
+   * @param snapshot the copy to read, e.g. from {@link #getSnapshots()}
+   * @return the new view
+   */
+  public BlockProvider createView(WorldSnapshot snapshot) {
+    return new BlockProvider(minecraftAdapter, library, snapshot);
+  }
+
+  /**
+   * @return the copies of the world views are created from, or null if this is a view.
+   */
+  public WorldSnapshots getSnapshots() {
+    return snapshots;
+  }
+
+  /**
+   * @return the copy of the world this view reads, or null if this provider reads the live world.
+   */
+  public WorldSnapshot getSnapshot() {
+    return snapshot;
+  }
+
   /**
    * @return the underlying {@link BlockCache}.
    */
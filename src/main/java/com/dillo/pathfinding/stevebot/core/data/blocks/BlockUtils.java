@@ -43,6 +43,7 @@ public class BlockUtils {
 
   private static MinecraftAdapter minecraftAdapter;
   private static BlockProvider blockProvider;
+  private static final ThreadLocal<BlockProvider> threadBlockProvider = new ThreadLocal<>();
   private static BlockLibrary blockLibrary;
 
   public static void initialize(
@@ -55,8 +56,25 @@ public class BlockUtils {
     BlockUtils.minecraftAdapter = minecraftAdapter;
   }
 
+  /**
+   * @return the {@link BlockProvider} used by the current thread. This is the shared provider unless the thread has set its own (see {@link #setThreadBlockProvider(BlockProvider)}).
+   */
   public static BlockProvider getBlockProvider() {
-    return blockProvider;
+    final BlockProvider threadProvider = threadBlockProvider.get();
+    return threadProvider != null ? threadProvider : blockProvider;
+  }
+
+  /**
+   * Makes all block lookups of the current thread go to the given provider, e.g. a view owned by a background search.
+   *
+   * @param provider the provider or null to use the shared provider again
+   */
+  public static void setThreadBlockProvider(BlockProvider provider) {
+    if (provider == null) {
+      threadBlockProvider.remove();
+    } else {
+      threadBlockProvider.set(provider);
+    }
   }
 
   public static BlockLibrary getBlockLibrary() {
@@ -68,7 +86,7 @@ public class BlockUtils {
    * @return whether the position is currently in a loaded chunk.
    */
   public static boolean isLoaded(BaseBlockPos pos) {
-    return blockProvider.isLoaded(pos);
+    return getBlockProvider().isLoaded(pos);
   }
 
   /**
@@ -92,7 +110,7 @@ public class BlockUtils {
    * @return whether the block at the given position is air
    */
   public static boolean isAir(BaseBlockPos pos) {
-    return isAir(blockProvider.getBlockAt(pos));
+    return isAir(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -108,7 +126,7 @@ public class BlockUtils {
    * @return whether the block at the given position is water (flowing or still)
    */
   public static boolean isWater(BaseBlockPos pos) {
-    return isWater(blockProvider.getBlockAt(pos));
+    return isWater(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -124,7 +142,7 @@ public class BlockUtils {
    * @return whether the block at the given position is lava (flowing or still)
    */
   public static boolean isLava(BaseBlockPos pos) {
-    return isLava(blockProvider.getBlockAt(pos));
+    return isLava(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -140,7 +158,7 @@ public class BlockUtils {
    * @return whether the block at the given position is flowing water or lava.
    */
   public static boolean isFlowingLiquid(BaseBlockPos pos) {
-    return isFlowingLiquid(blockProvider.getBlockAt(pos));
+    return isFlowingLiquid(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -156,7 +174,7 @@ public class BlockUtils {
    * @return whether the block at the given position is water or lava (flowing or still)
    */
   public static boolean isLiquid(BaseBlockPos pos) {
-    return isLiquid(blockProvider.getBlockAt(pos));
+    return isLiquid(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -172,7 +190,7 @@ public class BlockUtils {
    * @return whether the block given position can be dangerous to the player and should be avoided.
    */
   public static boolean isDangerous(BaseBlockPos pos) {
-    return isDangerous(blockProvider.getBlockAt(pos));
+    return isDangerous(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -180,7 +198,7 @@ public class BlockUtils {
    * @return whether the player can walk through the block at the given position. This does not check the surrounding blocks.
    */
   public static boolean canWalkThrough(BaseBlockPos pos) {
-    return canWalkThrough(blockProvider.getBlockAt(pos), pos);
+    return canWalkThrough(getBlockProvider().getBlockAt(pos), pos);
   }
 
   /**
@@ -208,7 +226,7 @@ public class BlockUtils {
    * @return whether the player can walk on the block at the given position. This does not check the surrounding blocks.
    */
   public static boolean canWalkOn(BaseBlockPos pos) {
-    final BlockWrapper block = blockProvider.getBlockAt(pos);
+    final BlockWrapper block = getBlockProvider().getBlockAt(pos);
     return canWalkOn(block);
   }
 
@@ -237,7 +255,7 @@ public class BlockUtils {
    * @return whether the player can place a block at the given position (independent of player position)
    */
   public static boolean canPlaceBlockAt(BaseBlockPos pos) {
-    final BlockWrapper block = blockProvider.getBlockAt(pos);
+    final BlockWrapper block = getBlockProvider().getBlockAt(pos);
     return canBeReplaced(block);
   }
 
@@ -254,7 +272,7 @@ public class BlockUtils {
    * @return whether the player should avoid touching the block at the given position
    */
   public static boolean avoidTouching(BaseBlockPos pos) {
-    return avoidTouching(blockProvider.getBlockAt(pos));
+    return avoidTouching(getBlockProvider().getBlockAt(pos));
   }
 
   /**
@@ -270,7 +288,7 @@ public class BlockUtils {
    * @return whether the block at the given position can affect a jump
    */
   public static boolean affectsJump(BaseBlockPos position) {
-    return affectsJump(blockProvider.getBlockAt(position));
+    return affectsJump(getBlockProvider().getBlockAt(position));
   }
 
   /**
@@ -293,7 +311,7 @@ public class BlockUtils {
    * @return whether the given position is (part of) a door
    */
   public static boolean isDoor(BaseBlockPos position) {
-    return isDoor(blockProvider.getBlockAt(position));
+    return isDoor(getBlockProvider().getBlockAt(position));
   }
 
   /**
@@ -316,7 +334,7 @@ public class BlockUtils {
    * @return whether the given position is a fence gate
    */
   public static boolean isFenceGate(BaseBlockPos position) {
-    return isFenceGate(blockProvider.getBlockAt(position));
+    return isFenceGate(getBlockProvider().getBlockAt(position));
   }
 
   /**
@@ -372,7 +390,7 @@ public class BlockUtils {
    * @return whether the block at the given position is affected by gravity.
    */
   public static boolean hasGravity(BaseBlockPos position) {
-    return hasGravity(blockProvider.getBlockAt(position));
+    return hasGravity(getBlockProvider().getBlockAt(position));
   }
 
   /**
@@ -2,22 +2,28 @@ package com.dillo.pathfinding.stevebot.core.data.blocks;
 
 import com.dillo.pathfinding.stevebot.core.math.MathUtils;
 import com.dillo.pathfinding.stevebot.core.math.vectors.vec3.Vector3d;
-import com.dillo.pathfinding.stevebot.core.math.vectors.vec3.Vector3i;
+import com.dillo.pathfinding.stevebot.core.misc.Config;
 import com.dillo.pathfinding.stevebot.core.rendering.Color;
 import com.dillo.pathfinding.stevebot.core.rendering.Renderable;
 import com.dillo.pathfinding.stevebot.core.rendering.Renderer;
-import java.util.ConcurrentModificationException;
-import java.util.HashMap;
-import java.util.Map;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import java.util.Arrays;
 
 public class ChunkCache {
 
   /**
-   * The maximum number of chunks cached
+   * The approximate number of bytes used by one cached chunk
    */
-  private final int MAX_CAPACITY = 9999;
+  public static final int CHUNK_BYTES = 4096 * 2 + 96;
 
-  private final Map<ChunkPos, CachedChunk> chunks = new HashMap<>();
+  private final LongObjectHashMap<CachedChunk> chunks = new LongObjectHashMap<>(1024);
+
+  /**
+   * The most recently used chunk (head) and the least recently used chunk (tail) of the eviction list.
+   */
+  private CachedChunk head;
+  private CachedChunk tail;
 
   /**
    * @param blockX the x position of the block
@@ -36,8 +42,7 @@ public class ChunkCache {
    * @return the {@link CachedChunk} containing this position. If the chunk is not yet cached, it will be put into the cache.
    */
   public CachedChunk getCachedChunk(int blockX, int blockY, int blockZ) {
-    final ChunkPos chunkPos = getCachedChunkPos(blockX, blockY, blockZ);
-    return getCachedChunk(chunkPos);
+    return getCachedChunkAt(blockX >> 4, blockY >> 4, blockZ >> 4);
   }
 
   /**
@@ -45,9 +50,25 @@ public class ChunkCache {
    * @return the chunk at the given position. If the chunk is not yet cached, it will be put into the cache.
    */
   public CachedChunk getCachedChunk(ChunkPos chunkPos) {
-    CachedChunk chunk = chunks.get(chunkPos);
+    return getCachedChunkAt(chunkPos.x, chunkPos.y, chunkPos.z);
+  }
+
+  /**
+   * @param chunkX the x position of the chunk
+   * @param chunkY the y position of the chunk
+   * @param chunkZ the z position of the chunk
+   * @return the chunk at the given position. If the chunk is not yet cached, it will be put into the cache.
+   */
+  private CachedChunk getCachedChunkAt(int chunkX, int chunkY, int chunkZ) {
+    final CachedChunk recent = head;
+    if (recent != null && recent.pos.x == chunkX && recent.pos.y == chunkY && recent.pos.z == chunkZ) {
+      return recent;
+    }
+    CachedChunk chunk = chunks.get(PackedPos.block(chunkX, chunkY, chunkZ));
     if (chunk == null) {
-      chunk = addChunk(chunkPos);
+      chunk = addChunk(new ChunkPos(chunkX, chunkY, chunkZ));
+    } else {
+      moveToFront(chunk);
     }
     return chunk;
   }
@@ -59,36 +80,58 @@ public class ChunkCache {
    * @return the {@link CachedChunk} that was saved
    */
   private CachedChunk addChunk(ChunkPos chunkPos) {
-    if (chunks.size() >= MAX_CAPACITY) {
-      removeFurthestChunk(chunkPos);
+    while (chunks.size() >= getMaxCapacity() && tail != null) {
+      removeLeastRecentChunk();
     }
     CachedChunk chunk = new CachedChunk(chunkPos);
-    chunks.put(chunkPos, chunk);
+    chunks.put(chunkPos.packed(), chunk);
+    linkFirst(chunk);
     return chunk;
   }
 
-  private final Vector3i vecHelper = new Vector3i();
+  /**
+   * @return the maximum number of chunks cached, derived from {@link Config#getChunkCacheBudgetMB()}
+   */
+  public int getMaxCapacity() {
+    return Math.max(64, (int) ((long) Config.getChunkCacheBudgetMB() * 1024 * 1024 / CHUNK_BYTES));
+  }
 
   /**
-   * Removes the cached chunk that is the furthest away from the given position
-   *
-   * @param refPos the position
+   * Removes the cached chunk that was not accessed for the longest time
    */
-  private void removeFurthestChunk(ChunkPos refPos) {
-    ChunkPos furthestChunkPos = null;
-    int maxDist = 0;
-
-    for (ChunkPos pos : chunks.keySet()) {
-      int dist2 = vecHelper.set(refPos.x, refPos.y, refPos.z).dist2(pos.x, pos.y, pos.z);
-      if (maxDist < dist2) {
-        maxDist = dist2;
-        furthestChunkPos = pos;
-      }
-    }
+  private void removeLeastRecentChunk() {
+    CachedChunk chunk = tail;
+    unlink(chunk);
+    chunks.remove(chunk.pos.packed());
+  }
+
+  private void moveToFront(CachedChunk chunk) {
+    if (head == chunk) return;
+    unlink(chunk);
+    linkFirst(chunk);
+  }
+
+  private void linkFirst(CachedChunk chunk) {
+    chunk.prev = null;
+    chunk.next = head;
+    if (head != null) head.prev = chunk;
+    head = chunk;
+    if (tail == null) tail = chunk;
+  }
 
-    if (furthestChunkPos != null) {
-      chunks.remove(furthestChunkPos);
+  private void unlink(CachedChunk chunk) {
+    if (chunk.prev != null) {
+      chunk.prev.next = chunk.next;
+    } else {
+      head = chunk.next;
+    }
+    if (chunk.next != null) {
+      chunk.next.prev = chunk.prev;
+    } else {
+      tail = chunk.prev;
     }
+    chunk.prev = null;
+    chunk.next = null;
   }
 
   /**
@@ -112,7 +155,9 @@ public class ChunkCache {
    */
 
   public CachedChunk deleteCachedChunk(ChunkPos chunkPos) {
-    return chunks.remove(chunkPos);
+    CachedChunk chunk = chunks.remove(chunkPos.packed());
+    if (chunk != null) unlink(chunk);
+    return chunk;
   }
 
   /**
@@ -120,6 +165,22 @@ public class ChunkCache {
    */
   public void clear() {
     chunks.clear();
+    head = null;
+    tail = null;
+  }
+
+  /**
+   * @return the number of currently cached chunks
+   */
+  public int size() {
+    return chunks.size();
+  }
+
+  /**
+   * @return the approximate number of bytes used by this cache
+   */
+  public long getMemoryUsage() {
+    return (long) chunks.size() * CHUNK_BYTES + chunks.memoryBytes();
   }
 
   /**
@@ -153,6 +214,13 @@ public class ChunkCache {
       return z == chunkPos.z;
     }
 
+    /**
+     * @return this position packed into a single long
+     */
+    public long packed() {
+      return PackedPos.block(x, y, z);
+    }
+
     @Override
     public int hashCode() {
       int result = x;
@@ -163,28 +231,26 @@ public class ChunkCache {
   }
 
   /**
-   * Represents a 16x16x16 part of the world in the cache.
+   * Represents a 16x16x16 part of the world in the cache. The ids are stored in one flat array indexed by (y, z, x).
    */
   public static class CachedChunk {
 
     public final ChunkPos pos;
-    final int[][][] blockIds;
+    final short[] blockIds;
+
+    /**
+     * Neighbours in the eviction list of the owning {@link ChunkCache}.
+     */
+    private CachedChunk prev;
+    private CachedChunk next;
 
     /**
      * @param pos the chunk-position of this {@link CachedChunk}
      */
     CachedChunk(ChunkPos pos) {
       this.pos = pos;
-      this.blockIds = new int[16][16][16];
-      for (int x = 0; x < blockIds.length; x++) {
-        int[][] blocksIdsYZ = blockIds[x];
-        for (int y = 0; y < blockIds[x].length; y++) {
-          int[] blocksIdsZ = blocksIdsYZ[y];
-          for (int z = 0; z < blockIds[x][y].length; z++) {
-            blocksIdsZ[z] = BlockLibrary.ID_INVALID_BLOCK;
-          }
-        }
-      }
+      this.blockIds = new short[16 * 16 * 16];
+      Arrays.fill(blockIds, (short) BlockLibrary.ID_INVALID_BLOCK);
     }
 
     /**
@@ -208,7 +274,7 @@ public class ChunkCache {
      * @return the cached id of the block or {@code BlockLibrary.ID_INVALID_BLOCK} without checking i, j and k.
      */
     private int getIdUnsafe(int i, int j, int k) {
-      return blockIds[i][j][k];
+      return blockIds[j << 8 | k << 4 | i];
     }
 
     /**
@@ -234,7 +300,7 @@ public class ChunkCache {
      * @param id the new id of the block
      */
     private void setIdUnsafe(int i, int j, int k, int id) {
-      blockIds[i][j][k] = id;
+      blockIds[j << 8 | k << 4 | i] = (short) id;
     }
 
     /**
@@ -264,9 +330,9 @@ public class ChunkCache {
 
   public static class ChunkCacheRenderable implements Renderable {
 
-    private final Map<ChunkPos, CachedChunk> chunks;
+    private final LongObjectHashMap<CachedChunk> chunks;
 
-    public ChunkCacheRenderable(Map<ChunkPos, CachedChunk> chunks) {
+    public ChunkCacheRenderable(LongObjectHashMap<CachedChunk> chunks) {
       this.chunks = chunks;
     }
 
@@ -275,16 +341,12 @@ public class ChunkCache {
       renderer.beginBoxes(3);
       final Vector3d posMin = new Vector3d();
       final Vector3d posMax = new Vector3d();
-      try {
-        for (CachedChunk chunk : chunks.values()) {
-          ChunkPos chunkPos = chunk.pos;
-          posMin.set(chunkPos.x * 16, chunkPos.y * 16, chunkPos.z * 16);
-          posMax.set(chunkPos.x * 16 + 16, chunkPos.y * 16 + 16, chunkPos.z * 16 + 16);
-          renderer.drawBoxOpen(posMin, posMax, Color.BLUE);
-        }
-      } catch (ConcurrentModificationException e) {
-        // ignore
-      }
+      chunks.forEachValue(chunk -> {
+        ChunkPos chunkPos = chunk.pos;
+        posMin.set(chunkPos.x * 16, chunkPos.y * 16, chunkPos.z * 16);
+        posMax.set(chunkPos.x * 16 + 16, chunkPos.y * 16 + 16, chunkPos.z * 16 + 16);
+        renderer.drawBoxOpen(posMin, posMax, Color.BLUE);
+      });
       renderer.end();
     }
   }
@@ -0,0 +1,66 @@
+package com.dillo.pathfinding.stevebot.core.data.blocks;
+
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+
+/**
+ * An immutable copy of the block ids of the chunks around the player, taken by {@link WorldSnapshots}. Neither the
+ * chunk columns nor their sections are ever written after the snapshot is taken, so any number of threads can read it
+ * while the client keeps changing the world.
+ */
+public class WorldSnapshot {
+
+  private final LongObjectHashMap<short[][]> columns;
+  private final long version;
+
+  /**
+   * @param columns the copied chunk columns by packed chunk position, one array of 4096 ids per section, null for
+   *                sections without blocks. Must not be modified afterwards.
+   * @param version the version of the {@link WorldSnapshots} this was taken at
+   */
+  WorldSnapshot(LongObjectHashMap<short[][]> columns, long version) {
+    this.columns = columns;
+    this.version = version;
+  }
+
+  /**
+   * @param chunkX the x position of the chunk
+   * @param chunkZ the z position of the chunk
+   * @return true, if the chunk was loaded and copied when this snapshot was taken.
+   */
+  public boolean isLoaded(int chunkX, int chunkZ) {
+    return columns.containsKey(PackedPos.chunk(chunkX, chunkZ));
+  }
+
+  /**
+   * @param x the x-position of the block
+   * @param y the y-position of the block
+   * @param z the z-position of the block
+   * @return the id of the block or {@link BlockLibrary#ID_UNLOADED_BOCK} if its chunk is not in this snapshot.
+   */
+  public int getBlockId(int x, int y, int z) {
+    final short[][] column = columns.get(PackedPos.chunk(x >> 4, z >> 4));
+    if (column == null) {
+      return BlockLibrary.ID_UNLOADED_BOCK;
+    }
+    if (y < 0 || y >= WorldSnapshots.SECTIONS * 16) {
+      return BlockUtils.AIR;
+    }
+    final short[] section = column[y >> 4];
+    return section == null ? BlockUtils.AIR : section[(y & 15) << 8 | (z & 15) << 4 | (x & 15)];
+  }
+
+  /**
+   * @return the number of chunk columns in this snapshot
+   */
+  public int getChunkCount() {
+    return columns.size();
+  }
+
+  /**
+   * @return the version of the {@link WorldSnapshots} this snapshot was taken at
+   */
+  public long getVersion() {
+    return version;
+  }
+}
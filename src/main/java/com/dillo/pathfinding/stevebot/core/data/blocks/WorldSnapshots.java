@@ -0,0 +1,214 @@
+package com.dillo.pathfinding.stevebot.core.data.blocks;
+
+import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+
+/**
+ * Keeps copies of the block ids of the loaded chunks around the player and hands out immutable {@link WorldSnapshot}s
+ * of them. Copies are shared copy-on-write: a snapshot only references the copied chunk columns, and a block change
+ * replaces the changed section (and the array of its column) with a modified copy instead of writing into it, so
+ * snapshots taken before keep seeing the old block.
+ *
+ * Chunks are copied from the world by {@link #refresh} on the client thread, only the ones that were not copied yet or
+ * were reloaded since. Block changes are applied from the state the server sent rather than read back from the world,
+ * so they can be reported from the netty thread before the client applied them; a change in a chunk that is not copied
+ * yet is kept and applied to the copy. Every change increases the version, and {@link #snapshot()} reuses the last
+ * snapshot while the version did not change.
+ */
+public class WorldSnapshots {
+
+  /**
+   * The number of 16 block high sections of a chunk column
+   */
+  public static final int SECTIONS = 16;
+
+  private final MinecraftAdapter minecraftAdapter;
+
+  private final Object lock = new Object();
+  // the copied columns by packed chunk position; the arrays in it are never written once a snapshot could see them
+  private LongObjectHashMap<short[][]> columns = new LongObjectHashMap<>(512);
+  // block changes in columns that are not copied, by packed block position
+  private LongObjectHashMap<Integer> pending = new LongObjectHashMap<>();
+  private long version = 0;
+  private WorldSnapshot lastSnapshot = null;
+
+  /**
+   * @param minecraftAdapter the adapter chunks are copied with
+   */
+  public WorldSnapshots(MinecraftAdapter minecraftAdapter) {
+    this.minecraftAdapter = minecraftAdapter;
+  }
+
+  /**
+   * Copies the loaded chunks within the radius that are not copied yet and forgets the ones outside of it. Client
+   * thread only.
+   *
+   * @param centerChunkX the x position of the center chunk
+   * @param centerChunkZ the z position of the center chunk
+   * @param radius       the radius in chunks
+   */
+  public void refresh(int centerChunkX, int centerChunkZ, int radius) {
+    final int size = 2 * radius + 1;
+    final long[] missing = new long[size * size];
+    int missingCount = 0;
+    synchronized (lock) {
+      for (int chunkX = centerChunkX - radius; chunkX <= centerChunkX + radius; chunkX++) {
+        for (int chunkZ = centerChunkZ - radius; chunkZ <= centerChunkZ + radius; chunkZ++) {
+          final long key = PackedPos.chunk(chunkX, chunkZ);
+          if (!columns.containsKey(key)) {
+            missing[missingCount++] = key;
+          }
+        }
+      }
+    }
+
+    // copied without holding the lock, block changes can still be reported meanwhile
+    final LongObjectHashMap<short[][]> copied = new LongObjectHashMap<>(missingCount);
+    for (int i = 0; i < missingCount; i++) {
+      final short[][] column = new short[SECTIONS][];
+      if (minecraftAdapter.copyChunkBlockIds(PackedPos.chunkX(missing[i]), PackedPos.chunkZ(missing[i]), column)) {
+        copied.put(missing[i], column);
+      }
+    }
+
+    synchronized (lock) {
+      // columns changed or dropped while copying are kept as they are now
+      final LongObjectHashMap<short[][]> next = new LongObjectHashMap<>(Math.max(512, columns.size()));
+      columns.forEach((key, column) -> {
+        if (isInRadius(key, centerChunkX, centerChunkZ, radius)) {
+          next.put(key, column);
+        }
+      });
+      copied.forEach((key, column) -> {
+        if (!next.containsKey(key)) {
+          next.put(key, column);
+        }
+      });
+
+      // the copied arrays are not shared yet and can still be written
+      final LongObjectHashMap<Integer> stillPending = new LongObjectHashMap<>();
+      pending.forEach((pos, id) -> {
+        final int x = PackedPos.blockX(pos);
+        final int y = PackedPos.blockY(pos);
+        final int z = PackedPos.blockZ(pos);
+        final long key = PackedPos.chunk(x >> 4, z >> 4);
+        final short[][] column = copied.get(key);
+        if (column != null && next.get(key) == column) {
+          if (column[y >> 4] == null) {
+            column[y >> 4] = new short[4096];
+          }
+          column[y >> 4][(y & 15) << 8 | (z & 15) << 4 | (x & 15)] = (short) (int) id;
+        } else if (column == null && isInRadius(key, centerChunkX, centerChunkZ, radius)) {
+          stillPending.put(pos, id);
+        }
+      });
+      pending = stillPending;
+      if (copied.size() > 0 || next.size() != columns.size()) {
+        version++;
+      }
+      columns = next;
+    }
+  }
+
+  /**
+   * @return a snapshot of the chunks copied so far. Can be called from any thread.
+   */
+  public WorldSnapshot snapshot() {
+    synchronized (lock) {
+      if (lastSnapshot == null || lastSnapshot.getVersion() != version) {
+        final LongObjectHashMap<short[][]> copy = new LongObjectHashMap<>(columns.size());
+        columns.forEach(copy::put);
+        lastSnapshot = new WorldSnapshot(copy, version);
+      }
+      return lastSnapshot;
+    }
+  }
+
+  /**
+   * @param snapshot a snapshot taken from this
+   * @return true, if nothing changed since the snapshot was taken
+   */
+  public boolean isCurrent(WorldSnapshot snapshot) {
+    synchronized (lock) {
+      return snapshot.getVersion() == version;
+    }
+  }
+
+  /**
+   * Applies a block change sent by the server. A change in a chunk that is not copied is applied when the next
+   * {@link #refresh} copies it.
+   *
+   * @param x  the x-position of the block
+   * @param y  the y-position of the block
+   * @param z  the z-position of the block
+   * @param id the new id of the block
+   */
+  public void onBlockChanged(int x, int y, int z, int id) {
+    if (y < 0 || y >= SECTIONS * 16) {
+      return;
+    }
+    synchronized (lock) {
+      final long key = PackedPos.chunk(x >> 4, z >> 4);
+      final short[][] column = columns.get(key);
+      if (column == null) {
+        pending.put(PackedPos.block(x, y, z), id);
+        return;
+      }
+      final int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+      final short[] section = column[y >> 4];
+      if (section == null ? id == BlockUtils.AIR : section[index] == id) {
+        return;
+      }
+
+      final short[] changedSection = section == null ? new short[4096] : section.clone();
+      changedSection[index] = (short) id;
+      final short[][] changedColumn = column.clone();
+      changedColumn[y >> 4] = changedSection;
+      columns.put(key, changedColumn);
+      version++;
+    }
+  }
+
+  /**
+   * Drops the copy of a chunk that was (re)loaded or unloaded, the next {@link #refresh} copies it again if it is
+   * loaded.
+   *
+   * @param chunkX the x position of the chunk
+   * @param chunkZ the z position of the chunk
+   */
+  public void onChunkChanged(int chunkX, int chunkZ) {
+    synchronized (lock) {
+      if (columns.remove(PackedPos.chunk(chunkX, chunkZ)) != null) {
+        version++;
+      }
+    }
+  }
+
+  /**
+   * Drops all copies, e.g. when the world changes.
+   */
+  public void clear() {
+    synchronized (lock) {
+      columns = new LongObjectHashMap<>(512);
+      pending = new LongObjectHashMap<>();
+      version++;
+    }
+  }
+
+  /**
+   * @return the current version, increased by every change of the copied chunks
+   */
+  public long getVersion() {
+    synchronized (lock) {
+      return version;
+    }
+  }
+
+  private static boolean isInRadius(long key, int centerChunkX, int centerChunkZ, int radius) {
+    return (
+      Math.abs(PackedPos.chunkX(key) - centerChunkX) <= radius &&
+      Math.abs(PackedPos.chunkZ(key) - centerChunkZ) <= radius
+    );
+  }
+}
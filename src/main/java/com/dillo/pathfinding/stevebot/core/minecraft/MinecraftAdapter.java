@@ -169,6 +169,16 @@ public interface MinecraftAdapter {
    */
   boolean isChunkLoaded(int chunkX, int chunkZ);
 
+  /**
+   * Copies the block ids of a loaded chunk column, one array of 4096 ids indexed (y, z, x) per 16 blocks of height.
+   *
+   * @param chunkX   the x position of the chunk
+   * @param chunkZ   the z position of the chunk
+   * @param sections the arrays to fill, sections without blocks are left null
+   * @return false, if the chunk is not loaded
+   */
+  boolean copyChunkBlockIds(int chunkX, int chunkZ, short[][] sections);
+
   /**
    * @param block the block
    * @return the id of the block
@@ -16,6 +16,9 @@ public class Config {
   private static boolean showNodeCache = false;
   private static int pathfindingSlowdown = -1;
   private static boolean keepPathRenderable = false;
+  private static int chunkCacheBudgetMB = 64;
+  private static boolean pathPipelining = true;
+  private static int snapshotRadius = 6;
 
   /**
    * @return the timeout for the pathfinding in seconds
@@ -125,4 +128,49 @@ public class Config {
     Config.keepPathRenderable = keepPathRenderable;
     StevebotLog.log("Set keepPathRenderable: " + isKeepPathRenderable());
   }
+
+  /**
+   * @return the amount of memory the block-cache may use for cached chunks in megabytes
+   */
+  public static int getChunkCacheBudgetMB() {
+    return chunkCacheBudgetMB;
+  }
+
+  /**
+   * @param chunkCacheBudgetMB the amount of memory the block-cache may use for cached chunks in megabytes
+   */
+  public static void setChunkCacheBudgetMB(int chunkCacheBudgetMB) {
+    Config.chunkCacheBudgetMB = chunkCacheBudgetMB;
+    StevebotLog.log("Set chunkCacheBudget: " + getChunkCacheBudgetMB() + "MB");
+  }
+
+  /**
+   * @return whether the next path segment is calculated while the current one is followed
+   */
+  public static boolean isPathPipelining() {
+    return pathPipelining;
+  }
+
+  /**
+   * @param pathPipelining true, to calculate the next path segment while the current one is followed
+   */
+  public static void setPathPipelining(boolean pathPipelining) {
+    Config.pathPipelining = pathPipelining;
+    StevebotLog.log("Set pathPipelining: " + isPathPipelining());
+  }
+
+  /**
+   * @return the radius in chunks around the player that background searches get a copy of
+   */
+  public static int getSnapshotRadius() {
+    return snapshotRadius;
+  }
+
+  /**
+   * @param snapshotRadius the radius in chunks around the player that background searches get a copy of
+   */
+  public static void setSnapshotRadius(int snapshotRadius) {
+    Config.snapshotRadius = snapshotRadius;
+    StevebotLog.log("Set snapshotRadius: " + getSnapshotRadius());
+  }
 }
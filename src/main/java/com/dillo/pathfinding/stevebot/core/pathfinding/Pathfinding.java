@@ -16,6 +16,7 @@ import com.dillo.pathfinding.stevebot.core.pathfinding.goal.Goal;
 import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.BestNodesContainer;
 import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.Node;
 import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.NodeCache;
+import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.NodeHeap;
 import com.dillo.pathfinding.stevebot.core.pathfinding.path.CompletedPath;
 import com.dillo.pathfinding.stevebot.core.pathfinding.path.EmptyPath;
 import com.dillo.pathfinding.stevebot.core.pathfinding.path.PartialPath;
@@ -24,7 +25,7 @@ import com.dillo.pathfinding.stevebot.core.player.PlayerUtils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
 
 public class Pathfinding {
 
@@ -33,9 +34,10 @@ public class Pathfinding {
   private static final int MAX_BETTER_PATHS = 2;
   private static final int MAX_WORSE_NODES = 500;
 
-  private static final ActionFactoryProvider actionFactoryProvider = new ActionFactoryProvider();
   public static PathfindingResult lastResults = null;
 
+  private final ActionFactoryProvider actionFactoryProvider = new ActionFactoryProvider();
+  private final NodeCache nodeCache = new NodeCache();
   private final MinecraftAdapter minecraftAdapter;
 
   public Pathfinding(final MinecraftAdapter minecraftAdapter) {
@@ -51,21 +53,36 @@ public class Pathfinding {
    * @return the {@link PathfindingResult} of this process holding the created {@link Path} and some statistics
    */
   public PathfindingResult calculatePath(BaseBlockPos posStart, Goal goal, long timeoutInMs) {
+    return calculatePath(posStart, goal, timeoutInMs, Collections.emptyList(), () -> false);
+  }
+
+  /**
+   * Calculates a new path from the given starting position to the given goal, assuming the given modifications were
+   * already made to the world (e.g. by the path that is currently followed and ends at the starting position).
+   *
+   * @param posStart          the start position
+   * @param goal              the goal
+   * @param timeoutInMs       the timeout in milliseconds
+   * @param baseModifications the modifications the search starts with
+   * @param cancelled         checked before every node; the search stops and returns an empty path once it is true
+   * @return the {@link PathfindingResult} of this process holding the created {@link Path} and some statistics
+   */
+  public PathfindingResult calculatePath(
+    BaseBlockPos posStart,
+    Goal goal,
+    long timeoutInMs,
+    List<Modification> baseModifications,
+    BooleanSupplier cancelled
+  ) {
     // prepare node cache
-    NodeCache.clear();
-    Node nodeStart = NodeCache.get(posStart);
+    NodeCache.setActive(nodeCache);
+    nodeCache.clear();
+    Node nodeStart = nodeCache.getNode(posStart);
     nodeStart.setGCost(0);
 
     // prepare open set
-    final PriorityQueue<Node> openSet = new PriorityQueue<>((o1, o2) -> {
-      final int fcostResult = Double.compare(o1.fcost(), o2.fcost());
-      if (fcostResult == 0) {
-        return Double.compare(o1.hcost(), o2.hcost());
-      } else {
-        return fcostResult;
-      }
-    });
-    openSet.add(nodeStart);
+    final NodeHeap openSet = new NodeHeap();
+    openSet.addOrUpdate(nodeStart);
 
     // prepare misc
     Path bestPath = new EmptyPath();
@@ -77,6 +94,11 @@ public class Pathfinding {
     long timeLast = System.currentTimeMillis();
     final PlayerSnapshot baseSnapshot = PlayerUtils.createSnapshot();
     baseSnapshot.setPlayerHealth((int) PlayerUtils.getHealth());
+    for (int i = 0, n = baseModifications.size(); i < n; i++) {
+      baseSnapshot.applyModification(minecraftAdapter, baseModifications.get(i));
+    }
+    PlayerSnapshot snapshot = null;
+    long appliedGeneration = 0;
 
     final PathfindingResult pathfindingResult = new PathfindingResult();
     pathfindingResult.timeStart = System.currentTimeMillis();
@@ -95,6 +117,13 @@ public class Pathfinding {
         break;
       }
 
+      // cancelled
+      if (cancelled.getAsBoolean()) {
+        StevebotLog.logNonCritical("Cancelled");
+        pathfindingResult.cancelled = true;
+        break;
+      }
+
       // status report
       if (System.currentTimeMillis() - timeLast > 2 * 1000) {
         timeLast = System.currentTimeMillis();
@@ -102,7 +131,7 @@ public class Pathfinding {
           "Searching... " +
           ((System.currentTimeMillis() - timeStart)) +
           "ms, considered " +
-          NodeCache.getNodes().size() +
+          nodeCache.size() +
           " nodes."
         );
       }
@@ -159,11 +188,18 @@ public class Pathfinding {
         break;
       }
 
-      // collect changes
-      BlockUtils.getBlockProvider().clearBlockChanges();
-      PlayerSnapshot snapshot = new PlayerSnapshot(baseSnapshot);
-      collectChanges(current, BlockUtils.getBlockProvider(), snapshot);
-      PlayerUtils.setActiveSnapshot(snapshot);
+      // collect changes (only if they differ from the changes of the previously processed node)
+      final long generation = current.getModificationGeneration();
+      if (snapshot == null || generation != appliedGeneration) {
+        BlockUtils.getBlockProvider().clearBlockChanges();
+        snapshot = new PlayerSnapshot(baseSnapshot);
+        collectChanges(current.getModificationHead(), BlockUtils.getBlockProvider(), snapshot);
+        for (int i = 0, n = baseModifications.size(); i < n; i++) {
+          BlockUtils.getBlockProvider().addModification(baseModifications.get(i), false);
+        }
+        PlayerUtils.setActiveSnapshot(snapshot);
+        appliedGeneration = generation;
+      }
 
       // process actions
       boolean hitUnloaded = false;
@@ -248,13 +284,18 @@ public class Pathfinding {
       "Pathfinding completed in " +
       ((System.currentTimeMillis() - timeStart)) +
       "ms, considered " +
-      NodeCache.getNodes().size() +
+      nodeCache.size() +
       " nodes."
     );
     pathfindingResult.timeEnd = System.currentTimeMillis();
 
     // return path
-    if (bestPath.reachedGoal()) {
+    if (pathfindingResult.cancelled) {
+      // the world changed underneath the search -> nothing found is trustworthy
+      pathfindingResult.pathFound = false;
+      pathfindingResult.finalPath = new EmptyPath();
+      return pathfindingResult;
+    } else if (bestPath.reachedGoal()) {
       // a valid path was found -> return that path
       pathfindingResult.pathFound = true;
       pathfindingResult.pathCost = bestPath.getCost();
@@ -297,7 +338,7 @@ public class Pathfinding {
    * @param set the set
    * @return the removed node
    */
-  private Node removeLowest(PriorityQueue<Node> set) {
+  private Node removeLowest(NodeHeap set) {
     Node node = set.poll();
     node.close();
     return node;
@@ -306,23 +347,21 @@ public class Pathfinding {
   /**
    * Collects all {@link Modification}s that are necessary to get from
    * the starting node to the given node and adds them to the given {@link BlockProvider}.
+   * Only the nodes that actually modify the world are visited, so the cost does not depend on the length of the path.
    *
-   * @param node          the target node
-   * @param blockProvider the block provider
-   * @param snapshot      the player inventory snapshot
+   * @param modificationHead the modification head of the target node (see {@link Node#getModificationHead()})
+   * @param blockProvider    the block provider
+   * @param snapshot         the player inventory snapshot
    */
-  private void collectChanges(Node node, BlockProvider blockProvider, PlayerSnapshot snapshot) {
-    Node current = node;
-    while (current.getPrev() != null) {
-      Action action = current.getAction();
-      if (action.hasModifications()) {
-        Modification[] modifications = action.getModifications();
-        for (int i = 0; i < modifications.length; i++) {
-          blockProvider.addModification(modifications[i], false);
-          snapshot.applyModification(minecraftAdapter, modifications[i]);
-        }
+  private void collectChanges(Node modificationHead, BlockProvider blockProvider, PlayerSnapshot snapshot) {
+    Node current = modificationHead;
+    while (current != null && current.getPrev() != null) {
+      Modification[] modifications = current.getAction().getModifications();
+      for (int i = 0; i < modifications.length; i++) {
+        blockProvider.addModification(modifications[i], false);
+        snapshot.applyModification(minecraftAdapter, modifications[i]);
       }
-      current = current.getPrev();
+      current = current.getPrev().getModificationHead();
     }
   }
 
@@ -339,9 +378,11 @@ public class Pathfinding {
     Node current = end;
     while (current != start) {
       nodes.add(current);
+      nodeCache.retain(current);
       current = current.getPrev();
     }
     nodes.add(start);
+    nodeCache.retain(start);
     Collections.reverse(nodes);
 
     Path path;
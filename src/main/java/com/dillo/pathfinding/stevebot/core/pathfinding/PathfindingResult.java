@@ -23,6 +23,7 @@ public class PathfindingResult {
   public int pathLength = -1;
 
   public boolean hitTimeout = false;
+  public boolean cancelled = false;
   public int pathsFoundTotal = 0;
   public int betterPathsFound = 0;
 
@@ -89,6 +89,7 @@ public class PathExecutor
   public void stop() {
     PlayerUtils.getInput().stopAll();
     isExecuting = false;
+    pathFactory.close();
     if (!Config.isKeepPathRenderable()) {
       /*renderer.removeRenderable(goalRenderable);
       renderer.removeRenderable(startRenderable);
@@ -152,6 +153,10 @@ public class PathExecutor
             } else {
               crawler.startPath(pathFactory.getCurrentPath());
               stateMachine.fireTransition(PathExecutionStateMachine.ExecutionTransition.SEGMENT_CALCULATED);
+              if (Config.isPathPipelining()) {
+                // calculate the continuation while this segment is followed, so it is ready when the segment ends
+                pathFactory.prepareNextPath();
+              }
             }
             onClientTick();
           } else {
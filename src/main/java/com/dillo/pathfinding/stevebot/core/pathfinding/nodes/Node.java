@@ -3,17 +3,26 @@ package com.dillo.pathfinding.stevebot.core.pathfinding.nodes;
 import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
 import com.dillo.pathfinding.stevebot.core.data.blockpos.FastBlockPos;
 import com.dillo.pathfinding.stevebot.core.pathfinding.actions.playeractions.Action;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Node {
 
   private boolean open;
+  private boolean expanded; // node was closed at least once, so other nodes can have it as their previous node
 
   private FastBlockPos pos;
   private Node prev;
   private Action action; // action required to reach this node
   private double gcost;
   private double hcost;
+  private int heapIndex = -1;
+  private boolean retained; // node is referenced by a path and must not be reused by the NodeCache
+  private NodeCache cache; // cache this node belongs to, holds the epoch of the cached modification heads
+  private Node modificationHead; // closest node on the path to this node (inclusive) whose action modifies the world
+  private long headEpoch = -1; // path epoch of the cache in which the modification head was resolved
+  private long generation; // set for nodes with modifications, changes whenever the modifications up to it change
+  private long prevGeneration; // generation of the modification head of the previous node, when generation was set
 
   /**
    * @return the {@link BaseBlockPos} of this node
@@ -51,6 +60,7 @@ public class Node {
    */
   public void setPrev(Node node) {
     this.prev = node;
+    changedPath();
   }
 
   /**
@@ -67,6 +77,87 @@ public class Node {
    */
   public void setAction(Action action) {
     this.action = action;
+    changedPath();
+  }
+
+  /**
+   * The path to this node changed. If the node was expanded before, the paths of the nodes behind it changed as well,
+   * so all cached modification heads of the cache are resolved again the next time they are read.
+   */
+  private void changedPath() {
+    headEpoch = -1;
+    generation = 0;
+    if (expanded && cache != null) {
+      cache.invalidatePaths();
+    }
+  }
+
+  /**
+   * Cached, so this does not depend on the length of the path. The cache is dropped when a node on the path is reached
+   * in a better way (see {@link NodeCache#invalidatePaths()}).
+   *
+   * @return the closest node on the path to this node (including this node) whose action has modifications, or null
+   */
+  public Node getModificationHead() {
+    resolveHead();
+    return modificationHead;
+  }
+
+  /**
+   * @return an id of the modifications on the path to this node, equal for two nodes only if they have the same
+   *     modification head and the path to that head did not change in between. 0 if there are no modifications.
+   */
+  public long getModificationGeneration() {
+    resolveHead();
+    return modificationHead != null ? modificationHead.generation : 0;
+  }
+
+  private void resolveHead() {
+    final long epoch = cache != null ? cache.getPathEpoch() : 0;
+    if (headEpoch == epoch) {
+      return;
+    }
+    if (prev == null || prev.headEpoch == epoch) {
+      resolveHeadFromPrev(epoch);
+      return;
+    }
+    // resolve the stale previous nodes first, starting at the one closest to the start
+    final List<Node> stale = new ArrayList<>();
+    for (Node node = this; node != null && node.headEpoch != epoch; node = node.prev) {
+      stale.add(node);
+    }
+    for (int i = stale.size() - 1; i >= 0; i--) {
+      stale.get(i).resolveHeadFromPrev(epoch);
+    }
+  }
+
+  private void resolveHeadFromPrev(long epoch) {
+    final Node prevHead = prev != null ? prev.modificationHead : null;
+    if (action != null && action.hasModifications()) {
+      final long prevHeadGeneration = prevHead != null ? prevHead.generation : 0;
+      if (generation == 0 || prevGeneration != prevHeadGeneration) {
+        generation = cache != null ? cache.nextGeneration() : 1;
+        prevGeneration = prevHeadGeneration;
+      }
+      modificationHead = this;
+    } else {
+      modificationHead = prevHead;
+    }
+    headEpoch = epoch;
+  }
+
+  /**
+   * @return the index of this node in the {@link NodeHeap} or -1, if it is not in the heap
+   */
+  int getHeapIndex() {
+    return heapIndex;
+  }
+
+  /**
+   * @param heapIndex the new index of this node in the {@link NodeHeap}
+   */
+  void setHeapIndex(int heapIndex) {
+    this.heapIndex = heapIndex;
   }
 
   /**
@@ -77,14 +168,14 @@ public class Node {
   }
 
   /**
-   * Opens this node and adds it to the given set.
+   * Opens this node and adds it to the given set. If the node is already in the set, its position is updated.
    *
    * @param openSet the set (of open nodes).
    */
-  public void open(PriorityQueue<Node> openSet) {
+  public void open(NodeHeap openSet) {
     this.open = true;
     if (openSet != null) {
-      openSet.add(this);
+      openSet.addOrUpdate(this);
     }
   }
 
@@ -93,6 +184,7 @@ public class Node {
    */
   public void close() {
     this.open = false;
+    this.expanded = true;
   }
 
   /**
@@ -129,4 +221,42 @@ public class Node {
   public double fcost() {
     return gcost + hcost;
   }
+
+  /**
+   * @return true, if this node is referenced outside of its search and must not be reused
+   */
+  boolean isRetained() {
+    return retained;
+  }
+
+  /**
+   * @param retained true, if this node is referenced outside of its search and must not be reused
+   */
+  void setRetained(boolean retained) {
+    this.retained = retained;
+  }
+
+  /**
+   * @param cache the cache this node belongs to
+   */
+  void setCache(NodeCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Resets this node so it can be reused for another position.
+   */
+  void reset() {
+    this.open = false;
+    this.prev = null;
+    this.action = null;
+    this.gcost = 0;
+    this.hcost = 0;
+    this.heapIndex = -1;
+    this.expanded = false;
+    this.modificationHead = null;
+    this.headEpoch = -1;
+    this.generation = 0;
+    this.prevGeneration = 0;
+  }
 }
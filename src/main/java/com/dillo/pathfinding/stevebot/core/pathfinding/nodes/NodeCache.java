@@ -2,51 +2,135 @@ package com.dillo.pathfinding.stevebot.core.pathfinding.nodes;
 
 import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
 import com.dillo.pathfinding.stevebot.core.pathfinding.actions.ActionCosts;
-import java.util.HashMap;
-import java.util.Map;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
+/**
+ * The nodes of one search, keyed by their packed position. Node objects are allocated from an arena and reused by the
+ * next search, except for nodes that ended up in a returned path ({@link #retain(Node)}).
+ * Each thread works on its own active cache (see {@link #setActive(NodeCache)}), so several searches can run at once.
+ */
 public class NodeCache {
 
-  private static final Map<BaseBlockPos, Node> nodes = new HashMap<>();
+  private static final ThreadLocal<NodeCache> active = ThreadLocal.withInitial(NodeCache::new);
+  private static volatile NodeCache lastActive = null;
+
+  private final LongObjectHashMap<Node> nodes = new LongObjectHashMap<>(4096);
+  private Node[] arena = new Node[1024];
+  private int arenaUsed = 0;
+  private long pathEpoch = 0;
+  private long lastGeneration = 0;
 
   /**
-   * @return the map with all cached nodes
+   * @return the node cache used by searches on the current thread
    */
-  public static Map<BaseBlockPos, Node> getNodes() {
-    return nodes;
+  public static NodeCache getActive() {
+    return active.get();
   }
 
   /**
-   * Clears this node cache
+   * Sets the node cache used by searches on the current thread.
+   *
+   * @param cache the cache
    */
-  public static void clear() {
-    nodes.clear();
+  public static void setActive(NodeCache cache) {
+    active.set(cache);
+    lastActive = cache;
   }
 
   /**
-   * Returns the node at the given position. If the node is not yet cached it will be saved in the cache.
+   * @return the node cache that was activated most recently on any thread (for rendering and statistics)
+   */
+  public static NodeCache getLastActive() {
+    return lastActive;
+  }
+
+  /**
+   * Returns the node at the given position from the active cache of this thread. If the node is not yet cached it will be saved in the cache.
    *
    * @param pos the position of the node
    * @return the node at the given position.
    */
   public static Node get(BaseBlockPos pos) {
-    Node n = nodes.get(pos);
-    if (n == null) {
-      return create(pos, null);
-    } else {
-      return n;
+    return active.get().getNode(pos);
+  }
+
+  /**
+   * Clears this node cache. Nodes that are not retained are reused by the next search.
+   */
+  public void clear() {
+    for (int i = 0; i < arenaUsed; i++) {
+      if (arena[i].isRetained()) {
+        arena[i] = new Node();
+      } else {
+        arena[i].reset();
+      }
     }
+    arenaUsed = 0;
+    nodes.clear();
   }
 
   /**
-   * Creates a new node
+   * Marks the given node as used outside of this search (e.g. as part of a path), so it is never reused.
    *
-   * @param pos  the position of the node
-   * @param prev the previous node
-   * @return the created node
+   * @param node the node
+   */
+  public void retain(Node node) {
+    node.setRetained(true);
+  }
+
+  /**
+   * Drops the cached modification heads of all nodes, called when a node that may already be the previous node of
+   * other nodes is reached in a better way.
+   */
+  void invalidatePaths() {
+    pathEpoch++;
+  }
+
+  /**
+   * @return the epoch the cached modification heads of the nodes must have to be valid
    */
-  private static Node create(BaseBlockPos pos, Node prev) {
-    return create(pos, prev, ActionCosts.get().COST_INFINITE);
+  long getPathEpoch() {
+    return pathEpoch;
+  }
+
+  /**
+   * @return a new generation for a node with modifications, never 0
+   */
+  long nextGeneration() {
+    return ++lastGeneration;
+  }
+
+  /**
+   * @return the number of nodes in this cache
+   */
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * @param consumer called for every node in this cache
+   */
+  public void forEachNode(Consumer<Node> consumer) {
+    nodes.forEachValue(consumer);
+  }
+
+  /**
+   * Returns the node at the given position. If the node is not yet cached it will be saved in the cache.
+   *
+   * @param pos the position of the node
+   * @return the node at the given position.
+   */
+  public Node getNode(BaseBlockPos pos) {
+    final long key = PackedPos.block(pos.getX(), pos.getY(), pos.getZ());
+    Node node = nodes.get(key);
+    if (node == null) {
+      node = create(pos, null, ActionCosts.get().COST_INFINITE);
+      nodes.put(key, node);
+    }
+    return node;
   }
 
   /**
@@ -57,16 +141,21 @@ public class NodeCache {
    * @param cost the (g-)cost of the node
    * @return the created node
    */
-  private static Node create(BaseBlockPos pos, Node prev, double cost) {
-    Node node = nodes.get(pos);
+  private Node create(BaseBlockPos pos, Node prev, double cost) {
+    if (arenaUsed == arena.length) {
+      arena = Arrays.copyOf(arena, arena.length * 2);
+    }
+    Node node = arena[arenaUsed];
     if (node == null) {
       node = new Node();
-      node.setPos(pos);
-      node.setPrev(prev);
-      node.setGCost(cost);
-      node.open(null);
-      nodes.put(pos, node);
+      arena[arenaUsed] = node;
     }
+    arenaUsed++;
+    node.setCache(this);
+    node.setPos(pos);
+    node.setPrev(prev);
+    node.setGCost(cost);
+    node.open(null);
     return node;
   }
 }
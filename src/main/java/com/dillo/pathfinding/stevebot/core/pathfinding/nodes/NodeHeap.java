@@ -0,0 +1,124 @@
+package com.dillo.pathfinding.stevebot.core.pathfinding.nodes;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of open nodes ordered by f-cost (ties broken by h-cost). Every node knows its own index in the heap,
+ * so a node whose cost improved is moved in place instead of being added a second time.
+ */
+public class NodeHeap {
+
+  private Node[] heap = new Node[1024];
+  private int size = 0;
+
+  /**
+   * Adds the given node to the heap or, if it is already contained, restores its position after its cost changed.
+   *
+   * @param node the node
+   */
+  public void addOrUpdate(Node node) {
+    int index = node.getHeapIndex();
+    if (index >= 0) {
+      siftUp(index);
+      siftDown(node.getHeapIndex());
+      return;
+    }
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    heap[size] = node;
+    node.setHeapIndex(size);
+    siftUp(size++);
+  }
+
+  /**
+   * Removes and returns the node with the lowest cost.
+   *
+   * @return the removed node or null if the heap is empty
+   */
+  public Node poll() {
+    if (size == 0) {
+      return null;
+    }
+    Node lowest = heap[0];
+    Node last = heap[--size];
+    heap[size] = null;
+    if (size > 0) {
+      heap[0] = last;
+      last.setHeapIndex(0);
+      siftDown(0);
+    }
+    lowest.setHeapIndex(-1);
+    return lowest;
+  }
+
+  /**
+   * @return true, if this heap contains no nodes
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return the number of nodes in this heap
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all nodes from this heap.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      heap[i].setHeapIndex(-1);
+      heap[i] = null;
+    }
+    size = 0;
+  }
+
+  private void siftUp(int index) {
+    Node node = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      Node parentNode = heap[parent];
+      if (compare(node, parentNode) >= 0) {
+        break;
+      }
+      heap[index] = parentNode;
+      parentNode.setHeapIndex(index);
+      index = parent;
+    }
+    heap[index] = node;
+    node.setHeapIndex(index);
+  }
+
+  private void siftDown(int index) {
+    Node node = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      int right = child + 1;
+      if (right < size && compare(heap[right], heap[child]) < 0) {
+        child = right;
+      }
+      if (compare(node, heap[child]) <= 0) {
+        break;
+      }
+      heap[index] = heap[child];
+      heap[index].setHeapIndex(index);
+      index = child;
+    }
+    heap[index] = node;
+    node.setHeapIndex(index);
+  }
+
+  private static int compare(Node a, Node b) {
+    final int fcostResult = Double.compare(a.fcost(), b.fcost());
+    if (fcostResult == 0) {
+      return Double.compare(a.hcost(), b.hcost());
+    } else {
+      return fcostResult;
+    }
+  }
+}
@@ -5,17 +5,12 @@ import com.dillo.pathfinding.stevebot.core.math.vectors.vec3.Vector3d;
 import com.dillo.pathfinding.stevebot.core.rendering.Color;
 import com.dillo.pathfinding.stevebot.core.rendering.Renderable;
 import com.dillo.pathfinding.stevebot.core.rendering.Renderer;
-import java.util.ConcurrentModificationException;
-import java.util.Map;
 
+/**
+ * Renders the nodes of the most recently active {@link NodeCache}.
+ */
 public class NodeRenderable implements Renderable {
 
-  private final Map<BaseBlockPos, Node> nodes;
-
-  public NodeRenderable(Map<BaseBlockPos, Node> nodes) {
-    this.nodes = nodes;
-  }
-
   @Override
   public void render(Renderer renderer) {
     renderAABB(renderer);
@@ -24,14 +19,13 @@ public class NodeRenderable implements Renderable {
   private void renderAABB(Renderer renderer) {
     renderer.beginBoxes(2);
     final Vector3d pos = new Vector3d();
-    try {
-      for (Node node : nodes.values()) {
+    final NodeCache nodeCache = NodeCache.getLastActive();
+    if (nodeCache != null) {
+      nodeCache.forEachNode(node -> {
         BaseBlockPos nodePos = node.getPos();
         pos.set(nodePos.getX(), nodePos.getY(), nodePos.getZ());
         renderer.drawBoxOpen(pos, (node.isOpen() ? Color.WHITE : Color.GRAY));
-      }
-    } catch (ConcurrentModificationException e) {
-      // ignore
+      });
     }
     renderer.end();
   }
@@ -1,37 +1,84 @@
 package com.dillo.pathfinding.stevebot.core.pathfinding.path;
 
 import com.dillo.pathfinding.stevebot.core.data.blockpos.BaseBlockPos;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockChangeListener;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockProvider;
+import com.dillo.pathfinding.stevebot.core.data.blocks.BlockUtils;
+import com.dillo.pathfinding.stevebot.core.data.modification.BlockBreakModification;
+import com.dillo.pathfinding.stevebot.core.data.modification.BlockPlaceModification;
+import com.dillo.pathfinding.stevebot.core.data.modification.Modification;
 import com.dillo.pathfinding.stevebot.core.minecraft.MinecraftAdapter;
 import com.dillo.pathfinding.stevebot.core.misc.Config;
 import com.dillo.pathfinding.stevebot.core.misc.StevebotLog;
 import com.dillo.pathfinding.stevebot.core.pathfinding.Pathfinding;
 import com.dillo.pathfinding.stevebot.core.pathfinding.goal.Goal;
+import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.Node;
+import com.dillo.utils.collections.LongHashSet;
+import com.dillo.utils.collections.PackedPos;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class PathFactory {
+/**
+ * Calculates the segments of a path. Every search reads an immutable copy of the world (see
+ * {@link BlockProvider#createView()}), taken on the client thread when the segment is requested, so a segment can be
+ * prepared in the background while the previous one is followed. A segment is recalculated against a newer copy when a
+ * block changes on it before it is followed.
+ */
+public class PathFactory implements BlockChangeListener {
 
   private static final boolean MULTITHREAD = true;
+  private static final int MAX_SEARCH_ATTEMPTS = 3;
 
   private final ExecutorService executorService = Executors.newSingleThreadExecutor();
   private final Pathfinding pathfinding;
 
+  private final BlockProvider sharedProvider;
+
   private final List<Path> pathQueue = new ArrayList<>();
   private volatile boolean preparingPath = false;
 
+  // guards the running search
+  private final Object searchLock = new Object();
+  private volatile Search runningSearch = null;
+  private LongHashSet queuedExpected = new LongHashSet();
+
   private final BaseBlockPos posStart;
   private final Goal goal;
 
+  /**
+   * One attempt at calculating a segment. Blocks changed after its copy of the world was taken are collected until it
+   * is finished.
+   */
+  private static class Search {
+
+    private final BlockProvider view;
+    private final BaseBlockPos start;
+    private final List<Modification> modifications;
+    private final LongHashSet expected;
+    private final LongHashSet changed = new LongHashSet();
+    private volatile boolean cancelled = false;
+
+    Search(BlockProvider view, BaseBlockPos start, List<Modification> modifications, LongHashSet expected) {
+      this.view = view;
+      this.start = start;
+      this.modifications = modifications;
+      this.expected = expected;
+    }
+  }
+
   /**
    * @param posStart the start position of the path
    * @param goal     the goal of the path
    */
   public PathFactory(MinecraftAdapter minecraftAdapter, BaseBlockPos posStart, Goal goal) {
     this.pathfinding = new Pathfinding(minecraftAdapter);
+    this.sharedProvider = BlockUtils.getBlockProvider();
     this.posStart = posStart;
     this.goal = goal;
+    sharedProvider.getBlockCache().addChangeListener(this);
   }
 
   /**
@@ -70,67 +117,224 @@ public class PathFactory {
   }
 
   /**
-   * Start calculating the next path-segment
+   * Start calculating the next path-segment. At most one segment is prepared ahead of the current one. Client thread
+   * only.
    */
   public void prepareNextPath() {
     if (preparingPath) {
       return;
     }
+    synchronized (pathQueue) {
+      if (pathQueue.size() > 1) {
+        return;
+      }
+    }
     preparingPath = true;
     StevebotLog.getLogger().info("Preparing path segment");
     if (hasPath()) {
-      if (getCurrentPath().reachedGoal()) {
+      final Path prevPath = getLastPath();
+      if (prevPath.reachedGoal() || prevPath instanceof EmptyPath) {
         preparingPath = false;
       } else {
-        final Path prevPath = getLastPath();
-        if (MULTITHREAD) {
-          executorService.submit(() -> {
-            Path path = pathfinding.calculatePath(
-              prevPath.getLastNode().getPos(),
-              goal,
-              (long) (Config.getPathfindingTimeout() * 1000)
-            )
-              .finalPath;
-            synchronized (pathQueue) {
-              pathQueue.add(path);
-              preparingPath = false;
-            }
-          });
-        } else {
-          Path path = pathfinding.calculatePath(
-            prevPath.getLastNode().getPos(),
-            goal,
-            (long) (Config.getPathfindingTimeout() * 1000)
-          )
-            .finalPath;
+        // continue from the projected end of the previous segment, as if it was already followed
+        final BaseBlockPos start = prevPath.getLastNode().getPos();
+        final List<Modification> modifications = collectModifications(prevPath);
+        final LongHashSet expected = collectPositions(modifications);
+        final Search search = startSearch(sharedProvider.createView(), start, modifications, expected);
+        run(() -> {
+          Path path = calculateSegment(search);
           synchronized (pathQueue) {
             pathQueue.add(path);
+            queuedExpected = expected;
             preparingPath = false;
           }
-        }
+        });
       }
     } else {
-      if (MULTITHREAD) {
-        executorService.submit(() -> {
-          Path path = pathfinding.calculatePath(posStart, goal, (long) (Config.getPathfindingTimeout() * 1000))
-            .finalPath;
-          if (!(path instanceof EmptyPath)) {
-            synchronized (pathQueue) {
-              pathQueue.add(path);
-              preparingPath = false;
-            }
-          }
-        });
-      } else {
-        Path path = pathfinding.calculatePath(posStart, goal, (long) (Config.getPathfindingTimeout() * 1000)).finalPath;
+      final Search search = startSearch(
+        sharedProvider.createView(),
+        posStart,
+        Collections.emptyList(),
+        new LongHashSet()
+      );
+      run(() -> {
+        Path path = calculateSegment(search);
         if (!(path instanceof EmptyPath)) {
           synchronized (pathQueue) {
             pathQueue.add(path);
             preparingPath = false;
           }
         }
+      });
+    }
+  }
+
+  private void run(Runnable task) {
+    if (MULTITHREAD) {
+      executorService.submit(task);
+    } else {
+      task.run();
+    }
+  }
+
+  /**
+   * Makes the search the running one, from now on block changes are collected for it.
+   */
+  private Search startSearch(
+    BlockProvider view,
+    BaseBlockPos start,
+    List<Modification> modifications,
+    LongHashSet expected
+  ) {
+    final Search search = new Search(view, start, modifications, expected);
+    synchronized (searchLock) {
+      runningSearch = search;
+    }
+    return search;
+  }
+
+  /**
+   * Calculates a segment against the view of the search. The calculation is repeated against the latest copy of the
+   * world when a block changed on the resulting path since the copy was taken.
+   */
+  private Path calculateSegment(Search firstSearch) {
+    Path path = new EmptyPath();
+    Search search = firstSearch;
+    for (int attempt = 0; attempt < MAX_SEARCH_ATTEMPTS; attempt++) {
+      if (attempt > 0) {
+        // block changes reach the copies as they arrive, so the latest copy can be taken on this thread
+        synchronized (searchLock) {
+          final BlockProvider view = sharedProvider.createView(sharedProvider.getSnapshots().snapshot());
+          search = startSearch(view, search.start, search.modifications, search.expected);
+        }
+      }
+
+      final Search current = search;
+      BlockUtils.setThreadBlockProvider(current.view);
+      try {
+        path =
+          pathfinding.calculatePath(
+            current.start,
+            goal,
+            (long) (Config.getPathfindingTimeout() * 1000),
+            current.modifications,
+            () -> current.cancelled
+          )
+            .finalPath;
+      } finally {
+        BlockUtils.setThreadBlockProvider(null);
       }
+
+      final boolean valid;
+      synchronized (searchLock) {
+        runningSearch = null;
+        valid = !search.cancelled && !touchesAny(path, search.changed);
+      }
+      if (valid) {
+        return path;
+      }
+      StevebotLog.logNonCritical("World changed on the path segment. Recalculating.");
     }
+    return path;
+  }
+
+  @Override
+  public void onBlockChanged(int posX, int posY, int posZ) {
+    final long key = PackedPos.block(posX, posY, posZ);
+
+    synchronized (searchLock) {
+      final Search search = runningSearch;
+      if (search != null && !search.expected.contains(key)) {
+        search.changed.add(key);
+        if (isNear(search.start, posX, posY, posZ)) {
+          search.cancelled = true;
+        }
+      }
+    }
+
+    // drop a prepared segment that is not followed yet when the world changed on it
+    boolean dropped = false;
+    synchronized (pathQueue) {
+      if (pathQueue.size() > 1 && !queuedExpected.contains(key) && touches(pathQueue.get(1), posX, posY, posZ)) {
+        pathQueue.subList(1, pathQueue.size()).clear();
+        dropped = true;
+      }
+    }
+    if (dropped) {
+      StevebotLog.logNonCritical("World changed on the next path segment. Recalculating.");
+      prepareNextPath();
+    }
+  }
+
+  /**
+   * Stops listening for block changes, cancels a running calculation and shuts down the background thread.
+   */
+  public void close() {
+    sharedProvider.getBlockCache().removeChangeListener(this);
+    final Search search = runningSearch;
+    if (search != null) {
+      search.cancelled = true;
+    }
+    executorService.shutdown();
+  }
+
+  /**
+   * @return the modifications of all actions of the given path, the latest first
+   */
+  private static List<Modification> collectModifications(Path path) {
+    final List<Modification> modifications = new ArrayList<>();
+    final List<Node> nodes = path.getNodes();
+    for (int i = nodes.size() - 1; i >= 0; i--) {
+      if (nodes.get(i).getAction() != null) {
+        Collections.addAll(modifications, nodes.get(i).getAction().getModifications());
+      }
+    }
+    return modifications;
+  }
+
+  private static LongHashSet collectPositions(List<Modification> modifications) {
+    final LongHashSet positions = new LongHashSet(modifications.size());
+    for (Modification modification : modifications) {
+      BaseBlockPos pos = null;
+      if (modification instanceof BlockBreakModification) {
+        pos = ((BlockBreakModification) modification).getPosition();
+      }
+      if (modification instanceof BlockPlaceModification) {
+        pos = ((BlockPlaceModification) modification).getPosition();
+      }
+      if (pos != null) {
+        positions.add(PackedPos.block(pos.getX(), pos.getY(), pos.getZ()));
+      }
+    }
+    return positions;
+  }
+
+  private static boolean touchesAny(Path path, LongHashSet positions) {
+    final boolean[] touched = { false };
+    positions.forEach(key -> {
+      if (!touched[0] && touches(path, PackedPos.blockX(key), PackedPos.blockY(key), PackedPos.blockZ(key))) {
+        touched[0] = true;
+      }
+    });
+    return touched[0];
+  }
+
+  private static boolean touches(Path path, int x, int y, int z) {
+    final List<Node> nodes = path.getNodes();
+    for (int i = 0, n = nodes.size(); i < n; i++) {
+      if (isNear(nodes.get(i).getPos(), x, y, z)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return whether the given block is one an action standing on, moving from or moving to the given node can depend on
+   */
+  private static boolean isNear(BaseBlockPos pos, int x, int y, int z) {
+    final int dy = y - pos.getY();
+    return Math.abs(x - pos.getX()) <= 1 && Math.abs(z - pos.getZ()) <= 1 && dy >= -1 && dy <= 2;
   }
 
   /**
@@ -5,7 +5,6 @@ import com.dillo.pathfinding.stevebot.core.data.blocks.ChunkCache;
 import com.dillo.pathfinding.stevebot.core.math.vectors.vec3.Vector3d;
 import com.dillo.pathfinding.stevebot.core.minecraft.OpenGLAdapter;
 import com.dillo.pathfinding.stevebot.core.misc.Config;
-import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.NodeCache;
 import com.dillo.pathfinding.stevebot.core.pathfinding.nodes.NodeRenderable;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,27 +17,23 @@ public class Renderer {
   public Renderer(OpenGLAdapter openGLAdapter, BlockProvider blockProvider) {
     this.openGLAdapter = openGLAdapter;
     addRenderable(blockProvider.getBlockCache().getChunkCache().getChunkCacheRenderable());
-    addRenderable(new NodeRenderable(NodeCache.getNodes()));
+    addRenderable(new NodeRenderable());
   }
 
   /**
    * Renders all {@link Renderable}s.
    */
   public void onEventRender(Vector3d playerPosition) {
-    if (playerPosition != null) {
+    if (playerPosition != null && hasVisibleRenderables()) {
       // setup
       setup(playerPosition);
 
       // draw
       for (int i = 0, n = renderables.size(); i < n; i++) {
         Renderable renderable = renderables.get(i);
-        if (renderable instanceof ChunkCache.ChunkCacheRenderable && !Config.isShowChunkCache()) {
-          continue;
+        if (isVisible(renderable)) {
+          renderable.render(this);
         }
-        if (renderable instanceof NodeRenderable && !Config.isShowNodeCache()) {
-          continue;
-        }
-        renderable.render(this);
       }
 
       // reset
@@ -46,6 +41,25 @@ public class Renderer {
     }
   }
 
+  /**
+   * @return true, if at least one {@link Renderable} is not hidden by the config
+   */
+  public boolean hasVisibleRenderables() {
+    for (int i = 0, n = renderables.size(); i < n; i++) {
+      if (isVisible(renderables.get(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isVisible(Renderable renderable) {
+    if (renderable instanceof ChunkCache.ChunkCacheRenderable && !Config.isShowChunkCache()) {
+      return false;
+    }
+    return !(renderable instanceof NodeRenderable) || Config.isShowNodeCache();
+  }
+
   /**
    * Adds the given {@link Renderable} to this renderer.
    *
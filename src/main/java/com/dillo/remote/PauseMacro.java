@@ -18,7 +18,7 @@ public class PauseMacro {
     if (!unpause) {
       pauseTicks = time;
       pause = true;
-      dilloMainState = ArmadilloStates.currentState;
+      dilloMainState = ArmadilloStates.takeState();
       dilloOfflineState = ArmadilloStates.offlineState;
     } else {
       pause = false;
@@ -26,7 +26,7 @@ public class PauseMacro {
       pauseTicks = 0;
 
       if (dilloOfflineState != null) {
-        ArmadilloStates.currentState = dilloMainState;
+        ArmadilloStates.setState(dilloMainState);
         ArmadilloStates.offlineState = dilloOfflineState;
       }
     }
@@ -36,11 +36,11 @@ public class PauseMacro {
   public void onTick(TickEvent.ClientTickEvent event) {
     if (event.phase == TickEvent.Phase.END) {
       if (pause) {
-        if (currTicks <= pauseTicks) {
+        if (currTicks >= pauseTicks) {
           pause = false;
           currTicks = 0;
           pauseTicks = 0;
-          ArmadilloStates.currentState = dilloMainState;
+          ArmadilloStates.setState(dilloMainState);
           ArmadilloStates.offlineState = dilloOfflineState;
         } else {
           currTicks++;
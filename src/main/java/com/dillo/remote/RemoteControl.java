@@ -64,7 +64,7 @@ public class RemoteControl {
                   RestartMacroFailsafe.restartMacro();
                   break;
                 case "STOP":
-                  ArmadilloStates.currentState = null;
+                  ArmadilloStates.setState(null);
                   ArmadilloStates.offlineState = KillSwitch.OFFLINE;
                   break;
                 case "THROWR":
@@ -0,0 +1,189 @@
+package com.dillo.remote;
+
+import com.dillo.utils.previous.random.ids;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Talks to the remote control site from a background thread, so a slow site never blocks the game.
+ *
+ * Every request is a POST of {"name": ..., "chat": [...], "waitMs": ...} to {@link #ENDPOINT}. The site answers with a
+ * JSON array of new actions as soon as it has some, or with an empty array after waitMs (long polling). Chat lines are
+ * sent along with the next request, in batches of at most {@link #MAX_BATCH_LINES} lines and {@link #MAX_BATCH_CHARS}
+ * characters. The connection is kept alive between requests. Received actions are appended to
+ * {@link GetRemoteControl#remoteControlActions} on the client thread.
+ *
+ * A batch is only sent again if its request failed before it was written completely. Once the site could have
+ * received it, a failure drops the batch rather than risking the same chat twice.
+ */
+public class RemoteTransport {
+
+  public static final String ENDPOINT = "http://localhost:3000/api/userData";
+  public static final int MAX_BATCH_LINES = 100;
+  public static final int MAX_BATCH_CHARS = 16 * 1024;
+  private static final int MAX_LINE_CHARS = 1024;
+  private static final int CONNECT_TIMEOUT_MS = 5000;
+
+  /**
+   * The request failed before its body was sent, so the site did not get the chat of it.
+   */
+  private static class NotSentException extends IOException {
+
+    NotSentException(IOException cause) {
+      super(cause.getMessage(), cause);
+    }
+  }
+
+  private static final ConcurrentLinkedQueue<String> pendingChat = new ConcurrentLinkedQueue<>();
+  private static volatile Thread thread = null;
+  private static volatile String name = null;
+  private static volatile long waitMs = 30000;
+
+  /**
+   * Starts the background thread if it is not running yet.
+   *
+   * @param username  the name the actions are fetched for
+   * @param maxWaitMs how long the site may hold a request when it has no actions; also the delay after a failed request
+   */
+  public static synchronized void start(String username, long maxWaitMs) {
+    name = username;
+    waitMs = maxWaitMs;
+    if (thread != null) return;
+    thread = new Thread(RemoteTransport::loop, "MiningInTwo Remote Control");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stops the background thread after its current request. Queued chat lines are dropped.
+   */
+  public static synchronized void stop() {
+    if (thread == null) return;
+    thread.interrupt();
+    thread = null;
+    pendingChat.clear();
+  }
+
+  public static boolean isRunning() {
+    return thread != null;
+  }
+
+  /**
+   * Queues a chat line for the next request.
+   */
+  public static void queueChat(String line) {
+    pendingChat.add(line.length() > MAX_LINE_CHARS ? line.substring(0, MAX_LINE_CHARS) : line);
+  }
+
+  private static boolean isCurrent() {
+    return Thread.currentThread() == thread;
+  }
+
+  private static void loop() {
+    List<String> retry = null;
+    boolean failing = false;
+    while (isCurrent()) {
+      List<String> batch = retry != null ? retry : takeBatch();
+      retry = null;
+      JsonArray actions;
+      try {
+        // with chat to deliver the site should answer right away, otherwise it may hold the request
+        actions = post(batch, pendingChat.isEmpty() && batch.isEmpty() ? waitMs : 0);
+      } catch (IOException e) {
+        // only the first failure in a row is logged, the site may be down for a while
+        if (!failing) e.printStackTrace();
+        failing = true;
+        if (e instanceof NotSentException) retry = batch;
+        sleep(waitMs);
+        continue;
+      }
+      failing = false;
+
+      if (actions.size() > 0 && isCurrent()) {
+        ids.mc.addScheduledTask(() -> {
+          for (JsonElement action : actions) {
+            GetRemoteControl.remoteControlActions.add(action);
+          }
+        });
+      }
+    }
+  }
+
+  private static List<String> takeBatch() {
+    List<String> batch = new ArrayList<>();
+    int chars = 0;
+    String line;
+    while (batch.size() < MAX_BATCH_LINES && (line = pendingChat.peek()) != null) {
+      if (!batch.isEmpty() && chars + line.length() > MAX_BATCH_CHARS) break;
+      pendingChat.poll();
+      batch.add(line);
+      chars += line.length();
+    }
+    return batch;
+  }
+
+  private static JsonArray post(List<String> chat, long wait) throws IOException {
+    JsonObject body = new JsonObject();
+    body.addProperty("name", name);
+    JsonArray chatArray = new JsonArray();
+    for (String line : chat) chatArray.add(new JsonPrimitive(line));
+    body.add("chat", chatArray);
+    body.addProperty("waitMs", wait);
+    byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+
+    HttpURLConnection connection = (HttpURLConnection) new URL(ENDPOINT).openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+    connection.setReadTimeout((int) (wait + CONNECT_TIMEOUT_MS));
+    connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+    connection.setFixedLengthStreamingMode(bytes.length);
+
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(bytes);
+    } catch (IOException e) {
+      throw new NotSentException(e);
+    }
+
+    int status = connection.getResponseCode();
+    if (status != HttpURLConnection.HTTP_OK) {
+      drain(connection.getErrorStream());
+      throw new IOException("HTTP " + status);
+    }
+
+    // reading the body to the end and closing the stream lets the connection be reused
+    try (InputStreamReader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+      JsonElement element = new JsonParser().parse(reader);
+      return element.isJsonArray() ? element.getAsJsonArray() : new JsonArray();
+    } catch (RuntimeException e) {
+      throw new IOException("Invalid response: " + e.getMessage());
+    }
+  }
+
+  private static void drain(InputStream in) throws IOException {
+    if (in == null) return;
+    try (InputStream stream = in) {
+      byte[] buffer = new byte[1024];
+      while (stream.read(buffer) != -1) {}
+    }
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException ignored) {}
+  }
+}
@@ -0,0 +1,420 @@
+package com.dillo.utils;
+
+import com.dillo.events.PacketRegistry;
+import com.dillo.utils.collections.LongHashSet;
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.minecraft.block.Block;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.network.play.server.S22PacketMultiBlockChange;
+import net.minecraft.network.play.server.S23PacketBlockChange;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.Vec3;
+import net.minecraft.world.World;
+
+/**
+ * Finds a point on a block that can be seen from an eye position. Only the faces of the block that face the eye and
+ * are not covered by a solid neighbour are sampled. Every face is sampled on the same precomputed low-discrepancy
+ * pattern, ordered from the center of the face outwards, and the faces take turns, the one facing the eye most first.
+ *
+ * Results are cached per eye block and target block. A cached point is checked again with a single ray before it is
+ * returned, a cached miss is only reused from the exact same eye position. Block changes between the eye and the
+ * target and chunks loaded along the way (received with {@link #registerPackets()}) drop the entries they affect.
+ *
+ * Block changes are received before the client puts them into the world. Until a change shows up in the world, results
+ * between the eye and the target are not cached, they could still be based on the old block. At most
+ * {@value #MAX_UNAPPLIED} of these changes are remembered, while older ones are dropped for the limit nothing is cached.
+ */
+public class AimSolver {
+
+  private static final int SAMPLES_PER_FACE = 48;
+  private static final double FACE_MARGIN = 0.05;
+  // points are placed this far inside the block so a ray to them always enters it
+  private static final double FACE_INSET = 0.01;
+  private static final int MAX_CACHED = 512;
+  // a received change that is not in the world after this long was overwritten, e.g. by a reloaded chunk
+  private static final long UNAPPLIED_NANOS = 1_000_000_000L;
+  private static final int MAX_UNAPPLIED = 1024;
+
+  // u, v pairs in [0, 1], the closest to the center of the face first
+  private static final double[] PATTERN = createPattern();
+
+  private static final Map<Key, Entry> cache = new LinkedHashMap<Key, Entry>(64, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+      return size() > MAX_CACHED;
+    }
+  };
+  private static World cachedWorld = null;
+  // received block changes that may not be in the world yet, by packed position; guarded by cache
+  private static final LongObjectHashMap<Unapplied> unapplied = new LongObjectHashMap<>();
+  // the same changes in the order they were received, including ones replaced or forgotten since; guarded by cache
+  private static final ArrayDeque<Unapplied> unappliedOrder = new ArrayDeque<>();
+  // nothing is cached before this, a change that may not be in the world yet was dropped for the limit
+  private static long uncachedUntilNanos = 0;
+
+  private static class Unapplied {
+
+    private final long pos;
+    private final Block block;
+    private final long receivedNanos;
+
+    Unapplied(long pos, Block block, long receivedNanos) {
+      this.pos = pos;
+      this.block = block;
+      this.receivedNanos = receivedNanos;
+    }
+  }
+
+  private static class Key {
+
+    private final long eyeBlock;
+    private final long target;
+    private final Block[] ignored;
+    private final boolean isCheck;
+    private final int hash;
+
+    Key(long eyeBlock, long target, Block[] ignored, boolean isCheck) {
+      this.eyeBlock = eyeBlock;
+      this.target = target;
+      this.ignored = ignored;
+      this.isCheck = isCheck;
+      this.hash =
+        ((Long.hashCode(eyeBlock) * 31 + Long.hashCode(target)) * 31 + Arrays.hashCode(ignored)) * 2 + (isCheck ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return (
+        eyeBlock == other.eyeBlock &&
+        target == other.target &&
+        isCheck == other.isCheck &&
+        Arrays.equals(ignored, other.ignored)
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static class Entry {
+
+    private final Vec3 eye;
+    // null if no point of the target could be seen from eye
+    private final Vec3 point;
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    Entry(Vec3 eye, Vec3 point, BlockPos target) {
+      this.eye = eye;
+      this.point = point;
+      this.minX = (int) Math.floor(Math.min(eye.xCoord, target.getX())) - 1;
+      this.minY = (int) Math.floor(Math.min(eye.yCoord, target.getY())) - 1;
+      this.minZ = (int) Math.floor(Math.min(eye.zCoord, target.getZ())) - 1;
+      this.maxX = (int) Math.floor(Math.max(eye.xCoord, target.getX())) + 1;
+      this.maxY = (int) Math.floor(Math.max(eye.yCoord, target.getY())) + 1;
+      this.maxZ = (int) Math.floor(Math.max(eye.zCoord, target.getZ())) + 1;
+    }
+
+    boolean spans(int x, int y, int z) {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    boolean spansChunk(int chunkX, int chunkZ) {
+      return chunkX >= minX >> 4 && chunkX <= maxX >> 4 && chunkZ >= minZ >> 4 && chunkZ <= maxZ >> 4;
+    }
+
+    boolean isSameEye(Vec3 other) {
+      return eye.xCoord == other.xCoord && eye.yCoord == other.yCoord && eye.zCoord == other.zCoord;
+    }
+  }
+
+  /**
+   * Subscribes to the block change and chunk packets that invalidate cached results.
+   */
+  public static void registerPackets() {
+    PacketRegistry.subscribe(
+      S23PacketBlockChange.class,
+      false,
+      packet -> onBlockChanged(packet.getBlockPosition(), packet.getBlockState().getBlock())
+    );
+    PacketRegistry.subscribe(
+      S22PacketMultiBlockChange.class,
+      false,
+      packet -> {
+        for (S22PacketMultiBlockChange.BlockUpdateData data : packet.getChangedBlocks()) {
+          onBlockChanged(data.getPos(), data.getBlockState().getBlock());
+        }
+      }
+    );
+    PacketRegistry.subscribe(
+      S21PacketChunkData.class,
+      false,
+      packet -> onChunkChanged(packet.getChunkX(), packet.getChunkZ())
+    );
+    PacketRegistry.subscribe(
+      S26PacketMapChunkBulk.class,
+      false,
+      packet -> {
+        for (int i = 0; i < packet.getChunkCount(); i++) {
+          onChunkChanged(packet.getChunkX(i), packet.getChunkZ(i));
+        }
+      }
+    );
+  }
+
+  public static void clear() {
+    synchronized (cache) {
+      cache.clear();
+      clearUnapplied();
+    }
+  }
+
+  private static void onBlockChanged(BlockPos pos, Block block) {
+    synchronized (cache) {
+      long now = System.nanoTime();
+      Unapplied change = new Unapplied(PackedPos.block(pos.getX(), pos.getY(), pos.getZ()), block, now);
+      unapplied.put(change.pos, change);
+      unappliedOrder.add(change);
+      forgetExpired(now);
+      Iterator<Entry> entries = cache.values().iterator();
+      while (entries.hasNext()) {
+        if (entries.next().spans(pos.getX(), pos.getY(), pos.getZ())) {
+          entries.remove();
+        }
+      }
+    }
+  }
+
+  private static void onChunkChanged(int chunkX, int chunkZ) {
+    synchronized (cache) {
+      Iterator<Entry> entries = cache.values().iterator();
+      while (entries.hasNext()) {
+        if (entries.next().spansChunk(chunkX, chunkZ)) {
+          entries.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * @param caster  the caster that decides which blocks are solid
+   * @param maxDist see {@link RayCaster#cast}
+   * @return a point inside the target that the eye can see, or null
+   */
+  public static Vec3 solve(
+    World world,
+    RayCaster caster,
+    Vec3 eye,
+    BlockPos target,
+    Block[] ignored,
+    boolean isCheck,
+    double maxDist
+  ) {
+    long targetKey = PackedPos.block(target.getX(), target.getY(), target.getZ());
+    Key key = new Key(
+      PackedPos.block(floor(eye.xCoord), floor(eye.yCoord), floor(eye.zCoord)),
+      targetKey,
+      ignored.clone(),
+      isCheck
+    );
+
+    Entry cached;
+    synchronized (cache) {
+      if (world != cachedWorld) {
+        cache.clear();
+        clearUnapplied();
+        cachedWorld = world;
+      }
+      cached = cache.get(key);
+    }
+    if (cached != null) {
+      if (cached.point == null) {
+        if (cached.isSameEye(eye)) return null;
+      } else if (
+        caster.cast(
+          eye.xCoord,
+          eye.yCoord,
+          eye.zCoord,
+          cached.point.xCoord,
+          cached.point.yCoord,
+          cached.point.zCoord,
+          maxDist
+        ) ==
+        targetKey
+      ) {
+        return cached.point;
+      }
+    }
+
+    Vec3 point = findVisiblePoint(caster, eye, target, maxDist);
+    Entry entry = new Entry(eye, point, target);
+    synchronized (cache) {
+      if (world == cachedWorld && !isChanging(world, entry)) {
+        cache.put(key, entry);
+      }
+    }
+    return point;
+  }
+
+  /**
+   * Forgets the received changes that expired and the oldest ones above the limit. With the cache lock held.
+   */
+  private static void forgetExpired(long now) {
+    while (!unappliedOrder.isEmpty()) {
+      Unapplied oldest = unappliedOrder.peek();
+      boolean expired = now - oldest.receivedNanos > UNAPPLIED_NANOS;
+      if (!expired && unappliedOrder.size() <= MAX_UNAPPLIED) return;
+
+      unappliedOrder.poll();
+      if (unapplied.get(oldest.pos) == oldest) {
+        unapplied.remove(oldest.pos);
+        if (!expired) uncachedUntilNanos = oldest.receivedNanos + UNAPPLIED_NANOS;
+      }
+    }
+  }
+
+  private static void clearUnapplied() {
+    unapplied.clear();
+    unappliedOrder.clear();
+    uncachedUntilNanos = 0;
+  }
+
+  /**
+   * Forgets the received changes that are in the world by now. Client thread only, with the cache lock held.
+   *
+   * @return true, if a change between the eye and the target of the entry is not in the world yet
+   */
+  private static boolean isChanging(World world, Entry entry) {
+    long now = System.nanoTime();
+    forgetExpired(now);
+    if (now - uncachedUntilNanos < 0) return true;
+    if (unapplied.isEmpty()) return false;
+
+    LongHashSet applied = new LongHashSet();
+    boolean[] changing = { false };
+    unapplied.forEach((key, change) -> {
+      int x = PackedPos.blockX(key);
+      int y = PackedPos.blockY(key);
+      int z = PackedPos.blockZ(key);
+      if (world.getBlockState(new BlockPos(x, y, z)).getBlock() == change.block) {
+        applied.add(key);
+      } else if (entry.spans(x, y, z)) {
+        changing[0] = true;
+      }
+    });
+    applied.forEach(unapplied::remove);
+    return changing[0];
+  }
+
+  /**
+   * {@link #solve} without the cache, for casters that do not read the world.
+   */
+  public static Vec3 findVisiblePoint(RayCaster caster, Vec3 eye, BlockPos target, double maxDist) {
+    double[] eyePos = { eye.xCoord, eye.yCoord, eye.zCoord };
+    int[] base = { target.getX(), target.getY(), target.getZ() };
+
+    // visible faces as axis * 2 + side, with how directly they face the eye
+    int[] faces = new int[3];
+    double[] facing = new double[3];
+    int faceCount = 0;
+    for (int axis = 0; axis < 3; axis++) {
+      int side;
+      if (eyePos[axis] < base[axis]) {
+        side = 0;
+      } else if (eyePos[axis] > base[axis] + 1) {
+        side = 1;
+      } else {
+        continue;
+      }
+      int[] neighbour = base.clone();
+      neighbour[axis] += side == 0 ? -1 : 1;
+      if (caster.isSolid(neighbour[0], neighbour[1], neighbour[2])) {
+        continue;
+      }
+      faces[faceCount] = axis * 2 + side;
+      facing[faceCount] = Math.abs(eyePos[axis] - (base[axis] + 0.5));
+      faceCount++;
+    }
+    if (faceCount == 0) {
+      return null;
+    }
+
+    // most facing first
+    for (int i = 1; i < faceCount; i++) {
+      for (int j = i; j > 0 && facing[j] > facing[j - 1]; j--) {
+        int face = faces[j];
+        faces[j] = faces[j - 1];
+        faces[j - 1] = face;
+        double f = facing[j];
+        facing[j] = facing[j - 1];
+        facing[j - 1] = f;
+      }
+    }
+
+    double[] points = new double[SAMPLES_PER_FACE * faceCount * 3];
+    int count = 0;
+    for (int sample = 0; sample < SAMPLES_PER_FACE; sample++) {
+      double u = FACE_MARGIN + (1 - 2 * FACE_MARGIN) * PATTERN[sample * 2];
+      double v = FACE_MARGIN + (1 - 2 * FACE_MARGIN) * PATTERN[sample * 2 + 1];
+      for (int f = 0; f < faceCount; f++) {
+        int axis = faces[f] >> 1;
+        int side = faces[f] & 1;
+        int uAxis = (axis + 1) % 3;
+        int vAxis = (axis + 2) % 3;
+        int offset = count * 3;
+        points[offset + axis] = base[axis] + (side == 0 ? FACE_INSET : 1 - FACE_INSET);
+        points[offset + uAxis] = base[uAxis] + u;
+        points[offset + vAxis] = base[vAxis] + v;
+        count++;
+      }
+    }
+
+    int hit = caster.castToTarget(eye.xCoord, eye.yCoord, eye.zCoord, points, count, target, maxDist);
+    if (hit < 0) {
+      return null;
+    }
+    return new Vec3(points[hit * 3], points[hit * 3 + 1], points[hit * 3 + 2]);
+  }
+
+  /**
+   * The R2 sequence (generalised golden ratio), which covers the square evenly for any prefix, sorted by distance to
+   * the center.
+   */
+  private static double[] createPattern() {
+    double g = 1.32471795724474602596;
+    double a1 = 1 / g;
+    double a2 = 1 / (g * g);
+    Double[][] points = new Double[SAMPLES_PER_FACE][];
+    for (int i = 0; i < SAMPLES_PER_FACE; i++) {
+      points[i] = new Double[] { (0.5 + a1 * i) % 1, (0.5 + a2 * i) % 1 };
+    }
+    Arrays.sort(points, (p, q) -> Double.compare(distanceToCenterSq(p), distanceToCenterSq(q)));
+
+    double[] pattern = new double[SAMPLES_PER_FACE * 2];
+    for (int i = 0; i < SAMPLES_PER_FACE; i++) {
+      pattern[i * 2] = points[i][0];
+      pattern[i * 2 + 1] = points[i][1];
+    }
+    return pattern;
+  }
+
+  private static double distanceToCenterSq(Double[] p) {
+    double du = p[0] - 0.5;
+    double dv = p[1] - 0.5;
+    return du * du + dv * dv;
+  }
+
+  private static int floor(double value) {
+    return (int) Math.floor(value);
+  }
+}
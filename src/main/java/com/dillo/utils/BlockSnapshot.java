@@ -0,0 +1,139 @@
+package com.dillo.utils;
+
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * The block types of a box of the world, copied at one point in time. A snapshot never changes, so any number of
+ * threads can read it while the world moves on; {@link #withChanges} makes an updated copy. Everything outside the box
+ * reads as bedrock.
+ *
+ * The blocks are stored in 16x16x16 sections, an updated copy shares every section without changes with this one.
+ */
+public class BlockSnapshot implements RayCaster.BlockReader {
+
+  private static final char OUTSIDE = (char) Block.getIdFromBlock(Blocks.bedrock);
+
+  private final int minX;
+  private final int minY;
+  private final int minZ;
+  private final int maxX;
+  private final int maxY;
+  private final int maxZ;
+  // sections from the one containing the min corner to the one containing the max corner
+  private final int sectionsX;
+  private final int sectionsZ;
+  // block ids by section, indexed (y * sectionsZ + z) * sectionsX + x; each (y * 16 + z) * 16 + x
+  private final char[][] sections;
+
+  private BlockSnapshot(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, char[][] sections) {
+    this.minX = minX;
+    this.minY = minY;
+    this.minZ = minZ;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    this.maxZ = maxZ;
+    this.sectionsX = (maxX >> 4) - (minX >> 4) + 1;
+    this.sectionsZ = (maxZ >> 4) - (minZ >> 4) + 1;
+    this.sections = sections;
+  }
+
+  /**
+   * @return the number of blocks a snapshot of the box holds, to check the size before capturing it
+   */
+  public static long volume(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    minY = Math.max(0, minY);
+    maxY = Math.min(255, maxY);
+    if (maxX < minX || maxY < minY || maxZ < minZ) return 0;
+    return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+  }
+
+  /**
+   * Copies the blocks between the two corners, both inclusive. Client thread only.
+   */
+  public static BlockSnapshot capture(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    minY = Math.max(0, minY);
+    maxY = Math.min(255, Math.max(minY, maxY));
+    int sectionsX = (maxX >> 4) - (minX >> 4) + 1;
+    int sectionsY = (maxY >> 4) - (minY >> 4) + 1;
+    int sectionsZ = (maxZ >> 4) - (minZ >> 4) + 1;
+    char[][] sections = new char[sectionsX * sectionsY * sectionsZ][];
+
+    // one chunk lookup per column of chunks instead of one per block
+    for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+      for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+        Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+        int fromX = Math.max(minX, chunkX << 4);
+        int toX = Math.min(maxX, (chunkX << 4) + 15);
+        int fromZ = Math.max(minZ, chunkZ << 4);
+        int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+        for (int sectionY = minY >> 4; sectionY <= maxY >> 4; sectionY++) {
+          char[] section = new char[4096];
+          int index = ((sectionY - (minY >> 4)) * sectionsZ + chunkZ - (minZ >> 4)) * sectionsX + chunkX - (minX >> 4);
+          sections[index] = section;
+          int fromY = Math.max(minY, sectionY << 4);
+          int toY = Math.min(maxY, (sectionY << 4) + 15);
+          for (int y = fromY; y <= toY; y++) {
+            for (int z = fromZ; z <= toZ; z++) {
+              int row = ((y & 15) * 16 + (z & 15)) * 16;
+              for (int x = fromX; x <= toX; x++) {
+                section[row + (x & 15)] = (char) Block.getIdFromBlock(chunk.getBlock(x & 15, y, z & 15));
+              }
+            }
+          }
+        }
+      }
+    }
+    return new BlockSnapshot(minX, minY, minZ, maxX, maxY, maxZ, sections);
+  }
+
+  /**
+   * Only the sections with changes are copied.
+   *
+   * @param changes new blocks by packed position ({@link PackedPos#block}), positions outside the box are skipped
+   * @return a copy of this snapshot with the changes applied
+   */
+  public BlockSnapshot withChanges(LongObjectHashMap<Block> changes) {
+    char[][] copy = sections.clone();
+    boolean[] copied = new boolean[sections.length];
+    changes.forEach((key, block) -> {
+      int x = PackedPos.blockX(key);
+      int y = PackedPos.blockY(key);
+      int z = PackedPos.blockZ(key);
+      if (!contains(x, y, z)) return;
+
+      int section = sectionIndex(x, y, z);
+      if (!copied[section]) {
+        copy[section] = copy[section].clone();
+        copied[section] = true;
+      }
+      copy[section][blockIndex(x, y, z)] = (char) Block.getIdFromBlock(block);
+    });
+    return new BlockSnapshot(minX, minY, minZ, maxX, maxY, maxZ, copy);
+  }
+
+  public boolean contains(int x, int y, int z) {
+    return x >= minX && y >= minY && z >= minZ && x <= maxX && y <= maxY && z <= maxZ;
+  }
+
+  public boolean intersectsChunk(int chunkX, int chunkZ) {
+    return chunkX >= minX >> 4 && chunkX <= maxX >> 4 && chunkZ >= minZ >> 4 && chunkZ <= maxZ >> 4;
+  }
+
+  @Override
+  public Block getBlock(int x, int y, int z) {
+    return Block.getBlockById(contains(x, y, z) ? sections[sectionIndex(x, y, z)][blockIndex(x, y, z)] : OUTSIDE);
+  }
+
+  private int sectionIndex(int x, int y, int z) {
+    return (((y >> 4) - (minY >> 4)) * sectionsZ + (z >> 4) - (minZ >> 4)) * sectionsX + (x >> 4) - (minX >> 4);
+  }
+
+  private static int blockIndex(int x, int y, int z) {
+    return ((y & 15) * 16 + (z & 15)) * 16 + (x & 15);
+  }
+}
@@ -0,0 +1,207 @@
+package com.dillo.utils;
+
+import com.dillo.utils.collections.LongObjectHashMap;
+import com.dillo.utils.collections.PackedPos;
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Finds the first solid block along a ray by walking the grid one block at a time (Amanatides & Woo), so every block
+ * the ray passes through is looked at exactly once and in order. Whether a block is solid is read once per caster and
+ * cached, which pays off when many rays are cast from the same eye position, see {@link #castToTarget}.
+ *
+ * A block is solid unless its type is one of the ignored blocks. In check mode ignored glass within 4.61 blocks of
+ * one of the two check positions is solid as well (structures in front of a route block).
+ *
+ * Blocks are read from the world or from any other {@link BlockReader}, e.g. a {@link BlockSnapshot} when casting
+ * off the client thread. Not thread-safe, create one caster per thread and query.
+ */
+public class RayCaster {
+
+  /**
+   * Returned when nothing was hit. No position of a vanilla world packs to this value.
+   */
+  public static final long NO_HIT = Long.MIN_VALUE;
+
+  private static final double HALF_DIAGONAL = Math.sqrt(3) / 2;
+  private static final double CHECK_DISTANCE = 4.61;
+
+  private final BlockReader blocks;
+  private final Block[] ignored;
+  private final BlockPos checkNearA;
+  private final BlockPos checkNearB;
+  private final LongObjectHashMap<Boolean> solid = new LongObjectHashMap<>(512);
+
+  private double lastHitDistance = 0;
+
+  public interface BlockReader {
+    Block getBlock(int x, int y, int z);
+  }
+
+  public RayCaster(World world, Block[] ignored) {
+    this(world, ignored, null, null);
+  }
+
+  public RayCaster(World world, Block[] ignored, BlockPos checkNearA, BlockPos checkNearB) {
+    this(new ChunkReader(world), ignored, checkNearA, checkNearB);
+  }
+
+  /**
+   * @param checkNearA ignored glass near this position is solid, null to disable check mode
+   * @param checkNearB ignored glass near this position is solid
+   */
+  public RayCaster(BlockReader blocks, Block[] ignored, BlockPos checkNearA, BlockPos checkNearB) {
+    this.blocks = blocks;
+    this.ignored = ignored;
+    this.checkNearA = checkNearA;
+    this.checkNearB = checkNearB;
+  }
+
+  /**
+   * Casts a ray from (x1, y1, z1) towards (x2, y2, z2).
+   *
+   * @param maxDist blocks whose center is farther from the start are not hit
+   * @return the packed position ({@link PackedPos#block}) of the first solid block hit or {@link #NO_HIT}
+   */
+  public long cast(double x1, double y1, double z1, double x2, double y2, double z2, double maxDist) {
+    double dx = x2 - x1;
+    double dy = y2 - y1;
+    double dz = z2 - z1;
+    double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+    if (length == 0) {
+      return NO_HIT;
+    }
+    dx /= length;
+    dy /= length;
+    dz /= length;
+
+    int x = floor(x1);
+    int y = floor(y1);
+    int z = floor(z1);
+    int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+    int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+    int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+
+    // distance along the ray to the next block boundary on each axis, and between two boundaries
+    double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dx);
+    double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dy);
+    double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dz);
+    double nextX = stepX == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? x + 1 - x1 : x1 - x) * deltaX);
+    double nextY = stepY == 0 ? Double.POSITIVE_INFINITY : ((stepY > 0 ? y + 1 - y1 : y1 - y) * deltaY);
+    double nextZ = stepZ == 0 ? Double.POSITIVE_INFINITY : ((stepZ > 0 ? z + 1 - z1 : z1 - z) * deltaZ);
+
+    // no block whose center is within maxDist can be entered after this distance
+    double limit = maxDist + HALF_DIAGONAL;
+    double entered = 0;
+    double maxDistSq = maxDist * maxDist;
+
+    while (entered <= limit) {
+      double cx = x + 0.5 - x1;
+      double cy = y + 0.5 - y1;
+      double cz = z + 0.5 - z1;
+      if (cx * cx + cy * cy + cz * cz <= maxDistSq && isSolid(x, y, z)) {
+        lastHitDistance = entered;
+        return PackedPos.block(x, y, z);
+      }
+
+      if (nextX < nextY && nextX < nextZ) {
+        entered = nextX;
+        nextX += deltaX;
+        x += stepX;
+      } else if (nextY < nextZ) {
+        entered = nextY;
+        nextY += deltaY;
+        y += stepY;
+      } else {
+        entered = nextZ;
+        nextZ += deltaZ;
+        z += stepZ;
+      }
+    }
+    return NO_HIT;
+  }
+
+  /**
+   * Casts a ray from the origin to every point in turn and stops at the first one whose ray hits the target block
+   * first. All rays share the solidity cache of this caster.
+   *
+   * @param points  the points as consecutive x, y, z triples
+   * @param maxDist see {@link #cast}
+   * @return the index of the point (not of its x coordinate) or -1 if no ray reaches the target
+   */
+  public int castToTarget(double ox, double oy, double oz, double[] points, int count, BlockPos target, double maxDist) {
+    long targetKey = PackedPos.block(target.getX(), target.getY(), target.getZ());
+    for (int i = 0; i < count; i++) {
+      if (cast(ox, oy, oz, points[i * 3], points[i * 3 + 1], points[i * 3 + 2], maxDist) == targetKey) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the distance from the start of the last ray that hit to the point where it entered the block it hit
+   */
+  public double getLastHitDistance() {
+    return lastHitDistance;
+  }
+
+  public boolean isSolid(int x, int y, int z) {
+    long key = PackedPos.block(x, y, z);
+    Boolean cached = solid.get(key);
+    if (cached == null) {
+      cached = classify(x, y, z);
+      solid.put(key, cached);
+    }
+    return cached;
+  }
+
+  private boolean classify(int x, int y, int z) {
+    Block block = blocks.getBlock(x, y, z);
+    if (!RayTracingUtils.isContains(ignored, block)) {
+      return true;
+    }
+    if (checkNearA == null || (block != Blocks.stained_glass && block != Blocks.stained_glass_pane)) {
+      return false;
+    }
+    return distance(checkNearA, x, y, z) < CHECK_DISTANCE || distance(checkNearB, x, y, z) < CHECK_DISTANCE;
+  }
+
+  /**
+   * Reads straight from the loaded chunks, remembering the last chunk since consecutive reads mostly hit the same one.
+   */
+  private static class ChunkReader implements BlockReader {
+
+    private final World world;
+    private Chunk lastChunk = null;
+
+    ChunkReader(World world) {
+      this.world = world;
+    }
+
+    @Override
+    public Block getBlock(int x, int y, int z) {
+      Chunk chunk = lastChunk;
+      if (chunk == null || chunk.xPosition != x >> 4 || chunk.zPosition != z >> 4) {
+        chunk = world.getChunkFromChunkCoords(x >> 4, z >> 4);
+        lastChunk = chunk;
+      }
+      return chunk.getBlock(x & 15, y, z & 15);
+    }
+  }
+
+  private static double distance(BlockPos pos, int x, int y, int z) {
+    double dx = pos.getX() - x;
+    double dy = pos.getY() - y;
+    double dz = pos.getZ() - z;
+    return Math.sqrt(dx * dx + dy * dy + dz * dz);
+  }
+
+  private static int floor(double value) {
+    int i = (int) value;
+    return value < i ? i - 1 : i;
+  }
+}
@@ -1,100 +1,91 @@
 package com.dillo.utils;
 
-import static com.dillo.utils.previous.random.IsSameBlock.isSameBlock;
-
-import com.dillo.utils.previous.SendChat;
+import com.dillo.utils.collections.PackedPos;
 import com.dillo.utils.previous.random.ids;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Predicate;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.init.Blocks;
 import net.minecraft.util.*;
 
 public class RayTracingUtils {
 
+  private static final double PLAYER_HEIGHT = 1.52;
+
   public static Block[] blocksToIgnore = null;
   private static boolean isCheck = false;
   private static Vec3 destBlock1 = null;
   private static BlockPos destBlock2 = null;
   public static ConcurrentLinkedQueue<BlockPos> blockPosConcurrentLinkedQueue = new ConcurrentLinkedQueue<>();
-  public static List<BlockPos> foundCollisions = new ArrayList<>();
 
   public static Vec3 adjustLook(Vec3 block1, BlockPos destBlock, Block[] blocksToIgnore, boolean isCheck) {
-    double playerHeight = 1.52;
-
     RayTracingUtils.blocksToIgnore = blocksToIgnore;
     RayTracingUtils.destBlock1 = block1;
     RayTracingUtils.destBlock2 = destBlock;
 
     RayTracingUtils.isCheck = isCheck;
 
-    Vec3 destBlockCenter = new Vec3(destBlock.getX() + 0.5, destBlock.getY() + 0.5, destBlock.getZ() + 0.5);
+    RayCaster caster = isCheck
+      ? new RayCaster(ids.mc.theWorld, blocksToIgnore, BlockUtils.fromVec3ToBlockPos(block1), destBlock)
+      : new RayCaster(ids.mc.theWorld, blocksToIgnore);
+    Vec3 eye = new Vec3(block1.xCoord, block1.yCoord + PLAYER_HEIGHT, block1.zCoord);
+    double distToBlockCenter = distanceToCenter(eye, destBlock);
 
-    //RenderOneBlockMod.renderOneBlock(destBlockCenter, true);
+    if (!reachesCenter(caster, eye, destBlock, distToBlockCenter)) {
+      return null;
+    }
 
-    double distToBlockCenter = getDistance(
-      new Vec3(block1.xCoord, block1.yCoord + playerHeight, block1.zCoord),
-      destBlockCenter
+    return AimSolver.solve(
+      ids.mc.theWorld,
+      caster,
+      eye,
+      destBlock,
+      blocksToIgnore,
+      isCheck,
+      distToBlockCenter + Math.sqrt(3) / 2
     );
+  }
 
-    //RenderPoints.renderPoint(new Vec3(block1.xCoord, block1.yCoord + playerHeight, block1.zCoord), 0.2, true);
+  /**
+   * {@link #adjustLook} with the given caster and without the result cache. Leaves the state used by
+   * {@link #getCollisionBlock} alone, so it can run on any thread that owns the caster.
+   */
+  public static Vec3 adjustLook(RayCaster caster, Vec3 block1, BlockPos destBlock) {
+    Vec3 eye = new Vec3(block1.xCoord, block1.yCoord + PLAYER_HEIGHT, block1.zCoord);
+    double distToBlockCenter = distanceToCenter(eye, destBlock);
 
-    CollisionResult collision = getCollisionBlock(
-      block1.xCoord,
-      block1.yCoord + playerHeight,
-      block1.zCoord,
-      destBlockCenter.xCoord,
-      destBlockCenter.yCoord,
-      destBlockCenter.zCoord,
-      distToBlockCenter
-    );
-
-    if (collision == null) {
+    if (!reachesCenter(caster, eye, destBlock, distToBlockCenter)) {
       return null;
     }
 
-    double radiusStep = 0.1;
-    double radiusMax = Math.sqrt(3) / 2 + radiusStep;
-
-    for (double radius = radiusStep; radius < radiusMax; radius += radiusStep) {
-      double angleStep = (radiusMax / radius) * 5;
-      for (double angle = 0; angle < 360 + angleStep; angle += angleStep) {
-        Vec3 vec = getCylinderBaseVec(
-          new double[] { block1.xCoord, block1.yCoord + playerHeight, block1.zCoord },
-          new double[] { destBlockCenter.xCoord, destBlockCenter.yCoord, destBlockCenter.zCoord },
-          angle,
-          radius
-        );
-
-        Vec3 point = new Vec3(
-          destBlockCenter.xCoord + vec.xCoord,
-          destBlockCenter.yCoord + vec.yCoord,
-          destBlockCenter.zCoord + vec.zCoord
-        );
-
-        CollisionResult collisionPoint = getCollisionBlock(
-          block1.xCoord,
-          block1.yCoord + playerHeight,
-          block1.zCoord,
-          point.xCoord,
-          point.yCoord,
-          point.zCoord,
-          distToBlockCenter + Math.sqrt(3) / 2
-        );
-
-        try {
-          if (collisionPoint != null && isSameBlock(collisionPoint.blockPos, destBlock)) {
-            return point;
-          }
-        } catch (Exception ignored) {}
-      }
-    }
+    return AimSolver.findVisiblePoint(caster, eye, destBlock, distToBlockCenter + Math.sqrt(3) / 2);
+  }
 
-    return null;
+  private static double distanceToCenter(Vec3 eye, BlockPos destBlock) {
+    return getDistance(eye, new Vec3(destBlock.getX() + 0.5, destBlock.getY() + 0.5, destBlock.getZ() + 0.5));
+  }
+
+  private static boolean reachesCenter(RayCaster caster, Vec3 eye, BlockPos destBlock, double distToBlockCenter) {
+    long collision = caster.cast(
+      eye.xCoord,
+      eye.yCoord,
+      eye.zCoord,
+      destBlock.getX() + 0.5,
+      destBlock.getY() + 0.5,
+      destBlock.getZ() + 0.5,
+      distToBlockCenter
+    );
+    return collision != RayCaster.NO_HIT;
+  }
+
+  /**
+   * @return a caster for the blocks to ignore, check mode and route blocks of the last {@link #adjustLook} call
+   */
+  private static RayCaster createCaster() {
+    if (isCheck && destBlock1 != null && destBlock2 != null) {
+      return new RayCaster(ids.mc.theWorld, blocksToIgnore, BlockUtils.fromVec3ToBlockPos(destBlock1), destBlock2);
+    }
+    return new RayCaster(ids.mc.theWorld, blocksToIgnore);
   }
 
   public static CollisionResult getCollisionBlock(
@@ -106,73 +97,7 @@ public class RayTracingUtils {
     double z2,
     double maxDist
   ) {
-    double dx = x2 - x1;
-    double dy = y2 - y1;
-    double dz = z2 - z1;
-
-    double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
-
-    double stepX = dx / length;
-    double stepY = dy / length;
-    double stepZ = dz / length;
-
-    double xCur = x1;
-    double yCur = y1;
-    double zCur = z1;
-
-    List<CollisionResult> collidingBlocks = new ArrayList<>();
-    for (int i = 0; i < maxDist + 1; i++) {
-      for (int sx = -1; sx <= 1; sx++) {
-        for (int sy = -1; sy <= 1; sy++) {
-          for (int sz = -1; sz <= 1; sz++) {
-            if (sx * stepX + sy * stepY + sz * stepZ < 0) {
-              continue;
-            }
-
-            int x = (int) Math.floor(xCur + sx);
-            int y = (int) Math.floor(yCur + sy);
-            int z = (int) Math.floor(zCur + sz);
-
-            IBlockState blockState = ids.mc.theWorld.getBlockState(new BlockPos(x, y, z));
-            Block block = blockState.getBlock();
-
-            if (isContains(blocksToIgnore, block)) {
-              if (!foundCollisions.contains(new BlockPos(x, y, z))) foundCollisions.add(new BlockPos(x, y, z));
-
-              if (!isCheck) {
-                continue;
-              } else {
-                if (!canCheck(new BlockPos(x, y, z), destBlock1, destBlock2)) {
-                  continue;
-                }
-              }
-            }
-
-            double[] ro = new double[] { x1, y1, z1 };
-            double[] rd = new double[] { stepX, stepY, stepZ };
-            double[][] aabb = new double[][] { { x, y, z }, { x + 1, y + 1, z + 1 } };
-            double[] output = intersection(ro, rd, aabb);
-            if (output == null) {
-              continue;
-            }
-
-            if (getDistanceB(ro, new double[] { x + 0.5, y + 0.5, z + 0.5 }) > maxDist) {
-              continue;
-            }
-
-            collidingBlocks.add(new CollisionResult(new BlockPos(x, y, z), output));
-          }
-        }
-      }
-
-      xCur += stepX;
-      yCur += stepY;
-      zCur += stepZ;
-    }
-
-    collidingBlocks.sort(Comparator.comparingDouble(a -> getDistanceB(new double[] { x1, y1, z1 }, a.output)));
-
-    return collidingBlocks.size() > 0 ? collidingBlocks.get(0) : null;
+    return toCollisionResult(createCaster(), x1, y1, z1, x2, y2, z2, maxDist);
   }
 
   public static CollisionResult getCollisionVecs(
@@ -185,65 +110,30 @@ public class RayTracingUtils {
     double maxDist,
     Block[] blocksToIgnore1
   ) {
-    double dx = x2 - x1;
-    double dy = y2 - y1;
-    double dz = z2 - z1;
-
-    double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
-
-    double stepX = dx / length;
-    double stepY = dy / length;
-    double stepZ = dz / length;
-
-    double xCur = x1;
-    double yCur = y1;
-    double zCur = z1;
-
-    List<CollisionResult> collidingBlocks = new ArrayList<>();
-    for (int i = 0; i < maxDist + 1; i++) {
-      for (int sx = -1; sx <= 1; sx++) {
-        for (int sy = -1; sy <= 1; sy++) {
-          for (int sz = -1; sz <= 1; sz++) {
-            if (sx * stepX + sy * stepY + sz * stepZ < 0) {
-              continue;
-            }
-
-            int x = (int) Math.floor(xCur + sx);
-            int y = (int) Math.floor(yCur + sy);
-            int z = (int) Math.floor(zCur + sz);
-
-            IBlockState blockState = ids.mc.theWorld.getBlockState(new BlockPos(x, y, z));
-            Block block = blockState.getBlock();
-
-            if (isContains(blocksToIgnore1, block)) {
-              continue;
-            }
-
-            double[] ro = new double[] { x1, y1, z1 };
-            double[] rd = new double[] { stepX, stepY, stepZ };
-            double[][] aabb = new double[][] { { x, y, z }, { x + 1, y + 1, z + 1 } };
-            double[] output = intersection(ro, rd, aabb);
-            if (output == null) {
-              continue;
-            }
-
-            if (getDistanceB(ro, new double[] { x + 0.5, y + 0.5, z + 0.5 }) > maxDist) {
-              continue;
-            }
-
-            collidingBlocks.add(new CollisionResult(new BlockPos(x, y, z), output));
-          }
-        }
-      }
+    return toCollisionResult(new RayCaster(ids.mc.theWorld, blocksToIgnore1), x1, y1, z1, x2, y2, z2, maxDist);
+  }
 
-      xCur += stepX;
-      yCur += stepY;
-      zCur += stepZ;
+  private static CollisionResult toCollisionResult(
+    RayCaster caster,
+    double x1,
+    double y1,
+    double z1,
+    double x2,
+    double y2,
+    double z2,
+    double maxDist
+  ) {
+    long hit = caster.cast(x1, y1, z1, x2, y2, z2, maxDist);
+    if (hit == RayCaster.NO_HIT) {
+      return null;
     }
 
-    collidingBlocks.sort(Comparator.comparingDouble(a -> getDistanceB(new double[] { x1, y1, z1 }, a.output)));
-
-    return collidingBlocks.size() > 0 ? collidingBlocks.get(0) : null;
+    double length = getDistanceB(new double[] { x1, y1, z1 }, new double[] { x2, y2, z2 });
+    double t = caster.getLastHitDistance() / length;
+    return new CollisionResult(
+      new BlockPos(PackedPos.blockX(hit), PackedPos.blockY(hit), PackedPos.blockZ(hit)),
+      new double[] { x1 + (x2 - x1) * t, y1 + (y2 - y1) * t, z1 + (z2 - z1) * t }
+    );
   }
 
   public static MovingObjectPosition rayTraceBlocks(
@@ -514,25 +404,6 @@ public class RayTracingUtils {
     return ids.mc.theWorld.getBlockState(blockPos);
   }
 
-  private static boolean canCheck(BlockPos block, Vec3 routeBlock1, BlockPos routeBlock2) {
-    if (
-      (
-        DistanceFromTo.distanceFromTo(block, BlockUtils.fromVec3ToBlockPos(routeBlock1)) < 4.61 ||
-        DistanceFromTo.distanceFromTo(block, routeBlock2) < 4.61
-      ) &&
-      (
-        ids.mc.theWorld.getBlockState(block).getBlock() == Blocks.stained_glass ||
-        ids.mc.theWorld.getBlockState(block).getBlock() == Blocks.stained_glass_pane
-      )
-    ) {
-      return true;
-    }
-
-    SendChat.chat(String.valueOf(DistanceFromTo.distanceFromTo(block, BlockUtils.fromVec3ToBlockPos(routeBlock1))));
-
-    return false;
-  }
-
   public static boolean isContains(Block[] blocks, Block match) {
     for (Block block : blocks) {
       if (block == match) {
@@ -5,6 +5,6 @@ import com.dillo.calls.ArmadilloStates;
 public class SetStatesNull {
 
   public static void setStatesNull() {
-    ArmadilloStates.currentState = null;
+    ArmadilloStates.setState(null);
   }
 }
@@ -28,7 +28,7 @@ public class StartMacro {
             ? prefix.prefix + "Starting macro!"
             : prefix.prefix + "Macro stopped!";
           ArmadilloStates.offlineState = ArmadilloStates.offlineState == OFFLINE ? ONLINE : OFFLINE;
-          ArmadilloStates.currentState = ArmadilloStates.offlineState == ONLINE ? ARMADILLO : null;
+          ArmadilloStates.setState(ArmadilloStates.offlineState == ONLINE ? ARMADILLO : null);
 
           SendChat.chat(str);
         }
@@ -42,7 +42,7 @@ public class StartMacro {
           : prefix.prefix + "Macro stopped!"
       );
       ArmadilloStates.offlineState = OFFLINE;
-      ArmadilloStates.currentState = null;
+      ArmadilloStates.setState(null);
     }
   }
 }
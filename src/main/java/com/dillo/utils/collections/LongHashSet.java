@@ -0,0 +1,171 @@
+package com.dillo.utils.collections;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash set of primitive longs (linear probing, backward-shift deletion). Meant for
+ * positions packed with {@link PackedPos}: lookups neither box nor allocate. Not thread-safe.
+ */
+public class LongHashSet {
+
+  private static final float MAX_LOAD = 0.6f;
+
+  // 0 marks a free slot, so the key 0 itself is tracked on the side.
+  private long[] keys;
+  private boolean hasZero;
+  private int size;
+  private int mask;
+  private int resizeAt;
+
+  public LongHashSet() {
+    this(16);
+  }
+
+  public LongHashSet(int expectedSize) {
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  public boolean add(long key) {
+    if (key == 0) {
+      if (hasZero) return false;
+      hasZero = true;
+      size++;
+      return true;
+    }
+
+    int slot = PackedPos.mix(key) & mask;
+    long existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) return false;
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    if (++size >= resizeAt) rehash(keys.length << 1);
+    return true;
+  }
+
+  public boolean contains(long key) {
+    if (key == 0) return hasZero;
+
+    int slot = PackedPos.mix(key) & mask;
+    long existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) return true;
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  public boolean remove(long key) {
+    if (key == 0) {
+      if (!hasZero) return false;
+      hasZero = false;
+      size--;
+      return true;
+    }
+
+    int slot = PackedPos.mix(key) & mask;
+    long existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) {
+        shiftBack(slot);
+        size--;
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  public void forEach(LongConsumer consumer) {
+    if (hasZero) consumer.accept(0);
+    for (long key : keys) {
+      if (key != 0) consumer.accept(key);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    hasZero = false;
+    size = 0;
+  }
+
+  /**
+   * @return the number of slots in the table
+   */
+  public int capacity() {
+    return keys.length;
+  }
+
+  /**
+   * @return the fraction of slots in use
+   */
+  public float occupancy() {
+    return (float) size / keys.length;
+  }
+
+  /**
+   * @return the approximate number of bytes held by the table
+   */
+  public long memoryBytes() {
+    return 16L + (long) keys.length * Long.BYTES;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "LongHashSet{size=%d, capacity=%d, occupancy=%.2f, %d KiB}",
+      size,
+      capacity(),
+      occupancy(),
+      memoryBytes() / 1024
+    );
+  }
+
+  // Closes the gap left at slot by moving later entries of the same probe chain back into it.
+  private void shiftBack(int slot) {
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    long key;
+    while ((key = keys[next]) != 0) {
+      int home = PackedPos.mix(key) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = key;
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[gap] = 0;
+  }
+
+  private void rehash(int newCapacity) {
+    long[] old = keys;
+    allocate(newCapacity);
+    for (long key : old) {
+      if (key == 0) continue;
+      int slot = PackedPos.mix(key) & mask;
+      while (keys[slot] != 0) slot = (slot + 1) & mask;
+      keys[slot] = key;
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    mask = capacity - 1;
+    resizeAt = (int) (capacity * MAX_LOAD);
+  }
+
+  static int tableSizeFor(int expectedSize) {
+    int needed = (int) Math.ceil(Math.max(expectedSize, 4) / MAX_LOAD);
+    return Integer.highestOneBit(needed - 1) << 1;
+  }
+}
@@ -0,0 +1,197 @@
+package com.dillo.utils.collections;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map from primitive long keys to objects, the map counterpart of
+ * {@link LongHashSet}. Null values are not supported; {@link #get} returns null for missing
+ * keys. Not thread-safe.
+ */
+public class LongObjectHashMap<V> {
+
+  private static final float MAX_LOAD = 0.6f;
+
+  private long[] keys;
+  private Object[] values;
+  // 0 marks a free slot, so the value of key 0 is stored on the side.
+  private V zeroValue;
+  private int size;
+  private int mask;
+  private int resizeAt;
+
+  public interface EntryConsumer<V> {
+    void accept(long key, V value);
+  }
+
+  public LongObjectHashMap() {
+    this(16);
+  }
+
+  public LongObjectHashMap(int expectedSize) {
+    allocate(LongHashSet.tableSizeFor(expectedSize));
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    if (key == 0) return zeroValue;
+
+    int slot = PackedPos.mix(key) & mask;
+    long existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) return (V) values[slot];
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  /**
+   * @return the previous value stored for the key, or null
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if (value == null) throw new IllegalArgumentException("null values are not supported");
+
+    if (key == 0) {
+      V previous = zeroValue;
+      zeroValue = value;
+      if (previous == null) size++;
+      return previous;
+    }
+
+    int slot = PackedPos.mix(key) & mask;
+    long existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size >= resizeAt) rehash(keys.length << 1);
+    return null;
+  }
+
+  /**
+   * @return the removed value, or null if the key was not present
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    if (key == 0) {
+      V previous = zeroValue;
+      if (previous != null) size--;
+      zeroValue = null;
+      return previous;
+    }
+
+    int slot = PackedPos.mix(key) & mask;
+    long existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) {
+        V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<V> consumer) {
+    if (zeroValue != null) consumer.accept(zeroValue);
+    Object[] snapshot = values;
+    for (Object value : snapshot) {
+      if (value != null) consumer.accept((V) value);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(EntryConsumer<V> consumer) {
+    if (zeroValue != null) consumer.accept(0, zeroValue);
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) consumer.accept(keys[i], (V) values[i]);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, null);
+    zeroValue = null;
+    size = 0;
+  }
+
+  /**
+   * @return the number of slots in the table
+   */
+  public int capacity() {
+    return keys.length;
+  }
+
+  /**
+   * @return the fraction of slots in use
+   */
+  public float occupancy() {
+    return (float) size / keys.length;
+  }
+
+  /**
+   * @return the approximate number of bytes held by the table itself, without the values
+   */
+  public long memoryBytes() {
+    return 32L + (long) keys.length * (Long.BYTES + 4);
+  }
+
+  private void shiftBack(int slot) {
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    long key;
+    while ((key = keys[next]) != 0) {
+      int home = PackedPos.mix(key) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = key;
+        values[gap] = values[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[gap] = 0;
+    values[gap] = null;
+  }
+
+  private void rehash(int newCapacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(newCapacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == 0) continue;
+      int slot = PackedPos.mix(oldKeys[i]) & mask;
+      while (keys[slot] != 0) slot = (slot + 1) & mask;
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeAt = (int) (capacity * MAX_LOAD);
+  }
+}
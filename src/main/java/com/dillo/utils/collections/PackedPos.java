@@ -0,0 +1,59 @@
+package com.dillo.utils.collections;
+
+/**
+ * Collision-free packing of block and chunk coordinates into a single long, for use as keys in
+ * the primitive collections of this package.
+ */
+public class PackedPos {
+
+  private static final int XZ_BITS = 26;
+  private static final int Y_BITS = 12;
+  private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+  private static final long Y_MASK = (1L << Y_BITS) - 1;
+
+  /**
+   * Packs a chunk position. Both coordinates keep their full 32 bits.
+   */
+  public static long chunk(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  public static int chunkX(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  public static int chunkZ(long packed) {
+    return (int) packed;
+  }
+
+  /**
+   * Packs a block position with the same layout as BlockPos.toLong(): 26 bits x, 12 bits y,
+   * 26 bits z, which covers every position of a vanilla world.
+   */
+  public static long block(int x, int y, int z) {
+    return ((x & XZ_MASK) << (Y_BITS + XZ_BITS)) | ((y & Y_MASK) << XZ_BITS) | (z & XZ_MASK);
+  }
+
+  public static int blockX(long packed) {
+    return (int) (packed << (64 - XZ_BITS - Y_BITS - XZ_BITS) >> (64 - XZ_BITS));
+  }
+
+  public static int blockY(long packed) {
+    return (int) (packed << (64 - XZ_BITS - Y_BITS) >> (64 - Y_BITS));
+  }
+
+  public static int blockZ(long packed) {
+    return (int) (packed << (64 - XZ_BITS) >> (64 - XZ_BITS));
+  }
+
+  /**
+   * Spreads the bits of a packed key so that neighbouring positions land in different slots of
+   * an open-addressing table.
+   */
+  static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    h *= 0xBF58476D1CE4E5B9L;
+    return (int) (h ^ (h >>> 29));
+  }
+}
@@ -0,0 +1,247 @@
+package com.dillo.utils.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Steps of a macro that have to happen one after another with pauses in between, declared up front and run on the
+ * client thread by an {@link ActionSequencer} instead of a thread sleeping between them. A sequence is built once,
+ * started once and cannot be reused.
+ *
+ * Waits are timed from when they were due rather than from when the sequencer got to them, so a late frame does not
+ * push back the rest of the sequence. An action runs in the same frame its wait ends in, together with everything up
+ * to the next wait that is not over yet.
+ */
+public class ActionSequence {
+
+  private enum Kind {
+    ACTION,
+    CHECK,
+    WAIT_MILLIS,
+    WAIT_TICKS,
+    WAIT_UNTIL,
+  }
+
+  private static class Stage {
+
+    private final Kind kind;
+    private final String name;
+    private final Runnable action;
+    private final BooleanSupplier condition;
+    private final LongSupplier amount;
+
+    Stage(Kind kind, String name, Runnable action, BooleanSupplier condition, LongSupplier amount) {
+      this.kind = kind;
+      this.name = name;
+      this.action = action;
+      this.condition = condition;
+      this.amount = amount;
+    }
+  }
+
+  final String name;
+  private final List<Stage> stages = new ArrayList<>();
+  private BooleanSupplier guard = null;
+  private Runnable onCancel = null;
+  private Runnable onFinish = null;
+
+  private ActionSequencer sequencer = null;
+  private int index = 0;
+  private boolean stageStarted = false;
+  // when the current stage should have started
+  private long dueNanos;
+  private long stageStartNanos;
+  private long deadlineNanos;
+  private long deadlineTick;
+  private boolean done = false;
+  private volatile boolean cancelRequested = false;
+
+  private ActionSequence(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @param name the name the stages of this sequence are listed under in the stats
+   */
+  public static ActionSequence named(String name) {
+    return new ActionSequence(name);
+  }
+
+  /**
+   * Runs the action.
+   */
+  public ActionSequence then(String stage, Runnable action) {
+    return add(new Stage(Kind.ACTION, stage, action, null, null));
+  }
+
+  /**
+   * Runs the action and ends the sequence if it returns false, e.g. when an item it needs is missing. Ending this way
+   * is not a cancellation.
+   */
+  public ActionSequence thenCheck(String stage, BooleanSupplier action) {
+    return add(new Stage(Kind.CHECK, stage, null, action, null));
+  }
+
+  public ActionSequence waitMillis(long millis) {
+    return waitMillis(() -> millis);
+  }
+
+  /**
+   * Waits for a time that is asked for when the wait starts, so it can follow a setting.
+   */
+  public ActionSequence waitMillis(LongSupplier millis) {
+    return add(new Stage(Kind.WAIT_MILLIS, "wait", null, null, millis));
+  }
+
+  /**
+   * Waits for the given number of client ticks.
+   */
+  public ActionSequence waitTicks(int ticks) {
+    return add(new Stage(Kind.WAIT_TICKS, "wait", null, null, () -> ticks));
+  }
+
+  /**
+   * Waits until the condition is true, for at most timeoutMillis. The sequence goes on either way; the stats count the
+   * timeouts of the stage.
+   */
+  public ActionSequence waitUntil(String stage, BooleanSupplier condition, long timeoutMillis) {
+    return add(new Stage(Kind.WAIT_UNTIL, stage, null, condition, () -> timeoutMillis));
+  }
+
+  /**
+   * Cancels the sequence as soon as the guard is false, checked before every step, e.g. once the macro goes offline.
+   */
+  public ActionSequence runWhile(BooleanSupplier guard) {
+    this.guard = guard;
+    return this;
+  }
+
+  /**
+   * Runs the action when the sequence is cancelled, before the one given to {@link #onFinish}.
+   */
+  public ActionSequence onCancel(Runnable onCancel) {
+    this.onCancel = onCancel;
+    return this;
+  }
+
+  /**
+   * Runs the action once the sequence ended, whether it ran all stages, was ended by a check or was cancelled.
+   */
+  public ActionSequence onFinish(Runnable onFinish) {
+    this.onFinish = onFinish;
+    return this;
+  }
+
+  /**
+   * Stops the sequence before its next step. Can be called from any thread, the cancel actions run on the client
+   * thread.
+   */
+  public void cancel() {
+    cancelRequested = true;
+  }
+
+  public boolean isDone() {
+    return done;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private ActionSequence add(Stage stage) {
+    if (sequencer != null) throw new IllegalStateException("sequence " + name + " was already started");
+    stages.add(stage);
+    return this;
+  }
+
+  void start(ActionSequencer sequencer, long nowNanos) {
+    if (this.sequencer != null) throw new IllegalStateException("sequence " + name + " was already started");
+    this.sequencer = sequencer;
+    dueNanos = nowNanos;
+  }
+
+  /**
+   * Runs the stages that are due. Client thread only.
+   *
+   * @return true, once the sequence is done
+   */
+  boolean advance(long nowNanos, long tick) {
+    if (done) return true;
+
+    while (index < stages.size()) {
+      if (cancelRequested || (guard != null && !guard.getAsBoolean())) {
+        finish(true);
+        return true;
+      }
+
+      Stage stage = stages.get(index);
+      if (!stageStarted) {
+        stageStarted = true;
+        stageStartNanos = nowNanos;
+        if (stage.kind == Kind.WAIT_MILLIS) {
+          deadlineNanos = dueNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, stage.amount.getAsLong()));
+        } else if (stage.kind == Kind.WAIT_TICKS) {
+          deadlineTick = tick + stage.amount.getAsLong();
+        }
+      }
+
+      try {
+        switch (stage.kind) {
+          case ACTION:
+            sequencer.recordLateness(this, stage.name, nowNanos - dueNanos);
+            stage.action.run();
+            break;
+          case CHECK:
+            sequencer.recordLateness(this, stage.name, nowNanos - dueNanos);
+            if (!stage.condition.getAsBoolean()) {
+              finish(false);
+              return true;
+            }
+            break;
+          case WAIT_MILLIS:
+            if (nowNanos < deadlineNanos) return false;
+            dueNanos = deadlineNanos;
+            break;
+          case WAIT_TICKS:
+            if (tick < deadlineTick) return false;
+            dueNanos = nowNanos;
+            break;
+          case WAIT_UNTIL:
+            boolean met = stage.condition.getAsBoolean();
+            long waited = nowNanos - stageStartNanos;
+            if (!met && waited < TimeUnit.MILLISECONDS.toNanos(stage.amount.getAsLong())) return false;
+            sequencer.recordWait(this, stage.name, waited, !met);
+            dueNanos = nowNanos;
+            break;
+        }
+      } catch (Throwable e) {
+        e.printStackTrace();
+        finish(true);
+        return true;
+      }
+
+      index++;
+      stageStarted = false;
+    }
+
+    finish(false);
+    return true;
+  }
+
+  private void finish(boolean cancelled) {
+    done = true;
+    try {
+      if (cancelled && onCancel != null) onCancel.run();
+    } catch (Throwable e) {
+      e.printStackTrace();
+    }
+    try {
+      if (onFinish != null) onFinish.run();
+    } catch (Throwable e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.dillo.utils.scheduler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+/**
+ * Runs {@link ActionSequence}s on the client thread. Sequences are advanced at the start of every client tick and
+ * every rendered frame, so a wait ends within a frame of its deadline instead of at the next tick, and their actions
+ * can touch the player and the world like any other client thread code.
+ *
+ * Keeps the timing of every named stage: how late actions ran compared to when they were due, and how long conditions
+ * were waited for.
+ */
+public class ActionSequencer {
+
+  /**
+   * The timing of one stage of a sequence, summed up over all runs of sequences with that name.
+   */
+  public static class StageStats {
+
+    private final String name;
+    private long runs = 0;
+    private long timeouts = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private boolean waits = false;
+
+    StageStats(String name) {
+      this.name = name;
+    }
+
+    private void record(long nanos) {
+      runs++;
+      totalNanos += Math.max(0, nanos);
+      maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getRuns() {
+      return runs;
+    }
+
+    public long getTimeouts() {
+      return timeouts;
+    }
+
+    public double getAvgMillis() {
+      return runs == 0 ? 0 : totalNanos / 1e6 / runs;
+    }
+
+    public double getMaxMillis() {
+      return maxNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      if (waits) {
+        return String.format(
+          "%s: %d waits, %d timeouts, %.1fms avg (%.1fms max)",
+          name,
+          runs,
+          timeouts,
+          getAvgMillis(),
+          getMaxMillis()
+        );
+      }
+      return String.format("%s: %d runs, %.2fms late avg (%.2fms max)", name, runs, getAvgMillis(), getMaxMillis());
+    }
+  }
+
+  private final List<ActionSequence> running = new ArrayList<>();
+  // sequences started off the client thread, picked up on the next frame
+  private final Queue<ActionSequence> started = new ConcurrentLinkedQueue<>();
+  private final Map<String, StageStats> stats = new LinkedHashMap<>();
+  private long tick = 0;
+
+  /**
+   * Starts the sequence. On the client thread the stages that are due right away run before this returns.
+   */
+  public ActionSequence start(ActionSequence sequence) {
+    sequence.start(this, System.nanoTime());
+    if (Minecraft.getMinecraft().isCallingFromMinecraftThread()) {
+      if (!sequence.advance(System.nanoTime(), tick)) running.add(sequence);
+    } else {
+      started.add(sequence);
+    }
+    return sequence;
+  }
+
+  /**
+   * @return the stats of all stages that ran so far. Client thread only.
+   */
+  public List<StageStats> getStats() {
+    return new ArrayList<>(stats.values());
+  }
+
+  /**
+   * @return the number of sequences that did not finish yet. Client thread only.
+   */
+  public int getRunningCount() {
+    return running.size() + started.size();
+  }
+
+  @SubscribeEvent
+  public void onClientTick(TickEvent.ClientTickEvent event) {
+    if (event.phase != TickEvent.Phase.START) return;
+    tick++;
+    advanceAll();
+  }
+
+  @SubscribeEvent
+  public void onRenderTick(TickEvent.RenderTickEvent event) {
+    if (event.phase == TickEvent.Phase.START) advanceAll();
+  }
+
+  private void advanceAll() {
+    ActionSequence sequence;
+    while ((sequence = started.poll()) != null) {
+      running.add(sequence);
+    }
+    if (running.isEmpty()) return;
+
+    long now = System.nanoTime();
+    // sequences started by an action are added to running and advanced by start itself
+    for (ActionSequence current : new ArrayList<>(running)) {
+      if (current.advance(now, tick)) running.remove(current);
+    }
+  }
+
+  void recordLateness(ActionSequence sequence, String stage, long latenessNanos) {
+    getStats(sequence, stage).record(latenessNanos);
+  }
+
+  void recordWait(ActionSequence sequence, String stage, long waitedNanos, boolean timedOut) {
+    StageStats stageStats = getStats(sequence, stage);
+    stageStats.waits = true;
+    stageStats.record(waitedNanos);
+    if (timedOut) stageStats.timeouts++;
+  }
+
+  private StageStats getStats(ActionSequence sequence, String stage) {
+    String name = sequence.name + "/" + stage;
+    return stats.computeIfAbsent(name, StageStats::new);
+  }
+}
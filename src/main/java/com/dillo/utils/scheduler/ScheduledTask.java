@@ -0,0 +1,129 @@
+package com.dillo.utils.scheduler;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A task registered with a {@link TaskScheduler}. Keeps the timing of its runs: how long they took and how late they
+ * started compared to their deadline (for client thread tasks this includes the wait for the client thread).
+ */
+public class ScheduledTask {
+
+  private final TaskScheduler scheduler;
+  final String name;
+  final Runnable action;
+  final boolean clientThread;
+  // period in milliseconds after each run, null for a task that runs once
+  final LongSupplier period;
+  final long sequence;
+  long deadlineNanos;
+  volatile boolean cancelled = false;
+
+  private long runs = 0;
+  private long errors = 0;
+  private long totalNanos = 0;
+  private long maxNanos = 0;
+  private long totalLatenessNanos = 0;
+  private long maxLatenessNanos = 0;
+
+  ScheduledTask(
+    TaskScheduler scheduler,
+    String name,
+    Runnable action,
+    boolean clientThread,
+    LongSupplier period,
+    long sequence,
+    long deadlineNanos
+  ) {
+    this.scheduler = scheduler;
+    this.name = name;
+    this.action = action;
+    this.clientThread = clientThread;
+    this.period = period;
+    this.sequence = sequence;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Runs the action once and records its timing. An exception is logged and counted, it does not stop the task.
+   */
+  void run() {
+    long start = System.nanoTime();
+    boolean failed = false;
+    try {
+      action.run();
+    } catch (Throwable e) {
+      failed = true;
+      e.printStackTrace();
+    }
+    long duration = System.nanoTime() - start;
+    long lateness = Math.max(0, start - deadlineNanos);
+
+    synchronized (this) {
+      runs++;
+      if (failed) errors++;
+      totalNanos += duration;
+      maxNanos = Math.max(maxNanos, duration);
+      totalLatenessNanos += lateness;
+      maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+    }
+  }
+
+  /**
+   * Stops the task. A run that already started is finished.
+   */
+  public void cancel() {
+    cancelled = true;
+    scheduler.remove(this);
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  public boolean isRepeating() {
+    return period != null;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized long getRuns() {
+    return runs;
+  }
+
+  public synchronized long getErrors() {
+    return errors;
+  }
+
+  public synchronized double getAvgMillis() {
+    return runs == 0 ? 0 : totalNanos / 1e6 / runs;
+  }
+
+  public synchronized double getMaxMillis() {
+    return maxNanos / 1e6;
+  }
+
+  public synchronized double getAvgLatenessMillis() {
+    return runs == 0 ? 0 : totalLatenessNanos / 1e6 / runs;
+  }
+
+  public synchronized double getMaxLatenessMillis() {
+    return maxLatenessNanos / 1e6;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "%s%s: %d runs, %d errors, %.3fms avg (%.3fms max), %.2fms late avg (%.2fms max)",
+      name,
+      clientThread ? " (client)" : "",
+      getRuns(),
+      getErrors(),
+      getAvgMillis(),
+      getMaxMillis(),
+      getAvgLatenessMillis(),
+      getMaxLatenessMillis()
+    );
+  }
+}
@@ -0,0 +1,178 @@
+package com.dillo.utils.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import net.minecraft.client.Minecraft;
+
+/**
+ * Runs tasks at a deadline or every few milliseconds. The deadlines are kept in a priority queue and a single daemon
+ * thread sleeps until the earliest one is due, so nothing wakes up while no task is due.
+ *
+ * Tasks either run on the scheduler thread, which must only do quick work, or are handed to the client thread. A
+ * repeating client thread task is only scheduled again after its run on the client thread finished, so a stalled
+ * client never queues up several runs of the same task.
+ *
+ * A task that fails is logged and only affects itself: an exception of its action is counted and the task keeps
+ * running, a period that can not be computed drops the task.
+ */
+public class TaskScheduler {
+
+  private final String threadName;
+  private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>(
+    Comparator.<ScheduledTask>comparingLong(task -> task.deadlineNanos).thenComparingLong(task -> task.sequence)
+  );
+  private final List<ScheduledTask> tasks = new CopyOnWriteArrayList<>();
+  private long sequence = 0;
+  private Thread thread = null;
+
+  public TaskScheduler(String threadName) {
+    this.threadName = threadName;
+  }
+
+  /**
+   * Runs the action once at the given time.
+   *
+   * @param timeMillis the time in {@link System#currentTimeMillis()} milliseconds
+   */
+  public ScheduledTask runAt(String name, long timeMillis, boolean clientThread, Runnable action) {
+    return runAfter(name, timeMillis - System.currentTimeMillis(), clientThread, action);
+  }
+
+  /**
+   * Runs the action once after the given delay.
+   */
+  public ScheduledTask runAfter(String name, long delayMillis, boolean clientThread, Runnable action) {
+    return add(name, action, clientThread, null, delayMillis);
+  }
+
+  /**
+   * Runs the action every periodMillis, starting right away.
+   */
+  public ScheduledTask runEvery(String name, long periodMillis, boolean clientThread, Runnable action) {
+    return runEvery(name, () -> periodMillis, clientThread, action);
+  }
+
+  /**
+   * Runs the action repeatedly, starting right away. The period is asked for again after every run, so it can follow
+   * a setting that changes while the task is running.
+   */
+  public ScheduledTask runEvery(String name, LongSupplier periodMillis, boolean clientThread, Runnable action) {
+    return add(name, action, clientThread, periodMillis, 0);
+  }
+
+  /**
+   * @return the tasks that are currently scheduled, for their timing stats
+   */
+  public List<ScheduledTask> getTasks() {
+    return new ArrayList<>(tasks);
+  }
+
+  private ScheduledTask add(String name, Runnable action, boolean clientThread, LongSupplier period, long delayMillis) {
+    ScheduledTask task;
+    synchronized (queue) {
+      task =
+        new ScheduledTask(
+          this,
+          name,
+          action,
+          clientThread,
+          period,
+          sequence++,
+          System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis))
+        );
+      tasks.add(task);
+      queue.add(task);
+      start();
+      queue.notify();
+    }
+    return task;
+  }
+
+  void remove(ScheduledTask task) {
+    synchronized (queue) {
+      queue.remove(task);
+      tasks.remove(task);
+      queue.notify();
+    }
+  }
+
+  private void start() {
+    if (thread != null) return;
+    thread = new Thread(this::loop, threadName);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void loop() {
+    while (true) {
+      ScheduledTask task;
+      try {
+        task = takeDue();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      try {
+        if (task.clientThread) {
+          Minecraft.getMinecraft().addScheduledTask(() -> runAndReschedule(task));
+        } else {
+          runAndReschedule(task);
+        }
+      } catch (Throwable e) {
+        e.printStackTrace();
+        remove(task);
+      }
+    }
+  }
+
+  /**
+   * Waits until the earliest deadline is due and removes its task from the queue.
+   */
+  private ScheduledTask takeDue() throws InterruptedException {
+    synchronized (queue) {
+      while (true) {
+        ScheduledTask task = queue.peek();
+        if (task == null) {
+          queue.wait();
+          continue;
+        }
+        long wait = task.deadlineNanos - System.nanoTime();
+        if (wait <= 0) {
+          return queue.poll();
+        }
+        TimeUnit.NANOSECONDS.timedWait(queue, wait);
+      }
+    }
+  }
+
+  private void runAndReschedule(ScheduledTask task) {
+    if (task.cancelled) return;
+    task.run();
+
+    synchronized (queue) {
+      if (task.cancelled) return;
+      if (task.period == null) {
+        tasks.remove(task);
+        return;
+      }
+      long periodMillis;
+      try {
+        periodMillis = task.period.getAsLong();
+      } catch (Throwable e) {
+        new IllegalStateException("dropping task " + task.getName() + ", its period failed", e).printStackTrace();
+        tasks.remove(task);
+        return;
+      }
+      // keep the rate without catching up on runs that were missed
+      long period = TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMillis));
+      task.deadlineNanos = Math.max(task.deadlineNanos + period, System.nanoTime());
+      queue.add(task);
+      queue.notify();
+    }
+  }
+}
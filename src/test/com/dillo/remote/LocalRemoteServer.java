@@ -0,0 +1,122 @@
+package com.dillo.remote;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A stand-in for the remote control site, for trying the remote control without it. Run its main method outside of
+ * the game, then type "name ACTION" (e.g. "steve JUMP" or "steve SAY_hello") to send an action to a player. Chat the
+ * game sends along is printed.
+ *
+ * Speaks the protocol of {@link RemoteTransport}: a request is held until an action for its name is typed or its
+ * waitMs passed.
+ */
+public class LocalRemoteServer {
+
+  private static final long MAX_WAIT_MS = 60000;
+
+  private final Map<String, BlockingQueue<String>> actions = new ConcurrentHashMap<>();
+  private final HttpServer server;
+
+  public LocalRemoteServer(int port) throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    server.createContext("/api/userData", this::handleUserData);
+    // every held request occupies a thread
+    server.setExecutor(Executors.newCachedThreadPool());
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+  }
+
+  public void addAction(String name, String action) {
+    queueFor(name).add(action);
+  }
+
+  private BlockingQueue<String> queueFor(String name) {
+    return actions.computeIfAbsent(name.toLowerCase(), key -> new LinkedBlockingQueue<>());
+  }
+
+  private void handleUserData(HttpExchange exchange) throws IOException {
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        respond(exchange, 405, "[]");
+        return;
+      }
+
+      JsonObject body;
+      try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+        body = new JsonParser().parse(reader).getAsJsonObject();
+      } catch (RuntimeException e) {
+        respond(exchange, 400, "[]");
+        return;
+      }
+
+      String name = body.get("name").getAsString();
+      for (JsonElement line : body.getAsJsonArray("chat")) {
+        System.out.println("[" + name + "] " + line.getAsString());
+      }
+      long waitMs = Math.min(MAX_WAIT_MS, Math.max(0, body.get("waitMs").getAsLong()));
+
+      BlockingQueue<String> queue = queueFor(name);
+      JsonArray response = new JsonArray();
+      String action = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+      while (action != null) {
+        response.add(new JsonPrimitive(action));
+        action = queue.poll();
+      }
+      respond(exchange, 200, response.toString());
+    } catch (InterruptedException e) {
+      respond(exchange, 503, "[]");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+    LocalRemoteServer server = new LocalRemoteServer(port);
+    server.start();
+    System.out.println("Listening on localhost:" + port + ", type \"name ACTION\" to send an action.");
+
+    BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    String line;
+    while ((line = input.readLine()) != null) {
+      String[] parts = line.trim().split("\\s+", 2);
+      if (parts.length == 2) {
+        server.addAction(parts[0], parts[1]);
+      }
+    }
+    server.stop();
+  }
+}